@@ -91,6 +91,27 @@ public class AbsIntBenchmark<ACTION> implements ICsvProviderProvider<Object> {
 		mInverseEvaluationRecursions++;
 	}
 
+	/**
+	 * Add the counts of another benchmark, e.g., of an independent part of the program that was analyzed separately.
+	 */
+	void add(final AbsIntBenchmark<ACTION> other) {
+		addAll(mAction2Visits, other.mAction2Visits);
+		addAll(mAction2Merges, other.mAction2Merges);
+		addAll(mAction2Widen, other.mAction2Widen);
+		addAll(mAction2Fixpoints, other.mAction2Fixpoints);
+		mMaxVariables = Math.max(mMaxVariables, other.mMaxVariables);
+		mPostApplication += other.mPostApplication;
+		mEvaluationRecursions += other.mEvaluationRecursions;
+		mEvaluationMaxRecursionDepth = Math.max(mEvaluationMaxRecursionDepth, other.mEvaluationMaxRecursionDepth);
+		mInverseEvaluationRecursions += other.mInverseEvaluationRecursions;
+		mInverseEvaluationMaxRecursionDepth =
+				Math.max(mInverseEvaluationMaxRecursionDepth, other.mInverseEvaluationMaxRecursionDepth);
+	}
+
+	private static void addAll(final Map<Integer, Integer> map, final Map<Integer, Integer> other) {
+		other.forEach((action, count) -> map.merge(action, count, Integer::sum));
+	}
+
 	private void addOrIncrement(final Map<Integer, Integer> map) {
 		final Integer visits = map.get(mLastAction);
 		if (visits == null) {
@@ -66,7 +66,7 @@ public final class AbsIntResult<STATE extends IAbstractState<STATE>, ACTION, LOC
 
 	private final Script mScript;
 
-	private IAbstractStateStorage<STATE, ACTION, LOCATION> mRootStorage;
+	private final List<IAbstractStateStorage<STATE, ACTION, LOCATION>> mRootStorages;
 	private ISummaryStorage<STATE, ACTION, LOCATION> mSummaryMap;
 
 	private Map<LOCATION, Term> mLoc2Term;
@@ -83,6 +83,7 @@ public final class AbsIntResult<STATE extends IAbstractState<STATE>, ACTION, LOC
 		mVariableProvider = Objects.requireNonNull(varProvider);
 		mCounterexamples = new ArrayList<>();
 		mBenchmark = new AbsIntBenchmark<>();
+		mRootStorages = new ArrayList<>();
 
 	}
 
@@ -114,8 +115,17 @@ public final class AbsIntResult<STATE extends IAbstractState<STATE>, ACTION, LOC
 		return new Triple<>(postState, transitionProvider.getTarget(transition), transition);
 	}
 
+	/**
+	 * Save the root storage of the program or of one of its independent parts. The parts have to be disjoint, i.e., no
+	 * location may have states in the root storages of two parts.
+	 */
 	void saveRootStorage(final IAbstractStateStorage<STATE, ACTION, LOCATION> rootStateStorage) {
-		mRootStorage = rootStateStorage;
+		mRootStorages.add(rootStateStorage);
+	}
+
+	void addCounterexamples(
+			final List<AbstractCounterexample<DisjunctiveAbstractState<STATE>, ACTION, LOCATION>> counterexamples) {
+		mCounterexamples.addAll(counterexamples);
 	}
 
 	void saveSummaryStorage(final ISummaryStorage<STATE, ACTION, LOCATION> summaryStorage) {
@@ -124,7 +134,10 @@ public final class AbsIntResult<STATE extends IAbstractState<STATE>, ACTION, LOC
 
 	@Override
 	public Set<STATE> getPostStates(final Deque<ACTION> callStack, final ACTION symbol, final Set<STATE> preStates) {
-		final Set<STATE> states = mRootStorage.computeContextSensitiveAbstractPostStates(callStack, symbol);
+		final Set<STATE> states = new HashSet<>();
+		for (final IAbstractStateStorage<STATE, ACTION, LOCATION> rootStorage : mRootStorages) {
+			states.addAll(rootStorage.computeContextSensitiveAbstractPostStates(callStack, symbol));
+		}
 		// TODO: this has to be disabled until summary calculation works correctly
 		// because this is a call, it could also be somewhere in the summary map
 		// if (states.isEmpty() && mTransProvider.isEnteringScope(symbol)) {
@@ -152,12 +165,14 @@ public final class AbsIntResult<STATE extends IAbstractState<STATE>, ACTION, LOC
 	public Map<LOCATION, Set<STATE>> getLoc2States() {
 		if (mLoc2States == null) {
 			mLoc2States = new HashMap<>();
-			final Map<LOCATION, Set<DisjunctiveAbstractState<STATE>>> loc2multistates =
-					mRootStorage.computeLoc2States();
-			for (final Entry<LOCATION, Set<DisjunctiveAbstractState<STATE>>> entry : loc2multistates.entrySet()) {
-				final Set<STATE> states =
-						entry.getValue().stream().flatMap(a -> a.getStates().stream()).collect(Collectors.toSet());
-				mLoc2States.put(entry.getKey(), states);
+			for (final IAbstractStateStorage<STATE, ACTION, LOCATION> rootStorage : mRootStorages) {
+				final Map<LOCATION, Set<DisjunctiveAbstractState<STATE>>> loc2multistates =
+						rootStorage.computeLoc2States();
+				for (final Entry<LOCATION, Set<DisjunctiveAbstractState<STATE>>> entry : loc2multistates.entrySet()) {
+					final Set<STATE> states = entry.getValue().stream().flatMap(a -> a.getStates().stream())
+							.collect(Collectors.toSet());
+					mLoc2States.computeIfAbsent(entry.getKey(), a -> new HashSet<>()).addAll(states);
+				}
 			}
 		}
 		return mLoc2States;
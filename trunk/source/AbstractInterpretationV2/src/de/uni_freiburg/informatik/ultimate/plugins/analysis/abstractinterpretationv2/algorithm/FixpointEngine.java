@@ -28,14 +28,27 @@
 package de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.algorithm;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainCanceledException;
@@ -51,9 +64,16 @@ import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.absint.IAbstrac
 import de.uni_freiburg.informatik.ultimate.logic.Script;
 import de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.preferences.AbsIntPrefInitializer;
 import de.uni_freiburg.informatik.ultimate.util.CoreUtil;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.UnionFind;
 import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.Pair;
 
 /**
+ * Computes a fixpoint of the program reachable from a set of initial locations.
+ *
+ * The initial locations are grouped into independent components such that no location is reachable from the initial
+ * locations of two components. Each component has its own root storage and is analyzed on its own, and if the domain
+ * is thread-safe, several components are analyzed in parallel on a {@link ForkJoinPool}. After some actions of the
+ * program changed, {@link #rerun(Collection)} analyzes only the components that reach a changed location.
  *
  * @author Daniel Dietsch (dietsch@informatik.uni-freiburg.de)
  * @author Marius Greitschus (greitsch@informatik.uni-freiburg.de)
@@ -64,9 +84,12 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 
 	private final int mMaxUnwindings;
 	private final int mMaxParallelStates;
+	private final boolean mUseWeakTopologicalOrder;
+	private final int mParallelism;
 
 	private final ITransitionProvider<ACTION, LOC> mTransitionProvider;
 	private final IAbstractStateStorage<STATE, ACTION, LOC> mStateStorage;
+	private final Supplier<IAbstractStateStorage<STATE, ACTION, LOC>> mStorageFactory;
 	private final IAbstractDomain<STATE, ACTION> mDomain;
 	private final IVariableProvider<STATE, ACTION> mVarProvider;
 	private final ILoopDetector<ACTION> mLoopDetector;
@@ -74,10 +97,14 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 	private final IProgressAwareTimer mTimer;
 	private final ILogger mLogger;
 
-	private AbsIntResult<STATE, ACTION, LOC> mResult;
 	private final SummaryMap<STATE, ACTION, LOC> mSummaryMap;
 	private final boolean mUseHierachicalPre;
 
+	private Script mScript;
+	private List<LOC> mInitialNodes;
+	private List<Component> mComponents;
+	private final AtomicReference<Throwable> mComponentFailure;
+
 	public FixpointEngine(final FixpointEngineParameters<STATE, ACTION, VARDECL, LOC> params) {
 		if (params == null || !params.isValid()) {
 			throw new IllegalArgumentException("invalid params");
@@ -86,54 +113,208 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 		mLogger = params.getLogger();
 		mTransitionProvider = params.getTransitionProvider();
 		mStateStorage = params.getStorage();
+		mStorageFactory = params.getStorageFactory();
 		mDomain = params.getAbstractDomain();
 		mVarProvider = params.getVariableProvider();
 		mLoopDetector = params.getLoopDetector();
 		mDebugHelper = params.getDebugHelper();
 		mMaxUnwindings = params.getMaxUnwindings();
 		mMaxParallelStates = params.getMaxParallelStates();
+		mUseWeakTopologicalOrder = params.isUseWeakTopologicalOrder();
+		mParallelism = params.getParallelism();
 		mSummaryMap = new SummaryMap<>(mTransitionProvider, mLogger);
 		mUseHierachicalPre = mDomain.useHierachicalPre();
+		mComponentFailure = new AtomicReference<>();
 	}
 
 	@Override
 	public AbsIntResult<STATE, ACTION, LOC> run(final Collection<? extends LOC> initialNodes, final Script script) {
 		mLogger.info("Starting fixpoint engine with domain " + mDomain.getClass().getSimpleName() + " (maxUnwinding="
-				+ mMaxUnwindings + ", maxParallelStates=" + mMaxParallelStates + ")");
-		mResult = new AbsIntResult<>(script, mDomain, mTransitionProvider, mVarProvider);
-		mDomain.beforeFixpointComputation(mResult.getBenchmark());
-		calculateFixpoint(initialNodes);
-		mResult.saveRootStorage(mStateStorage);
-		mResult.saveSummaryStorage(mSummaryMap);
+				+ mMaxUnwindings + ", maxParallelStates=" + mMaxParallelStates + ", worklistOrder="
+				+ (mUseWeakTopologicalOrder ? "WTO" : "FIFO") + ", parallelism=" + mParallelism + ")");
+		mScript = script;
+		mInitialNodes = new ArrayList<>(new LinkedHashSet<>(initialNodes));
+		mComponents = computeComponents(mInitialNodes);
+		for (int i = 0; i < mComponents.size(); ++i) {
+			mComponents.get(i).mStorage = i == 0 ? mStateStorage : mStorageFactory.get();
+		}
+		return calculateResult(mComponents);
+	}
+
+	/**
+	 * Analyze the program again after some of its actions were added, removed, or changed since the last call of
+	 * {@link #run(Collection, Script)} or of this method. The initial locations are grouped into components again. A
+	 * component that has the same initial and reachable locations as before and that does not reach a changed location
+	 * keeps its states and counterexamples. All other components are analyzed from scratch in a fresh root storage.
+	 *
+	 * @param changedLocations
+	 *            The locations whose outgoing actions were added, removed, or changed.
+	 * @return The result for the whole program.
+	 */
+	public AbsIntResult<STATE, ACTION, LOC> rerun(final Collection<? extends LOC> changedLocations) {
+		if (mComponents == null) {
+			throw new IllegalStateException("Fixpoint engine has not run yet");
+		}
+		final List<Component> oldComponents = mComponents;
+		final List<Component> components = computeComponents(mInitialNodes);
+		final List<Component> changedComponents = new ArrayList<>();
+		for (final Component component : components) {
+			final Optional<Component> oldComponent = Collections.disjoint(component.mLocations, changedLocations)
+					? oldComponents.stream().filter(component::hasSameLocations).findAny()
+					: Optional.empty();
+			if (oldComponent.isPresent()) {
+				component.mStorage = oldComponent.get().mStorage;
+				component.mResult = oldComponent.get().mResult;
+			} else if (mStorageFactory == null) {
+				throw new UnsupportedOperationException("Re-analysis needs a factory for fresh storages");
+			} else {
+				component.mStorage = mStorageFactory.get();
+				changedComponents.add(component);
+			}
+		}
+		mLogger.info("Re-analyzing " + changedComponents.size() + " of " + components.size() + " components");
+		mComponents = components;
+		return calculateResult(changedComponents);
+	}
+
+	/**
+	 * Analyze the given components and collect the result of all components.
+	 */
+	private AbsIntResult<STATE, ACTION, LOC> calculateResult(final List<Component> componentsToAnalyze) {
+		final AbsIntResult<STATE, ACTION, LOC> result =
+				new AbsIntResult<>(mScript, mDomain, mTransitionProvider, mVarProvider);
+		mDomain.beforeFixpointComputation(result.getBenchmark());
+		calculateFixpoints(componentsToAnalyze);
+		for (final Component component : mComponents) {
+			result.saveRootStorage(component.mStorage);
+			result.addCounterexamples(component.mResult.getCounterexamples());
+		}
+		for (final Component component : componentsToAnalyze) {
+			result.getBenchmark().add(component.mResult.getBenchmark());
+		}
+		result.saveSummaryStorage(mSummaryMap);
 		mLogger.debug("Fixpoint computation completed");
-		mDomain.afterFixpointComputation(mResult);
-		return mResult;
+		mDomain.afterFixpointComputation(result);
+		return result;
 	}
 
-	private void calculateFixpoint(final Collection<? extends LOC> start) {
-		final Deque<WorklistItem<STATE, ACTION, VARDECL, LOC>> worklist = new ArrayDeque<>();
+	/**
+	 * Group the initial locations into components such that no location is reachable from the initial locations of two
+	 * components. Calls are followed into the called procedures, hence components also do not share procedures.
+	 * Without a storage factory, all initial locations form one component.
+	 */
+	private List<Component> computeComponents(final List<LOC> initialNodes) {
+		final UnionFind<LOC> initialNodePartition = new UnionFind<>();
+		final Map<LOC, LOC> reachedFrom = new HashMap<>();
+		for (final LOC initialNode : initialNodes) {
+			initialNodePartition.makeEquivalenceClass(initialNode);
+			final Deque<LOC> open = new ArrayDeque<>();
+			open.push(initialNode);
+			while (!open.isEmpty()) {
+				final LOC current = open.pop();
+				final LOC other = reachedFrom.putIfAbsent(current, initialNode);
+				if (other == null) {
+					mTransitionProvider.getSuccessorActions(current).stream()
+							.filter(a -> !mTransitionProvider.isSummaryWithImplementation(a))
+							.map(mTransitionProvider::getTarget).forEach(open::push);
+				} else if (other != initialNode) {
+					// everything that is reachable from here was already reached from the other initial location
+					initialNodePartition.union(initialNode, other);
+				}
+			}
+		}
+		if (mStorageFactory == null) {
+			initialNodePartition.union(initialNodes);
+		}
+		final Map<LOC, Component> components = new LinkedHashMap<>();
+		for (final LOC initialNode : initialNodes) {
+			components.computeIfAbsent(initialNodePartition.find(initialNode), a -> new Component()).mStart
+					.add(initialNode);
+		}
+		reachedFrom.forEach((loc, initialNode) -> components.get(initialNodePartition.find(initialNode)).mLocations
+				.add(loc));
+		return new ArrayList<>(components.values());
+	}
+
+	/**
+	 * Analyze the given components. If the domain is thread-safe, up to {@link #mParallelism} components are analyzed
+	 * in parallel.
+	 */
+	private void calculateFixpoints(final List<Component> components) {
+		if (mParallelism == 1 || components.size() <= 1) {
+			components.forEach(this::calculateFixpoint);
+			return;
+		}
+		if (!mDomain.isThreadSafe()) {
+			mLogger.info("Analyzing " + components.size() + " independent components sequentially because "
+					+ mDomain.domainDescription() + " is not thread-safe");
+			components.forEach(this::calculateFixpoint);
+			return;
+		}
+		final int threads = Math.min(mParallelism, components.size());
+		mLogger.info("Analyzing " + components.size() + " independent components with " + threads + " threads");
+		// start with the largest components, such that the small ones can fill the gaps at the end
+		final List<Component> bySize = new ArrayList<>(components);
+		bySize.sort(Comparator.comparingInt((final Component a) -> a.mLocations.size()).reversed());
+		mComponentFailure.set(null);
+		final ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			final List<ForkJoinTask<?>> tasks = bySize.stream()
+					.map(a -> pool.submit(() -> calculateFixpointInParallel(a))).collect(Collectors.toList());
+			// wait for all components, such that no thread uses the domain anymore when we return or throw
+			tasks.forEach(ForkJoinTask::quietlyJoin);
+		} finally {
+			pool.shutdown();
+		}
+		final Throwable failure = mComponentFailure.get();
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+	}
+
+	private void calculateFixpointInParallel(final Component component) {
+		try {
+			calculateFixpoint(component);
+		} catch (final RuntimeException | Error e) {
+			// the first failure stops the other components, their CancellationExceptions are not recorded
+			mComponentFailure.compareAndSet(null, e);
+		}
+	}
+
+	private void calculateFixpoint(final Component component) {
+		final Collection<LOC> start = component.mStart;
+		final IAbstractStateStorage<STATE, ACTION, LOC> storage = component.mStorage;
+		final AbsIntResult<STATE, ACTION, LOC> result =
+				new AbsIntResult<>(mScript, mDomain, mTransitionProvider, mVarProvider);
+		component.mResult = result;
+		final AbsIntBenchmark<ACTION> benchmark = result.getBenchmark();
+
+		final Queue<WorklistItem<STATE, ACTION, VARDECL, LOC>> worklist = createWorklist(start);
 		final IAbstractPostOperator<STATE, ACTION> postOp = mDomain.getPostOperator();
 		final IAbstractStateBinaryOperator<STATE> wideningOp = mDomain.getWideningOperator();
 		final Set<ACTION> reachedErrors = new HashSet<>();
 
 		// add all outgoing edges of nodes in the start set that are not unnecessary summaries to the worklist
 		start.stream().flatMap(a -> mTransitionProvider.getSuccessorActions(a).stream())
-				.filter(a -> !mTransitionProvider.isSummaryWithImplementation(a)).map(this::createInitialWorklistItem)
-				.forEach(worklist::add);
+				.filter(a -> !mTransitionProvider.isSummaryWithImplementation(a))
+				.map(a -> createInitialWorklistItem(a, storage)).forEach(worklist::add);
 
 		while (!worklist.isEmpty()) {
 			checkTimeout();
 
-			final WorklistItem<STATE, ACTION, VARDECL, LOC> currentItem = worklist.removeFirst();
-			mResult.getBenchmark().addIteration(currentItem.getAction());
+			final WorklistItem<STATE, ACTION, VARDECL, LOC> currentItem = worklist.remove();
+			benchmark.addIteration(currentItem.getAction());
 
 			if (mLogger.isDebugEnabled()) {
 				mLogger.debug(getLogMessageCurrentTransition(currentItem));
 			}
 
-			final DisjunctiveAbstractState<STATE> postState = calculateAbstractPost(currentItem, postOp);
+			final DisjunctiveAbstractState<STATE> postState = calculateAbstractPost(currentItem, postOp, benchmark);
 
-			if (isUnnecessaryPostState(currentItem, postState)) {
+			if (isUnnecessaryPostState(currentItem, postState, benchmark)) {
 				continue;
 			}
 
@@ -143,10 +324,10 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 			// }
 
 			checkLoopState(currentItem);
-			checkReachedError(currentItem, postState, reachedErrors);
+			checkReachedError(currentItem, postState, reachedErrors, result);
 
 			final DisjunctiveAbstractState<STATE> postStateAfterWidening =
-					widenIfNecessary(currentItem, postState, wideningOp);
+					widenIfNecessary(currentItem, postState, wideningOp, benchmark);
 			if (postStateAfterWidening == null) {
 				// we have reached a fixpoint
 				if (mLogger.isDebugEnabled()) {
@@ -157,7 +338,7 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 			}
 			logDebugPostChanged(postState, postStateAfterWidening, "Widening");
 			final DisjunctiveAbstractState<STATE> postStatesAfterSave =
-					savePostState(currentItem, postStateAfterWidening);
+					savePostState(currentItem, postStateAfterWidening, benchmark);
 			assert postStatesAfterSave != null : "Saving a state is not allowed to return null";
 			logDebugPostChanged(postStateAfterWidening, postStatesAfterSave, "Merge");
 
@@ -167,6 +348,23 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 		}
 	}
 
+	/**
+	 * Create the worklist for a fixpoint computation from the given start locations. If the weak topological order is
+	 * enabled, items whose source location comes first in the weak topological order of all locations reachable from
+	 * the start locations are processed first. Otherwise, the worklist is a FIFO queue.
+	 */
+	private Queue<WorklistItem<STATE, ACTION, VARDECL, LOC>> createWorklist(final Collection<? extends LOC> start) {
+		if (!mUseWeakTopologicalOrder) {
+			return new ArrayDeque<>();
+		}
+		final WeakTopologicalOrder<ACTION, LOC> wto = new WeakTopologicalOrder<>(mTransitionProvider, start);
+		if (mLogger.isDebugEnabled()) {
+			mLogger.debug("Weak topological order of " + wto.getOrder().size() + " locations computed");
+		}
+		return new PriorityQueue<>(
+				Comparator.comparingInt(item -> wto.getIndex(mTransitionProvider.getSource(item.getAction()))));
+	}
+
 	/**
 	 * This method checks whether the current item can be ignored by a summary. This is the case if this item is a call
 	 * to a procedure for which a summary is already calculated. In this case, the item will count as processed and
@@ -179,7 +377,7 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 	 */
 	private boolean useSummaryInstead(final WorklistItem<STATE, ACTION, VARDECL, LOC> currentItem,
 			final DisjunctiveAbstractState<STATE> postState,
-			final Deque<WorklistItem<STATE, ACTION, VARDECL, LOC>> worklist) {
+			final Queue<WorklistItem<STATE, ACTION, VARDECL, LOC>> worklist) {
 		final ACTION callAction = currentItem.getAction();
 		if (!mTransitionProvider.isEnteringScope(callAction)) {
 			// can only use summary if entering a scope
@@ -222,7 +420,7 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 
 	private DisjunctiveAbstractState<STATE> calculateAbstractPost(
 			final WorklistItem<STATE, ACTION, VARDECL, LOC> currentItem,
-			final IAbstractPostOperator<STATE, ACTION> postOp) {
+			final IAbstractPostOperator<STATE, ACTION> postOp, final AbsIntBenchmark<ACTION> benchmark) {
 
 		final DisjunctiveAbstractState<STATE> preState = currentItem.getState();
 		final DisjunctiveAbstractState<STATE> hierachicalPreState = currentItem.getHierachicalState();
@@ -235,7 +433,7 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 			// if we enter or leave a scope, we first declare variables in the prestate
 			preStateWithFreshVariables =
 					preState.defineVariablesAfter(mVarProvider, currentAction, hierachicalPreState);
-			mResult.getBenchmark().addMaxVariables(preStateWithFreshVariables.getVariables().size());
+			benchmark.addMaxVariables(preStateWithFreshVariables.getVariables().size());
 
 			if (mUseHierachicalPre && mTransitionProvider.isLeavingScope(currentAction)) {
 				postState = hierachicalPreState.apply(postOp, preState, currentAction);
@@ -248,7 +446,7 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 			preStateWithFreshVariables = preState;
 			postState = preState.apply(postOp, currentAction);
 		}
-		mResult.getBenchmark().countPostApplication();
+		benchmark.countPostApplication();
 
 		assert postState != null;
 		assert assertIsPostSound(preState, currentAction, preStateWithFreshVariables, hierachicalPreState,
@@ -264,11 +462,15 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 			final DisjunctiveAbstractState<STATE> preStateWithFreshVariables,
 			final DisjunctiveAbstractState<STATE> hierachicalPreState,
 			final DisjunctiveAbstractState<STATE> postState) {
-		final boolean rtr = mTransitionProvider.isSummaryWithImplementation(currentAction)
-				|| mDebugHelper.isPostSound(preState, hierachicalPreState, postState, currentAction);
-		if (rtr) {
+		if (mTransitionProvider.isSummaryWithImplementation(currentAction)) {
 			return true;
 		}
+		// the debug helper uses the SMT script, which must not be used by several components at the same time
+		synchronized (mDebugHelper) {
+			if (mDebugHelper.isPostSound(preState, hierachicalPreState, postState, currentAction)) {
+				return true;
+			}
+		}
 		mLogger.fatal("Post is unsound because the term-transformation of the following triple is not valid: ");
 		mLogger.fatal("PreBL : " + preState.toLogString());
 		mLogger.fatal("PreH  : " + hierachicalPreState.toLogString());
@@ -295,7 +497,7 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 	 *         and false otherwise.
 	 */
 	private boolean isUnnecessaryPostState(final WorklistItem<STATE, ACTION, VARDECL, LOC> currentItem,
-			final DisjunctiveAbstractState<STATE> pendingPostState) {
+			final DisjunctiveAbstractState<STATE> pendingPostState, final AbsIntBenchmark<ACTION> benchmark) {
 		if (pendingPostState.isBottom()) {
 			// if the new abstract state is bottom, we do not enter loops and we do not add
 			// new actions to the worklist
@@ -310,7 +512,7 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 		// check if the pending post state is already subsumed by a pre-existing state and if this is not a return
 		if (checkSubset(currentStateStorage, currentItem.getAction(), pendingPostState)) {
 			// it is subsumed, we can skip all successors safely
-			mResult.getBenchmark().addFixpoint();
+			benchmark.addFixpoint();
 			return true;
 		}
 
@@ -342,7 +544,7 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 	}
 
 	private DisjunctiveAbstractState<STATE> savePostState(final WorklistItem<STATE, ACTION, VARDECL, LOC> currentItem,
-			final DisjunctiveAbstractState<STATE> postState) {
+			final DisjunctiveAbstractState<STATE> postState, final AbsIntBenchmark<ACTION> benchmark) {
 		final IAbstractStateStorage<STATE, ACTION, LOC> currentStorage = currentItem.getCurrentStorage();
 		final ACTION currentAction = currentItem.getAction();
 		final LOC target = mTransitionProvider.getTarget(currentAction);
@@ -351,13 +553,14 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 		}
 		final DisjunctiveAbstractState<STATE> rtrState = currentStorage.addAbstractState(target, postState);
 		if (rtrState != postState) {
-			mResult.getBenchmark().addMerge();
+			benchmark.addMerge();
 		}
 		return rtrState;
 	}
 
 	private void checkReachedError(final WorklistItem<STATE, ACTION, VARDECL, LOC> currentItem,
-			final DisjunctiveAbstractState<STATE> postState, final Set<ACTION> reachedErrors) {
+			final DisjunctiveAbstractState<STATE> postState, final Set<ACTION> reachedErrors,
+			final AbsIntResult<STATE, ACTION, LOC> result) {
 		final ACTION currentAction = currentItem.getAction();
 		final LOC postLoc = mTransitionProvider.getTarget(currentAction);
 		if (!mTransitionProvider.isErrorLocation(postLoc) || postState.isBottom()
@@ -369,15 +572,16 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 			mLogger.debug(new StringBuilder().append(AbsIntPrefInitializer.INDENT).append(" Error state reached"));
 		}
 
-		mResult.reachedError(mTransitionProvider, currentItem, postState);
+		result.reachedError(mTransitionProvider, currentItem, postState);
 	}
 
-	private WorklistItem<STATE, ACTION, VARDECL, LOC> createInitialWorklistItem(final ACTION elem) {
+	private WorklistItem<STATE, ACTION, VARDECL, LOC> createInitialWorklistItem(final ACTION elem,
+			final IAbstractStateStorage<STATE, ACTION, LOC> storage) {
 		final STATE preState = mVarProvider.defineInitialVariables(elem, mDomain.createTopState());
 		assert preState != null;
 		final DisjunctiveAbstractState<STATE> preMultiState =
 				new DisjunctiveAbstractState<>(mMaxParallelStates, preState);
-		return new WorklistItem<>(preMultiState, elem, mStateStorage, mSummaryMap);
+		return new WorklistItem<>(preMultiState, elem, storage, mSummaryMap);
 	}
 
 	private List<WorklistItem<STATE, ACTION, VARDECL, LOC>> createSuccessorItems(
@@ -408,7 +612,8 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 
 	private DisjunctiveAbstractState<STATE> widenIfNecessary(
 			final WorklistItem<STATE, ACTION, VARDECL, LOC> currentItem,
-			final DisjunctiveAbstractState<STATE> postState, final IAbstractStateBinaryOperator<STATE> wideningOp) {
+			final DisjunctiveAbstractState<STATE> postState, final IAbstractStateBinaryOperator<STATE> wideningOp,
+			final AbsIntBenchmark<ACTION> benchmark) {
 
 		final ACTION currentAction = currentItem.getAction();
 
@@ -440,7 +645,7 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 			mLogger.debug(AbsIntPrefInitializer.DINDENT + "Op2: " + LoggingHelper.getStateString(postState));
 		}
 		final DisjunctiveAbstractState<STATE> postStateAfterWidening = oldState.widen(wideningOp, postState);
-		if (isFixpoint(oldState, postStateAfterWidening)) {
+		if (isFixpoint(oldState, postStateAfterWidening, benchmark)) {
 			if (scopeWidening) {
 				// if we found a fixpoint during scope widening, it means that we will not continue into this scope but
 				// rather subsume all calls to this scope by the current one
@@ -448,7 +653,7 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 			}
 			return null;
 		}
-		mResult.getBenchmark().addWiden();
+		benchmark.addWiden();
 		return postStateAfterWidening;
 	}
 
@@ -541,12 +746,12 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 	}
 
 	private boolean isFixpoint(final DisjunctiveAbstractState<STATE> oldState,
-			final DisjunctiveAbstractState<STATE> newState) {
+			final DisjunctiveAbstractState<STATE> newState, final AbsIntBenchmark<ACTION> benchmark) {
 		if (oldState.isEqualTo(newState)) {
 			if (mLogger.isDebugEnabled()) {
 				mLogger.debug(getLogMessageFixpointFound(oldState, newState));
 			}
-			mResult.getBenchmark().addFixpoint();
+			benchmark.addFixpoint();
 			return true;
 		}
 		return false;
@@ -572,6 +777,9 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 			mLogger.warn("Received timeout, aborting fixpoint engine");
 			throw new ToolchainCanceledException(getClass(), "executing abstract interpretation");
 		}
+		if (mComponentFailure.get() != null) {
+			throw new CancellationException("Analysis of another component failed");
+		}
 	}
 
 	private void logDebugPostChanged(final DisjunctiveAbstractState<STATE> postState,
@@ -650,4 +858,18 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 				.append(item.getState().hashCode()).append("]").append(" --[").append(item.getAction().hashCode())
 				.append("]->");
 	}
+
+	/**
+	 * A group of initial locations that is analyzed independently of all other groups.
+	 */
+	private final class Component {
+		private final List<LOC> mStart = new ArrayList<>();
+		private final Set<LOC> mLocations = new HashSet<>();
+		private IAbstractStateStorage<STATE, ACTION, LOC> mStorage;
+		private AbsIntResult<STATE, ACTION, LOC> mResult;
+
+		private boolean hasSameLocations(final Component other) {
+			return mStart.equals(other.mStart) && mLocations.equals(other.mLocations);
+		}
+	}
 }
@@ -1,5 +1,7 @@
 package de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.algorithm;
 
+import java.util.function.Supplier;
+
 import de.uni_freiburg.informatik.ultimate.core.model.preferences.IPreferenceProvider;
 import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
 import de.uni_freiburg.informatik.ultimate.core.model.services.IProgressAwareTimer;
@@ -26,6 +28,9 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 	private final IProgressAwareTimer mTimer;
 	private final int mMaxUnwindings;
 	private final int mMaxParallelStates;
+	private final boolean mUseWeakTopologicalOrder;
+	private final int mParallelism;
+	private final Supplier<IAbstractStateStorage<STATE, ACTION, LOC>> mStorageFactory;
 	private final ILogger mLogger;
 
 	/**
@@ -51,6 +56,9 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 		final IPreferenceProvider ups = services.getPreferenceProvider(Activator.PLUGIN_ID);
 		mMaxUnwindings = ups.getInt(AbsIntPrefInitializer.LABEL_ITERATIONS_UNTIL_WIDENING);
 		mMaxParallelStates = ups.getInt(AbsIntPrefInitializer.LABEL_MAX_PARALLEL_STATES);
+		mUseWeakTopologicalOrder = ups.getBoolean(AbsIntPrefInitializer.LABEL_USE_WEAK_TOPOLOGICAL_ORDER);
+		mParallelism = ups.getInt(AbsIntPrefInitializer.LABEL_FIXPOINT_PARALLELISM);
+		mStorageFactory = null;
 	}
 
 	/**
@@ -61,7 +69,8 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			final IVariableProvider<STATE, ACTION> varProvider, final ILoopDetector<ACTION> loopDetector,
 			final IAbstractDomain<STATE, ACTION> domain, final IDebugHelper<STATE, ACTION, VARDECL, LOC> debugHelper,
 			final IProgressAwareTimer timer, final ILogger logger, final int maxUnwindings,
-			final int maxParallelStates) {
+			final int maxParallelStates, final boolean useWeakTopologicalOrder, final int parallelism,
+			final Supplier<IAbstractStateStorage<STATE, ACTION, LOC>> storageFactory) {
 		mTransitionProvider = transitionProvider;
 		mStorage = storage;
 		mVarProvider = varProvider;
@@ -72,6 +81,9 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 		mLogger = logger;
 		mMaxUnwindings = maxUnwindings;
 		mMaxParallelStates = maxParallelStates;
+		mUseWeakTopologicalOrder = useWeakTopologicalOrder;
+		mParallelism = parallelism;
+		mStorageFactory = storageFactory;
 	}
 
 	/**
@@ -90,7 +102,8 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("transitionProvider may not be null");
 		}
 		return new FixpointEngineParameters<>(transitionProvider, mStorage, mVarProvider, mLoopDetector, mDomain,
-				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates);
+				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates, mUseWeakTopologicalOrder,
+				mParallelism, mStorageFactory);
 	}
 
 	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC>
@@ -99,7 +112,8 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("storage may not be null");
 		}
 		return new FixpointEngineParameters<>(mTransitionProvider, storage, mVarProvider, mLoopDetector, mDomain,
-				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates);
+				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates, mUseWeakTopologicalOrder,
+				mParallelism, mStorageFactory);
 	}
 
 	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC>
@@ -108,7 +122,8 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("varProvider may not be null");
 		}
 		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, varProvider, mLoopDetector, mDomain,
-				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates);
+				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates, mUseWeakTopologicalOrder,
+				mParallelism, mStorageFactory);
 	}
 
 	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC>
@@ -117,7 +132,8 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("loopDetector may not be null");
 		}
 		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, mVarProvider, loopDetector, mDomain,
-				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates);
+				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates, mUseWeakTopologicalOrder,
+				mParallelism, mStorageFactory);
 	}
 
 	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC>
@@ -126,7 +142,8 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("domain may not be null");
 		}
 		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, mVarProvider, mLoopDetector, domain,
-				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates);
+				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates, mUseWeakTopologicalOrder,
+				mParallelism, mStorageFactory);
 	}
 
 	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC>
@@ -135,7 +152,8 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("debugHelper may not be null");
 		}
 		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, mVarProvider, mLoopDetector, mDomain,
-				debugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates);
+				debugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates, mUseWeakTopologicalOrder,
+				mParallelism, mStorageFactory);
 	}
 
 	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC> setTimer(final IProgressAwareTimer timer) {
@@ -143,7 +161,8 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("timer may not be null");
 		}
 		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, mVarProvider, mLoopDetector, mDomain,
-				mDebugHelper, timer, mLogger, mMaxUnwindings, mMaxParallelStates);
+				mDebugHelper, timer, mLogger, mMaxUnwindings, mMaxParallelStates, mUseWeakTopologicalOrder,
+				mParallelism, mStorageFactory);
 	}
 
 	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC> setMaxUnwindings(final int maxUnwindings) {
@@ -151,7 +170,8 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("maxUnwindings must be larger than zero");
 		}
 		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, mVarProvider, mLoopDetector, mDomain,
-				mDebugHelper, mTimer, mLogger, maxUnwindings, mMaxParallelStates);
+				mDebugHelper, mTimer, mLogger, maxUnwindings, mMaxParallelStates, mUseWeakTopologicalOrder,
+				mParallelism, mStorageFactory);
 	}
 
 	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC> setMaxParallelStates(final int maxParallelStates) {
@@ -159,7 +179,39 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("maxParallelStates must be larger than zero");
 		}
 		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, mVarProvider, mLoopDetector, mDomain,
-				mDebugHelper, mTimer, mLogger, mMaxUnwindings, maxParallelStates);
+				mDebugHelper, mTimer, mLogger, mMaxUnwindings, maxParallelStates, mUseWeakTopologicalOrder,
+				mParallelism, mStorageFactory);
+	}
+
+	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC>
+			setUseWeakTopologicalOrder(final boolean useWeakTopologicalOrder) {
+		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, mVarProvider, mLoopDetector, mDomain,
+				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates, useWeakTopologicalOrder,
+				mParallelism, mStorageFactory);
+	}
+
+	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC> setParallelism(final int parallelism) {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("parallelism must be larger than zero");
+		}
+		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, mVarProvider, mLoopDetector, mDomain,
+				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates, mUseWeakTopologicalOrder,
+				parallelism, mStorageFactory);
+	}
+
+	/**
+	 * Set a factory for additional root storages. The fixpoint engine needs one root storage for each independent part
+	 * of the program it analyzes, and a fresh one for each part it analyzes again after the program changed. Without a
+	 * factory, the whole program is analyzed as one part in the storage given by {@link #setStorage}.
+	 */
+	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC>
+			setStorageFactory(final Supplier<IAbstractStateStorage<STATE, ACTION, LOC>> storageFactory) {
+		if (storageFactory == null) {
+			throw new IllegalArgumentException("storageFactory may not be null");
+		}
+		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, mVarProvider, mLoopDetector, mDomain,
+				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates, mUseWeakTopologicalOrder,
+				mParallelism, storageFactory);
 	}
 
 	public boolean isValid() {
@@ -193,6 +245,9 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 		if (getMaxParallelStates() <= 0) {
 			throw new IllegalArgumentException("Wrong value for max parallel states");
 		}
+		if (getParallelism() <= 0) {
+			throw new IllegalArgumentException("Wrong value for parallelism");
+		}
 		return true;
 	}
 
@@ -235,4 +290,26 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 	public int getMaxParallelStates() {
 		return mMaxParallelStates;
 	}
+
+	/**
+	 * @return true iff the fixpoint engine should process its worklist in the weak topological order of the program
+	 *         locations instead of in FIFO order.
+	 */
+	public boolean isUseWeakTopologicalOrder() {
+		return mUseWeakTopologicalOrder;
+	}
+
+	/**
+	 * @return the maximal number of threads that analyze independent parts of the program in parallel.
+	 */
+	public int getParallelism() {
+		return mParallelism;
+	}
+
+	/**
+	 * @return a factory for additional root storages, or null if the engine has to use only {@link #getStorage()}.
+	 */
+	public Supplier<IAbstractStateStorage<STATE, ACTION, LOC>> getStorageFactory() {
+		return mStorageFactory;
+	}
 }
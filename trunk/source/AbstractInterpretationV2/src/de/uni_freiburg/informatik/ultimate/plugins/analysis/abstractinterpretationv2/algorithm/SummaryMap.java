@@ -39,6 +39,8 @@ import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.absint.IAbstrac
 import de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.preferences.AbsIntPrefInitializer;
 
 /**
+ * The summaries of all procedures that the {@link FixpointEngine} left. All accesses are synchronized, because the
+ * engine may analyze independent parts of the program in parallel.
  *
  * @author Daniel Dietsch (dietsch@informatik.uni-freiburg.de)
  *
@@ -57,7 +59,7 @@ final class SummaryMap<STATE extends IAbstractState<STATE>, ACTION, LOCATION>
 	}
 
 	@Override
-	public DisjunctiveAbstractState<STATE> getSummaryPostState(final ACTION summaryAction,
+	public synchronized DisjunctiveAbstractState<STATE> getSummaryPostState(final ACTION summaryAction,
 			final DisjunctiveAbstractState<STATE> preCallState) {
 		final String procName = mTransProvider.getProcedureName(summaryAction);
 		final Set<Summary> summary = getSummary(procName);
@@ -74,7 +76,7 @@ final class SummaryMap<STATE extends IAbstractState<STATE>, ACTION, LOCATION>
 	 * @param callStatement
 	 *            An action that leaves a scope
 	 */
-	void addSummary(final DisjunctiveAbstractState<STATE> callPostState,
+	synchronized void addSummary(final DisjunctiveAbstractState<STATE> callPostState,
 			final DisjunctiveAbstractState<STATE> returnPreState, final ACTION callStatement) {
 		// current is a call, but we have to find the summary
 		final String procName = mTransProvider.getProcedureName(callStatement);
@@ -135,7 +137,7 @@ final class SummaryMap<STATE extends IAbstractState<STATE>, ACTION, LOCATION>
 	}
 
 	@Override
-	public String toString() {
+	public synchronized String toString() {
 		return mSummaries.toString();
 	}
 
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE AbstractInterpretationV2 plug-in.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE AbstractInterpretationV2 plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE AbstractInterpretationV2 plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE AbstractInterpretationV2 plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.algorithm;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A weak topological order (WTO) of the locations that are reachable from a set of initial locations, computed with
+ * Bourdoncle's algorithm (F. Bourdoncle, "Efficient chaotic iteration strategies with widenings", FMPA 1993).
+ * <p>
+ * In a WTO, each strongly connected component is a contiguous interval whose first element is the head of the
+ * component, and each component precedes everything that can only be reached through it. Processing a worklist in
+ * the order of the WTO therefore stabilizes inner loops before outer loops and loop bodies before loop exits.
+ * <p>
+ * The depth-first search is implemented with an explicit stack such that large programs do not exhaust the call
+ * stack.
+ *
+ * @param <ACTION>
+ *            The type of the actions.
+ * @param <LOC>
+ *            The type of the locations.
+ */
+public final class WeakTopologicalOrder<ACTION, LOC> {
+
+	private static final int DONE = Integer.MAX_VALUE;
+
+	private final ITransitionProvider<ACTION, LOC> mTransitionProvider;
+	private final Map<LOC, Integer> mDfn;
+	private final Deque<LOC> mStack;
+	private final List<LOC> mReversedOrder;
+	private final Set<LOC> mHeads;
+	private final Map<LOC, Integer> mIndex;
+	private int mNum;
+
+	public WeakTopologicalOrder(final ITransitionProvider<ACTION, LOC> transitionProvider,
+			final Collection<? extends LOC> initialLocations) {
+		mTransitionProvider = transitionProvider;
+		mDfn = new HashMap<>();
+		mStack = new ArrayDeque<>();
+		mReversedOrder = new ArrayList<>();
+		mHeads = new HashSet<>();
+		for (final LOC loc : initialLocations) {
+			if (getDfn(loc) == 0) {
+				visit(loc);
+			}
+		}
+		Collections.reverse(mReversedOrder);
+		mIndex = new HashMap<>();
+		for (final LOC loc : mReversedOrder) {
+			mIndex.put(loc, mIndex.size());
+		}
+	}
+
+	/**
+	 * @return The position of the given location in the weak topological order, or {@link Integer#MAX_VALUE} if the
+	 *         location is not reachable from the initial locations.
+	 */
+	public int getIndex(final LOC loc) {
+		final Integer index = mIndex.get(loc);
+		return index == null ? Integer.MAX_VALUE : index;
+	}
+
+	/**
+	 * @return The reachable locations in weak topological order.
+	 */
+	public List<LOC> getOrder() {
+		return Collections.unmodifiableList(mReversedOrder);
+	}
+
+	/**
+	 * @return true iff the given location is the head of a component, i.e., of a loop.
+	 */
+	public boolean isHead(final LOC loc) {
+		return mHeads.contains(loc);
+	}
+
+	private int getDfn(final LOC loc) {
+		final Integer dfn = mDfn.get(loc);
+		return dfn == null ? 0 : dfn;
+	}
+
+	private void visit(final LOC root) {
+		final Deque<Frame> frames = new ArrayDeque<>();
+		frames.push(enter(root));
+		while (!frames.isEmpty()) {
+			final Frame frame = frames.peek();
+			if (frame.mSuccessors.hasNext()) {
+				final LOC succ = frame.mSuccessors.next();
+				final int dfn = getDfn(succ);
+				if (dfn == 0) {
+					// descend; the result is processed when the frame of succ returns
+					frames.push(enter(succ));
+				} else if (!frame.mInComponent) {
+					frame.update(dfn);
+				}
+				continue;
+			}
+			if (frame.mInComponent) {
+				// the body of the component is done, its head precedes it
+				mReversedOrder.add(frame.mLoc);
+			} else if (frame.mHead == getDfn(frame.mLoc)) {
+				mDfn.put(frame.mLoc, DONE);
+				LOC elem = mStack.pop();
+				if (frame.mLoop) {
+					while (!elem.equals(frame.mLoc)) {
+						mDfn.put(elem, 0);
+						elem = mStack.pop();
+					}
+					// revisit the body of the component with frame.mLoc as its head
+					mHeads.add(frame.mLoc);
+					frame.mInComponent = true;
+					frame.mSuccessors = successors(frame.mLoc);
+					continue;
+				}
+				mReversedOrder.add(frame.mLoc);
+			}
+			frames.pop();
+			final Frame parent = frames.peek();
+			if (parent != null && !parent.mInComponent) {
+				parent.update(frame.mHead);
+			}
+		}
+	}
+
+	private Frame enter(final LOC loc) {
+		mStack.push(loc);
+		mNum++;
+		mDfn.put(loc, mNum);
+		return new Frame(loc, mNum, successors(loc));
+	}
+
+	private Iterator<LOC> successors(final LOC loc) {
+		final List<LOC> rtr = new ArrayList<>();
+		for (final ACTION action : mTransitionProvider.getSuccessorActions(loc)) {
+			if (!mTransitionProvider.isSummaryWithImplementation(action)) {
+				rtr.add(mTransitionProvider.getTarget(action));
+			}
+		}
+		return rtr.iterator();
+	}
+
+	/**
+	 * The state of one invocation of Bourdoncle's recursive procedures <code>visit</code> and <code>component</code>.
+	 */
+	private final class Frame {
+		private final LOC mLoc;
+		private Iterator<LOC> mSuccessors;
+		private int mHead;
+		private boolean mLoop;
+		private boolean mInComponent;
+
+		private Frame(final LOC loc, final int dfn, final Iterator<LOC> successors) {
+			mLoc = loc;
+			mHead = dfn;
+			mSuccessors = successors;
+		}
+
+		private void update(final int min) {
+			if (min <= mHead) {
+				mHead = min;
+				mLoop = true;
+			}
+		}
+	}
+}
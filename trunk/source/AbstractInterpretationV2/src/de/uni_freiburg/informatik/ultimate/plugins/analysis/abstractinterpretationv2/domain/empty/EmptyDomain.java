@@ -63,4 +63,9 @@ public class EmptyDomain<ACTION> implements IAbstractDomain<EmptyDomainState, AC
 		return new EmptyPostOperator<>();
 	}
 
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 }
@@ -33,6 +33,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.absint.IAbstractState;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.variables.IProgramVarOrConst;
@@ -56,7 +57,7 @@ import de.uni_freiburg.informatik.ultimate.logic.Term;
  */
 public final class EmptyDomainState implements IAbstractState<EmptyDomainState> {
 
-	private static int sId;
+	private static final AtomicInteger ID_COUNTER = new AtomicInteger();
 	private final Set<IProgramVarOrConst> mVarDecls;
 	private final int mId;
 	private final boolean mIsBottom;
@@ -75,8 +76,7 @@ public final class EmptyDomainState implements IAbstractState<EmptyDomainState>
 
 	protected EmptyDomainState(final Set<IProgramVarOrConst> varDecls, final boolean isBottom) {
 		mVarDecls = varDecls;
-		sId++;
-		mId = sId;
+		mId = ID_COUNTER.incrementAndGet();
 		mIsBottom = isBottom;
 	}
 
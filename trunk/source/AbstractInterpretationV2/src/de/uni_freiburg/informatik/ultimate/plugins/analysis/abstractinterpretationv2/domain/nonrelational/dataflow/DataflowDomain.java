@@ -78,4 +78,9 @@ public class DataflowDomain<ACTION extends IIcfgTransition<IcfgLocation>>
 	public IAbstractPostOperator<DataflowState<ACTION>, ACTION> getPostOperator() {
 		return mPost;
 	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
 }
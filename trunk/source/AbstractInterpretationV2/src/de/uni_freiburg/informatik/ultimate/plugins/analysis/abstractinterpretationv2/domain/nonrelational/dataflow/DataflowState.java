@@ -33,6 +33,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.absint.IAbstractState;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IAction;
@@ -51,7 +52,7 @@ import de.uni_freiburg.informatik.ultimate.util.datastructures.DataStructureUtil
  */
 public class DataflowState<ACTION extends IAction> implements IAbstractState<DataflowState<ACTION>> {
 
-	private static int sId;
+	private static final AtomicInteger ID_COUNTER = new AtomicInteger();
 	private final int mId;
 
 	private final Set<IProgramVarOrConst> mVars;
@@ -320,8 +321,7 @@ public class DataflowState<ACTION extends IAction> implements IAbstractState<Dat
 	}
 
 	private static int getFreshId() {
-		sId++;
-		return sId;
+		return ID_COUNTER.incrementAndGet();
 	}
 
 	public Set<IcfgLocation> getNowriteLocations(final IProgramVar iProgramVar) {
@@ -735,7 +735,7 @@ public class OctMatrix {
 		if (mStrongClosure != null) {
 			return mStrongClosure;
 		}
-		return strongClosure(sDefaultShortestPathClosure);
+		return strongClosure(sDefaultShortestPathClosure, true);
 	}
 
 	/**
@@ -755,9 +755,29 @@ public class OctMatrix {
 	 * @return Strong closure
 	 */
 	public OctMatrix strongClosure(final Consumer<OctMatrix> shortestPathClosureAlgorithm) {
+		return strongClosure(shortestPathClosureAlgorithm, false);
+	}
+
+	/**
+	 * Computes the strong closure of this octagon matrix, preferably using
+	 * {@link OctPrimitiveClosure}. The given algorithm is only used if the
+	 * entries of this matrix cannot be represented as primitive values or if
+	 * this matrix is bottom.
+	 *
+	 * @param shortestPathClosureAlgorithm
+	 *            Algorithm to be used for the computation of the shortest path
+	 *            closure
+	 * @return Strong closure
+	 */
+	public OctMatrix strongClosurePrimitive(final Consumer<OctMatrix> shortestPathClosureAlgorithm) {
+		return strongClosure(shortestPathClosureAlgorithm, true);
+	}
+
+	private OctMatrix strongClosure(final Consumer<OctMatrix> shortestPathClosureAlgorithm,
+			final boolean tryPrimitive) {
 		final OctMatrix strongClosure = copy();
 		final boolean obviouslyBottom = strongClosure.minimizeDiagonal();
-		if (!obviouslyBottom) {
+		if (!obviouslyBottom && !(tryPrimitive && strongClosure.primitiveClosureInPlace(false))) {
 			shortestPathClosureAlgorithm.accept(strongClosure);
 			strongClosure.strengtheningInPlace();
 		}
@@ -777,7 +797,7 @@ public class OctMatrix {
 		if (mTightClosure != null) {
 			return mTightClosure;
 		}
-		return tightClosure(sDefaultShortestPathClosure);
+		return tightClosure(sDefaultShortestPathClosure, true);
 	}
 
 	/**
@@ -797,10 +817,30 @@ public class OctMatrix {
 	 * @return Tight closure
 	 */
 	public OctMatrix tightClosure(final Consumer<OctMatrix> shortestPathClosureAlgorithm) {
+		return tightClosure(shortestPathClosureAlgorithm, false);
+	}
+
+	/**
+	 * Computes the tight closure of this octagon matrix, preferably using
+	 * {@link OctPrimitiveClosure}. The given algorithm is only used if the
+	 * entries of this matrix cannot be represented as primitive values or if
+	 * this matrix is bottom.
+	 *
+	 * @param shortestPathClosureAlgorithm
+	 *            Algorithm to be used for the computation of the shortest path
+	 *            closure
+	 * @return Tight closure
+	 */
+	public OctMatrix tightClosurePrimitive(final Consumer<OctMatrix> shortestPathClosureAlgorithm) {
+		return tightClosure(shortestPathClosureAlgorithm, true);
+	}
+
+	private OctMatrix tightClosure(final Consumer<OctMatrix> shortestPathClosureAlgorithm,
+			final boolean tryPrimitive) {
 		final OctMatrix tightClosure;
 		tightClosure = copy();
-		if (!tightClosure.minimizeDiagonal()) { // this matrix is obviously
-												// bottom
+		if (!tightClosure.minimizeDiagonal() // this matrix is obviously bottom
+				&& !(tryPrimitive && tightClosure.primitiveClosureInPlace(true))) {
 			shortestPathClosureAlgorithm.accept(tightClosure); // cached strong
 																// closure is
 																// not re-used
@@ -814,6 +854,62 @@ public class OctMatrix {
 		return tightClosure;
 	}
 
+	/**
+	 * Computes the strong or tight closure in-place on a dense primitive copy
+	 * of this matrix (see {@link OctPrimitiveClosure}). Only entries that
+	 * changed are written back. The diagonal of this matrix has to be
+	 * minimized.
+	 *
+	 * @param tight
+	 *            Compute the tight closure instead of the strong closure
+	 * @return The closure was computed. Otherwise (if some entry cannot be
+	 *         represented as a primitive value, or the matrix is bottom) this
+	 *         matrix remains unchanged.
+	 */
+	private boolean primitiveClosureInPlace(final boolean tight) {
+		final long[] stored = new long[mEntries.length];
+		long maxMagnitude = 0;
+		for (int idx = 0; idx < mEntries.length; ++idx) {
+			final long value = OctPrimitiveClosure.toPrimitive(mEntries[idx]);
+			if (value == OctPrimitiveClosure.NOT_REPRESENTABLE) {
+				return false;
+			}
+			if (!OctPrimitiveClosure.isInfinity(value)) {
+				maxMagnitude = Math.max(maxMagnitude, Math.abs(value));
+			}
+			stored[idx] = value;
+		}
+		if (!OctPrimitiveClosure.fitsClosure(maxMagnitude, mSize)) {
+			return false;
+		}
+		final long[] dense = new long[mSize * mSize];
+		for (int row = 0; row < mSize; ++row) {
+			for (int col = 0; col < mSize; ++col) {
+				dense[row * mSize + col] = stored[indexOf(row, col)];
+			}
+		}
+		if (!OctPrimitiveClosure.shortestPathClosure(dense, mSize)) {
+			return false;
+		}
+		if (tight) {
+			OctPrimitiveClosure.tightening(dense, mSize);
+		} else {
+			OctPrimitiveClosure.strengthening(dense, mSize);
+		}
+		for (int row = 0; row < mSize; ++row) {
+			final int maxCol = row | 1;
+			for (int col = 0; col <= maxCol; ++col) {
+				final int idx = indexOfLower(row, col);
+				final long value = dense[row * mSize + col];
+				// closures never increase entries
+				if (value < stored[idx] && !OctPrimitiveClosure.isInfinity(value)) {
+					mEntries[idx] = OctPrimitiveClosure.toOctValue(value);
+				}
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Compute the shortest path closure in-place, using the naive
 	 * Floyd-Warshall algorithm.
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE AbstractInterpretationV2 plug-in.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE AbstractInterpretationV2 plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE AbstractInterpretationV2 plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE AbstractInterpretationV2 plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+
+package de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.domain.relational.octagon;
+
+import java.math.BigDecimal;
+
+/**
+ * Closure algorithms for octagon matrices whose entries are stored in a dense, row-major {@code long[]}.
+ * <p>
+ * An entry <i>c</i> of an {@link OctMatrix} is stored as <i>2c</i>, such that the strengthening (which halves sums of
+ * entries) stays exact. Only matrices whose entries are integers of bounded magnitude can be stored. All other
+ * matrices have to be closed by the {@link BigDecimal}-based algorithms of {@link OctMatrix}.
+ * <p>
+ * Infinity is represented by {@link #INFINITY}. Sums that involve infinity are not saturated, instead every value
+ * above {@link #INFINITY_THRESHOLD} is considered infinite. The bound on the magnitude of finite entries (see
+ * {@link #fitsClosure(long, int)}) ensures that this is sound and that no sum overflows, as long as the matrix
+ * contains no negative cycle. The shortest path closure detects negative cycles and gives up, such that the inner
+ * loops consist of nothing but additions and minimums over contiguous rows.
+ *
+ * @see OctMatrix#cachedStrongClosure()
+ * @see OctMatrix#cachedTightClosure()
+ */
+final class OctPrimitiveClosure {
+
+	/**
+	 * Representation of {@link OctValue#INFINITY}.
+	 */
+	static final long INFINITY = 1L << 61;
+
+	/**
+	 * Result of {@link #toPrimitive(OctValue)} for values that cannot be represented.
+	 */
+	static final long NOT_REPRESENTABLE = Long.MIN_VALUE;
+
+	private static final long INFINITY_THRESHOLD = INFINITY / 2;
+	private static final long MAX_PATH_WEIGHT = 1L << 58;
+	private static final int MAX_DIGITS = 15;
+	private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+	private OctPrimitiveClosure() {
+		// do not instantiate
+	}
+
+	/**
+	 * @return Representation of an octagon matrix entry or {@link #NOT_REPRESENTABLE} if the entry is not an integer
+	 *         or too large
+	 */
+	static long toPrimitive(final OctValue value) {
+		if (value.isInfinity()) {
+			return INFINITY;
+		}
+		BigDecimal decimal = value.getValue();
+		if (decimal.signum() == 0) {
+			return 0;
+		}
+		if (decimal.scale() > 0) {
+			decimal = decimal.stripTrailingZeros();
+			if (decimal.scale() > 0) {
+				return NOT_REPRESENTABLE;
+			}
+		}
+		if (decimal.precision() - decimal.scale() > MAX_DIGITS) {
+			return NOT_REPRESENTABLE;
+		}
+		return 2 * decimal.longValueExact();
+	}
+
+	/**
+	 * @return Octagon matrix entry represented by the given value
+	 */
+	static OctValue toOctValue(final long value) {
+		if (isInfinity(value)) {
+			return OctValue.INFINITY;
+		}
+		if ((value & 1) == 0) {
+			return new OctValue(BigDecimal.valueOf(value / 2));
+		}
+		return new OctValue(BigDecimal.valueOf(value).divide(TWO));
+	}
+
+	static boolean isInfinity(final long value) {
+		return value >= INFINITY_THRESHOLD;
+	}
+
+	/**
+	 * @param maxMagnitude
+	 *            Maximal absolute value of all finite entries (in the representation of this class)
+	 * @param size
+	 *            Number of rows of the matrix
+	 * @return The closure of such a matrix can be computed without overflows
+	 */
+	static boolean fitsClosure(final long maxMagnitude, final int size) {
+		return maxMagnitude <= MAX_PATH_WEIGHT / (size + 1);
+	}
+
+	/**
+	 * Computes the shortest path closure in-place, using the Floyd-Warshall algorithm on the full matrix. Rows
+	 * without a finite entry in the current column are skipped.
+	 *
+	 * @param matrix
+	 *            Dense row-major matrix with the given number of rows whose diagonal is zero
+	 * @return {@code false} iff the matrix contains a negative cycle. In this case the content of the matrix is
+	 *         undefined.
+	 */
+	static boolean shortestPathClosure(final long[] matrix, final int size) {
+		for (int k = 0; k < size; ++k) {
+			final int rowK = k * size;
+			for (int i = 0; i < size; ++i) {
+				final int rowI = i * size;
+				final long ik = matrix[rowI + k];
+				if (isInfinity(ik)) {
+					continue;
+				}
+				for (int j = 0; j < size; ++j) {
+					matrix[rowI + j] = Math.min(matrix[rowI + j], ik + matrix[rowK + j]);
+				}
+				if (matrix[rowI + i] < 0) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Computes the strong closure from a shortest path closure in-place.
+	 *
+	 * @see OctMatrix#strongClosure(java.util.function.Consumer)
+	 */
+	static void strengthening(final long[] matrix, final int size) {
+		final long[] rowBounds = new long[size];
+		final long[] colBounds = new long[size];
+		for (int i = 0; i < size; ++i) {
+			final long bound = matrix[i * size + (i ^ 1)];
+			// entries of a shortest path closure are sums of even numbers
+			rowBounds[i] = isInfinity(bound) ? INFINITY : bound / 2;
+		}
+		tighten(matrix, size, rowBounds, colBounds);
+	}
+
+	/**
+	 * Computes the tight closure from a shortest path closure in-place.
+	 *
+	 * @see OctMatrix#tightClosure(java.util.function.Consumer)
+	 */
+	static void tightening(final long[] matrix, final int size) {
+		final long[] rowBounds = new long[size];
+		final long[] colBounds = new long[size];
+		for (int i = 0; i < size; ++i) {
+			final long bound = matrix[i * size + (i ^ 1)];
+			// the representation of floor(c/2) for the representation 2c of c
+			rowBounds[i] = isInfinity(bound) ? INFINITY : 2 * Math.floorDiv(bound, 4);
+		}
+		tighten(matrix, size, rowBounds, colBounds);
+	}
+
+	/**
+	 * Updates every entry (i,j) with the sum of the bounds of row i and column j, where the bound of column j is the
+	 * bound of row j^1.
+	 */
+	private static void tighten(final long[] matrix, final int size, final long[] rowBounds,
+			final long[] colBounds) {
+		for (int j = 0; j < size; ++j) {
+			colBounds[j] = rowBounds[j ^ 1];
+		}
+		for (int i = 0; i < size; ++i) {
+			final long ib = rowBounds[i];
+			if (isInfinity(ib)) {
+				continue;
+			}
+			final int rowI = i * size;
+			for (int j = 0; j < size; ++j) {
+				matrix[rowI + j] = Math.min(matrix[rowI + j], ib + colBounds[j]);
+			}
+		}
+	}
+}
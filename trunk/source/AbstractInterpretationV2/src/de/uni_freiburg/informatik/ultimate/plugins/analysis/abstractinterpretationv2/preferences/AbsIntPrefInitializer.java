@@ -83,6 +83,15 @@ public class AbsIntPrefInitializer extends UltimatePreferenceInitializer {
 
 	public static final String LABEL_ITERATIONS_UNTIL_WIDENING = "Minimum iterations before widening";
 	public static final String LABEL_MAX_PARALLEL_STATES = "Parallel states before merging";
+	public static final String LABEL_USE_WEAK_TOPOLOGICAL_ORDER = "Process worklist in weak topological order";
+	public static final String TOOLTIP_USE_WEAK_TOPOLOGICAL_ORDER =
+			"Prefer worklist items whose source location comes first in a weak topological order (Bourdoncle) of the "
+					+ "program locations, such that loops are stabilized from the inside out before their exits are "
+					+ "processed. If disabled, the worklist is processed in FIFO order.";
+	public static final String LABEL_FIXPOINT_PARALLELISM = "Parallel fixpoint computations";
+	public static final String TOOLTIP_FIXPOINT_PARALLELISM =
+			"Maximal number of threads that analyze independent parts of the program, i.e., groups of initial "
+					+ "locations that do not reach common locations. Only used if the abstract domain is thread-safe.";
 	public static final String LABEL_MAX_EVALUATION_RECURSION_DETPH =
 			"Maximum recursion depth of evaluation operations";
 	public static final String LABEL_DESCRIPTION_ABSTRACT_DOMAIN =
@@ -98,6 +107,8 @@ public class AbsIntPrefInitializer extends UltimatePreferenceInitializer {
 
 	public static final int DEF_ITERATIONS_UNTIL_WIDENING = 3;
 	public static final int DEF_STATES_UNTIL_MERGE = 2;
+	public static final boolean DEF_USE_WEAK_TOPOLOGICAL_ORDER = false;
+	public static final int DEF_FIXPOINT_PARALLELISM = 1;
 	public static final int DEF_MAX_EVALUATION_RECURSION_DEPTH = -1;
 	public static final boolean DEF_RUN_AS_PRE_ANALYSIS = false;
 	public static final String DEF_ABSTRACT_DOMAIN = VALUES_ABSTRACT_DOMAIN[0];
@@ -123,6 +134,11 @@ public class AbsIntPrefInitializer extends UltimatePreferenceInitializer {
 				PreferenceType.Integer, new IUltimatePreferenceItemValidator.IntegerValidator(1, 100000)));
 		rtr.add(new UltimatePreferenceItem<>(LABEL_MAX_PARALLEL_STATES, DEF_STATES_UNTIL_MERGE, PreferenceType.Integer,
 				new IUltimatePreferenceItemValidator.IntegerValidator(1, 100000)));
+		rtr.add(new UltimatePreferenceItem<>(LABEL_USE_WEAK_TOPOLOGICAL_ORDER, DEF_USE_WEAK_TOPOLOGICAL_ORDER,
+				TOOLTIP_USE_WEAK_TOPOLOGICAL_ORDER, PreferenceType.Boolean));
+		rtr.add(new UltimatePreferenceItem<>(LABEL_FIXPOINT_PARALLELISM, DEF_FIXPOINT_PARALLELISM,
+				TOOLTIP_FIXPOINT_PARALLELISM, PreferenceType.Integer,
+				new IUltimatePreferenceItemValidator.IntegerValidator(1, 256)));
 		rtr.add(new UltimatePreferenceItem<>(LABEL_MAX_EVALUATION_RECURSION_DETPH, DEF_MAX_EVALUATION_RECURSION_DEPTH,
 				PreferenceType.Integer, new IUltimatePreferenceItemValidator.IntegerValidator(-1, 100000)));
 		rtr.add(new UltimatePreferenceItem<>(LABEL_RUN_AS_PRE_ANALYSIS, DEF_RUN_AS_PRE_ANALYSIS,
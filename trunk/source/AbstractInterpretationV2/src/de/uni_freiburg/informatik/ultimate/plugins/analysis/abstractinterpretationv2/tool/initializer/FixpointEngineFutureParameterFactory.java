@@ -61,7 +61,9 @@ public class FixpointEngineFutureParameterFactory {
 		return new FixpointEngineParameters<STATE, IcfgEdge, IProgramVarOrConst, IcfgLocation>(mServices,
 				IProgramVarOrConst.class).setDomain(domain).setLoopDetector(loopDetector).setStorage(storageProvider)
 						.setTransitionProvider(transitionProvider).setVariableProvider(variableProvider)
-						.setDebugHelper(debugHelper).setTimer(timer);
+						.setDebugHelper(debugHelper).setTimer(timer)
+						.setStorageFactory(
+								() -> new IcfgAbstractStateStorageProvider<>(mServices, transitionProvider));
 	}
 
 	public <STATE extends IAbstractState<STATE>>
@@ -78,7 +80,9 @@ public class FixpointEngineFutureParameterFactory {
 		return new FixpointEngineParameters<STATE, IcfgEdge, IProgramVarOrConst, IcfgLocation>(mServices,
 				IProgramVarOrConst.class).setDomain(domain).setLoopDetector(loopDetector).setStorage(storageProvider)
 						.setTransitionProvider(transitionProvider).setVariableProvider(variableProvider)
-						.setDebugHelper(debugHelper).setTimer(timer);
+						.setDebugHelper(debugHelper).setTimer(timer)
+						.setStorageFactory(
+								() -> new IcfgAbstractStateStorageProvider<>(mServices, transitionProvider));
 	}
 
 	public <STATE extends IAbstractState<STATE>>
@@ -93,7 +97,8 @@ public class FixpointEngineFutureParameterFactory {
 		final IDebugHelper<STATE, IcfgEdge, IProgramVarOrConst, IcfgLocation> debugHelper =
 				new RcfgDebugHelper<>(mRoot.getCfgSmtToolkit(), mServices, mRoot.getCfgSmtToolkit().getSymbolTable());
 		return params.setStorage(storageProvider).setVariableProvider(variableProvider).setDebugHelper(debugHelper)
-				.setTransitionProvider(transitionProvider).setLoopDetector(loopDetector);
+				.setTransitionProvider(transitionProvider).setLoopDetector(loopDetector)
+				.setStorageFactory(() -> new IcfgAbstractStateStorageProvider<>(mServices, transitionProvider));
 	}
 
 	/**
@@ -125,7 +130,9 @@ public class FixpointEngineFutureParameterFactory {
 		return new FixpointEngineParameters<STATE, IcfgEdge, IProgramVarOrConst, IcfgLocation>(mServices,
 				IProgramVarOrConst.class).setDomain(domain).setLoopDetector(loopDetector).setStorage(storageProvider)
 						.setTransitionProvider(transitionProvider).setVariableProvider(variableProvider)
-						.setDebugHelper(debugHelper).setTimer(timer);
+						.setDebugHelper(debugHelper).setTimer(timer)
+						.setStorageFactory(
+								() -> new IcfgAbstractStateStorageProvider<>(mServices, transitionProvider));
 	}
 
 	public <STATE extends IAbstractState<STATE>> IAbstractDomain<STATE, IcfgEdge> selectDomainFutureCfg() {
@@ -131,7 +131,9 @@ public class FixpointEngineParameterFactory {
 		return new FixpointEngineParameters<STATE, IcfgEdge, IProgramVarOrConst, IcfgLocation>(mServices,
 				IProgramVarOrConst.class).setDomain(domain).setLoopDetector(loopDetector).setStorage(storageProvider)
 						.setTransitionProvider(transitionProvider).setVariableProvider(variableProvider)
-						.setDebugHelper(debugHelper).setTimer(timer);
+						.setDebugHelper(debugHelper).setTimer(timer)
+						.setStorageFactory(
+								() -> new IcfgAbstractStateStorageProvider<>(mServices, transitionProvider));
 	}
 
 	private IAbstractDomain<?, IcfgEdge> selectDomain() {
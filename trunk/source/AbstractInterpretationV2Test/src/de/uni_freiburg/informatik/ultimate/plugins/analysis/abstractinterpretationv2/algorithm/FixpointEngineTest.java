@@ -0,0 +1,369 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE AbstractInterpretationV2 plug-in.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE AbstractInterpretationV2 plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE AbstractInterpretationV2 plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE AbstractInterpretationV2 plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.algorithm;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.preferences.IPreferenceProvider;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.absint.DisjunctiveAbstractState;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.absint.IAbstractDomain;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.absint.IAbstractPostOperator;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.absint.IAbstractStateBinaryOperator;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.absint.IVariableProvider;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.domain.empty.EmptyDomain;
+import de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.domain.empty.EmptyDomainState;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Tests the grouping of initial locations into independent components of {@link FixpointEngine}, their parallel
+ * analysis, and their re-analysis. Locations are strings and an action is an edge, i.e., a pair of its source and its
+ * target. The program has the components {a0} and {b0, c0}, which are merged because b0 and c0 both reach b2.
+ */
+public class FixpointEngineTest {
+
+	private static final List<String> INITIAL = Arrays.asList("a0", "b0", "c0");
+
+	private final Map<String, List<String[]>> mSuccessors = new LinkedHashMap<>();
+
+	public FixpointEngineTest() {
+		addEdges("a0", "a1", "a1", "a2", "a2", "a1", "a2", "errA", "b0", "b1", "b1", "b2", "c0", "c1", "c1", "b2");
+	}
+
+	@Test
+	public void parallelAnalysisAgreesWithSequentialAnalysis() {
+		final TestDomain sequentialDomain = new TestDomain(null);
+		final AbsIntResult<EmptyDomainState, String[], String> sequential =
+				createEngine(sequentialDomain, 1).run(INITIAL, createScript());
+
+		// the first posts of both components wait for each other, hence they have to run at the same time
+		final TestDomain parallelDomain = new TestDomain(new CountDownLatch(2));
+		final AbsIntResult<EmptyDomainState, String[], String> parallel =
+				createEngine(parallelDomain, 2).run(INITIAL, createScript());
+		Assert.assertTrue("components were not analyzed in parallel", parallelDomain.mConcurrent.get());
+
+		assertSameResult(sequential, parallel);
+		Assert.assertEquals(new HashSet<>(Arrays.asList("a1", "a2", "errA", "b1", "b2", "c1")),
+				parallel.getLoc2States().keySet());
+		Assert.assertTrue(parallel.hasReachedError());
+		Assert.assertEquals(1, parallel.getCounterexamples().size());
+		Assert.assertEquals(sequential.getBenchmark().toString(), parallel.getBenchmark().toString());
+	}
+
+	@Test
+	public void rerunOnlyAnalyzesChangedComponents() {
+		final TestDomain domain = new TestDomain(null);
+		final FixpointEngine<EmptyDomainState, String[], Object, String> engine = createEngine(domain, 2);
+		engine.run(INITIAL, createScript());
+		final int postsOfB = domain.getPosts("b0", "b1", "c0", "c1");
+
+		// a2 is not reachable anymore
+		domain.mInfeasible.add("a1->a2");
+		final AbsIntResult<EmptyDomainState, String[], String> incremental =
+				engine.rerun(Collections.singleton("a1"));
+		Assert.assertEquals("unchanged component was analyzed again", postsOfB,
+				domain.getPosts("b0", "b1", "c0", "c1"));
+		Assert.assertFalse(incremental.hasReachedError());
+
+		final TestDomain freshDomain = new TestDomain(null);
+		freshDomain.mInfeasible.add("a1->a2");
+		assertSameResult(createEngine(freshDomain, 2).run(INITIAL, createScript()), incremental);
+	}
+
+	@Test
+	public void rerunMergesComponentsConnectedByNewEdge() {
+		final TestDomain domain = new TestDomain(null);
+		final FixpointEngine<EmptyDomainState, String[], Object, String> engine = createEngine(domain, 2);
+		engine.run(INITIAL, createScript());
+
+		// now the error location is also reachable from b0
+		addEdges("b1", "a1");
+		final AbsIntResult<EmptyDomainState, String[], String> incremental =
+				engine.rerun(Collections.singleton("b1"));
+		Assert.assertTrue(incremental.hasReachedError());
+
+		final AbsIntResult<EmptyDomainState, String[], String> fresh =
+				createEngine(new TestDomain(null), 2).run(INITIAL, createScript());
+		assertSameResult(fresh, incremental);
+	}
+
+	private static void assertSameResult(final AbsIntResult<EmptyDomainState, String[], String> expected,
+			final AbsIntResult<EmptyDomainState, String[], String> actual) {
+		// the states of the empty domain are only equal to themselves, hence we compare the reached locations
+		Assert.assertEquals(expected.getLoc2States().keySet(), actual.getLoc2States().keySet());
+		Assert.assertEquals(expected.hasReachedError(), actual.hasReachedError());
+		Assert.assertEquals(expected.getCounterexamples().size(), actual.getCounterexamples().size());
+	}
+
+	private void addEdges(final String... edges) {
+		for (int i = 0; i < edges.length; i += 2) {
+			mSuccessors.computeIfAbsent(edges[i], a -> new ArrayList<>()).add(new String[] { edges[i], edges[i + 1] });
+		}
+	}
+
+	private FixpointEngine<EmptyDomainState, String[], Object, String> createEngine(final TestDomain domain,
+			final int parallelism) {
+		final ITransitionProvider<String[], String> transitionProvider =
+				createProxy(ITransitionProvider.class, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getSuccessorActions":
+						return mSuccessors.getOrDefault(args[0], Collections.emptyList());
+					case "getSuccessors":
+						return mSuccessors.getOrDefault(((String[]) args[0])[1], Collections.emptyList());
+					case "getSource":
+						return ((String[]) args[0])[0];
+					case "getTarget":
+						return ((String[]) args[0])[1];
+					case "isErrorLocation":
+						return ((String) args[0]).startsWith("err");
+					case "isEnteringScope":
+					case "isLeavingScope":
+					case "isSummaryWithImplementation":
+						return false;
+					case "getProcedureName":
+						return "main";
+					case "toLogString":
+						return toString((String[]) args[0]);
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+		final IVariableProvider<EmptyDomainState, String[]> variableProvider =
+				createProxy(IVariableProvider.class, (proxy, method, args) -> {
+					if ("defineInitialVariables".equals(method.getName())) {
+						return args[1];
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+		final ILoopDetector<String[]> loopDetector = createProxy(ILoopDetector.class, (proxy, method, args) -> false);
+		final IDebugHelper<EmptyDomainState, String[], Object, String> debugHelper =
+				(pre, hierachicalPre, post, transition) -> true;
+
+		final FixpointEngineParameters<EmptyDomainState, String[], Object, String> params =
+				new FixpointEngineParameters<EmptyDomainState, String[], Object, String>(createServices(), Object.class)
+						.setTransitionProvider(transitionProvider).setStorage(new TestStorage())
+						.setStorageFactory(TestStorage::new).setVariableProvider(variableProvider)
+						.setLoopDetector(loopDetector).setDomain(domain).setDebugHelper(debugHelper)
+						.setParallelism(parallelism);
+		return new FixpointEngine<>(params);
+	}
+
+	private static String toString(final String[] edge) {
+		return edge[0] + "->" + edge[1];
+	}
+
+	/**
+	 * @return the services of {@link UltimateMocks} with a preference provider that returns 1 for all integer
+	 *         settings and false for all boolean settings.
+	 */
+	private static IUltimateServiceProvider createServices() {
+		final IUltimateServiceProvider services = UltimateMocks.createUltimateServiceProviderMock();
+		final IPreferenceProvider preferences = createProxy(IPreferenceProvider.class, (proxy, method, args) -> {
+			switch (method.getName()) {
+			case "getInt":
+				return 1;
+			case "getBoolean":
+				return false;
+			default:
+				throw new UnsupportedOperationException(method.getName());
+			}
+		});
+		return createProxy(IUltimateServiceProvider.class, (proxy, method, args) -> {
+			if ("getPreferenceProvider".equals(method.getName())) {
+				return preferences;
+			}
+			try {
+				return method.invoke(services, args);
+			} catch (final InvocationTargetException e) {
+				throw e.getCause();
+			}
+		});
+	}
+
+	private static Script createScript() {
+		return createProxy(Script.class, (proxy, method, args) -> {
+			throw new UnsupportedOperationException(method.getName());
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T createProxy(final Class<?> type, final InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(FixpointEngineTest.class.getClassLoader(), new Class<?>[] { type },
+				handler);
+	}
+
+	/**
+	 * The {@link EmptyDomain} with a post that returns bottom for the edges in {@link #mInfeasible}. The post counts
+	 * its applications per source location, and if a latch is given, the posts of the edges leaving a0 and b0 wait
+	 * until both of them were reached.
+	 */
+	private static final class TestDomain implements IAbstractDomain<EmptyDomainState, String[]> {
+		private final EmptyDomain<String[]> mEmptyDomain = new EmptyDomain<>();
+		private final Set<String> mInfeasible = ConcurrentHashMap.newKeySet();
+		private final Map<String, AtomicInteger> mPosts = new ConcurrentHashMap<>();
+		private final CountDownLatch mLatch;
+		private final AtomicBoolean mConcurrent = new AtomicBoolean();
+
+		private TestDomain(final CountDownLatch latch) {
+			mLatch = latch;
+		}
+
+		private int getPosts(final String... sources) {
+			return Arrays.stream(sources).mapToInt(a -> mPosts.getOrDefault(a, new AtomicInteger()).get()).sum();
+		}
+
+		@Override
+		public EmptyDomainState createTopState() {
+			return mEmptyDomain.createTopState();
+		}
+
+		@Override
+		public EmptyDomainState createBottomState() {
+			return mEmptyDomain.createBottomState();
+		}
+
+		@Override
+		public IAbstractStateBinaryOperator<EmptyDomainState> getWideningOperator() {
+			return mEmptyDomain.getWideningOperator();
+		}
+
+		@Override
+		public IAbstractPostOperator<EmptyDomainState, String[]> getPostOperator() {
+			final IAbstractPostOperator<EmptyDomainState, String[]> post = mEmptyDomain.getPostOperator();
+			return new IAbstractPostOperator<EmptyDomainState, String[]>() {
+				@Override
+				public Collection<EmptyDomainState> apply(final EmptyDomainState oldstate, final String[] transition) {
+					countPost(transition);
+					if (mInfeasible.contains(FixpointEngineTest.toString(transition))) {
+						return Collections.singletonList(createBottomState());
+					}
+					return post.apply(oldstate, transition);
+				}
+
+				@Override
+				public List<EmptyDomainState> apply(final EmptyDomainState stateBeforeLeaving,
+						final EmptyDomainState secondState, final String[] transition) {
+					throw new UnsupportedOperationException("the test program has no calls");
+				}
+
+				@Override
+				public EvalResult evaluate(final EmptyDomainState state, final Term formula, final Script script) {
+					return post.evaluate(state, formula, script);
+				}
+			};
+		}
+
+		private void countPost(final String[] transition) {
+			mPosts.computeIfAbsent(transition[0], a -> new AtomicInteger()).incrementAndGet();
+			if (mLatch == null || !("a0".equals(transition[0]) || "b0".equals(transition[0]))) {
+				return;
+			}
+			mLatch.countDown();
+			try {
+				if (mLatch.await(10, TimeUnit.SECONDS)) {
+					mConcurrent.set(true);
+				}
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		@Override
+		public boolean isThreadSafe() {
+			return true;
+		}
+	}
+
+	/**
+	 * A storage without scopes.
+	 */
+	private static final class TestStorage implements IAbstractStateStorage<EmptyDomainState, String[], String> {
+		private final Map<String, DisjunctiveAbstractState<EmptyDomainState>> mStates = new HashMap<>();
+
+		@Override
+		public DisjunctiveAbstractState<EmptyDomainState> getAbstractState(final String loc) {
+			return mStates.get(loc);
+		}
+
+		@Override
+		public DisjunctiveAbstractState<EmptyDomainState> addAbstractState(final String loc,
+				final DisjunctiveAbstractState<EmptyDomainState> state) {
+			return mStates.merge(loc, state, DisjunctiveAbstractState::saturatedUnion);
+		}
+
+		@Override
+		public IAbstractStateStorage<EmptyDomainState, String[], String> createStorage(final String[] scope) {
+			throw new UnsupportedOperationException("the test program has no calls");
+		}
+
+		@Override
+		public void scopeFixpointReached() {
+			throw new UnsupportedOperationException("the test program has no calls");
+		}
+
+		@Override
+		public void saveSummarySubstituion(final String[] action,
+				final DisjunctiveAbstractState<EmptyDomainState> summaryPostState, final String[] summaryAction) {
+			throw new UnsupportedOperationException("the test program has no calls");
+		}
+
+		@Override
+		public Map<String, Set<DisjunctiveAbstractState<EmptyDomainState>>> computeLoc2States() {
+			final Map<String, Set<DisjunctiveAbstractState<EmptyDomainState>>> rtr = new HashMap<>();
+			mStates.forEach((loc, state) -> rtr.put(loc, Collections.singleton(state)));
+			return rtr;
+		}
+
+		@Override
+		public Set<EmptyDomainState> computeContextSensitiveAbstractPostStates(final Deque<String[]> callStack,
+				final String[] symbol) {
+			throw new UnsupportedOperationException("the test program has no calls");
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE AbstractInterpretationV2 plug-in.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE AbstractInterpretationV2 plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE AbstractInterpretationV2 plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE AbstractInterpretationV2 plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.algorithm;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link WeakTopologicalOrder}. Locations are strings and an action is an edge, i.e., a pair of its source
+ * and its target.
+ */
+public class WeakTopologicalOrderTest {
+
+	@Test
+	public void nestedLoops() {
+		// b is the head of the outer loop b -> c -> d -> e -> b and c the head of the inner loop c -> d -> c
+		final WeakTopologicalOrder<String[], String> wto = createWto(Collections.singletonList("a"), "a", "b", "b",
+				"c", "c", "d", "d", "c", "d", "e", "e", "b", "e", "f");
+		Assert.assertEquals(Arrays.asList("a", "b", "c", "d", "e", "f"), wto.getOrder());
+		assertHeads(wto, "b", "c");
+	}
+
+	@Test
+	public void innerLoopIsStabilizedBeforeOuterLoopExit() {
+		// the exit g of the outer loop is visited before the inner loop, but ordered after it
+		final WeakTopologicalOrder<String[], String> wto = createWto(Collections.singletonList("a"), "a", "b", "b",
+				"g", "b", "c", "c", "d", "d", "c", "d", "b");
+		Assert.assertEquals(Arrays.asList("a", "b", "c", "d", "g"), wto.getOrder());
+		assertHeads(wto, "b", "c");
+	}
+
+	@Test
+	public void irreducibleLoop() {
+		// the loop b <-> c has two entries, the first visited one becomes its only head
+		final WeakTopologicalOrder<String[], String> wto = createWto(Collections.singletonList("a"), "a", "b", "a",
+				"c", "b", "c", "c", "b", "c", "d");
+		Assert.assertEquals(Arrays.asList("a", "b", "c", "d"), wto.getOrder());
+		assertHeads(wto, "b");
+	}
+
+	@Test
+	public void selfLoopAndUnreachableLocation() {
+		final WeakTopologicalOrder<String[], String> wto =
+				createWto(Collections.singletonList("a"), "a", "b", "b", "b", "b", "c", "x", "a");
+		Assert.assertEquals(Arrays.asList("a", "b", "c"), wto.getOrder());
+		assertHeads(wto, "b");
+		Assert.assertEquals(Integer.MAX_VALUE, wto.getIndex("x"));
+	}
+
+	@Test
+	public void backEdgesTargetHeads() {
+		final Random random = new Random(42);
+		for (int round = 0; round < 200; round++) {
+			final int size = 2 + random.nextInt(30);
+			final List<String> edges = new ArrayList<>();
+			for (int i = 0; i < size * 2; i++) {
+				edges.add("l" + random.nextInt(size));
+				edges.add("l" + random.nextInt(size));
+			}
+			final WeakTopologicalOrder<String[], String> wto =
+					createWto(Arrays.asList("l0", "l1"), edges.toArray(new String[edges.size()]));
+			Assert.assertEquals("location ordered twice", new HashSet<>(wto.getOrder()).size(), wto.getOrder().size());
+			for (int i = 0; i < wto.getOrder().size(); i++) {
+				Assert.assertEquals(i, wto.getIndex(wto.getOrder().get(i)));
+			}
+			for (int i = 0; i < edges.size(); i += 2) {
+				final String source = edges.get(i);
+				final String target = edges.get(i + 1);
+				if (wto.getIndex(source) == Integer.MAX_VALUE) {
+					continue;
+				}
+				Assert.assertTrue("successor of reachable location is unreachable",
+						wto.getIndex(target) != Integer.MAX_VALUE);
+				if (wto.getIndex(target) <= wto.getIndex(source)) {
+					Assert.assertTrue("target of back edge " + source + " -> " + target + " is not a head",
+							wto.isHead(target));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void longPathDoesNotExhaustCallStack() {
+		final int length = 100_000;
+		final String[] edges = new String[2 * length];
+		for (int i = 0; i < length; i++) {
+			edges[2 * i] = "l" + i;
+			edges[2 * i + 1] = "l" + (i + 1);
+		}
+		// close one big loop
+		edges[2 * length - 1] = "l0";
+		final WeakTopologicalOrder<String[], String> wto = createWto(Collections.singletonList("l0"), edges);
+		Assert.assertEquals(length, wto.getOrder().size());
+		Assert.assertEquals("l0", wto.getOrder().get(0));
+		Assert.assertEquals("l" + (length - 1), wto.getOrder().get(length - 1));
+		Assert.assertTrue(wto.isHead("l0"));
+		Assert.assertFalse(wto.isHead("l1"));
+	}
+
+	private static void assertHeads(final WeakTopologicalOrder<String[], String> wto, final String... heads) {
+		final Set<String> actual = new HashSet<>();
+		for (final String loc : wto.getOrder()) {
+			if (wto.isHead(loc)) {
+				actual.add(loc);
+			}
+		}
+		Assert.assertEquals(new HashSet<>(Arrays.asList(heads)), actual);
+	}
+
+	/**
+	 * @param edges
+	 *            Pairs of source and target, the successors of a location are visited in the order of the edges.
+	 */
+	@SuppressWarnings("unchecked")
+	private static WeakTopologicalOrder<String[], String> createWto(final List<String> initial,
+			final String... edges) {
+		final Map<String, List<String[]>> successors = new LinkedHashMap<>();
+		for (int i = 0; i < edges.length; i += 2) {
+			successors.computeIfAbsent(edges[i], a -> new ArrayList<>()).add(new String[] { edges[i], edges[i + 1] });
+		}
+		final ITransitionProvider<String[], String> provider =
+				(ITransitionProvider<String[], String>) Proxy.newProxyInstance(
+						WeakTopologicalOrderTest.class.getClassLoader(), new Class<?>[] { ITransitionProvider.class },
+						(proxy, method, args) -> {
+							switch (method.getName()) {
+							case "getSuccessorActions":
+								return successors.getOrDefault(args[0], Collections.emptyList());
+							case "isSummaryWithImplementation":
+								return false;
+							case "getTarget":
+								return ((String[]) args[0])[1];
+							default:
+								throw new UnsupportedOperationException(method.getName());
+							}
+						});
+		return new WeakTopologicalOrder<>(provider, initial);
+	}
+}
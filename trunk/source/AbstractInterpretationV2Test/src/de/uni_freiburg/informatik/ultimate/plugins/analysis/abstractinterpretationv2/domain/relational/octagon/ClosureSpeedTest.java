@@ -25,6 +25,10 @@ public class ClosureSpeedTest {
 		st.addFunction("fsparse", OctMatrix::shortestPathClosureFullSparse);
 		st.addFunction("sparse", OctMatrix::shortestPathClosureSparse);
 		st.addFunction("psparse", OctMatrix::shortestPathClosurePrimitiveSparse);
+		st.addFunction("strong", m -> m.strongClosure(OctMatrix::shortestPathClosurePrimitiveSparse));
+		st.addFunction("pstrong", m -> m.strongClosurePrimitive(OctMatrix::shortestPathClosurePrimitiveSparse));
+		st.addFunction("tight", m -> m.tightClosure(OctMatrix::shortestPathClosurePrimitiveSparse));
+		st.addFunction("ptight", m -> m.tightClosurePrimitive(OctMatrix::shortestPathClosurePrimitiveSparse));
 		st.run();
 	}
 
@@ -147,6 +147,40 @@ public class OctMatrixTest {
 		}
 	}
 
+	@Test
+	public void testPrimitiveClosureByComparingRandom() {
+		for (int testcase = 0; testcase < 2000; ++testcase) {
+			final int variables = (int) (Math.random() * 10) + 1;
+			final OctMatrix m = OctMatrix.random(variables, 0.5 + Math.random() / 2);
+			final OctMatrix strong = m.strongClosure(OctMatrix::shortestPathClosurePrimitiveSparse);
+			final OctMatrix strongPrimitive = m.strongClosurePrimitive(OctMatrix::shortestPathClosurePrimitiveSparse);
+			final OctMatrix tight = m.tightClosure(OctMatrix::shortestPathClosurePrimitiveSparse);
+			final OctMatrix tightPrimitive = m.tightClosurePrimitive(OctMatrix::shortestPathClosurePrimitiveSparse);
+			Assert.assertEquals(strong.hasNegativeSelfLoop(), strongPrimitive.hasNegativeSelfLoop());
+			Assert.assertEquals(tight.hasNegativeSelfLoop(), tightPrimitive.hasNegativeSelfLoop());
+			if (!strong.hasNegativeSelfLoop()) {
+				assertIsEqualTo(strong, strongPrimitive);
+			}
+			if (!tight.hasNegativeSelfLoop()) {
+				assertIsEqualTo(tight, tightPrimitive);
+			}
+		}
+	}
+
+	@Test
+	public void testPrimitiveClosureFallback() {
+		// fractional entries and huge entries are not representable as primitive values
+		final OctMatrix m = OctMatrix.parseBlockLowerTriangular(
+				  "  0   0.5 "
+				+ "inf   0 "
+				+ "  1 inf   0  99999999999999999999 "
+				+ "  3   0 inf   0 ");
+		assertIsEqualTo(m.strongClosure(OctMatrix::shortestPathClosureNaiv),
+				m.strongClosurePrimitive(OctMatrix::shortestPathClosureNaiv));
+		assertIsEqualTo(m.tightClosure(OctMatrix::shortestPathClosureNaiv),
+				m.tightClosurePrimitive(OctMatrix::shortestPathClosureNaiv));
+	}
+
 	// widening tests //////////////////////////////////////////////////////////////////////////////////////////////////
 
 	@Test
@@ -31,6 +31,8 @@
  */
 package de.uni_freiburg.informatik.ultimate.plugins.generator.automatascriptinterpreter;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
@@ -42,6 +44,8 @@ import java.util.Map.Entry;
 import java.util.Set;
 
 import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter.NamedAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.BinaryAutomatonReader;
 import de.uni_freiburg.informatik.ultimate.automata.alternating.AlternatingAutomaton;
 import de.uni_freiburg.informatik.ultimate.automata.alternating.BooleanExpression;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.EpsilonNestedWordAutomaton;
@@ -155,6 +159,36 @@ public class AutomataDefinitionInterpreter {
 						e.getMessage() + LINE_SEPARATOR + e.getStackTrace(), EXCEPTION_THROWN, n);
 			}
 		}
+		for (final File file : automata.getBinaryAutomataFiles()) {
+			try {
+				interpret(file);
+			} catch (final IOException e) {
+				mMessagePrinter.printMessage(Severity.ERROR, LoggerSeverity.DEBUG,
+						"Could not read binary automata file " + file + ": " + e.getMessage(), EXCEPTION_THROWN,
+						automata);
+			}
+		}
+	}
+
+	/**
+	 * Reads the automata from a file in the binary automata format. Automata whose name was already defined in the
+	 * automata definitions are skipped, like automata from other automata definition files.
+	 *
+	 * @param file
+	 *            binary automata file
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	public void interpret(final File file) throws IOException {
+		final BinaryAutomatonReader reader = new BinaryAutomatonReader(new AutomataLibraryServices(mServices), file);
+		for (final NamedAutomaton<?, String> namedAutomaton : reader.getAutomata()) {
+			if (mAutomata.containsKey(namedAutomaton.getName())) {
+				mLogger.debug("Automaton \"" + namedAutomaton.getName() + "\" from file \"" + file
+						+ "\" already declared.");
+			} else {
+				mAutomata.put(namedAutomaton.getName(), namedAutomaton.getAutomaton());
+			}
+		}
 	}
 
 	/**
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE AutomataScriptInterpreter plug-in.
+ *
+ * The ULTIMATE AutomataScriptInterpreter plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE AutomataScriptInterpreter plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE AutomataScriptInterpreter plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE AutomataScriptInterpreter plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE AutomataScriptInterpreter plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.automatascriptinterpreter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import de.uni_freiburg.informatik.ultimate.core.model.results.IResultWithSeverity.Severity;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger.LogLevel;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.plugins.source.automatascriptparser.AutomataScriptParserRun;
+import de.uni_freiburg.informatik.ultimate.plugins.source.automatascriptparser.AST.AutomataTestFileAST;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+import de.uni_freiburg.informatik.ultimate.test.util.TestUtil;
+
+/**
+ * Reads the automata that are defined in automata script files (.ats files). Unit tests use it to run operations of
+ * the automata library on the examples in the repository, e.g., on the regression tests in
+ * {@code examples/Automata/regression}.
+ */
+public final class AutomataDefinitionLoader {
+	private static final String FILE_ENDING = ".ats";
+
+	private AutomataDefinitionLoader() {
+		// utility class
+	}
+
+	/**
+	 * @param services
+	 *            Ultimate services
+	 * @param file
+	 *            automata script file
+	 * @return map from the names of the automata defined in the file to the automata
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	public static Map<String, Object> load(final IUltimateServiceProvider services, final File file)
+			throws IOException {
+		final ILogger logger = services.getLoggingService().getLogger(AutomataDefinitionLoader.class);
+		final AutomataTestFileAST ast;
+		try (Reader reader = new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8)) {
+			ast = new AutomataScriptParserRun(services, logger, reader, file.getName(), file.getAbsolutePath())
+					.getResult();
+		}
+		if (ast == null) {
+			throw new IllegalArgumentException("Syntax error in " + file);
+		}
+		final AutomataDefinitionInterpreter interpreter = new AutomataDefinitionInterpreter(
+				(severityForResult, severityForLogger, longDescr, shortDescr, node) -> {
+					if (severityForResult == Severity.ERROR) {
+						throw new IllegalArgumentException(file + ": " + shortDescr + " " + longDescr);
+					}
+				}, logger, services);
+		interpreter.interpret(ast.getAutomataDefinitions());
+		return interpreter.getAutomata();
+	}
+
+	/**
+	 * Collects the automata of a given type from all automata script files in the given directories. The result is
+	 * meant as the parameters of a {@link org.junit.runners.Parameterized} test.
+	 *
+	 * @param type
+	 *            class of the automata, other automata are ignored
+	 * @param directories
+	 *            directories relative to the trunk folder of the repository
+	 * @return one pair (name, automaton) for each automaton, sorted by name
+	 */
+	public static <A> List<Object[]> collect(final Class<A> type, final String... directories) {
+		final IUltimateServiceProvider services = UltimateMocks.createUltimateServiceProviderMock(LogLevel.ERROR);
+		final List<File> files = new ArrayList<>();
+		for (final String directory : directories) {
+			files.addAll(TestUtil.getFiles(new File(TestUtil.getPathFromTrunk(directory)), FILE_ENDING));
+		}
+		files.sort(Comparator.comparing(File::getPath));
+		final List<Object[]> result = new ArrayList<>();
+		for (final File file : files) {
+			final Map<String, Object> automata;
+			try {
+				automata = load(services, file);
+			} catch (final IOException e) {
+				throw new IllegalStateException(e);
+			}
+			for (final Entry<String, Object> entry : new TreeMap<>(automata).entrySet()) {
+				if (type.isInstance(entry.getValue())) {
+					result.add(new Object[] { file.getName() + ":" + entry.getKey(), type.cast(entry.getValue()) });
+				}
+			}
+		}
+		return result;
+	}
+}
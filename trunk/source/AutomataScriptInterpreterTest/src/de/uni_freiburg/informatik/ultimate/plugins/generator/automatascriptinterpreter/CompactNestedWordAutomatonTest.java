@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE AutomataScriptInterpreter plug-in.
+ *
+ * The ULTIMATE AutomataScriptInterpreter plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE AutomataScriptInterpreter plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE AutomataScriptInterpreter plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE AutomataScriptInterpreter plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE AutomataScriptInterpreter plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.automatascriptinterpreter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.CompactNestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.IsEmpty;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.RemoveDeadEnds;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.IncomingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.IncomingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.IncomingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.SummaryReturnTransition;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger.LogLevel;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Checks that a {@link CompactNestedWordAutomaton} has the same states, letters, transitions, and summaries as the
+ * {@link NestedWordAutomaton} from which it was built, using the nested word automata of the regression tests.
+ */
+@RunWith(Parameterized.class)
+public class CompactNestedWordAutomatonTest {
+	private static final String[] DIRECTORIES = { "examples/Automata/regression/nwa" };
+
+	@Parameter(0)
+	public String mName;
+
+	@Parameter(1)
+	public NestedWordAutomaton<String, String> mNwa;
+
+	private AutomataLibraryServices mServices;
+	private CompactNestedWordAutomaton<String, String> mCompact;
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> data() {
+		return AutomataDefinitionLoader.collect(NestedWordAutomaton.class, DIRECTORIES);
+	}
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock(LogLevel.ERROR));
+		mCompact = new CompactNestedWordAutomaton<>(mServices, mNwa);
+	}
+
+	@Test
+	public void states() {
+		Assert.assertEquals(mNwa.size(), mCompact.size());
+		Assert.assertEquals(mNwa.getStates(), mCompact.getStates());
+		Assert.assertEquals(mNwa.getInitialStates(), mCompact.getInitialStates());
+		Assert.assertEquals(new HashSet<>(mNwa.getFinalStates()), mCompact.getFinalStates());
+		Assert.assertEquals(mNwa.getVpAlphabet(), mCompact.getVpAlphabet());
+		Assert.assertEquals(mNwa.getEmptyStackState(), mCompact.getEmptyStackState());
+		for (final String state : mNwa.getStates()) {
+			Assert.assertEquals(mNwa.isInitial(state), mCompact.isInitial(state));
+			Assert.assertEquals(mNwa.isFinal(state), mCompact.isFinal(state));
+		}
+	}
+
+	@Test
+	public void successors() {
+		for (final String state : mNwa.getStates()) {
+			Assert.assertEquals(mNwa.lettersInternal(state), mCompact.lettersInternal(state));
+			Assert.assertEquals(mNwa.lettersCall(state), mCompact.lettersCall(state));
+			Assert.assertEquals(mNwa.lettersReturn(state), mCompact.lettersReturn(state));
+			assertSameTransitions(mNwa.internalSuccessors(state), mCompact.internalSuccessors(state),
+					CompactNestedWordAutomatonTest::outgoingInternal);
+			assertSameTransitions(mNwa.callSuccessors(state), mCompact.callSuccessors(state),
+					CompactNestedWordAutomatonTest::outgoingCall);
+			assertSameTransitions(mNwa.returnSuccessors(state), mCompact.returnSuccessors(state),
+					CompactNestedWordAutomatonTest::outgoingReturn);
+			for (final String letter : mNwa.getVpAlphabet().getInternalAlphabet()) {
+				assertSameTransitions(mNwa.internalSuccessors(state, letter),
+						mCompact.internalSuccessors(state, letter),
+						CompactNestedWordAutomatonTest::outgoingInternal);
+			}
+			for (final String letter : mNwa.getVpAlphabet().getCallAlphabet()) {
+				assertSameTransitions(mNwa.callSuccessors(state, letter), mCompact.callSuccessors(state, letter),
+						CompactNestedWordAutomatonTest::outgoingCall);
+			}
+			for (final String letter : mNwa.getVpAlphabet().getReturnAlphabet()) {
+				assertSameTransitions(mNwa.returnSuccessors(state, letter), mCompact.returnSuccessors(state, letter),
+						CompactNestedWordAutomatonTest::outgoingReturn);
+			}
+			for (final String hier : mNwa.getStates()) {
+				Assert.assertEquals(mNwa.lettersReturn(state, hier), mCompact.lettersReturn(state, hier));
+				assertSameTransitions(mNwa.returnSuccessorsGivenHier(state, hier),
+						mCompact.returnSuccessorsGivenHier(state, hier),
+						CompactNestedWordAutomatonTest::outgoingReturn);
+				for (final String letter : mNwa.lettersReturn(state, hier)) {
+					assertSameTransitions(mNwa.returnSuccessors(state, hier, letter),
+							mCompact.returnSuccessors(state, hier, letter),
+							CompactNestedWordAutomatonTest::outgoingReturn);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void predecessors() {
+		for (final String state : mNwa.getStates()) {
+			Assert.assertEquals(mNwa.lettersInternalIncoming(state), mCompact.lettersInternalIncoming(state));
+			Assert.assertEquals(mNwa.lettersCallIncoming(state), mCompact.lettersCallIncoming(state));
+			Assert.assertEquals(mNwa.lettersReturnIncoming(state), mCompact.lettersReturnIncoming(state));
+			assertSameTransitions(mNwa.internalPredecessors(state), mCompact.internalPredecessors(state),
+					CompactNestedWordAutomatonTest::incomingInternal);
+			assertSameTransitions(mNwa.callPredecessors(state), mCompact.callPredecessors(state),
+					CompactNestedWordAutomatonTest::incomingCall);
+			assertSameTransitions(mNwa.returnPredecessors(state), mCompact.returnPredecessors(state),
+					CompactNestedWordAutomatonTest::incomingReturn);
+			for (final String letter : mNwa.getVpAlphabet().getInternalAlphabet()) {
+				assertSameTransitions(mNwa.internalPredecessors(state, letter),
+						mCompact.internalPredecessors(state, letter),
+						CompactNestedWordAutomatonTest::incomingInternal);
+			}
+			for (final String letter : mNwa.getVpAlphabet().getCallAlphabet()) {
+				assertSameTransitions(mNwa.callPredecessors(state, letter), mCompact.callPredecessors(state, letter),
+						CompactNestedWordAutomatonTest::incomingCall);
+			}
+			for (final String letter : mNwa.getVpAlphabet().getReturnAlphabet()) {
+				assertSameTransitions(mNwa.returnPredecessors(state, letter),
+						mCompact.returnPredecessors(state, letter),
+						CompactNestedWordAutomatonTest::incomingReturn);
+				for (final String hier : mNwa.getStates()) {
+					assertSameTransitions(mNwa.returnPredecessors(state, hier, letter),
+							mCompact.returnPredecessors(state, hier, letter),
+							CompactNestedWordAutomatonTest::incomingReturn);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void summaries() {
+		for (final String hier : mNwa.getStates()) {
+			Assert.assertEquals(mNwa.lettersSummary(hier), mCompact.lettersSummary(hier));
+			assertSameTransitions(mNwa.summarySuccessors(hier), mCompact.summarySuccessors(hier),
+					CompactNestedWordAutomatonTest::summary);
+			for (final String letter : mNwa.getVpAlphabet().getReturnAlphabet()) {
+				assertSameTransitions(mNwa.summarySuccessors(hier, letter), mCompact.summarySuccessors(hier, letter),
+						CompactNestedWordAutomatonTest::summary);
+			}
+		}
+	}
+
+	@Test
+	public void operations() throws AutomataLibraryException {
+		Assert.assertEquals(new IsEmpty<>(mServices, mNwa).getResult(), new IsEmpty<>(mServices, mCompact).getResult());
+		Assert.assertEquals(new RemoveDeadEnds<>(mServices, mNwa).getResult().size(),
+				new RemoveDeadEnds<>(mServices, mCompact).getResult().size());
+	}
+
+	/**
+	 * Compares two collections of transitions regardless of their order, but including duplicates.
+	 */
+	private static <T> void assertSameTransitions(final Iterable<T> expected, final Iterable<T> actual,
+			final Function<T, List<Object>> components) {
+		final List<List<Object>> expectedList = toList(expected, components);
+		final List<List<Object>> actualList = toList(actual, components);
+		Assert.assertEquals(expectedList.size(), actualList.size());
+		final Set<List<Object>> expectedSet = new HashSet<>(expectedList);
+		Assert.assertEquals(expectedList.size(), expectedSet.size());
+		Assert.assertEquals(expectedSet, new HashSet<>(actualList));
+	}
+
+	private static <T> List<List<Object>> toList(final Iterable<T> transitions,
+			final Function<T, List<Object>> components) {
+		final List<List<Object>> result = new ArrayList<>();
+		for (final T transition : transitions) {
+			result.add(components.apply(transition));
+		}
+		return result;
+	}
+
+	private static List<Object> outgoingInternal(final OutgoingInternalTransition<String, String> trans) {
+		return Arrays.asList(trans.getLetter(), trans.getSucc());
+	}
+
+	private static List<Object> outgoingCall(final OutgoingCallTransition<String, String> trans) {
+		return Arrays.asList(trans.getLetter(), trans.getSucc());
+	}
+
+	private static List<Object> outgoingReturn(final OutgoingReturnTransition<String, String> trans) {
+		return Arrays.asList(trans.getHierPred(), trans.getLetter(), trans.getSucc());
+	}
+
+	private static List<Object> incomingInternal(final IncomingInternalTransition<String, String> trans) {
+		return Arrays.asList(trans.getPred(), trans.getLetter());
+	}
+
+	private static List<Object> incomingCall(final IncomingCallTransition<String, String> trans) {
+		return Arrays.asList(trans.getPred(), trans.getLetter());
+	}
+
+	private static List<Object> incomingReturn(final IncomingReturnTransition<String, String> trans) {
+		return Arrays.asList(trans.getLinPred(), trans.getHierPred(), trans.getLetter());
+	}
+
+	private static List<Object> summary(final SummaryReturnTransition<String, String> trans) {
+		return Arrays.asList(trans.getLinPred(), trans.getLetter(), trans.getSucc());
+	}
+}
@@ -29,6 +29,7 @@
  */
 package de.uni_freiburg.informatik.ultimate.plugins.source.automatascriptparser.AST;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -47,9 +48,14 @@ public class AutomataDefinitionsAST extends AtsASTNode {
 	private static final long serialVersionUID = 302216547472553949L;
 	
 	private final List<AutomatonAST> mAutomataDefinitions;
+	/**
+	 * Files in the binary automata format, whose automata are not parsed but directly read by the interpreter.
+	 */
+	private final List<File> mBinaryAutomataFiles;
 	public AutomataDefinitionsAST() {
 		super(new DefaultLocation());
 		mAutomataDefinitions = new ArrayList<AutomatonAST>();
+		mBinaryAutomataFiles = new ArrayList<>();
 	}
 	
 	public AutomataDefinitionsAST(final AutomatonAST a) {
@@ -74,6 +80,16 @@ public class AutomataDefinitionsAST extends AtsASTNode {
 		return mAutomataDefinitions.contains(a);
 	}
 
+	public List<File> getBinaryAutomataFiles() {
+		return mBinaryAutomataFiles;
+	}
+
+	public void addBinaryAutomataFile(final File file) {
+		if (!mBinaryAutomataFiles.contains(file)) {
+			mBinaryAutomataFiles.add(file);
+		}
+	}
+
 	@Override
 	public String toString() {
 		final StringBuilder builder = new StringBuilder();
@@ -82,11 +98,15 @@ public class AutomataDefinitionsAST extends AtsASTNode {
 			builder.append("#AutomataDefinitions: ");
 			builder.append(mAutomataDefinitions.size());
 		}
+		if (!mBinaryAutomataFiles.isEmpty()) {
+			builder.append(" #BinaryAutomataFiles: ");
+			builder.append(mBinaryAutomataFiles.size());
+		}
 		builder.append("]");
 		return builder.toString();
 	}
 	
 	public boolean isEmpty() {
-		return mAutomataDefinitions.isEmpty();
+		return mAutomataDefinitions.isEmpty() && mBinaryAutomataFiles.isEmpty();
 	}
 }
@@ -37,6 +37,7 @@ import java.util.List;
 
 import javax.print.attribute.standard.Severity;
 
+import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter.Format;
 import de.uni_freiburg.informatik.ultimate.core.lib.results.SyntaxErrorResult;
 import de.uni_freiburg.informatik.ultimate.core.model.models.ILocation;
 import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
@@ -103,8 +104,9 @@ public class AutomataScriptParserRun {
 			if (parser.containsOtherAutomataFilesToParse()) {
 				final String baseDir = parser.getFilePath()
 						.substring(0, parser.getFilePath().lastIndexOf(File.separator) + 1);
+				final List<File> binaryFiles = new ArrayList<>();
 				final List<AutomatonAST> automataDefinitionsFromOtherFiles = parseAutomataDefinitions(
-						parser.getFilesToParse(), baseDir);
+						parser.getFilesToParse(), baseDir, binaryFiles);
 				// Check if automata from other files, were already defined in
 				// current file.
 				for (final AutomatonAST a : automataDefinitionsFromOtherFiles) {
@@ -115,6 +117,9 @@ public class AutomataScriptParserRun {
 						autDefs.addAutomaton(a);
 					}
 				}
+				for (final File binaryFile : binaryFiles) {
+					autDefs.addBinaryAutomataFile(binaryFile);
+				}
 			}
 			ats.setAutomataDefinitions(autDefs);
 			return (AutomataTestFileAST) result;
@@ -127,13 +132,18 @@ public class AutomataScriptParserRun {
 	 * Parses automata definitions from given files. This is usually required,
 	 * if in a automata test file (.ats file) the
 	 * parseAutomata(pathToAutomataDefinitions) is called.
+	 * Files in the binary automata format are not parsed but only collected.
 	 * 
 	 * @param filesToParse
 	 *            the files from which to parse automata.
 	 * @param baseDir
+	 * @param binaryFiles
+	 *            list to which the files in the binary automata format are
+	 *            added.
 	 * @return list of automata, which are parsed from given files.
 	 */
-	private List<AutomatonAST> parseAutomataDefinitions(final List<String> filesToParse, final String baseDir) {
+	private List<AutomatonAST> parseAutomataDefinitions(final List<String> filesToParse, final String baseDir,
+			final List<File> binaryFiles) {
 		final List<AutomatonAST> parsedAutomata = new ArrayList<AutomatonAST>();
 		for (final String fileToParse : filesToParse) {
 			Lexer lexer = null;
@@ -149,6 +159,10 @@ public class AutomataScriptParserRun {
 			if (file == null) {
 				continue;
 			}
+			if (fileToParse.endsWith('.' + Format.BINARY.getFileEnding())) {
+				binaryFiles.add(file);
+				continue;
+			}
 			try {
 				lexer = new Lexer(new FileReader(file));
 			} catch (final FileNotFoundException e) {
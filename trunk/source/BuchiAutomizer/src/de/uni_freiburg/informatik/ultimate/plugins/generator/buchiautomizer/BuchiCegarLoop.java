@@ -235,6 +235,11 @@ public class BuchiCegarLoop<LETTER extends IIcfgTransition<?>> {
 	private final boolean mConstructTermcompProof;
 	private final TermcompProofBenchmark mTermcompProofBenchmark;
 
+	/**
+	 * Termination and nontermination arguments of the lassos of earlier iterations, null if they are not cached.
+	 */
+	private final LassoArgumentCache mLassoArgumentCache;
+
 	private final InterpolationTechnique mInterpolation;
 
 	private final RefineBuchi<LETTER> mRefineBuchi;
@@ -325,6 +330,12 @@ public class BuchiCegarLoop<LETTER extends IIcfgTransition<?>> {
 			mTermcompProofBenchmark = null;
 		}
 
+		if (baPref.getBoolean(BuchiAutomizerPreferenceInitializer.LABEL_CACHE_LASSO_ARGUMENTS)) {
+			mLassoArgumentCache = new LassoArgumentCache();
+		} else {
+			mLassoArgumentCache = null;
+		}
+
 		final NcsbImplementation ncsbImplemntation =
 				baPref.getEnum(BuchiAutomizerPreferenceInitializer.LABEL_NCSB_IMPLEMENTATION, NcsbImplementation.class);
 		mRefineBuchi = new RefineBuchi<>(mIcfg, mCsToolkitWithRankVars, predicateFactory, mPref.dumpAutomata(),
@@ -460,7 +471,7 @@ public class BuchiCegarLoop<LETTER extends IIcfgTransition<?>> {
 						mIcfg.getCfgSmtToolkit().getSmtFunctionsAndAxioms(), mBinaryStatePredicateManager,
 						mCounterexample, generateLassoCheckIdentifier(), mServices, SIMPLIFICATION_TECHNIQUE,
 						XNF_CONVERSION_TEQCHNIQUE, mRefinementStrategyFactory, mAbstraction, taskIdentifier,
-						mBenchmarkGenerator);
+						mBenchmarkGenerator, mLassoArgumentCache);
 				if (lassoCheck.getLassoCheckResult().getContinueDirective() == ContinueDirective.REPORT_UNKNOWN) {
 					// if result was unknown, then try again but this time add one
 					// iteration of the loop to the stem.
@@ -477,7 +488,7 @@ public class BuchiCegarLoop<LETTER extends IIcfgTransition<?>> {
 							mIcfg.getCfgSmtToolkit().getSmtFunctionsAndAxioms(), mBinaryStatePredicateManager,
 							mCounterexample, generateLassoCheckIdentifier(), mServices, SIMPLIFICATION_TECHNIQUE,
 							XNF_CONVERSION_TEQCHNIQUE, mRefinementStrategyFactory, mAbstraction,
-							unwindingTaskIdentifier, mBenchmarkGenerator);
+							unwindingTaskIdentifier, mBenchmarkGenerator, mLassoArgumentCache);
 				}
 			} catch (final ToolchainCanceledException e) {
 				final int traceHistogramMaxStem =
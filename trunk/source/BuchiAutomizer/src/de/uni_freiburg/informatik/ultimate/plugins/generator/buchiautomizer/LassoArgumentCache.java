@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE BuchiAutomizer plug-in.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE BuchiAutomizer plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE BuchiAutomizer plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE BuchiAutomizer plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import de.uni_freiburg.informatik.ultimate.lassoranker.nontermination.NonTerminationArgument;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.TerminationArgument;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.transitions.UnmodifiableTransFormula;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.variables.IProgramVar;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SmtUtils;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer.LassoCheck.SynthesisResult;
+
+/**
+ * Results of the termination and nontermination analysis of lassos, such that {@link LassoCheck}s of later iterations
+ * of the {@link BuchiCegarLoop} do not synthesize the same arguments again.
+ * <p>
+ * Lassos are identified by a normal form of their stem and loop {@link UnmodifiableTransFormula}s: the in- and
+ * outvariables are named after their program variables, the auxiliary variables are numbered, and the conjuncts of
+ * the formula are sorted. Two lassos with the same key hence only differ in the names of their {@link TermVariable}s
+ * and in the order of their conjuncts, and each argument for one of them is an argument for the other.
+ * <p>
+ * Negative outcomes are cached as well, i.e., if all ranking templates failed for some lasso, they are not tried again
+ * for an equivalent lasso. The arguments refer to the program variables of the current program, hence a cache must
+ * not be used for different programs.
+ */
+public class LassoArgumentCache {
+
+	private final Map<String, CachedResult> mResults;
+	private int mHits;
+	private int mMisses;
+
+	public LassoArgumentCache() {
+		mResults = new HashMap<>();
+	}
+
+	/**
+	 * @param withStem
+	 *            true iff the stem is part of the analysis; if false, the stem is ignored and may be null
+	 * @param hondaProcedure
+	 *            the procedure of the first location of the loop, which determines the modifiable globals
+	 */
+	static String computeKey(final boolean withStem, final String hondaProcedure,
+			final UnmodifiableTransFormula stemTF, final UnmodifiableTransFormula loopTF) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(hondaProcedure).append('\n');
+		if (withStem) {
+			sb.append("stem\n");
+			appendNormalForm(sb, stemTF);
+		}
+		sb.append("loop\n");
+		appendNormalForm(sb, loopTF);
+		return sb.toString();
+	}
+
+	CachedResult get(final String key) {
+		final CachedResult result = mResults.get(key);
+		if (result == null) {
+			mMisses++;
+		} else {
+			mHits++;
+		}
+		return result;
+	}
+
+	void put(final String key, final SynthesisResult result, final TerminationArgument terminationArgument,
+			final NonTerminationArgument nonTerminationArgument) {
+		assert result != SynthesisResult.UNCHECKED;
+		assert result != SynthesisResult.TERMINATING || terminationArgument != null;
+		mResults.put(key, new CachedResult(result, terminationArgument, nonTerminationArgument));
+	}
+
+	public int getHits() {
+		return mHits;
+	}
+
+	public int getMisses() {
+		return mMisses;
+	}
+
+	private static void appendNormalForm(final StringBuilder sb, final UnmodifiableTransFormula tf) {
+		final Map<String, String> names = new HashMap<>();
+		final Set<String> variables = new TreeSet<>();
+		for (final Entry<IProgramVar, TermVariable> entry : tf.getInVars().entrySet()) {
+			final String id = entry.getKey().getGloballyUniqueId();
+			final boolean isAlsoOutVar = entry.getValue().equals(tf.getOutVars().get(entry.getKey()));
+			// names contain a space, which is not possible in symbols that are printed without quotes
+			final String name = isAlsoOutVar ? "{inout " + id + "}" : "{in " + id + "}";
+			names.put(entry.getValue().toString(), name);
+			variables.add(name);
+		}
+		for (final Entry<IProgramVar, TermVariable> entry : tf.getOutVars().entrySet()) {
+			if (!entry.getValue().equals(tf.getInVars().get(entry.getKey()))) {
+				final String name = "{out " + entry.getKey().getGloballyUniqueId() + "}";
+				names.put(entry.getValue().toString(), name);
+				variables.add(name);
+			}
+		}
+		final Set<String> auxVars = new HashSet<>();
+		for (final TermVariable tv : tf.getFormula().getFreeVars()) {
+			if (!names.containsKey(tv.toString())) {
+				auxVars.add(tv.toString());
+			}
+		}
+		for (final String variable : variables) {
+			sb.append(variable).append('\n');
+		}
+
+		// sort the conjuncts without distinguishing auxiliary variables, then number them in this order
+		final List<String> conjuncts = new ArrayList<>();
+		for (final Term conjunct : SmtUtils.getConjuncts(tf.getFormula())) {
+			conjuncts.add(conjunct.toStringDirect());
+		}
+		final String[] sortKeys = new String[conjuncts.size()];
+		final Integer[] order = new Integer[conjuncts.size()];
+		for (int i = 0; i < sortKeys.length; i++) {
+			sortKeys[i] = rename(conjuncts.get(i), x -> auxVars.contains(x) ? "{aux}" : names.get(x));
+			order[i] = i;
+		}
+		Arrays.sort(order, (i1, i2) -> sortKeys[i1].compareTo(sortKeys[i2]));
+		final Map<String, String> auxNames = new HashMap<>();
+		final Function<String, String> renaming = x -> auxVars.contains(x)
+				? auxNames.computeIfAbsent(x, y -> "{aux " + auxNames.size() + "}") : names.get(x);
+		final List<String> normalizedConjuncts = new ArrayList<>(conjuncts.size());
+		for (final Integer i : order) {
+			normalizedConjuncts.add(rename(conjuncts.get(i), renaming));
+		}
+		// the order of conjuncts with the same sort key may depend on the input, this only costs cache hits
+		Collections.sort(normalizedConjuncts);
+		for (final String conjunct : normalizedConjuncts) {
+			sb.append(conjunct).append('\n');
+		}
+	}
+
+	/**
+	 * Replace each symbol in an SMT-LIB string for which renaming is not null.
+	 */
+	private static String rename(final String smt, final Function<String, String> renaming) {
+		final StringBuilder sb = new StringBuilder(smt.length());
+		int i = 0;
+		while (i < smt.length()) {
+			final char c = smt.charAt(i);
+			if (c == '(' || c == ')' || Character.isWhitespace(c)) {
+				sb.append(c);
+				i++;
+				continue;
+			}
+			int end = i + 1;
+			if (c == '|') {
+				while (end < smt.length() && smt.charAt(end) != '|') {
+					end++;
+				}
+				end = Math.min(end + 1, smt.length());
+			} else if (c == '"') {
+				// string literal, "" is an escaped quote
+				while (end < smt.length()) {
+					if (smt.charAt(end) == '"') {
+						if (end + 1 < smt.length() && smt.charAt(end + 1) == '"') {
+							end += 2;
+							continue;
+						}
+						end++;
+						break;
+					}
+					end++;
+				}
+				sb.append(smt, i, end);
+				i = end;
+				continue;
+			} else {
+				while (end < smt.length() && !isDelimiter(smt.charAt(end))) {
+					end++;
+				}
+			}
+			final String symbol = smt.substring(i, end);
+			final String replacement = renaming.apply(symbol);
+			sb.append(replacement == null ? symbol : replacement);
+			i = end;
+		}
+		return sb.toString();
+	}
+
+	private static boolean isDelimiter(final char c) {
+		return c == '(' || c == ')' || c == '|' || c == '"' || Character.isWhitespace(c);
+	}
+
+	/**
+	 * Outcome of the analysis of one lasso.
+	 */
+	static final class CachedResult {
+		private final SynthesisResult mResult;
+		private final TerminationArgument mTerminationArgument;
+		private final NonTerminationArgument mNonTerminationArgument;
+
+		private CachedResult(final SynthesisResult result, final TerminationArgument terminationArgument,
+				final NonTerminationArgument nonTerminationArgument) {
+			mResult = result;
+			mTerminationArgument = terminationArgument;
+			mNonTerminationArgument = nonTerminationArgument;
+		}
+
+		SynthesisResult getResult() {
+			return mResult;
+		}
+
+		TerminationArgument getTerminationArgument() {
+			return mTerminationArgument;
+		}
+
+		NonTerminationArgument getNonTerminationArgument() {
+			return mNonTerminationArgument;
+		}
+	}
+}
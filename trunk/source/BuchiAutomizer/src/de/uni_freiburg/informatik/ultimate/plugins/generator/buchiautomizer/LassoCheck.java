@@ -90,6 +90,7 @@ import de.uni_freiburg.informatik.ultimate.lib.tracecheckerutils.singletracechec
 import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
 import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer.LassoArgumentCache.CachedResult;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer.preferences.BuchiAutomizerPreferenceInitializer;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.SequentialComposition;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.IPostconditionProvider;
@@ -152,6 +153,11 @@ public class LassoCheck<LETTER extends IIcfgTransition<?>> {
 	 */
 	private final boolean mTemplateBenchmarkMode;
 
+	/**
+	 * Number of ranking templates that are tried concurrently. If one, the templates are tried one after another.
+	 */
+	private final int mTemplateSynthesisThreads;
+
 	// ////////////////////////////// input /////////////////////////////////
 	/**
 	 * Intermediate layer to encapsulate communication with SMT solvers.
@@ -205,6 +211,11 @@ public class LassoCheck<LETTER extends IIcfgTransition<?>> {
 	// TODO: Do not add statistics but do provide statistics
 	private final BuchiCegarLoopBenchmarkGenerator mCegarStatistics;
 
+	/**
+	 * Results of the lasso analysis of earlier iterations, null if results are not cached.
+	 */
+	private final LassoArgumentCache mArgumentCache;
+
 	private final PredicateFactory mPredicateFactory;
 
 	private final PredicateFactoryForInterpolantAutomata mStateFactoryForInterpolantAutomaton;
@@ -217,7 +228,8 @@ public class LassoCheck<LETTER extends IIcfgTransition<?>> {
 			final SimplificationTechnique simplificationTechnique, final XnfConversionTechnique xnfConversionTechnique,
 			final StrategyFactory<LETTER> refinementStrategyFactory,
 			final INestedWordAutomaton<LETTER, IPredicate> abstraction, final TaskIdentifier taskIdentifier,
-			final BuchiCegarLoopBenchmarkGenerator cegarStatistics) throws IOException {
+			final BuchiCegarLoopBenchmarkGenerator cegarStatistics, final LassoArgumentCache argumentCache)
+			throws IOException {
 		mServices = services;
 		mSimplificationTechnique = simplificationTechnique;
 		mXnfConversionTechnique = xnfConversionTechnique;
@@ -230,6 +242,7 @@ public class LassoCheck<LETTER extends IIcfgTransition<?>> {
 		mGntaDirections = baPref.getInt(BuchiAutomizerPreferenceInitializer.LABEL_GNTA_DIRECTIONS);
 
 		mTemplateBenchmarkMode = baPref.getBoolean(BuchiAutomizerPreferenceInitializer.LABEL_TEMPLATE_BENCHMARK_MODE);
+		mTemplateSynthesisThreads = baPref.getInt(BuchiAutomizerPreferenceInitializer.LABEL_TEMPLATE_SYNTHESIS_THREADS);
 		mTrySimplificationTerminationArgument = baPref.getBoolean(BuchiAutomizerPreferenceInitializer.LABEL_SIMPLIFY);
 		mTryTwofoldRefinement = baPref.getBoolean(BuchiAutomizerPreferenceInitializer.LABEL_TRY_TWOFOLD_REFINEMENT);
 		mCsToolkit = csToolkit;
@@ -241,6 +254,7 @@ public class LassoCheck<LETTER extends IIcfgTransition<?>> {
 		mAbstraction = abstraction;
 		mTaskIdentifier = taskIdentifier;
 		mCegarStatistics = cegarStatistics;
+		mArgumentCache = argumentCache;
 
 		mPredicateFactory = predicateFactory;
 		// TODO: I am unsure about the following flag
@@ -536,7 +550,44 @@ public class LassoCheck<LETTER extends IIcfgTransition<?>> {
 		});
 	}
 
-	private SynthesisResult synthesize(final boolean withStem, UnmodifiableTransFormula stemTF,
+	private SynthesisResult synthesize(final boolean withStem, final UnmodifiableTransFormula stemTF,
+			final UnmodifiableTransFormula loopTF, final boolean containsArrays) throws IOException {
+		if (mArgumentCache == null) {
+			return synthesizeArguments(withStem, stemTF, loopTF, containsArrays);
+		}
+		final String proc =
+				((ISLPredicate) mCounterexample.getLoop().getStateAtPosition(0)).getProgramPoint().getProcedure();
+		final String key = LassoArgumentCache.computeKey(withStem, proc, stemTF, loopTF);
+		final CachedResult cached = mArgumentCache.get(key);
+		if (cached != null) {
+			mLogger.info("Using cached result of an equivalent lasso: %s (%s hits, %s misses)", cached.getResult(),
+					mArgumentCache.getHits(), mArgumentCache.getMisses());
+			return useCachedResult(withStem, stemTF, loopTF, proc, cached);
+		}
+		final SynthesisResult result = synthesizeArguments(withStem, stemTF, loopTF, containsArrays);
+		final TerminationArgument termArg =
+				result == SynthesisResult.TERMINATING ? mBspm.getTerminationArgument() : null;
+		mArgumentCache.put(key, result, termArg, withStem ? mNonterminationArgument : null);
+		return result;
+	}
+
+	private SynthesisResult useCachedResult(final boolean withStem, final UnmodifiableTransFormula stemTF,
+			final UnmodifiableTransFormula loopTF, final String hondaProcedure, final CachedResult cached) {
+		if (withStem) {
+			mNonterminationArgument = cached.getNonTerminationArgument();
+		}
+		if (cached.getResult() == SynthesisResult.TERMINATING) {
+			final UnmodifiableTransFormula stem =
+					withStem ? stemTF : TransFormulaBuilder.getTrivialTransFormula(mCsToolkit.getManagedScript());
+			mBspm.computePredicates(!withStem, cached.getTerminationArgument(), mRemoveSuperfluousSupportingInvariants,
+					stem, loopTF, mCsToolkit.getModifiableGlobalsTable().getModifiedBoogieVars(hondaProcedure));
+			assert mBspm.providesPredicates();
+			assert isRankingFunctionCorrect() : "incorrect cached ranking function";
+		}
+		return cached.getResult();
+	}
+
+	private SynthesisResult synthesizeArguments(final boolean withStem, UnmodifiableTransFormula stemTF,
 			final UnmodifiableTransFormula loopTF, final boolean containsArrays) throws IOException {
 		if (mCsToolkit.getManagedScript().isLocked()) {
 			throw new AssertionError("SMTManager must not be locked at the beginning of synthesis");
@@ -687,6 +738,21 @@ public class LassoCheck<LETTER extends IIcfgTransition<?>> {
 		final Set<IProgramNonOldVar> modifiableGlobals =
 				mCsToolkit.getModifiableGlobalsTable().getModifiedBoogieVars(hondaProcedure);
 
+		if (mTemplateSynthesisThreads > 1 && !mTemplateBenchmarkMode) {
+			final RankingTemplatePortfolio portfolio = new RankingTemplatePortfolio(mServices, mLogger, la,
+					rankingFunctionTemplates, constructTASettings(), mTemplateSynthesisThreads);
+			final TerminationArgument termArg = portfolio.synthesize();
+			mTerminationAnalysisBenchmarks.addAll(la.getTerminationAnalysisBenchmarks());
+			if (termArg != null) {
+				mBspm.computePredicates(!withStem, termArg, mRemoveSuperfluousSupportingInvariants, stemTF, loopTF,
+						modifiableGlobals);
+				assert mBspm.providesPredicates();
+				assert isRankingFunctionCorrect() : "incorrect ranking function with"
+						+ portfolio.getSuccessfulTemplate().getClass().getSimpleName();
+			}
+			return termArg;
+		}
+
 		TerminationArgument firstTerminationArgument = null;
 		for (final RankingTemplate rft : rankingFunctionTemplates) {
 			TerminationArgument termArg;
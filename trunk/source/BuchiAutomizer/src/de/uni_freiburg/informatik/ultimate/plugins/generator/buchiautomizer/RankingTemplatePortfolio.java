@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE BuchiAutomizer plug-in.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE BuchiAutomizer plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE BuchiAutomizer plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE BuchiAutomizer plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainCanceledException;
+import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainExceptionWrapper;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.icfgtransformer.transformulatransformers.TermException;
+import de.uni_freiburg.informatik.ultimate.lassoranker.LassoAnalysis;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.TerminationAnalysisSettings;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.TerminationArgument;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.templates.RankingTemplate;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+
+/**
+ * Tries several ranking templates for one lasso concurrently and returns the termination argument of the first
+ * template (in the given order) that succeeds, i.e., the same termination argument that trying the templates one
+ * after another would return.
+ * <p>
+ * Each template is solved by {@link LassoAnalysis#synthesizeTerminationArgument} on a solver instance of its own.
+ * The templates are started in the given order. As soon as some template succeeds, all templates that come after it
+ * are canceled and the portfolio only waits for the templates that come before it. Templates that were not started
+ * yet are never started. Templates that are already running are stopped by closing their synthesizer, which exits
+ * their solver. Before {@link #synthesize()} returns, it waits until all canceled templates stopped, so solvers of
+ * canceled templates do not pile up across lassos.
+ */
+public class RankingTemplatePortfolio {
+
+	private static final long POLL_INTERVAL_MS = 100;
+	/**
+	 * How long we wait for canceled templates to stop after their solvers were exited.
+	 */
+	private static final long TERMINATION_TIMEOUT_MS = 5_000;
+
+	private final IUltimateServiceProvider mServices;
+	private final ILogger mLogger;
+	private final ITemplateSynthesis mSynthesis;
+	private final List<RankingTemplate> mTemplates;
+	private final int mNumberOfThreads;
+
+	private RankingTemplate mSuccessfulTemplate;
+
+	/**
+	 * @param templates
+	 *            The ranking templates, simplest first.
+	 * @param numberOfThreads
+	 *            Maximal number of templates that are tried at the same time.
+	 */
+	public RankingTemplatePortfolio(final IUltimateServiceProvider services, final ILogger logger,
+			final LassoAnalysis lassoAnalysis, final List<RankingTemplate> templates,
+			final TerminationAnalysisSettings settings, final int numberOfThreads) {
+		this(services, logger, (template, synthesizerCreated) -> lassoAnalysis
+				.synthesizeTerminationArgument(template, settings, synthesizerCreated), templates, numberOfThreads);
+	}
+
+	RankingTemplatePortfolio(final IUltimateServiceProvider services, final ILogger logger,
+			final ITemplateSynthesis synthesis, final List<RankingTemplate> templates, final int numberOfThreads) {
+		mServices = services;
+		mLogger = logger;
+		mSynthesis = synthesis;
+		mTemplates = templates;
+		mNumberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * @return The termination argument of the first template that succeeded, or null if no template succeeded.
+	 */
+	public TerminationArgument synthesize() throws IOException {
+		final AtomicInteger threadNumber = new AtomicInteger();
+		final ExecutorService executor =
+				Executors.newFixedThreadPool(Math.min(mNumberOfThreads, mTemplates.size()), runnable -> {
+					final Thread thread =
+							new Thread(runnable, "RankingTemplatePortfolio-" + threadNumber.getAndIncrement());
+					thread.setDaemon(true);
+					return thread;
+				});
+		final List<Future<TerminationArgument>> futures = new ArrayList<>(mTemplates.size());
+		final List<TemplateTask> tasks = new ArrayList<>(mTemplates.size());
+		try {
+			final CompletionService<TerminationArgument> completion = new ExecutorCompletionService<>(executor);
+			// the executor starts the tasks in submission order, i.e., the simplest templates first
+			for (final RankingTemplate template : mTemplates) {
+				final TemplateTask task = new TemplateTask(template);
+				tasks.add(task);
+				futures.add(completion.submit(task));
+			}
+			return collectResults(completion, futures, tasks);
+		} finally {
+			// stop every template that is still running, the results of all templates were already collected
+			for (int i = 0; i < futures.size(); i++) {
+				cancel(futures.get(i), tasks.get(i));
+			}
+			executor.shutdownNow();
+			awaitTermination(executor);
+		}
+	}
+
+	private static void cancel(final Future<TerminationArgument> future, final TemplateTask task) {
+		future.cancel(true);
+		task.cancel();
+	}
+
+	private void awaitTermination(final ExecutorService executor) {
+		try {
+			if (!executor.awaitTermination(TERMINATION_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+				mLogger.warn("Canceled ranking templates did not stop within %s ms", TERMINATION_TIMEOUT_MS);
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return The template whose termination argument was returned by {@link #synthesize()}, or null if there is none.
+	 */
+	public RankingTemplate getSuccessfulTemplate() {
+		return mSuccessfulTemplate;
+	}
+
+	private TerminationArgument collectResults(final CompletionService<TerminationArgument> completion,
+			final List<Future<TerminationArgument>> futures, final List<TemplateTask> tasks) throws IOException {
+		final int numberOfTemplates = futures.size();
+		final boolean[] finished = new boolean[numberOfTemplates];
+		final TerminationArgument[] results = new TerminationArgument[numberOfTemplates];
+		// all templates before firstOpen finished without a termination argument
+		int firstOpen = 0;
+		// the simplest template that succeeded so far
+		int firstSuccess = numberOfTemplates;
+		while (firstOpen < firstSuccess) {
+			if (!mServices.getProgressMonitorService().continueProcessing()) {
+				throw new ToolchainCanceledException(getClass(),
+						"trying " + numberOfTemplates + " ranking templates in parallel");
+			}
+			final Future<TerminationArgument> future;
+			try {
+				future = completion.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ToolchainCanceledException(getClass(),
+						"trying " + numberOfTemplates + " ranking templates in parallel");
+			}
+			if (future == null || future.isCancelled()) {
+				continue;
+			}
+			final int index = futures.indexOf(future);
+			if (index > firstSuccess) {
+				// finished before it was canceled, but a simpler template already succeeded
+				continue;
+			}
+			finished[index] = true;
+			results[index] = getResult(future);
+			if (results[index] != null) {
+				firstSuccess = index;
+				mLogger.info("Template %s succeeded, canceling %s more complex templates",
+						mTemplates.get(index).getName(), numberOfTemplates - index - 1);
+				for (int i = index + 1; i < numberOfTemplates; i++) {
+					cancel(futures.get(i), tasks.get(i));
+				}
+			}
+			while (firstOpen < numberOfTemplates && finished[firstOpen] && results[firstOpen] == null) {
+				firstOpen++;
+			}
+		}
+		if (firstSuccess == numberOfTemplates) {
+			return null;
+		}
+		mSuccessfulTemplate = mTemplates.get(firstSuccess);
+		return results[firstSuccess];
+	}
+
+	private static TerminationArgument getResult(final Future<TerminationArgument> future) throws IOException {
+		try {
+			return future.get();
+		} catch (final InterruptedException | CancellationException e) {
+			throw new AssertionError("future is done and not canceled", e);
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof SMTLIBException || cause instanceof TermException) {
+				throw new ToolchainExceptionWrapper(Activator.PLUGIN_ID, cause);
+			}
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * Synthesizes a termination argument for one template and reports each synthesizer that it creates, such that
+	 * the synthesis can be stopped by closing the synthesizer.
+	 */
+	@FunctionalInterface
+	interface ITemplateSynthesis {
+		TerminationArgument synthesize(RankingTemplate template, Consumer<Closeable> synthesizerCreated)
+				throws SMTLIBException, TermException, IOException;
+	}
+
+	/**
+	 * The synthesis for one template. Canceling the task closes the synthesizer that it currently uses, and every
+	 * synthesizer that it creates afterwards.
+	 */
+	private final class TemplateTask implements Callable<TerminationArgument> {
+		private final RankingTemplate mTemplate;
+		private Closeable mSynthesizer;
+		private boolean mCanceled;
+
+		private TemplateTask(final RankingTemplate template) {
+			mTemplate = template;
+		}
+
+		@Override
+		public TerminationArgument call() throws SMTLIBException, TermException, IOException {
+			return mSynthesis.synthesize(mTemplate, this::register);
+		}
+
+		private synchronized void register(final Closeable synthesizer) {
+			mSynthesizer = synthesizer;
+			if (mCanceled) {
+				close(synthesizer);
+			}
+		}
+
+		private synchronized void cancel() {
+			mCanceled = true;
+			if (mSynthesizer != null) {
+				close(mSynthesizer);
+			}
+		}
+
+		private void close(final Closeable synthesizer) {
+			try {
+				synthesizer.close();
+			} catch (final IOException e) {
+				mLogger.warn("Closing the synthesizer of template %s failed: %s", mTemplate.getName(), e);
+			}
+		}
+	}
+}
@@ -109,6 +109,16 @@ public class BuchiAutomizerPreferenceInitializer extends UltimatePreferenceIniti
 	public static final String LABEL_GNTA_DIRECTIONS = "Number of GNTA directions";
 	private static final int DEF_GNTA_DIRECTIONS = 3;
 	public static final String LABEL_TEMPLATE_BENCHMARK_MODE = "Template benchmark mode";
+	public static final String LABEL_CACHE_LASSO_ARGUMENTS = "Cache results of lasso analysis";
+	private static final String DESC_CACHE_LASSO_ARGUMENTS =
+			"Reuse termination and nontermination arguments (and failed syntheses) of earlier iterations for lassos "
+					+ "whose stem and loop are equal up to renaming of variables and reordering of conjuncts.";
+	public static final String LABEL_TEMPLATE_SYNTHESIS_THREADS = "Number of threads for ranking template synthesis";
+	private static final int DEF_TEMPLATE_SYNTHESIS_THREADS = 1;
+	private static final String DESC_TEMPLATE_SYNTHESIS_THREADS =
+			"If larger than one, the ranking templates are tried concurrently, each on a solver instance of its own. "
+					+ "The simplest template for which a termination argument is found is used. Has no effect in "
+					+ "template benchmark mode.";
 	public static final String LABEL_DUMP_SCRIPT_TO_FILE = "Dump SMT script to file";
 	public static final String LABEL_DUMP_SCRIPT_PATH = "To the following directory";
 	private static final String DEF_DUMP_SCRIPT_PATH = "";
@@ -181,6 +191,11 @@ public class BuchiAutomizerPreferenceInitializer extends UltimatePreferenceIniti
 						AnalysisType.values()),
 				new UltimatePreferenceItem<>(LABEL_GNTA_DIRECTIONS, DEF_GNTA_DIRECTIONS, PreferenceType.Integer),
 				new UltimatePreferenceItem<>(LABEL_TEMPLATE_BENCHMARK_MODE, false, PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_CACHE_LASSO_ARGUMENTS, false, DESC_CACHE_LASSO_ARGUMENTS,
+						PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_TEMPLATE_SYNTHESIS_THREADS, DEF_TEMPLATE_SYNTHESIS_THREADS,
+						DESC_TEMPLATE_SYNTHESIS_THREADS, PreferenceType.Integer,
+						new IUltimatePreferenceItemValidator.IntegerValidator(1, 64)),
 				new UltimatePreferenceItem<>(LABEL_DUMP_SCRIPT_TO_FILE, false, PreferenceType.Boolean),
 				new UltimatePreferenceItem<>(LABEL_DUMP_SCRIPT_PATH, DEF_DUMP_SCRIPT_PATH, PreferenceType.Directory),
 				new UltimatePreferenceItem<>(LABEL_CONSTRUCT_TERMCOMP_PROOF, false, PreferenceType.Boolean),
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE BuchiAutomizer plug-in.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE BuchiAutomizer plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE BuchiAutomizer plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE BuchiAutomizer plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.AffineFunction;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.TerminationArgument;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.rankingfunctions.LinearRankingFunction;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.boogie.LocalBoogieVar;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.transitions.TransFormulaBuilder;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.transitions.UnmodifiableTransFormula;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.transitions.UnmodifiableTransFormula.Infeasibility;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.variables.IProgramVar;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.variables.ProgramVarUtils;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.managedscript.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.logic.ApplicationTerm;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.NoopScript;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer.LassoArgumentCache.CachedResult;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer.LassoCheck.SynthesisResult;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Tests for {@link LassoArgumentCache}: a lasso that only differs from a cached lasso in the names of its variables
+ * and the order of its conjuncts hits the cache, any other lasso misses it.
+ */
+public class LassoArgumentCacheTest {
+
+	private static final String PROCEDURE = "main";
+
+	private ManagedScript mMgdScript;
+	private Script mScript;
+	private IProgramVar mX;
+	private IProgramVar mY;
+
+	@Before
+	public void setUp() {
+		mScript = new NoopScript();
+		mScript.setLogic(Logics.ALL);
+		mMgdScript = new ManagedScript(UltimateMocks.createUltimateServiceProviderMock(), mScript);
+		mX = constructVar("x");
+		mY = constructVar("y");
+	}
+
+	@Test
+	public void renamedLassoHitsCache() {
+		final LassoArgumentCache cache = new LassoArgumentCache();
+		final TerminationArgument argument = createArgument();
+		cache.put(decrementKey("a", true), SynthesisResult.TERMINATING, argument, null);
+
+		// the renamed lasso also has its conjuncts in a different order
+		final CachedResult cached = cache.get(decrementKey("b", false));
+		Assert.assertNotNull("renamed lasso missed the cache", cached);
+		Assert.assertEquals(SynthesisResult.TERMINATING, cached.getResult());
+		Assert.assertSame(argument, cached.getTerminationArgument());
+		Assert.assertEquals(1, cache.getHits());
+		Assert.assertEquals(0, cache.getMisses());
+	}
+
+	@Test
+	public void differentLassoMissesCache() {
+		final LassoArgumentCache cache = new LassoArgumentCache();
+		cache.put(decrementKey("a", true), SynthesisResult.UNKNOWN, null, null);
+
+		final Map<IProgramVar, TermVariable> in = vars("b", "in", mX);
+		final Map<IProgramVar, TermVariable> out = vars("b", "out", mX);
+		// x is decremented by two instead of one
+		final UnmodifiableTransFormula loop = construct(in, out, mScript.term("and",
+				mScript.term(">", in.get(mX), mScript.numeral("0")),
+				mScript.term("=", out.get(mX), mScript.term("-", in.get(mX), mScript.numeral("2")))));
+		Assert.assertNull(cache.get(LassoArgumentCache.computeKey(true, PROCEDURE, stem("b"), loop)));
+		// x is replaced by y
+		Assert.assertNull(cache.get(LassoArgumentCache.computeKey(true, PROCEDURE, stem("b"),
+				decrement("b", mY, false))));
+		// the stem differs
+		Assert.assertNull(cache.get(LassoArgumentCache.computeKey(true, PROCEDURE, decrement("c", mX, true),
+				decrement("b", mX, false))));
+		// the procedure of the honda differs
+		Assert.assertNull(cache.get(LassoArgumentCache.computeKey(true, "other", stem("b"),
+				decrement("b", mX, false))));
+		// the variable is not modified by the loop
+		final Map<IProgramVar, TermVariable> inOut = vars("b", "inout", mX);
+		final UnmodifiableTransFormula guard =
+				construct(inOut, inOut, mScript.term(">", inOut.get(mX), mScript.numeral("0")));
+		Assert.assertNull(cache.get(LassoArgumentCache.computeKey(true, PROCEDURE, stem("b"), guard)));
+		Assert.assertEquals(0, cache.getHits());
+		Assert.assertEquals(5, cache.getMisses());
+	}
+
+	@Test
+	public void stemIsIgnoredWithoutStem() {
+		final LassoArgumentCache cache = new LassoArgumentCache();
+		cache.put(LassoArgumentCache.computeKey(false, PROCEDURE, null, decrement("a", mX, true)),
+				SynthesisResult.TERMINATING, createArgument(), null);
+		Assert.assertNotNull(cache.get(LassoArgumentCache.computeKey(false, PROCEDURE, decrement("b", mY, true),
+				decrement("c", mX, false))));
+		Assert.assertNull(cache.get(LassoArgumentCache.computeKey(true, PROCEDURE, decrement("b", mY, true),
+				decrement("c", mX, false))));
+	}
+
+	private String decrementKey(final String prefix, final boolean guardFirst) {
+		return LassoArgumentCache.computeKey(true, PROCEDURE, stem(prefix), decrement(prefix, mX, guardFirst));
+	}
+
+	/**
+	 * x := y with an auxiliary variable, i.e., exists aux. aux = y && x' = aux.
+	 */
+	private UnmodifiableTransFormula stem(final String prefix) {
+		final Map<IProgramVar, TermVariable> in = vars(prefix, "in", mY);
+		final Map<IProgramVar, TermVariable> out = vars(prefix, "out", mX);
+		out.putAll(in);
+		final TermVariable aux = mScript.variable(prefix + "_aux", mScript.sort("Int"));
+		final TransFormulaBuilder tfb = new TransFormulaBuilder(in, out, true, null, true, null, false);
+		tfb.setFormula(mScript.term("and", mScript.term("=", aux, in.get(mY)), mScript.term("=", out.get(mX), aux)));
+		tfb.addAuxVar(aux);
+		tfb.setInfeasibility(Infeasibility.NOT_DETERMINED);
+		return tfb.finishConstruction(mMgdScript);
+	}
+
+	/**
+	 * var > 0 && var' = var - 1
+	 */
+	private UnmodifiableTransFormula decrement(final String prefix, final IProgramVar var, final boolean guardFirst) {
+		final Map<IProgramVar, TermVariable> in = vars(prefix, "in", var);
+		final Map<IProgramVar, TermVariable> out = vars(prefix, "out", var);
+		final Term guard = mScript.term(">", in.get(var), mScript.numeral("0"));
+		final Term update = mScript.term("=", out.get(var), mScript.term("-", in.get(var), mScript.numeral("1")));
+		return construct(in, out, guardFirst ? mScript.term("and", guard, update) : mScript.term("and", update, guard));
+	}
+
+	private UnmodifiableTransFormula construct(final Map<IProgramVar, TermVariable> in,
+			final Map<IProgramVar, TermVariable> out, final Term formula) {
+		final TransFormulaBuilder tfb = new TransFormulaBuilder(in, out, true, null, true, null, true);
+		tfb.setFormula(formula);
+		tfb.setInfeasibility(Infeasibility.NOT_DETERMINED);
+		return tfb.finishConstruction(mMgdScript);
+	}
+
+	private Map<IProgramVar, TermVariable> vars(final String prefix, final String suffix, final IProgramVar var) {
+		final Map<IProgramVar, TermVariable> result = new HashMap<>();
+		result.put(var, mScript.variable(prefix + "_" + var.getGloballyUniqueId() + "_" + suffix, var.getSort()));
+		return result;
+	}
+
+	private IProgramVar constructVar(final String identifier) {
+		final Sort sort = mScript.sort("Int");
+		final String name = ProgramVarUtils.buildBoogieVarName(identifier, PROCEDURE, false, false);
+		final TermVariable termVariable = mScript.variable(name, sort);
+		mMgdScript.lock(this);
+		final ApplicationTerm defaultConstant = ProgramVarUtils.constructDefaultConstant(mMgdScript, this, sort, name);
+		final ApplicationTerm primedConstant = ProgramVarUtils.constructPrimedConstant(mMgdScript, this, sort, name);
+		mMgdScript.unlock(this);
+		return new LocalBoogieVar(identifier, PROCEDURE, null, termVariable, defaultConstant, primedConstant);
+	}
+
+	private static TerminationArgument createArgument() {
+		return new TerminationArgument(new LinearRankingFunction(new AffineFunction()), Collections.emptyList(),
+				Collections.emptySet());
+	}
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE BuchiAutomizer plug-in.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE BuchiAutomizer plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE BuchiAutomizer plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE BuchiAutomizer plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.AffineFunction;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.TerminationArgument;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.rankingfunctions.LinearRankingFunction;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.templates.NestedTemplate;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.templates.RankingTemplate;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Tests for {@link RankingTemplatePortfolio}: the portfolio returns the result that trying the templates one after
+ * another would return, and it stops the templates that it cancels.
+ */
+public class RankingTemplatePortfolioTest {
+
+	private static final long TIMEOUT_S = 10;
+
+	private IUltimateServiceProvider mServices;
+	private ILogger mLogger;
+	private List<RankingTemplate> mTemplates;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		mLogger = mServices.getLoggingService().getLogger(getClass());
+		mTemplates = new ArrayList<>();
+		for (int i = 1; i <= 4; i++) {
+			mTemplates.add(new NestedTemplate(i));
+		}
+	}
+
+	@Test
+	public void resultFollowsTemplateOrderWhenLaterTemplateFinishesFirst() throws IOException {
+		final TerminationArgument second = createArgument();
+		final TerminationArgument third = createArgument();
+		final CountDownLatch thirdFinished = new CountDownLatch(1);
+		final FakeSynthesizer fourth = new FakeSynthesizer();
+		final RankingTemplatePortfolio portfolio = createPortfolio((template, synthesizerCreated) -> {
+			final int index = mTemplates.indexOf(template);
+			switch (index) {
+			case 0:
+				await(thirdFinished);
+				return null;
+			case 1:
+				await(thirdFinished);
+				return second;
+			case 2:
+				// the more complex template is already running when it is canceled
+				await(fourth.mStarted);
+				thirdFinished.countDown();
+				return third;
+			default:
+				synthesizerCreated.accept(fourth);
+				return fourth.block();
+			}
+		}, mTemplates.size());
+
+		Assert.assertSame(second, portfolio.synthesize());
+		Assert.assertSame(mTemplates.get(1), portfolio.getSuccessfulTemplate());
+		Assert.assertTrue("more complex template was not stopped", fourth.isClosed());
+	}
+
+	@Test
+	public void resultEqualsSequentialResult() throws IOException {
+		final Random random = new Random(42);
+		for (int round = 0; round < 20; round++) {
+			final List<TerminationArgument> arguments = new ArrayList<>();
+			final List<Long> delaysMs = new ArrayList<>();
+			for (int i = 0; i < mTemplates.size(); i++) {
+				arguments.add(random.nextBoolean() ? createArgument() : null);
+				delaysMs.add((long) random.nextInt(20));
+			}
+			final RankingTemplatePortfolio.ITemplateSynthesis synthesis = (template, synthesizerCreated) -> {
+				final int index = mTemplates.indexOf(template);
+				sleep(delaysMs.get(index));
+				return arguments.get(index);
+			};
+			final TerminationArgument sequential = createPortfolio(synthesis, 1).synthesize();
+			Assert.assertSame(arguments.stream().filter(Objects::nonNull).findFirst().orElse(null), sequential);
+			for (int threads = 2; threads <= mTemplates.size(); threads++) {
+				Assert.assertSame("different result with " + threads + " threads", sequential,
+						createPortfolio(synthesis, threads).synthesize());
+			}
+		}
+	}
+
+	@Test
+	public void canceledTemplatesAreClosedAndStopped() throws IOException {
+		final FakeSynthesizer slow = new FakeSynthesizer();
+		final CountDownLatch slowStopped = new CountDownLatch(1);
+		final TerminationArgument first = createArgument();
+		final RankingTemplatePortfolio portfolio = createPortfolio((template, synthesizerCreated) -> {
+			if (mTemplates.indexOf(template) == 0) {
+				await(slow.mStarted);
+				return first;
+			}
+			if (mTemplates.indexOf(template) == 1) {
+				try {
+					synthesizerCreated.accept(slow);
+					return slow.block();
+				} finally {
+					slowStopped.countDown();
+				}
+			}
+			return null;
+		}, 2);
+
+		Assert.assertSame(first, portfolio.synthesize());
+		Assert.assertTrue("synthesizer of canceled template was not closed", slow.isClosed());
+		// synthesize() waits for the canceled templates
+		Assert.assertEquals("canceled template still runs", 0, slowStopped.getCount());
+	}
+
+	@Test
+	public void synthesizerCreatedAfterCancellationIsClosed() throws IOException {
+		final CountDownLatch firstDone = new CountDownLatch(1);
+		final CountDownLatch secondStarted = new CountDownLatch(1);
+		final FakeSynthesizer late = new FakeSynthesizer();
+		final TerminationArgument first = createArgument();
+		final RankingTemplatePortfolio portfolio = createPortfolio((template, synthesizerCreated) -> {
+			if (mTemplates.indexOf(template) == 0) {
+				await(secondStarted);
+				firstDone.countDown();
+				return first;
+			}
+			if (mTemplates.indexOf(template) > 1) {
+				return null;
+			}
+			secondStarted.countDown();
+			// ignores the interrupt of the cancellation, such that the synthesizer is created afterwards
+			awaitUninterruptibly(firstDone);
+			sleep(50);
+			synthesizerCreated.accept(late);
+			return late.block();
+		}, 2);
+
+		Assert.assertSame(first, portfolio.synthesize());
+		Assert.assertTrue("synthesizer created after cancellation was not closed", late.isClosed());
+	}
+
+	private RankingTemplatePortfolio createPortfolio(final RankingTemplatePortfolio.ITemplateSynthesis synthesis,
+			final int numberOfThreads) {
+		return new RankingTemplatePortfolio(mServices, mLogger, synthesis, mTemplates, numberOfThreads);
+	}
+
+	private static TerminationArgument createArgument() {
+		return new TerminationArgument(new LinearRankingFunction(new AffineFunction()), Collections.emptyList(),
+				Collections.emptySet());
+	}
+
+	private static void await(final CountDownLatch latch) {
+		try {
+			if (!latch.await(TIMEOUT_S, TimeUnit.SECONDS)) {
+				throw new AssertionError("timeout");
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SMTLIBException("interrupted");
+		}
+	}
+
+	private static void awaitUninterruptibly(final CountDownLatch latch) {
+		boolean interrupted = false;
+		while (latch.getCount() > 0) {
+			try {
+				latch.await();
+			} catch (final InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleep(final long ms) {
+		final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ms);
+		long remaining;
+		while ((remaining = end - System.nanoTime()) > 0) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(remaining);
+			} catch (final InterruptedException e) {
+				// like a solver call, the delay does not react to interrupts
+			}
+		}
+	}
+
+	/**
+	 * Stands in for a synthesizer whose solver blocks until the synthesizer is closed.
+	 */
+	private static final class FakeSynthesizer implements Closeable {
+		private final CountDownLatch mStarted = new CountDownLatch(1);
+		private final CountDownLatch mClosed = new CountDownLatch(1);
+
+		@Override
+		public void close() {
+			mClosed.countDown();
+		}
+
+		private boolean isClosed() {
+			return mClosed.getCount() == 0;
+		}
+
+		private TerminationArgument block() {
+			mStarted.countDown();
+			boolean interrupted = false;
+			while (!isClosed()) {
+				try {
+					if (!mClosed.await(TIMEOUT_S, TimeUnit.SECONDS)) {
+						throw new AssertionError("synthesizer was never closed");
+					}
+				} catch (final InterruptedException e) {
+					// a solver process is not stopped by an interrupt, only by exiting it
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			throw new SMTLIBException("solver exited");
+		}
+	}
+}
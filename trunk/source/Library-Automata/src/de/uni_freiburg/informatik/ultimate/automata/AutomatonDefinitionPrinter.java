@@ -113,7 +113,13 @@ public class AutomatonDefinitionPrinter<LETTER, STATE> {
 		/**
 		 * The <tt>Hanoi Omega Automaton</tt> format.
 		 */
-		HOA("hoa");
+		HOA("hoa"),
+		/**
+		 * Compact binary format, see {@link BinaryAutomatonWriter}.<br>
+		 * The {@link #toString()} representation of {@link LETTER} and {@link STATE} is used. Only files can be
+		 * written in this format.
+		 */
+		BINARY("uab");
 
 		private final String mFileEnding;
 
@@ -163,6 +169,10 @@ public class AutomatonDefinitionPrinter<LETTER, STATE> {
 			final String fileName, final Format format, final String message, final boolean append,
 			final IAutomaton<?, ?>... automata) {
 		this(services);
+		if (format == Format.BINARY) {
+			printAutomataToBinaryFile(automatonName, fileName, append, automata);
+			return;
+		}
 		final FileWriter fileWriter = getFileWriterWithOptionalAppend(fileName, format, append);
 		if (fileWriter != null) {
 			if (mLogger.isWarnEnabled()) {
@@ -190,6 +200,19 @@ public class AutomatonDefinitionPrinter<LETTER, STATE> {
 			final Format format, final String atsHeaderMessage, final String atsCommands,
 			final NamedAutomaton<?, ?>... nas) {
 		final File file = new File(fileName + '.' + format.getFileEnding());
+		if (format == Format.BINARY) {
+			// the binary format has no place for the header and the commands
+			final BinaryAutomatonWriter writer = new BinaryAutomatonWriter(services);
+			for (final NamedAutomaton<?, ?> na : nas) {
+				writer.add(na);
+			}
+			try {
+				writer.write(file);
+			} catch (final IOException e) {
+				throw new AssertionError("Unable to write " + file);
+			}
+			return;
+		}
 		final FileWriter fileWriter;
 		try {
 			fileWriter = new FileWriter(file);
@@ -242,6 +265,38 @@ public class AutomatonDefinitionPrinter<LETTER, STATE> {
 		new AutomatonDefinitionPrinter<>(services, fileNamePrefix, fileName, Format.ATS_NUMERATE, message, automata);
 	}
 
+	/**
+	 * Writes the automata in the {@link Format#BINARY} format. Since the binary format has a single string table, we
+	 * append by reading the automata of the existing file and writing all automata again.
+	 */
+	private void printAutomataToBinaryFile(final String automatonName, final String fileName, final boolean append,
+			final IAutomaton<?, ?>... automata) {
+		final File file = new File(fileName + '.' + Format.BINARY.getFileEnding());
+		if (mLogger.isWarnEnabled()) {
+			mLogger.warn(String.format("Dumping automata %s to %s", automatonName, fileName));
+		}
+		final BinaryAutomatonWriter writer = new BinaryAutomatonWriter(mServices);
+		try {
+			if (append && file.exists()) {
+				for (final NamedAutomaton<?, ?> na : new BinaryAutomatonReader(mServices, file).getAutomata()) {
+					writer.add(na);
+				}
+			}
+			if (automata.length == ONE) {
+				writer.add(new NamedAutomaton<>(automatonName, automata[0]));
+			} else {
+				for (int i = 0; i < automata.length; i++) {
+					writer.add(new NamedAutomaton<>(automatonName + i, automata[i]));
+				}
+			}
+			writer.write(file);
+		} catch (final IOException e) {
+			if (mLogger.isErrorEnabled()) {
+				mLogger.error("Writing binary automata file did not work.", e);
+			}
+		}
+	}
+
 	/**
 	 * @param append
 	 *
@@ -0,0 +1,297 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter.NamedAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.EpsilonNestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.netdatastructures.BoundedPetriNet;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.automata.tree.StringRankedLetter;
+import de.uni_freiburg.informatik.ultimate.automata.tree.TreeAutomatonBU;
+import de.uni_freiburg.informatik.ultimate.automata.tree.TreeAutomatonRule;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.HashRelation;
+
+/**
+ * Reads automata that were written by {@link BinaryAutomatonWriter}.
+ * <p>
+ * The file is memory-mapped and decoded directly from the mapped buffer. Like the automata script parser, the reader
+ * constructs automata whose letters and states are strings, i.e., {@link NestedWordAutomaton}s,
+ * {@link EpsilonNestedWordAutomaton}s, {@link BoundedPetriNet}s, and {@link TreeAutomatonBU}s over
+ * {@link StringRankedLetter}s.
+ */
+public final class BinaryAutomatonReader {
+	private static final int VAR_INT_PAYLOAD = 0x7F;
+	private static final int VAR_INT_CONTINUATION = 0x80;
+	private static final int VAR_INT_SHIFT = 7;
+	private static final int VAR_INT_MAX_SHIFT = 28;
+
+	private final AutomataLibraryServices mServices;
+	private final List<NamedAutomaton<?, String>> mAutomata;
+	private ByteBuffer mBuffer;
+	private String[] mStrings;
+
+	/**
+	 * @param services
+	 *            Ultimate services
+	 * @param file
+	 *            file that was written by {@link BinaryAutomatonWriter}
+	 * @throws IOException
+	 *             if the file cannot be read or is not well-formed
+	 */
+	public BinaryAutomatonReader(final AutomataLibraryServices services, final File file) throws IOException {
+		mServices = services;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("File too large: " + file);
+			}
+			mBuffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+		mAutomata = readFile();
+	}
+
+	/**
+	 * @param services
+	 *            Ultimate services
+	 * @param buffer
+	 *            content that was written by {@link BinaryAutomatonWriter}
+	 * @throws IOException
+	 *             if the content is not well-formed
+	 */
+	public BinaryAutomatonReader(final AutomataLibraryServices services, final ByteBuffer buffer)
+			throws IOException {
+		mServices = services;
+		mBuffer = buffer;
+		mAutomata = readFile();
+	}
+
+	/**
+	 * @return The automata in the order in which they were added to the {@link BinaryAutomatonWriter}.
+	 */
+	public List<NamedAutomaton<?, String>> getAutomata() {
+		return Collections.unmodifiableList(mAutomata);
+	}
+
+	private List<NamedAutomaton<?, String>> readFile() throws IOException {
+		try {
+			if (mBuffer.getInt() != BinaryAutomatonWriter.MAGIC) {
+				throw new IOException("not a binary automata file");
+			}
+			mStrings = new String[readLength()];
+			for (int i = 0; i < mStrings.length; i++) {
+				final byte[] bytes = new byte[readLength()];
+				mBuffer.get(bytes);
+				mStrings[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+			final int numberOfAutomata = readLength();
+			final List<NamedAutomaton<?, String>> result = new ArrayList<>(numberOfAutomata);
+			for (int i = 0; i < numberOfAutomata; i++) {
+				final String name = readString();
+				final int kind = mBuffer.get();
+				switch (kind) {
+				case BinaryAutomatonWriter.KIND_NESTED_WORD_AUTOMATON:
+					result.add(new NamedAutomaton<>(name, readNestedWordAutomaton(false)));
+					break;
+				case BinaryAutomatonWriter.KIND_EPSILON_NESTED_WORD_AUTOMATON:
+					result.add(new NamedAutomaton<>(name, readNestedWordAutomaton(true)));
+					break;
+				case BinaryAutomatonWriter.KIND_PETRI_NET:
+					result.add(new NamedAutomaton<>(name, readPetriNet()));
+					break;
+				case BinaryAutomatonWriter.KIND_TREE_AUTOMATON:
+					result.add(new NamedAutomaton<>(name, readTreeAutomaton()));
+					break;
+				default:
+					throw new IOException("unknown kind of automaton " + kind);
+				}
+			}
+			if (mBuffer.hasRemaining()) {
+				throw new IOException("unexpected data after last automaton");
+			}
+			return result;
+		} catch (final BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IOException("truncated or malformed binary automata file", e);
+		} finally {
+			// release the mapping as early as possible
+			mBuffer = null;
+			mStrings = null;
+		}
+	}
+
+	private IAutomaton<String, String> readNestedWordAutomaton(final boolean hasEpsilonTransitions)
+			throws IOException {
+		final String[] internals = readStrings();
+		final String[] calls = readStrings();
+		final String[] returns = readStrings();
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(mServices,
+				new VpAlphabet<>(asSet(internals), asSet(calls), asSet(returns)), new StringFactory());
+		final String[] states = new String[readLength()];
+		for (int i = 0; i < states.length; i++) {
+			states[i] = readString();
+			final int flags = mBuffer.get();
+			nwa.addState((flags & BinaryAutomatonWriter.FLAG_INITIAL) != 0,
+					(flags & BinaryAutomatonWriter.FLAG_FINAL) != 0, states[i]);
+		}
+		final HashRelation<String, String> epsilonTransitions = new HashRelation<>();
+		for (final String state : states) {
+			for (int i = readVarInt(); i > 0; i--) {
+				nwa.addInternalTransition(state, internals[readVarInt()], states[readVarInt()]);
+			}
+			for (int i = readVarInt(); i > 0; i--) {
+				nwa.addCallTransition(state, calls[readVarInt()], states[readVarInt()]);
+			}
+			for (int i = readVarInt(); i > 0; i--) {
+				final String hier = states[readVarInt()];
+				nwa.addReturnTransition(state, hier, returns[readVarInt()], states[readVarInt()]);
+			}
+			if (hasEpsilonTransitions) {
+				for (int i = readVarInt(); i > 0; i--) {
+					epsilonTransitions.addPair(state, states[readVarInt()]);
+				}
+			}
+		}
+		if (hasEpsilonTransitions) {
+			return new EpsilonNestedWordAutomaton<>(nwa, epsilonTransitions);
+		}
+		return nwa;
+	}
+
+	private BoundedPetriNet<String, String> readPetriNet() throws IOException {
+		final boolean constantTokenAmount =
+				(mBuffer.get() & BinaryAutomatonWriter.FLAG_CONSTANT_TOKEN_AMOUNT) != 0;
+		final String[] alphabet = readStrings();
+		final BoundedPetriNet<String, String> net =
+				new BoundedPetriNet<>(mServices, asSet(alphabet), constantTokenAmount);
+		final String[] places = new String[readLength()];
+		for (int i = 0; i < places.length; i++) {
+			places[i] = readString();
+			final int flags = mBuffer.get();
+			net.addPlace(places[i], (flags & BinaryAutomatonWriter.FLAG_INITIAL) != 0,
+					(flags & BinaryAutomatonWriter.FLAG_FINAL) != 0);
+		}
+		for (int i = readVarInt(); i > 0; i--) {
+			final String letter = alphabet[readVarInt()];
+			final Set<String> preds = readElements(places);
+			final Set<String> succs = readElements(places);
+			net.addTransition(letter, preds, succs);
+		}
+		return net;
+	}
+
+	private TreeAutomatonBU<StringRankedLetter, String> readTreeAutomaton() throws IOException {
+		final TreeAutomatonBU<StringRankedLetter, String> automaton = new TreeAutomatonBU<>();
+		final StringRankedLetter[] alphabet = new StringRankedLetter[readLength()];
+		for (int i = 0; i < alphabet.length; i++) {
+			final String name = readString();
+			alphabet[i] = new StringRankedLetter(name, readVarInt() - 1);
+			automaton.addLetter(alphabet[i]);
+		}
+		final String[] states = new String[readLength()];
+		for (int i = 0; i < states.length; i++) {
+			states[i] = readString();
+			automaton.addState(states[i]);
+			if ((mBuffer.get() & BinaryAutomatonWriter.FLAG_FINAL) != 0) {
+				automaton.addFinalState(states[i]);
+			}
+		}
+		for (int i = readVarInt(); i > 0; i--) {
+			final StringRankedLetter letter = alphabet[readVarInt()];
+			final List<String> source = new ArrayList<>();
+			for (int j = readVarInt(); j > 0; j--) {
+				source.add(states[readVarInt()]);
+			}
+			automaton.addRule(new TreeAutomatonRule<>(letter, source, states[readVarInt()]));
+		}
+		return automaton;
+	}
+
+	private Set<String> readElements(final String[] elements) {
+		final Set<String> result = new HashSet<>();
+		for (int i = readVarInt(); i > 0; i--) {
+			result.add(elements[readVarInt()]);
+		}
+		return result;
+	}
+
+	private String[] readStrings() throws IOException {
+		final String[] result = new String[readLength()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = readString();
+		}
+		return result;
+	}
+
+	private String readString() {
+		return mStrings[readVarInt()];
+	}
+
+	private int readVarInt() {
+		int result = 0;
+		for (int shift = 0; shift <= VAR_INT_MAX_SHIFT; shift += VAR_INT_SHIFT) {
+			final int current = mBuffer.get();
+			result |= (current & VAR_INT_PAYLOAD) << shift;
+			if ((current & VAR_INT_CONTINUATION) == 0) {
+				if (result < 0) {
+					break;
+				}
+				return result;
+			}
+		}
+		throw new IllegalArgumentException("malformed variable-length integer");
+	}
+
+	/**
+	 * Reads the length of an array. Every element of an array takes at least one byte, hence a length that exceeds
+	 * the remaining bytes is malformed and would only lead to a huge allocation.
+	 */
+	private int readLength() throws IOException {
+		final int length = readVarInt();
+		if (length > mBuffer.remaining()) {
+			throw new IOException("length " + length + " exceeds the remaining " + mBuffer.remaining() + " bytes");
+		}
+		return length;
+	}
+
+	private static Set<String> asSet(final String[] strings) {
+		return new HashSet<>(Arrays.asList(strings));
+	}
+}
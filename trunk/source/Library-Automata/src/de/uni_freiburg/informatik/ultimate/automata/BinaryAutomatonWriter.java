@@ -0,0 +1,347 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter.NamedAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.IEpsilonNestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INwaOutgoingLetterAndTransitionProvider;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.reachablestates.NestedWordAutomatonReachableStates;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.IPetriNet;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.ITransition;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.netdatastructures.BoundedPetriNet;
+import de.uni_freiburg.informatik.ultimate.automata.tree.IRankedLetter;
+import de.uni_freiburg.informatik.ultimate.automata.tree.TreeAutomatonBU;
+import de.uni_freiburg.informatik.ultimate.automata.tree.TreeAutomatonRule;
+
+/**
+ * Writes nested word automata, Petri nets, and tree automata in a compact binary format that can be read by
+ * {@link BinaryAutomatonReader}.
+ * <p>
+ * Like in the {@link AutomatonDefinitionPrinter.Format#ATS} format, letters and states are represented by their
+ * {@link #toString()} representation. All strings of a file are stored once in a string table, and all other data are
+ * indices into this table (resp. into the alphabet and the states of an automaton) that are encoded as variable-length
+ * integers. The layout of a file is as follows.
+ *
+ * <pre>
+ * file       ::= MAGIC strings automata
+ * strings    ::= n string^n                       (string ::= length UTF-8 bytes)
+ * automata   ::= n (name kind automaton)^n
+ * NWA        ::= internals calls returns n (state flags)^n (internal* call* return* epsilon*)^n
+ * Petri net  ::= flags alphabet n (place flags)^n n (letter preset postset)^n
+ * tree aut.  ::= n (letter rank)^n n (state flags)^n n (letter n source^n dest)^n
+ * </pre>
+ *
+ * The transitions of a nested word automaton are grouped by their predecessor.
+ */
+public final class BinaryAutomatonWriter {
+	/**
+	 * "UAB" followed by the version of the format.
+	 */
+	static final int MAGIC = 0x55414231;
+
+	static final int KIND_NESTED_WORD_AUTOMATON = 0;
+	static final int KIND_EPSILON_NESTED_WORD_AUTOMATON = 1;
+	static final int KIND_PETRI_NET = 2;
+	static final int KIND_TREE_AUTOMATON = 3;
+
+	static final int FLAG_INITIAL = 1;
+	static final int FLAG_FINAL = 2;
+	static final int FLAG_CONSTANT_TOKEN_AMOUNT = 1;
+
+	private static final int VAR_INT_PAYLOAD = 0x7F;
+	private static final int VAR_INT_CONTINUATION = 0x80;
+	private static final int VAR_INT_SHIFT = 7;
+
+	private final AutomataLibraryServices mServices;
+	private final Map<String, Integer> mStrings = new LinkedHashMap<>();
+	private final ByteArrayOutputStream mAutomata = new ByteArrayOutputStream();
+	private int mNumberOfAutomata;
+
+	/**
+	 * @param services
+	 *            Ultimate services
+	 */
+	public BinaryAutomatonWriter(final AutomataLibraryServices services) {
+		mServices = services;
+	}
+
+	/**
+	 * Adds an automaton to the file.
+	 *
+	 * @param na
+	 *            automaton together with its name
+	 * @throws IllegalArgumentException
+	 *             if the type of the automaton is not supported
+	 */
+	public void add(final NamedAutomaton<?, ?> na) {
+		final IAutomaton<?, ?> automaton = na.getAutomaton();
+		final int kind;
+		if (automaton instanceof IEpsilonNestedWordAutomaton) {
+			kind = KIND_EPSILON_NESTED_WORD_AUTOMATON;
+		} else if (automaton instanceof INwaOutgoingLetterAndTransitionProvider) {
+			kind = KIND_NESTED_WORD_AUTOMATON;
+		} else if (automaton instanceof IPetriNet) {
+			kind = KIND_PETRI_NET;
+		} else if (automaton instanceof TreeAutomatonBU) {
+			kind = KIND_TREE_AUTOMATON;
+		} else {
+			throw new IllegalArgumentException(
+					"Binary format does not support automata of type " + automaton.getClass().getSimpleName());
+		}
+		writeVarInt(mAutomata, getStringId(na.getName()));
+		mAutomata.write(kind);
+		switch (kind) {
+		case KIND_NESTED_WORD_AUTOMATON:
+		case KIND_EPSILON_NESTED_WORD_AUTOMATON:
+			addNestedWordAutomaton((INwaOutgoingLetterAndTransitionProvider<?, ?>) automaton);
+			break;
+		case KIND_PETRI_NET:
+			addPetriNet((IPetriNet<?, ?>) automaton);
+			break;
+		case KIND_TREE_AUTOMATON:
+			addTreeAutomaton((TreeAutomatonBU<?, ?>) automaton);
+			break;
+		default:
+			throw new AssertionError("unknown kind " + kind);
+		}
+		mNumberOfAutomata++;
+	}
+
+	/**
+	 * Writes all automata that were added so far.
+	 *
+	 * @param out
+	 *            output stream, not closed by this method
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public void write(final OutputStream out) throws IOException {
+		final DataOutputStream dataOut = new DataOutputStream(out);
+		dataOut.writeInt(MAGIC);
+		final ByteArrayOutputStream strings = new ByteArrayOutputStream();
+		writeVarInt(strings, mStrings.size());
+		for (final String string : mStrings.keySet()) {
+			final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			writeVarInt(strings, bytes.length);
+			strings.write(bytes, 0, bytes.length);
+		}
+		strings.writeTo(dataOut);
+		final ByteArrayOutputStream numberOfAutomata = new ByteArrayOutputStream();
+		writeVarInt(numberOfAutomata, mNumberOfAutomata);
+		numberOfAutomata.writeTo(dataOut);
+		mAutomata.writeTo(dataOut);
+		dataOut.flush();
+	}
+
+	/**
+	 * Writes all automata that were added so far to a file.
+	 *
+	 * @param file
+	 *            file, overwritten if it exists
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public void write(final File file) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file.toPath()))) {
+			write(out);
+		}
+	}
+
+	private <LETTER, STATE> void addNestedWordAutomaton(
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> automaton) {
+		final INestedWordAutomaton<LETTER, STATE> nwa;
+		if (automaton instanceof INestedWordAutomaton) {
+			nwa = (INestedWordAutomaton<LETTER, STATE>) automaton;
+		} else {
+			try {
+				nwa = new NestedWordAutomatonReachableStates<>(mServices, automaton);
+			} catch (final AutomataOperationCanceledException e) {
+				throw new AssertionError("Timeout while preparing automaton for writing.");
+			}
+		}
+		final Map<LETTER, Integer> internals = addCollection(nwa.getVpAlphabet().getInternalAlphabet());
+		final Map<LETTER, Integer> calls = addCollection(nwa.getVpAlphabet().getCallAlphabet());
+		final Map<LETTER, Integer> returns = addCollection(nwa.getVpAlphabet().getReturnAlphabet());
+		final Map<STATE, Integer> states = new HashMap<>();
+		writeVarInt(mAutomata, nwa.getStates().size());
+		for (final STATE state : nwa.getStates()) {
+			states.put(state, states.size());
+			writeVarInt(mAutomata, getStringId(state.toString()));
+			mAutomata.write((nwa.isInitial(state) ? FLAG_INITIAL : 0) | (nwa.isFinal(state) ? FLAG_FINAL : 0));
+		}
+		final List<Integer> transitions = new ArrayList<>();
+		for (final STATE state : nwa.getStates()) {
+			for (final OutgoingInternalTransition<LETTER, STATE> trans : nwa.internalSuccessors(state)) {
+				transitions.add(getIndex(internals, trans.getLetter()));
+				transitions.add(getIndex(states, trans.getSucc()));
+			}
+			writeTuples(transitions, 2);
+			for (final OutgoingCallTransition<LETTER, STATE> trans : nwa.callSuccessors(state)) {
+				transitions.add(getIndex(calls, trans.getLetter()));
+				transitions.add(getIndex(states, trans.getSucc()));
+			}
+			writeTuples(transitions, 2);
+			for (final OutgoingReturnTransition<LETTER, STATE> trans : nwa.returnSuccessors(state)) {
+				transitions.add(getIndex(states, trans.getHierPred()));
+				transitions.add(getIndex(returns, trans.getLetter()));
+				transitions.add(getIndex(states, trans.getSucc()));
+			}
+			writeTuples(transitions, 3);
+			if (nwa instanceof IEpsilonNestedWordAutomaton) {
+				for (final STATE succ : ((IEpsilonNestedWordAutomaton<LETTER, STATE>) nwa).epsilonSuccessors(state)) {
+					transitions.add(getIndex(states, succ));
+				}
+				writeTuples(transitions, 1);
+			}
+		}
+	}
+
+	private <LETTER, PLACE> void addPetriNet(final IPetriNet<LETTER, PLACE> net) {
+		final boolean constantTokenAmount =
+				net instanceof BoundedPetriNet && ((BoundedPetriNet<LETTER, PLACE>) net).constantTokenAmount();
+		mAutomata.write(constantTokenAmount ? FLAG_CONSTANT_TOKEN_AMOUNT : 0);
+		final Map<LETTER, Integer> alphabet = addCollection(net.getAlphabet());
+		final Map<PLACE, Integer> places = new HashMap<>();
+		writeVarInt(mAutomata, net.getPlaces().size());
+		for (final PLACE place : net.getPlaces()) {
+			places.put(place, places.size());
+			writeVarInt(mAutomata, getStringId(place.toString()));
+			mAutomata.write((net.getInitialPlaces().contains(place) ? FLAG_INITIAL : 0)
+					| (net.isAccepting(place) ? FLAG_FINAL : 0));
+		}
+		writeVarInt(mAutomata, net.getTransitions().size());
+		for (final ITransition<LETTER, PLACE> transition : net.getTransitions()) {
+			writeVarInt(mAutomata, getIndex(alphabet, transition.getSymbol()));
+			writeIndices(places, net.getPredecessors(transition));
+			writeIndices(places, net.getSuccessors(transition));
+		}
+	}
+
+	private <LETTER extends IRankedLetter, STATE> void addTreeAutomaton(final TreeAutomatonBU<LETTER, STATE> automaton) {
+		final Map<LETTER, Integer> alphabet = new HashMap<>();
+		writeVarInt(mAutomata, automaton.getAlphabet().size());
+		for (final LETTER letter : automaton.getAlphabet()) {
+			alphabet.put(letter, alphabet.size());
+			writeVarInt(mAutomata, getStringId(getRankedLetterName(letter)));
+			// the rank of letters that do not occur in any rule is -1
+			writeVarInt(mAutomata, letter.getRank() + 1);
+		}
+		final Map<STATE, Integer> states = new HashMap<>();
+		writeVarInt(mAutomata, automaton.getStates().size());
+		for (final STATE state : automaton.getStates()) {
+			states.put(state, states.size());
+			writeVarInt(mAutomata, getStringId(state.toString()));
+			mAutomata.write(automaton.isFinalState(state) ? FLAG_FINAL : 0);
+		}
+		writeVarInt(mAutomata, automaton.getAmountOfRules());
+		for (final TreeAutomatonRule<LETTER, STATE> rule : automaton.getRules()) {
+			writeVarInt(mAutomata, getIndex(alphabet, rule.getLetter()));
+			writeIndices(states, rule.getSource());
+			writeVarInt(mAutomata, getIndex(states, rule.getDest()));
+		}
+	}
+
+	/**
+	 * {@link de.uni_freiburg.informatik.ultimate.automata.tree.StringRankedLetter} prefixes its name by its rank. We
+	 * store the name without this prefix such that the {@link BinaryAutomatonReader} constructs letters with the same
+	 * string representation.
+	 */
+	private static String getRankedLetterName(final IRankedLetter letter) {
+		final String string = letter.toString();
+		final String prefix = "#" + letter.getRank() + ":";
+		return string.startsWith(prefix) ? string.substring(prefix.length()) : string;
+	}
+
+	private <E> Map<E, Integer> addCollection(final Set<E> collection) {
+		final Map<E, Integer> result = new HashMap<>();
+		writeVarInt(mAutomata, collection.size());
+		for (final E elem : collection) {
+			result.put(elem, result.size());
+			writeVarInt(mAutomata, getStringId(elem.toString()));
+		}
+		return result;
+	}
+
+	private <E> void writeIndices(final Map<E, Integer> indices, final Iterable<E> elems) {
+		final List<Integer> result = new ArrayList<>();
+		for (final E elem : elems) {
+			result.add(getIndex(indices, elem));
+		}
+		writeTuples(result, 1);
+	}
+
+	/**
+	 * Writes the number of tuples followed by the tuples and clears the given list.
+	 */
+	private void writeTuples(final List<Integer> tuples, final int arity) {
+		writeVarInt(mAutomata, tuples.size() / arity);
+		for (final int value : tuples) {
+			writeVarInt(mAutomata, value);
+		}
+		tuples.clear();
+	}
+
+	private static <E> int getIndex(final Map<E, Integer> indices, final E elem) {
+		final Integer index = indices.get(elem);
+		if (index == null) {
+			throw new IllegalArgumentException("unknown letter or state " + elem);
+		}
+		return index;
+	}
+
+	private int getStringId(final String string) {
+		return mStrings.computeIfAbsent(string, x -> mStrings.size());
+	}
+
+	private static void writeVarInt(final ByteArrayOutputStream out, final int value) {
+		assert value >= 0 : "negative value " + value;
+		int remaining = value;
+		while ((remaining & ~VAR_INT_PAYLOAD) != 0) {
+			out.write((remaining & VAR_INT_PAYLOAD) | VAR_INT_CONTINUATION);
+			remaining >>>= VAR_INT_SHIFT;
+		}
+		out.write(remaining);
+	}
+}
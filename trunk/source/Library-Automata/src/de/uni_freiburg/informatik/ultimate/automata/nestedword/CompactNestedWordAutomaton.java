@@ -0,0 +1,926 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.IncomingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.IncomingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.IncomingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.SummaryReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IStateFactory;
+
+/**
+ * An immutable nested word automaton whose transition relations are stored in primitive arrays.
+ * <p>
+ * States and letters are interned to dense integer ids. Each transition relation is stored in compressed sparse row
+ * format: an offset array indexed by a state id points into columns of integers that contain the remaining components
+ * of the transitions. Within the row of a state the transitions are sorted lexicographically, hence all transitions
+ * with a given letter (or hierarchical predecessor) form a contiguous range that is found by binary search.
+ * <p>
+ * Internal and call transitions are stored twice (indexed by predecessor and by successor), return transitions are
+ * stored three times (indexed by linear predecessor, by successor and by hierarchical predecessor). Compared to
+ * {@link NestedWordAutomaton}, which stores every transition in several nested hash maps, this needs a small constant
+ * number of bytes per transition. Transition objects are only created while the iterables returned by this automaton
+ * are traversed.
+ * <p>
+ * Use {@link #CompactNestedWordAutomaton(AutomataLibraryServices, INestedWordAutomaton)} to convert an existing
+ * automaton or a {@link Builder} to construct a compact automaton directly.
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public class CompactNestedWordAutomaton<LETTER, STATE> implements INestedWordAutomaton<LETTER, STATE> {
+	private final AutomataLibraryServices mServices;
+	private final VpAlphabet<LETTER> mVpAlphabet;
+	private final IStateFactory<STATE> mStateFactory;
+	private final STATE mEmptyStackState;
+
+	private final List<STATE> mStates;
+	private final Map<STATE, Integer> mStateIds;
+	private final BitSet mInitialStates;
+	private final BitSet mFinalStates;
+	private final List<LETTER> mLetters;
+	private final Map<LETTER, Integer> mLetterIds;
+
+	/**
+	 * Internal transitions indexed by predecessor, columns: letter, successor.
+	 */
+	private final CsrRelation mInternalOut;
+	/**
+	 * Internal transitions indexed by successor, columns: letter, predecessor.
+	 */
+	private final CsrRelation mInternalIn;
+	/**
+	 * Call transitions indexed by predecessor, columns: letter, successor.
+	 */
+	private final CsrRelation mCallOut;
+	/**
+	 * Call transitions indexed by successor, columns: letter, predecessor.
+	 */
+	private final CsrRelation mCallIn;
+	/**
+	 * Return transitions indexed by linear predecessor, columns: hierarchical predecessor, letter, successor.
+	 */
+	private final CsrRelation mReturnOut;
+	/**
+	 * Return transitions indexed by successor, columns: letter, hierarchical predecessor, linear predecessor.
+	 */
+	private final CsrRelation mReturnIn;
+	/**
+	 * Return transitions indexed by hierarchical predecessor, columns: letter, linear predecessor, successor.
+	 */
+	private final CsrRelation mReturnSummary;
+
+	/**
+	 * Copy an existing automaton into the compact representation.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param nwa
+	 *            automaton; its set of states has to be finite and available via {@link #getStates()}
+	 */
+	public CompactNestedWordAutomaton(final AutomataLibraryServices services,
+			final INestedWordAutomaton<LETTER, STATE> nwa) {
+		this(createBuilder(services, nwa));
+	}
+
+	private CompactNestedWordAutomaton(final Builder<LETTER, STATE> builder) {
+		mServices = builder.mServices;
+		mVpAlphabet = builder.mVpAlphabet;
+		mStateFactory = builder.mStateFactory;
+		mEmptyStackState = builder.mEmptyStackState;
+		mStates = builder.mStates;
+		mStateIds = builder.mStateIds;
+		mInitialStates = builder.mInitialStates;
+		mFinalStates = builder.mFinalStates;
+		mLetters = builder.mLetters;
+		mLetterIds = builder.mLetterIds;
+
+		final int numStates = mStates.size();
+		final IntBuffer internal = builder.mInternal;
+		mInternalOut = CsrRelation.build(numStates, internal, 0, 1, 2);
+		mInternalIn = CsrRelation.build(numStates, internal, 2, 1, 0);
+		final IntBuffer call = builder.mCall;
+		mCallOut = CsrRelation.build(numStates, call, 0, 1, 2);
+		mCallIn = CsrRelation.build(numStates, call, 2, 1, 0);
+		final IntBuffer ret = builder.mReturn;
+		mReturnOut = CsrRelation.build(numStates, ret, 0, 1, 2, 3);
+		mReturnIn = CsrRelation.build(numStates, ret, 3, 2, 1, 0);
+		mReturnSummary = CsrRelation.build(numStates, ret, 1, 2, 0, 3);
+	}
+
+	private static <LETTER, STATE> Builder<LETTER, STATE> createBuilder(final AutomataLibraryServices services,
+			final INestedWordAutomaton<LETTER, STATE> nwa) {
+		final Builder<LETTER, STATE> builder =
+				new Builder<>(services, nwa.getVpAlphabet(), nwa.getStateFactory(), nwa.getEmptyStackState());
+		for (final STATE state : nwa.getStates()) {
+			builder.addState(nwa.isInitial(state), nwa.isFinal(state), state);
+		}
+		for (final STATE state : nwa.getStates()) {
+			for (final OutgoingInternalTransition<LETTER, STATE> trans : nwa.internalSuccessors(state)) {
+				builder.addInternalTransition(state, trans.getLetter(), trans.getSucc());
+			}
+			for (final OutgoingCallTransition<LETTER, STATE> trans : nwa.callSuccessors(state)) {
+				builder.addCallTransition(state, trans.getLetter(), trans.getSucc());
+			}
+			for (final OutgoingReturnTransition<LETTER, STATE> trans : nwa.returnSuccessors(state)) {
+				builder.addReturnTransition(state, trans.getHierPred(), trans.getLetter(), trans.getSucc());
+			}
+		}
+		return builder;
+	}
+
+	@Override
+	public VpAlphabet<LETTER> getVpAlphabet() {
+		return mVpAlphabet;
+	}
+
+	@Override
+	public IStateFactory<STATE> getStateFactory() {
+		return mStateFactory;
+	}
+
+	@Override
+	public STATE getEmptyStackState() {
+		return mEmptyStackState;
+	}
+
+	@Override
+	public Set<STATE> getStates() {
+		return new AbstractSet<STATE>() {
+			@Override
+			public Iterator<STATE> iterator() {
+				return Collections.unmodifiableList(mStates).iterator();
+			}
+
+			@Override
+			public boolean contains(final Object o) {
+				return mStateIds.containsKey(o);
+			}
+
+			@Override
+			public int size() {
+				return mStates.size();
+			}
+		};
+	}
+
+	@Override
+	public Set<STATE> getInitialStates() {
+		return new StateSubset(mInitialStates);
+	}
+
+	@Override
+	public Set<STATE> getFinalStates() {
+		return new StateSubset(mFinalStates);
+	}
+
+	@Override
+	public boolean isInitial(final STATE state) {
+		final int id = stateId(state);
+		return id >= 0 && mInitialStates.get(id);
+	}
+
+	@Override
+	public boolean isFinal(final STATE state) {
+		final int id = stateId(state);
+		return id >= 0 && mFinalStates.get(id);
+	}
+
+	@Override
+	public int size() {
+		return mStates.size();
+	}
+
+	/**
+	 * @return The number of internal, call, and return transitions.
+	 */
+	public int getNumberOfTransitions() {
+		return mInternalOut.size() + mCallOut.size() + mReturnOut.size();
+	}
+
+	@Override
+	public String sizeInformation() {
+		return mStates.size() + " states, " + getNumberOfTransitions() + " transitions.";
+	}
+
+	@Override
+	public Set<LETTER> lettersInternal(final STATE state) {
+		return letterRange(mInternalOut, stateId(state));
+	}
+
+	@Override
+	public Set<LETTER> lettersCall(final STATE state) {
+		return letterRange(mCallOut, stateId(state));
+	}
+
+	@Override
+	public Set<LETTER> lettersReturn(final STATE state) {
+		final int id = stateId(state);
+		if (id < 0) {
+			return Collections.emptySet();
+		}
+		// rows of mReturnOut are sorted by hierarchical predecessor first
+		final Set<LETTER> result = new HashSet<>();
+		for (int i = mReturnOut.begin(id); i < mReturnOut.end(id); i++) {
+			result.add(letter(mReturnOut.get(1, i)));
+		}
+		return result;
+	}
+
+	@Override
+	public Set<LETTER> lettersReturn(final STATE state, final STATE hier) {
+		final int id = stateId(state);
+		final int hierId = stateId(hier);
+		if (id < 0 || hierId < 0) {
+			return Collections.emptySet();
+		}
+		final int from = mReturnOut.lowerBound(0, mReturnOut.begin(id), mReturnOut.end(id), hierId);
+		final int to = mReturnOut.lowerBound(0, from, mReturnOut.end(id), hierId + 1);
+		return new LetterRange(mReturnOut, 1, from, to);
+	}
+
+	@Override
+	public Set<LETTER> lettersInternalIncoming(final STATE state) {
+		return letterRange(mInternalIn, stateId(state));
+	}
+
+	@Override
+	public Set<LETTER> lettersCallIncoming(final STATE state) {
+		return letterRange(mCallIn, stateId(state));
+	}
+
+	@Override
+	public Set<LETTER> lettersReturnIncoming(final STATE state) {
+		return letterRange(mReturnIn, stateId(state));
+	}
+
+	@Override
+	public Set<LETTER> lettersSummary(final STATE state) {
+		return letterRange(mReturnSummary, stateId(state));
+	}
+
+	@Override
+	public Iterable<OutgoingInternalTransition<LETTER, STATE>> internalSuccessors(final STATE state,
+			final LETTER letter) {
+		final CsrRelation rel = mInternalOut;
+		return firstColumnRange(rel, stateId(state), letterId(letter),
+				i -> new OutgoingInternalTransition<>(letter, state(rel.get(1, i))));
+	}
+
+	@Override
+	public Iterable<OutgoingInternalTransition<LETTER, STATE>> internalSuccessors(final STATE state) {
+		final CsrRelation rel = mInternalOut;
+		return row(rel, stateId(state),
+				i -> new OutgoingInternalTransition<>(letter(rel.get(0, i)), state(rel.get(1, i))));
+	}
+
+	@Override
+	public Iterable<OutgoingCallTransition<LETTER, STATE>> callSuccessors(final STATE state, final LETTER letter) {
+		final CsrRelation rel = mCallOut;
+		return firstColumnRange(rel, stateId(state), letterId(letter),
+				i -> new OutgoingCallTransition<>(letter, state(rel.get(1, i))));
+	}
+
+	@Override
+	public Iterable<OutgoingCallTransition<LETTER, STATE>> callSuccessors(final STATE state) {
+		final CsrRelation rel = mCallOut;
+		return row(rel, stateId(state),
+				i -> new OutgoingCallTransition<>(letter(rel.get(0, i)), state(rel.get(1, i))));
+	}
+
+	@Override
+	public Iterable<OutgoingReturnTransition<LETTER, STATE>> returnSuccessors(final STATE state, final STATE hier,
+			final LETTER letter) {
+		final CsrRelation rel = mReturnOut;
+		final int id = stateId(state);
+		final int hierId = stateId(hier);
+		final int letterId = letterId(letter);
+		if (id < 0 || hierId < 0 || letterId < 0) {
+			return Collections.emptyList();
+		}
+		final int hierFrom = rel.lowerBound(0, rel.begin(id), rel.end(id), hierId);
+		final int hierTo = rel.lowerBound(0, hierFrom, rel.end(id), hierId + 1);
+		final int from = rel.lowerBound(1, hierFrom, hierTo, letterId);
+		final int to = rel.lowerBound(1, from, hierTo, letterId + 1);
+		return range(from, to, i -> new OutgoingReturnTransition<>(hier, letter, state(rel.get(2, i))));
+	}
+
+	@Override
+	public Iterable<OutgoingReturnTransition<LETTER, STATE>> returnSuccessorsGivenHier(final STATE state,
+			final STATE hier) {
+		final CsrRelation rel = mReturnOut;
+		return firstColumnRange(rel, stateId(state), stateId(hier),
+				i -> new OutgoingReturnTransition<>(hier, letter(rel.get(1, i)), state(rel.get(2, i))));
+	}
+
+	@Override
+	public Iterable<OutgoingReturnTransition<LETTER, STATE>> returnSuccessors(final STATE state,
+			final LETTER letter) {
+		final CsrRelation rel = mReturnOut;
+		final int id = stateId(state);
+		final int letterId = letterId(letter);
+		if (id < 0 || letterId < 0) {
+			return Collections.emptyList();
+		}
+		// rows of mReturnOut are sorted by hierarchical predecessor first, hence we have to filter
+		final List<OutgoingReturnTransition<LETTER, STATE>> result = new ArrayList<>();
+		for (int i = rel.begin(id); i < rel.end(id); i++) {
+			if (rel.get(1, i) == letterId) {
+				result.add(new OutgoingReturnTransition<>(state(rel.get(0, i)), letter, state(rel.get(2, i))));
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public Iterable<OutgoingReturnTransition<LETTER, STATE>> returnSuccessors(final STATE state) {
+		final CsrRelation rel = mReturnOut;
+		return row(rel, stateId(state), i -> new OutgoingReturnTransition<>(state(rel.get(0, i)),
+				letter(rel.get(1, i)), state(rel.get(2, i))));
+	}
+
+	@Override
+	public Iterable<IncomingInternalTransition<LETTER, STATE>> internalPredecessors(final STATE succ,
+			final LETTER letter) {
+		final CsrRelation rel = mInternalIn;
+		return firstColumnRange(rel, stateId(succ), letterId(letter),
+				i -> new IncomingInternalTransition<>(state(rel.get(1, i)), letter));
+	}
+
+	@Override
+	public Iterable<IncomingInternalTransition<LETTER, STATE>> internalPredecessors(final STATE succ) {
+		final CsrRelation rel = mInternalIn;
+		return row(rel, stateId(succ),
+				i -> new IncomingInternalTransition<>(state(rel.get(1, i)), letter(rel.get(0, i))));
+	}
+
+	@Override
+	public Iterable<IncomingCallTransition<LETTER, STATE>> callPredecessors(final STATE succ, final LETTER letter) {
+		final CsrRelation rel = mCallIn;
+		return firstColumnRange(rel, stateId(succ), letterId(letter),
+				i -> new IncomingCallTransition<>(state(rel.get(1, i)), letter));
+	}
+
+	@Override
+	public Iterable<IncomingCallTransition<LETTER, STATE>> callPredecessors(final STATE succ) {
+		final CsrRelation rel = mCallIn;
+		return row(rel, stateId(succ),
+				i -> new IncomingCallTransition<>(state(rel.get(1, i)), letter(rel.get(0, i))));
+	}
+
+	@Override
+	public Iterable<IncomingReturnTransition<LETTER, STATE>> returnPredecessors(final STATE succ, final STATE hier,
+			final LETTER letter) {
+		final CsrRelation rel = mReturnIn;
+		final int id = stateId(succ);
+		final int hierId = stateId(hier);
+		final int letterId = letterId(letter);
+		if (id < 0 || hierId < 0 || letterId < 0) {
+			return Collections.emptyList();
+		}
+		final int letterFrom = rel.lowerBound(0, rel.begin(id), rel.end(id), letterId);
+		final int letterTo = rel.lowerBound(0, letterFrom, rel.end(id), letterId + 1);
+		final int from = rel.lowerBound(1, letterFrom, letterTo, hierId);
+		final int to = rel.lowerBound(1, from, letterTo, hierId + 1);
+		return range(from, to, i -> new IncomingReturnTransition<>(state(rel.get(2, i)), hier, letter));
+	}
+
+	@Override
+	public Iterable<IncomingReturnTransition<LETTER, STATE>> returnPredecessors(final STATE succ,
+			final LETTER letter) {
+		final CsrRelation rel = mReturnIn;
+		return firstColumnRange(rel, stateId(succ), letterId(letter),
+				i -> new IncomingReturnTransition<>(state(rel.get(2, i)), state(rel.get(1, i)), letter));
+	}
+
+	@Override
+	public Iterable<IncomingReturnTransition<LETTER, STATE>> returnPredecessors(final STATE succ) {
+		final CsrRelation rel = mReturnIn;
+		return row(rel, stateId(succ), i -> new IncomingReturnTransition<>(state(rel.get(2, i)),
+				state(rel.get(1, i)), letter(rel.get(0, i))));
+	}
+
+	@Override
+	public Iterable<SummaryReturnTransition<LETTER, STATE>> summarySuccessors(final STATE hier, final LETTER letter) {
+		final CsrRelation rel = mReturnSummary;
+		return firstColumnRange(rel, stateId(hier), letterId(letter),
+				i -> new SummaryReturnTransition<>(state(rel.get(1, i)), letter, state(rel.get(2, i))));
+	}
+
+	@Override
+	public Iterable<SummaryReturnTransition<LETTER, STATE>> summarySuccessors(final STATE hier) {
+		final CsrRelation rel = mReturnSummary;
+		return row(rel, stateId(hier), i -> new SummaryReturnTransition<>(state(rel.get(1, i)),
+				letter(rel.get(0, i)), state(rel.get(2, i))));
+	}
+
+	@Override
+	public String toString() {
+		return AutomatonDefinitionPrinter.toString(mServices, "nwa", this);
+	}
+
+	private int stateId(final STATE state) {
+		final Integer id = mStateIds.get(state);
+		return id == null ? -1 : id;
+	}
+
+	private int letterId(final LETTER letter) {
+		final Integer id = mLetterIds.get(letter);
+		return id == null ? -1 : id;
+	}
+
+	private STATE state(final int id) {
+		return mStates.get(id);
+	}
+
+	private LETTER letter(final int id) {
+		return mLetters.get(id);
+	}
+
+	private Set<LETTER> letterRange(final CsrRelation rel, final int key) {
+		if (key < 0) {
+			return Collections.emptySet();
+		}
+		return new LetterRange(rel, 0, rel.begin(key), rel.end(key));
+	}
+
+	private static <E> Iterable<E> row(final CsrRelation rel, final int key, final IntFunction<E> factory) {
+		if (key < 0) {
+			return Collections.emptyList();
+		}
+		return range(rel.begin(key), rel.end(key), factory);
+	}
+
+	/**
+	 * All entries of a row whose first column has the given value.
+	 */
+	private static <E> Iterable<E> firstColumnRange(final CsrRelation rel, final int key, final int value,
+			final IntFunction<E> factory) {
+		if (key < 0 || value < 0) {
+			return Collections.emptyList();
+		}
+		final int from = rel.lowerBound(0, rel.begin(key), rel.end(key), value);
+		final int to = rel.lowerBound(0, from, rel.end(key), value + 1);
+		return range(from, to, factory);
+	}
+
+	private static <E> Iterable<E> range(final int from, final int to, final IntFunction<E> factory) {
+		if (from >= to) {
+			return Collections.emptyList();
+		}
+		return () -> new Iterator<E>() {
+			private int mNext = from;
+
+			@Override
+			public boolean hasNext() {
+				return mNext < to;
+			}
+
+			@Override
+			public E next() {
+				if (mNext >= to) {
+					throw new NoSuchElementException();
+				}
+				return factory.apply(mNext++);
+			}
+		};
+	}
+
+	/**
+	 * Unmodifiable view of the states whose ids are contained in a bit set.
+	 */
+	private final class StateSubset extends AbstractSet<STATE> {
+		private final BitSet mIds;
+
+		StateSubset(final BitSet ids) {
+			mIds = ids;
+		}
+
+		@Override
+		public Iterator<STATE> iterator() {
+			return mIds.stream().mapToObj(CompactNestedWordAutomaton.this::state).iterator();
+		}
+
+		@Override
+		public boolean contains(final Object o) {
+			final Integer id = mStateIds.get(o);
+			return id != null && mIds.get(id);
+		}
+
+		@Override
+		public int size() {
+			return mIds.cardinality();
+		}
+	}
+
+	/**
+	 * Unmodifiable view of the distinct letters in a sorted column range of a {@link CsrRelation}.
+	 */
+	private final class LetterRange extends AbstractSet<LETTER> {
+		private final CsrRelation mRelation;
+		private final int mColumn;
+		private final int mFrom;
+		private final int mTo;
+		private int mSize = -1;
+
+		LetterRange(final CsrRelation relation, final int column, final int from, final int to) {
+			mRelation = relation;
+			mColumn = column;
+			mFrom = from;
+			mTo = to;
+		}
+
+		@Override
+		public Iterator<LETTER> iterator() {
+			return new Iterator<LETTER>() {
+				private int mNext = mFrom;
+
+				@Override
+				public boolean hasNext() {
+					return mNext < mTo;
+				}
+
+				@Override
+				public LETTER next() {
+					if (mNext >= mTo) {
+						throw new NoSuchElementException();
+					}
+					final int letterId = mRelation.get(mColumn, mNext);
+					mNext = mRelation.lowerBound(mColumn, mNext, mTo, letterId + 1);
+					return letter(letterId);
+				}
+			};
+		}
+
+		@Override
+		public boolean contains(final Object o) {
+			final Integer id = mLetterIds.get(o);
+			if (id == null) {
+				return false;
+			}
+			final int pos = mRelation.lowerBound(mColumn, mFrom, mTo, id);
+			return pos < mTo && mRelation.get(mColumn, pos) == id;
+		}
+
+		@Override
+		public int size() {
+			if (mSize < 0) {
+				int size = 0;
+				for (int i = mFrom; i < mTo; i = mRelation.lowerBound(mColumn, i, mTo, mRelation.get(mColumn, i) + 1)) {
+					size++;
+				}
+				mSize = size;
+			}
+			return mSize;
+		}
+	}
+
+	/**
+	 * A relation over integers in compressed sparse row format. The first component of each tuple is the row index,
+	 * the remaining components are stored column-wise. Rows are sorted lexicographically and contain no duplicates.
+	 */
+	private static final class CsrRelation {
+		private final int[] mOffsets;
+		private final int[][] mColumns;
+
+		private CsrRelation(final int[] offsets, final int[][] columns) {
+			mOffsets = offsets;
+			mColumns = columns;
+		}
+
+		int begin(final int row) {
+			return mOffsets[row];
+		}
+
+		int end(final int row) {
+			return mOffsets[row + 1];
+		}
+
+		int get(final int column, final int index) {
+			return mColumns[column][index];
+		}
+
+		int size() {
+			return mOffsets[mOffsets.length - 1];
+		}
+
+		/**
+		 * @return The first index in [from, to) whose value in the given column is not smaller than value, or to if
+		 *         there is no such index. The column has to be sorted in [from, to).
+		 */
+		int lowerBound(final int column, final int from, final int to, final int value) {
+			final int[] values = mColumns[column];
+			int low = from;
+			int high = to;
+			while (low < high) {
+				final int mid = (low + high) >>> 1;
+				if (values[mid] < value) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * @param numRows
+		 *            number of rows
+		 * @param tuples
+		 *            buffer of tuples
+		 * @param rowComponent
+		 *            the component of the tuples that is used as row index
+		 * @param columnComponents
+		 *            the components of the tuples that are stored as columns, in sort order
+		 */
+		static CsrRelation build(final int numRows, final IntBuffer tuples, final int rowComponent,
+				final int... columnComponents) {
+			final int arity = tuples.mArity;
+			final int numTuples = tuples.size();
+			final int[] data = tuples.mData;
+			// counting sort by row
+			final int[] offsets = new int[numRows + 1];
+			for (int t = 0; t < numTuples; t++) {
+				offsets[data[t * arity + rowComponent] + 1]++;
+			}
+			for (int r = 0; r < numRows; r++) {
+				offsets[r + 1] += offsets[r];
+			}
+			final int[] next = Arrays.copyOf(offsets, numRows);
+			final int[] order = new int[numTuples];
+			for (int t = 0; t < numTuples; t++) {
+				order[next[data[t * arity + rowComponent]]++] = t;
+			}
+			// sort each row lexicographically
+			final int[] buffer = new int[numTuples];
+			final TupleComparator comparator = (t1, t2) -> {
+				for (final int c : columnComponents) {
+					final int cmp = Integer.compare(data[t1 * arity + c], data[t2 * arity + c]);
+					if (cmp != 0) {
+						return cmp;
+					}
+				}
+				return 0;
+			};
+			for (int r = 0; r < numRows; r++) {
+				mergeSort(order, buffer, offsets[r], offsets[r + 1], comparator);
+			}
+			// copy to columns and drop duplicates
+			final int[][] columns = new int[columnComponents.length][numTuples];
+			int size = 0;
+			for (int r = 0; r < numRows; r++) {
+				final int rowStart = size;
+				for (int i = offsets[r]; i < offsets[r + 1]; i++) {
+					if (size > rowStart && comparator.compare(order[i - 1], order[i]) == 0) {
+						continue;
+					}
+					for (int c = 0; c < columnComponents.length; c++) {
+						columns[c][size] = data[order[i] * arity + columnComponents[c]];
+					}
+					size++;
+				}
+				offsets[r] = rowStart;
+			}
+			offsets[numRows] = size;
+			if (size < numTuples) {
+				for (int c = 0; c < columns.length; c++) {
+					columns[c] = Arrays.copyOf(columns[c], size);
+				}
+			}
+			return new CsrRelation(offsets, columns);
+		}
+
+		private static void mergeSort(final int[] a, final int[] buffer, final int from, final int to,
+				final TupleComparator comparator) {
+			if (to - from < 8) {
+				for (int i = from + 1; i < to; i++) {
+					final int x = a[i];
+					int j = i - 1;
+					while (j >= from && comparator.compare(a[j], x) > 0) {
+						a[j + 1] = a[j];
+						j--;
+					}
+					a[j + 1] = x;
+				}
+				return;
+			}
+			final int mid = (from + to) >>> 1;
+			mergeSort(a, buffer, from, mid, comparator);
+			mergeSort(a, buffer, mid, to, comparator);
+			if (comparator.compare(a[mid - 1], a[mid]) <= 0) {
+				return;
+			}
+			System.arraycopy(a, from, buffer, from, to - from);
+			int left = from;
+			int right = mid;
+			for (int i = from; i < to; i++) {
+				if (right >= to || left < mid && comparator.compare(buffer[left], buffer[right]) <= 0) {
+					a[i] = buffer[left++];
+				} else {
+					a[i] = buffer[right++];
+				}
+			}
+		}
+	}
+
+	@FunctionalInterface
+	private interface TupleComparator {
+		int compare(int tuple1, int tuple2);
+	}
+
+	/**
+	 * Growable buffer of integer tuples of fixed arity.
+	 */
+	private static final class IntBuffer {
+		private final int mArity;
+		private int[] mData;
+		private int mLength;
+
+		IntBuffer(final int arity) {
+			mArity = arity;
+			mData = new int[arity * 16];
+		}
+
+		void add(final int... tuple) {
+			assert tuple.length == mArity;
+			if (mLength + mArity > mData.length) {
+				mData = Arrays.copyOf(mData, mData.length * 2);
+			}
+			System.arraycopy(tuple, 0, mData, mLength, mArity);
+			mLength += mArity;
+		}
+
+		int size() {
+			return mLength / mArity;
+		}
+	}
+
+	/**
+	 * Constructs a {@link CompactNestedWordAutomaton} without building a map-based automaton first. States have to be
+	 * added before the transitions that use them. Duplicate transitions are allowed and removed by {@link #build()}.
+	 *
+	 * @param <LETTER>
+	 *            letter type
+	 * @param <STATE>
+	 *            state type
+	 */
+	public static final class Builder<LETTER, STATE> {
+		private final AutomataLibraryServices mServices;
+		private final VpAlphabet<LETTER> mVpAlphabet;
+		private final IStateFactory<STATE> mStateFactory;
+		private final STATE mEmptyStackState;
+
+		private final List<STATE> mStates = new ArrayList<>();
+		private final Map<STATE, Integer> mStateIds = new HashMap<>();
+		private final BitSet mInitialStates = new BitSet();
+		private final BitSet mFinalStates = new BitSet();
+		private final List<LETTER> mLetters = new ArrayList<>();
+		private final Map<LETTER, Integer> mLetterIds = new HashMap<>();
+
+		private final IntBuffer mInternal = new IntBuffer(3);
+		private final IntBuffer mCall = new IntBuffer(3);
+		private final IntBuffer mReturn = new IntBuffer(4);
+		private boolean mBuilt;
+
+		/**
+		 * @param services
+		 *            Ultimate services
+		 * @param vpAlphabet
+		 *            alphabet
+		 * @param stateFactory
+		 *            state factory
+		 * @param emptyStackState
+		 *            the empty stack state of the automaton
+		 */
+		public Builder(final AutomataLibraryServices services, final VpAlphabet<LETTER> vpAlphabet,
+				final IStateFactory<STATE> stateFactory, final STATE emptyStackState) {
+			if (stateFactory == null) {
+				throw new IllegalArgumentException("nwa must have stateFactory");
+			}
+			mServices = services;
+			mVpAlphabet = vpAlphabet;
+			mStateFactory = stateFactory;
+			mEmptyStackState = emptyStackState;
+			// letters of the alphabet get the smallest ids, in a deterministic order if the alphabet is sorted
+			vpAlphabet.getInternalAlphabet().forEach(this::internLetter);
+			vpAlphabet.getCallAlphabet().forEach(this::internLetter);
+			vpAlphabet.getReturnAlphabet().forEach(this::internLetter);
+		}
+
+		/**
+		 * Adds a state.
+		 *
+		 * @throws IllegalArgumentException
+		 *             if the state was already added
+		 */
+		public void addState(final boolean isInitial, final boolean isFinal, final STATE state) {
+			checkNotBuilt();
+			if (mStateIds.containsKey(state)) {
+				throw new IllegalArgumentException("State " + state + " already exists");
+			}
+			final int id = mStates.size();
+			mStates.add(state);
+			mStateIds.put(state, id);
+			if (isInitial) {
+				mInitialStates.set(id);
+			}
+			if (isFinal) {
+				mFinalStates.set(id);
+			}
+		}
+
+		public void addInternalTransition(final STATE pred, final LETTER letter, final STATE succ) {
+			checkNotBuilt();
+			mInternal.add(stateId(pred), internLetter(letter), stateId(succ));
+		}
+
+		public void addCallTransition(final STATE pred, final LETTER letter, final STATE succ) {
+			checkNotBuilt();
+			mCall.add(stateId(pred), internLetter(letter), stateId(succ));
+		}
+
+		public void addReturnTransition(final STATE linPred, final STATE hierPred, final LETTER letter,
+				final STATE succ) {
+			checkNotBuilt();
+			mReturn.add(stateId(linPred), stateId(hierPred), internLetter(letter), stateId(succ));
+		}
+
+		/**
+		 * @return The automaton. The builder must not be used afterwards.
+		 */
+		public CompactNestedWordAutomaton<LETTER, STATE> build() {
+			checkNotBuilt();
+			mBuilt = true;
+			return new CompactNestedWordAutomaton<>(this);
+		}
+
+		private void checkNotBuilt() {
+			if (mBuilt) {
+				throw new IllegalStateException("automaton already built");
+			}
+		}
+
+		private int stateId(final STATE state) {
+			final Integer id = mStateIds.get(state);
+			if (id == null) {
+				throw new IllegalArgumentException("State " + state + " not in automaton");
+			}
+			return id;
+		}
+
+		private int internLetter(final LETTER letter) {
+			final Integer id = mLetterIds.get(letter);
+			if (id != null) {
+				return id;
+			}
+			final int newId = mLetters.size();
+			mLetters.add(letter);
+			mLetterIds.put(letter, newId);
+			return newId;
+		}
+	}
+}
@@ -0,0 +1,464 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.DoubleDecker;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INwaOutgoingLetterAndTransitionProvider;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedRun;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWord;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.UnaryNwaOperation;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IStateFactory;
+import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.RunningTaskInfo;
+
+/**
+ * Multi-threaded variant of {@link IsEmpty}.
+ * <p>
+ * Like {@link IsEmpty}, we explore the reachability graph whose nodes are double deckers (state,stateK), where stateK
+ * is the topmost stack element. The exploration is a level-synchronous breadth-first search, and each level is
+ * processed in two phases. First, the outgoing transitions of all double deckers of the level are queried in parallel
+ * by the tasks of a {@link ForkJoinPool}. Second, the successors are discovered sequentially in the order of the
+ * level, and the successors that are discovered for the first time form the next level in the order of their
+ * discovery. Hence the run we return does not depend on the scheduling of the threads. It may differ from the run
+ * returned by {@link IsEmpty}, also in its length: both searches treat a summary as a single edge, hence neither run is
+ * necessarily a shortest one.
+ * <p>
+ * Summaries are handled as in {@link IsEmpty}. A return transition from (state,stateK) to succ yields a summary from
+ * stateK to succ, which is applied to all double deckers (stateK,*) that are already expanded and to all that are
+ * expanded later.
+ * <p>
+ * The operand is queried concurrently if it is an {@link INestedWordAutomaton}, i.e., if its transitions are already
+ * constructed. Otherwise, the operand may construct its transitions on demand and all queries are serialized.
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public final class IsEmptyParallel<LETTER, STATE> extends UnaryNwaOperation<LETTER, STATE, IStateFactory<STATE>> {
+	/**
+	 * Levels with at most this many double deckers are queried by a single task.
+	 */
+	private static final int SEQUENTIAL_THRESHOLD = 64;
+
+	private final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> mOperand;
+	private final STATE mEmptyStackState;
+	private final boolean mSerializeOperandAccess;
+	private final ForkJoinPool mPool;
+
+	/**
+	 * Assigns to each visited double decker the edge over which it was discovered first.
+	 */
+	private final Map<DoubleDecker<STATE>, Incoming<LETTER, STATE>> mVisited = new HashMap<>();
+
+	/**
+	 * Assigns to a state the set of all stateK such that the double decker (state,stateK) has already been expanded.
+	 */
+	private final Map<STATE, Set<STATE>> mExpandedDown = new HashMap<>();
+
+	/**
+	 * Assigns to a double decker (succ,state) that is the target of a call transition from state all predK such that
+	 * the call was taken in the double decker (state,predK), together with the call letter.
+	 */
+	private final Map<DoubleDecker<STATE>, Map<STATE, LETTER>> mCallLetters = new HashMap<>();
+
+	/**
+	 * Assigns to a state before a call all states after the return together with the last transition of the summary.
+	 */
+	private final Map<STATE, Map<STATE, Incoming<LETTER, STATE>>> mSummaries = new HashMap<>();
+
+	private List<DoubleDecker<STATE>> mNextLevel = new ArrayList<>();
+	private DoubleDecker<STATE> mGoal;
+	private volatile boolean mCanceled;
+
+	private final NestedRun<LETTER, STATE> mAcceptingRun;
+
+	/**
+	 * Constructor that uses the common pool.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param operand
+	 *            input NWA
+	 */
+	public IsEmptyParallel(final AutomataLibraryServices services,
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> operand)
+			throws AutomataOperationCanceledException {
+		this(services, operand, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param services
+	 *            Ultimate services
+	 * @param operand
+	 *            input NWA
+	 * @param pool
+	 *            pool whose threads query the operand; it is not shut down by this operation
+	 */
+	public IsEmptyParallel(final AutomataLibraryServices services,
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> operand, final ForkJoinPool pool)
+			throws AutomataOperationCanceledException {
+		super(services);
+		mOperand = operand;
+		mEmptyStackState = operand.getEmptyStackState();
+		mSerializeOperandAccess = !(operand instanceof INestedWordAutomaton);
+		mPool = pool;
+
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info(startMessage());
+		}
+
+		mAcceptingRun = getAcceptingRun();
+
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info(exitMessage());
+		}
+	}
+
+	private NestedRun<LETTER, STATE> getAcceptingRun() throws AutomataOperationCanceledException {
+		for (final STATE state : query(mOperand::getInitialStates)) {
+			discover(new DoubleDecker<>(mEmptyStackState, state), Incoming.start());
+			if (mGoal != null) {
+				return constructRun(mGoal);
+			}
+		}
+
+		while (!mNextLevel.isEmpty()) {
+			final List<DoubleDecker<STATE>> level = mNextLevel;
+			mNextLevel = new ArrayList<>();
+			@SuppressWarnings("unchecked")
+			final Expansion<LETTER, STATE>[] expansions = new Expansion[level.size()];
+			if (mServices.getProgressAwareTimer().continueProcessing()) {
+				mPool.invoke(new QueryTask(level, expansions, 0, level.size()));
+			} else {
+				mCanceled = true;
+			}
+			if (mCanceled) {
+				final String taskDescription = "searching accepting run in parallel (" + mVisited.size()
+						+ " double deckers visited)";
+				throw new AutomataOperationCanceledException(new RunningTaskInfo(getClass(), taskDescription));
+			}
+			for (int i = 0; i < expansions.length; i++) {
+				expand(level.get(i), expansions[i]);
+				if (mGoal != null) {
+					return constructRun(mGoal);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Query the outgoing transitions of a double decker.
+	 */
+	private Expansion<LETTER, STATE> queryTransitions(final DoubleDecker<STATE> doubleDecker) {
+		final STATE state = doubleDecker.getUp();
+		final STATE stateK = doubleDecker.getDown();
+		final Expansion<LETTER, STATE> result = new Expansion<>();
+		for (final OutgoingInternalTransition<LETTER, STATE> trans : query(() -> mOperand.internalSuccessors(state))) {
+			result.mInternal.add(trans);
+		}
+		for (final OutgoingCallTransition<LETTER, STATE> trans : query(() -> mOperand.callSuccessors(state))) {
+			result.mCall.add(trans);
+		}
+		// equality intended here
+		if (stateK != mEmptyStackState) {
+			for (final OutgoingReturnTransition<LETTER, STATE> trans : query(
+					() -> mOperand.returnSuccessorsGivenHier(state, stateK))) {
+				result.mReturn.add(trans);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Expand a double decker, i.e., discover all its successors in the reachability graph.
+	 */
+	private void expand(final DoubleDecker<STATE> doubleDecker, final Expansion<LETTER, STATE> expansion) {
+		final STATE state = doubleDecker.getUp();
+		final STATE stateK = doubleDecker.getDown();
+
+		for (final OutgoingInternalTransition<LETTER, STATE> trans : expansion.mInternal) {
+			discover(new DoubleDecker<>(stateK, trans.getSucc()), Incoming.internal(trans.getLetter(), state, stateK));
+		}
+
+		for (final OutgoingCallTransition<LETTER, STATE> trans : expansion.mCall) {
+			final DoubleDecker<STATE> succ = new DoubleDecker<>(state, trans.getSucc());
+			// record every call predecessor, the run reconstruction may need another one than the first
+			mCallLetters.computeIfAbsent(succ, x -> new LinkedHashMap<>()).putIfAbsent(stateK, trans.getLetter());
+			discover(succ, Incoming.call(trans.getLetter(), state, stateK));
+		}
+
+		mExpandedDown.computeIfAbsent(state, x -> new LinkedHashSet<>()).add(stateK);
+		final Map<STATE, Incoming<LETTER, STATE>> summaries = mSummaries.get(state);
+		if (summaries != null) {
+			for (final Entry<STATE, Incoming<LETTER, STATE>> entry : summaries.entrySet()) {
+				discover(new DoubleDecker<>(stateK, entry.getKey()), entry.getValue());
+			}
+		}
+
+		for (final OutgoingReturnTransition<LETTER, STATE> trans : expansion.mReturn) {
+			final STATE succ = trans.getSucc();
+			final Incoming<LETTER, STATE> summary = Incoming.ret(trans.getLetter(), state, stateK);
+			if (mSummaries.computeIfAbsent(stateK, x -> new LinkedHashMap<>()).putIfAbsent(succ, summary) != null) {
+				// this summary was already applied
+				continue;
+			}
+			for (final STATE stateKk : mExpandedDown.getOrDefault(stateK, Collections.emptySet())) {
+				discover(new DoubleDecker<>(stateKk, succ), summary);
+			}
+		}
+	}
+
+	private void discover(final DoubleDecker<STATE> doubleDecker, final Incoming<LETTER, STATE> incoming) {
+		if (mVisited.putIfAbsent(doubleDecker, incoming) != null) {
+			return;
+		}
+		if (mGoal == null && isFinal(doubleDecker.getUp())) {
+			mGoal = doubleDecker;
+		}
+		mNextLevel.add(doubleDecker);
+	}
+
+	/**
+	 * Construct a run for a discovered goal double decker. The run is constructed backwards along the edges over which
+	 * each double decker was discovered first. The stack contains the stateK of each return we passed whose call we
+	 * have not passed yet. At such a call we have to use the call predecessor that matches the return.
+	 */
+	private NestedRun<LETTER, STATE> constructRun(final DoubleDecker<STATE> goal) {
+		final ArrayDeque<STATE> reconstructionStack = new ArrayDeque<>();
+		STATE state = goal.getUp();
+		STATE stateK = goal.getDown();
+		NestedRun<LETTER, STATE> run = new NestedRun<>(state);
+		while (true) {
+			final DoubleDecker<STATE> doubleDecker = new DoubleDecker<>(stateK, state);
+			final Incoming<LETTER, STATE> incoming = mVisited.get(doubleDecker);
+			assert incoming != null : "not visited: " + doubleDecker;
+			final NestedRun<LETTER, STATE> step;
+			switch (incoming.mKind) {
+				case START:
+					assert reconstructionStack.isEmpty() : "unmatched return";
+					return run;
+				case INTERNAL:
+					step = new NestedRun<>(incoming.mPred, incoming.mLetter, NestedWord.INTERNAL_POSITION, state);
+					break;
+				case CALL:
+					if (!reconstructionStack.isEmpty()) {
+						final STATE predK = reconstructionStack.pop();
+						final LETTER letter = mCallLetters.get(doubleDecker).get(predK);
+						assert letter != null : "no call from (" + stateK + "," + predK + ") to " + state;
+						step = new NestedRun<>(stateK, letter, NestedWord.PLUS_INFINITY, state);
+						run = step.concatenate(run);
+						state = stateK;
+						stateK = predK;
+						continue;
+					}
+					step = new NestedRun<>(incoming.mPred, incoming.mLetter, NestedWord.PLUS_INFINITY, state);
+					break;
+				case RETURN:
+					reconstructionStack.push(stateK);
+					step = new NestedRun<>(incoming.mPred, incoming.mLetter, NestedWord.MINUS_INFINITY, state);
+					break;
+				default:
+					throw new AssertionError("unknown kind " + incoming.mKind);
+			}
+			run = step.concatenate(run);
+			state = incoming.mPred;
+			stateK = incoming.mPredK;
+		}
+	}
+
+	private boolean isFinal(final STATE state) {
+		if (mSerializeOperandAccess) {
+			synchronized (mOperand) {
+				return mOperand.isFinal(state);
+			}
+		}
+		return mOperand.isFinal(state);
+	}
+
+	/**
+	 * Query the operand. If the operand may construct its transitions on demand, the query is done under a lock and
+	 * the result is copied.
+	 */
+	private <T> Iterable<T> query(final Supplier<Iterable<T>> query) {
+		if (!mSerializeOperandAccess) {
+			return query.get();
+		}
+		synchronized (mOperand) {
+			final List<T> result = new ArrayList<>();
+			query.get().forEach(result::add);
+			return result;
+		}
+	}
+
+	@Override
+	protected INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> getOperand() {
+		return mOperand;
+	}
+
+	@Override
+	public Boolean getResult() {
+		return mAcceptingRun == null;
+	}
+
+	public NestedRun<LETTER, STATE> getNestedRun() {
+		return mAcceptingRun;
+	}
+
+	@Override
+	public boolean checkResult(final IStateFactory<STATE> stateFactory) throws AutomataLibraryException {
+		final NestedRun<LETTER, STATE> sequentialRun = new IsEmpty<>(mServices, mOperand).getNestedRun();
+		if ((sequentialRun == null) != (mAcceptingRun == null)) {
+			return false;
+		}
+		if (mAcceptingRun == null) {
+			return true;
+		}
+		return new Accepts<>(mServices, mOperand, mAcceptingRun.getWord()).getResult();
+	}
+
+	@Override
+	public String exitMessage() {
+		if (mAcceptingRun == null) {
+			return "Finished " + getOperationName() + ". No accepting run.";
+		}
+		return "Finished " + getOperationName() + ". Found accepting run of length " + mAcceptingRun.getLength();
+	}
+
+	/**
+	 * Queries the outgoing transitions of the double deckers of a level in the given index range. Large ranges are
+	 * split, idle threads of the pool steal the halves.
+	 */
+	private final class QueryTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final transient List<DoubleDecker<STATE>> mLevel;
+		private final transient Expansion<LETTER, STATE>[] mExpansions;
+		private final int mFrom;
+		private final int mTo;
+
+		QueryTask(final List<DoubleDecker<STATE>> level, final Expansion<LETTER, STATE>[] expansions, final int from,
+				final int to) {
+			mLevel = level;
+			mExpansions = expansions;
+			mFrom = from;
+			mTo = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (mTo - mFrom > SEQUENTIAL_THRESHOLD) {
+				final int middle = (mFrom + mTo) >>> 1;
+				invokeAll(new QueryTask(mLevel, mExpansions, mFrom, middle),
+						new QueryTask(mLevel, mExpansions, middle, mTo));
+				return;
+			}
+			for (int i = mFrom; i < mTo; i++) {
+				if (mCanceled) {
+					return;
+				}
+				mExpansions[i] = queryTransitions(mLevel.get(i));
+			}
+			if (!mServices.getProgressAwareTimer().continueProcessing()) {
+				mCanceled = true;
+			}
+		}
+	}
+
+	/**
+	 * The outgoing transitions of a double decker.
+	 */
+	private static final class Expansion<LETTER, STATE> {
+		private final List<OutgoingInternalTransition<LETTER, STATE>> mInternal = new ArrayList<>();
+		private final List<OutgoingCallTransition<LETTER, STATE>> mCall = new ArrayList<>();
+		private final List<OutgoingReturnTransition<LETTER, STATE>> mReturn = new ArrayList<>();
+	}
+
+	/**
+	 * The edge of the reachability graph over which a double decker was discovered. mPred and mPredK are the state and
+	 * the stateK of the predecessor. For a call, the predecessor is (stateK,predK) of the target. For a return, the
+	 * predecessor is the double decker in which the return transition was taken.
+	 */
+	private static final class Incoming<LETTER, STATE> {
+		private enum Kind {
+			START, INTERNAL, CALL, RETURN
+		}
+
+		private static final Incoming<?, ?> START = new Incoming<>(Kind.START, null, null, null);
+
+		private final Kind mKind;
+		private final LETTER mLetter;
+		private final STATE mPred;
+		private final STATE mPredK;
+
+		private Incoming(final Kind kind, final LETTER letter, final STATE pred, final STATE predK) {
+			mKind = kind;
+			mLetter = letter;
+			mPred = pred;
+			mPredK = predK;
+		}
+
+		@SuppressWarnings("unchecked")
+		static <LETTER, STATE> Incoming<LETTER, STATE> start() {
+			return (Incoming<LETTER, STATE>) START;
+		}
+
+		static <LETTER, STATE> Incoming<LETTER, STATE> internal(final LETTER letter, final STATE pred,
+				final STATE predK) {
+			return new Incoming<>(Kind.INTERNAL, letter, pred, predK);
+		}
+
+		static <LETTER, STATE> Incoming<LETTER, STATE> call(final LETTER letter, final STATE pred,
+				final STATE predK) {
+			return new Incoming<>(Kind.CALL, letter, pred, predK);
+		}
+
+		static <LETTER, STATE> Incoming<LETTER, STATE> ret(final LETTER letter, final STATE pred, final STATE predK) {
+			return new Incoming<>(Kind.RETURN, letter, pred, predK);
+		}
+	}
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.DoubleDecker;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INwaOutgoingLetterAndTransitionProvider;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IIntersectionStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IStateFactory;
+
+/**
+ * On-demand difference of an automaton and a sequence of subtrahends.
+ * <p>
+ * Unlike {@link Difference}, we do not construct the reachable states of the result. Each subtrahend is determinized,
+ * complemented, and intersected on-the-fly, hence an emptiness check on this automaton explores only the product
+ * states it visits. Outgoing transitions that were already computed are kept in a cache of bounded size, since
+ * recomputing them has to go through all layers of the stack.
+ * <p>
+ * If the stack has more than a given number of layers, it is compacted, i.e., the reachable states of the result
+ * (without dead ends) are constructed and become the new base of the stack.
+ * <p>
+ * The transitions of the subtrahends must not change while they are part of the stack. In particular, subtrahends that
+ * construct their transitions on demand have to stay in this mode until {@link #subtract} reported a compaction.
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public class LazyDifferenceNwa<LETTER, STATE> implements INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> {
+	private final AutomataLibraryServices mServices;
+	private final IIntersectionStateFactory<STATE> mStateFactory;
+	private final int mMaxDepth;
+
+	private INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> mTop;
+	private int mDepth;
+
+	private final Map<STATE, List<OutgoingInternalTransition<LETTER, STATE>>> mInternalCache;
+	private final Map<STATE, List<OutgoingCallTransition<LETTER, STATE>>> mCallCache;
+	private final Map<DoubleDecker<STATE>, List<OutgoingReturnTransition<LETTER, STATE>>> mReturnCache;
+
+	/**
+	 * @param services
+	 *            Ultimate services
+	 * @param stateFactory
+	 *            state factory for the intersection
+	 * @param base
+	 *            the automaton from which we subtract
+	 * @param maxDepth
+	 *            maximal number of subtrahends on the stack before the stack is compacted
+	 * @param cacheSize
+	 *            maximal number of states whose outgoing transitions of each kind are cached
+	 */
+	public LazyDifferenceNwa(final AutomataLibraryServices services,
+			final IIntersectionStateFactory<STATE> stateFactory,
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> base, final int maxDepth,
+			final int cacheSize) {
+		if (maxDepth < 1) {
+			throw new IllegalArgumentException("maximal depth must be positive");
+		}
+		mServices = services;
+		mStateFactory = stateFactory;
+		mMaxDepth = maxDepth;
+		mTop = base;
+		mInternalCache = createCache(cacheSize);
+		mCallCache = createCache(cacheSize);
+		mReturnCache = createCache(cacheSize);
+	}
+
+	private static <K, V> Map<K, V> createCache(final int cacheSize) {
+		return new LinkedHashMap<K, V>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	/**
+	 * Subtract another automaton, i.e., push it onto the stack.
+	 *
+	 * @param subtrahend
+	 *            automaton whose language is removed
+	 * @param stateDeterminizer
+	 *            determinizer for the subtrahend
+	 * @param finalIsTrap
+	 *            see {@link IntersectNwa}
+	 * @return true iff the stack was compacted afterwards, i.e., no subtrahend is referenced anymore
+	 * @throws AutomataLibraryException
+	 *             if alphabets differ or the compaction was canceled
+	 */
+	public boolean subtract(final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> subtrahend,
+			final IStateDeterminizer<LETTER, STATE> stateDeterminizer, final boolean finalIsTrap)
+			throws AutomataLibraryException {
+		// the complementation is only correct for total automata
+		final DeterminizeNwa<LETTER, STATE> determinized = new DeterminizeNwa<>(mServices, subtrahend,
+				stateDeterminizer, mStateFactory, null, true);
+		final ComplementDeterministicNwa<LETTER, STATE> complemented = new ComplementDeterministicNwa<>(determinized);
+		mTop = new IntersectNwa<>(mTop, complemented, mStateFactory, finalIsTrap);
+		mDepth++;
+		clearCaches();
+		if (mDepth > mMaxDepth) {
+			compact();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Construct the reachable states (without dead ends) of the current stack and use them as the new base.
+	 *
+	 * @return the new base
+	 * @throws AutomataOperationCanceledException
+	 *             if the construction was canceled
+	 */
+	public INestedWordAutomaton<LETTER, STATE> compact() throws AutomataOperationCanceledException {
+		final INestedWordAutomaton<LETTER, STATE> result = new RemoveDeadEnds<>(mServices, mTop).getResult();
+		mTop = result;
+		mDepth = 0;
+		clearCaches();
+		return result;
+	}
+
+	/**
+	 * @return number of subtrahends on the stack
+	 */
+	public int getDepth() {
+		return mDepth;
+	}
+
+	private void clearCaches() {
+		mInternalCache.clear();
+		mCallCache.clear();
+		mReturnCache.clear();
+	}
+
+	private static <K, T> Iterable<T> getOrCompute(final Map<K, List<T>> cache, final K key,
+			final Supplier<Iterable<T>> computation) {
+		List<T> result = cache.get(key);
+		if (result == null) {
+			result = new ArrayList<>();
+			for (final T trans : computation.get()) {
+				result.add(trans);
+			}
+			cache.put(key, result);
+		}
+		return result;
+	}
+
+	@Override
+	public Iterable<OutgoingInternalTransition<LETTER, STATE>> internalSuccessors(final STATE state) {
+		return getOrCompute(mInternalCache, state, () -> mTop.internalSuccessors(state));
+	}
+
+	@Override
+	public Iterable<OutgoingCallTransition<LETTER, STATE>> callSuccessors(final STATE state) {
+		return getOrCompute(mCallCache, state, () -> mTop.callSuccessors(state));
+	}
+
+	@Override
+	public Iterable<OutgoingReturnTransition<LETTER, STATE>> returnSuccessorsGivenHier(final STATE state,
+			final STATE hier) {
+		return getOrCompute(mReturnCache, new DoubleDecker<>(hier, state),
+				() -> mTop.returnSuccessorsGivenHier(state, hier));
+	}
+
+	@Override
+	public Iterable<OutgoingInternalTransition<LETTER, STATE>> internalSuccessors(final STATE state,
+			final LETTER letter) {
+		return mTop.internalSuccessors(state, letter);
+	}
+
+	@Override
+	public Iterable<OutgoingCallTransition<LETTER, STATE>> callSuccessors(final STATE state, final LETTER letter) {
+		return mTop.callSuccessors(state, letter);
+	}
+
+	@Override
+	public Iterable<OutgoingReturnTransition<LETTER, STATE>> returnSuccessors(final STATE state, final STATE hier,
+			final LETTER letter) {
+		return mTop.returnSuccessors(state, hier, letter);
+	}
+
+	@Override
+	public Set<LETTER> lettersInternal(final STATE state) {
+		return mTop.lettersInternal(state);
+	}
+
+	@Override
+	public Set<LETTER> lettersCall(final STATE state) {
+		return mTop.lettersCall(state);
+	}
+
+	@Override
+	public Set<LETTER> lettersReturn(final STATE state, final STATE hier) {
+		return mTop.lettersReturn(state, hier);
+	}
+
+	@Override
+	public IStateFactory<STATE> getStateFactory() {
+		return mTop.getStateFactory();
+	}
+
+	@Override
+	public VpAlphabet<LETTER> getVpAlphabet() {
+		return mTop.getVpAlphabet();
+	}
+
+	@Override
+	public STATE getEmptyStackState() {
+		return mTop.getEmptyStackState();
+	}
+
+	@Override
+	public Iterable<STATE> getInitialStates() {
+		return mTop.getInitialStates();
+	}
+
+	@Override
+	public boolean isInitial(final STATE state) {
+		return mTop.isInitial(state);
+	}
+
+	@Override
+	public boolean isFinal(final STATE state) {
+		return mTop.isFinal(state);
+	}
+
+	@Override
+	public int size() {
+		return mTop.size();
+	}
+
+	@Override
+	public String sizeInformation() {
+		return mDepth + " subtrahends on the stack, " + mTop.sizeInformation();
+	}
+}
@@ -0,0 +1,598 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.parallel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.IDoubleDeckerAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.AbstractMinimizeNwa;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.IMinimizationCheckResultStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.IMinimizationStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.util.PartitionBackedSetOfPairs;
+import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.RunningTaskInfo;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.UnionFind;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.Pair;
+
+/**
+ * Minimization of nested word automata by parallel partition refinement.
+ * <p>
+ * The partition is refined in rounds. In each round, every state of a block that may be split gets a signature, which
+ * is the set of its outgoing edges, where each edge is a key together with the block of its target. Internal and call
+ * edges are keyed by their letter. Return transitions are considered for reachable double deckers only, once from the
+ * linear predecessor (keyed by the hierarchical predecessor and the letter) and once from the hierarchical predecessor
+ * (keyed by the linear predecessor and the letter). Then each block is split according to the signatures of its states.
+ * The signatures of all states are computed concurrently, and afterwards all blocks are split concurrently; hence the
+ * internal, call, and return splits of all blocks are processed in parallel.
+ * <p>
+ * A block has to be considered again only if one of its states has an edge to a state that was moved to a new block in
+ * the last round. New blocks are numbered in the order of the states, and the state order is fixed in advance. Hence
+ * the final partition (which is the coarsest stable refinement of the initial partition) and its numbering do not
+ * depend on the scheduling of the threads.
+ * <p>
+ * In comparison to {@link de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.ShrinkNwa
+ * ShrinkNwa}, two states are only merged if they have the same return behavior for each individual hierarchical
+ * predecessor (and vice versa). This makes the result possibly larger, but it is always language-equivalent, even for
+ * nondeterministic automata.
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public final class MinimizeNwaParallel<LETTER, STATE> extends AbstractMinimizeNwa<LETTER, STATE> {
+	/**
+	 * Ranges with at most this many states are handled by a single task when signatures are computed.
+	 */
+	private static final int STATES_THRESHOLD = 256;
+	/**
+	 * Ranges with at most this many blocks are handled by a single task when blocks are split.
+	 */
+	private static final int BLOCKS_THRESHOLD = 8;
+
+	private final INestedWordAutomaton<LETTER, STATE> mOperand;
+	private final int mParallelism;
+
+	/**
+	 * The states of the operand in a fixed order. States are identified by their index in this list.
+	 */
+	private final List<STATE> mStates;
+	/**
+	 * Edge keys and edge targets of each state (the arrays for one state have the same length).
+	 */
+	private final int[][] mEdgeKeys;
+	private final int[][] mEdgeTargets;
+	/**
+	 * States that have an edge to a given state.
+	 */
+	private final int[][] mEdgeSources;
+	private int mNumberOfKeys;
+
+	/**
+	 * Block of each state and members of each block (in ascending order).
+	 */
+	private final int[] mBlock;
+	private final List<int[]> mMembers;
+
+	private int mRounds;
+	private volatile boolean mCanceled;
+
+	/**
+	 * Constructor that uses one thread per available processor and separates final and nonfinal states initially.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param stateFactory
+	 *            state factory
+	 * @param operand
+	 *            nested word automaton to minimize
+	 * @throws AutomataOperationCanceledException
+	 *             iff cancel signal is received
+	 */
+	public MinimizeNwaParallel(final AutomataLibraryServices services,
+			final IMinimizationStateFactory<STATE> stateFactory, final INestedWordAutomaton<LETTER, STATE> operand)
+			throws AutomataOperationCanceledException {
+		this(services, stateFactory, operand, null, false, false, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor that uses one thread per available processor.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param stateFactory
+	 *            state factory
+	 * @param operand
+	 *            nested word automaton to minimize
+	 * @param equivalenceClasses
+	 *            represent initial equivalence classes
+	 * @param addMapOldState2newState
+	 *            add map old state 2 new state?
+	 * @param initialPartitionSeparatesFinalsAndNonfinals
+	 *            true iff the initial equivalence classes are already separated with respect to final states
+	 * @throws AutomataOperationCanceledException
+	 *             iff cancel signal is received
+	 */
+	public MinimizeNwaParallel(final AutomataLibraryServices services,
+			final IMinimizationStateFactory<STATE> stateFactory, final INestedWordAutomaton<LETTER, STATE> operand,
+			final PartitionBackedSetOfPairs<STATE> equivalenceClasses, final boolean addMapOldState2newState,
+			final boolean initialPartitionSeparatesFinalsAndNonfinals) throws AutomataOperationCanceledException {
+		this(services, stateFactory, operand, equivalenceClasses, addMapOldState2newState,
+				initialPartitionSeparatesFinalsAndNonfinals, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param services
+	 *            Ultimate services
+	 * @param stateFactory
+	 *            state factory
+	 * @param operand
+	 *            nested word automaton to minimize
+	 * @param equivalenceClasses
+	 *            represent initial equivalence classes
+	 * @param addMapOldState2newState
+	 *            add map old state 2 new state?
+	 * @param initialPartitionSeparatesFinalsAndNonfinals
+	 *            true iff the initial equivalence classes are already separated with respect to final states
+	 * @param parallelism
+	 *            number of threads
+	 * @throws AutomataOperationCanceledException
+	 *             iff cancel signal is received
+	 */
+	public MinimizeNwaParallel(final AutomataLibraryServices services,
+			final IMinimizationStateFactory<STATE> stateFactory, final INestedWordAutomaton<LETTER, STATE> operand,
+			final PartitionBackedSetOfPairs<STATE> equivalenceClasses, final boolean addMapOldState2newState,
+			final boolean initialPartitionSeparatesFinalsAndNonfinals, final int parallelism)
+			throws AutomataOperationCanceledException {
+		super(services, stateFactory);
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive");
+		}
+		mOperand = operand;
+		mParallelism = parallelism;
+
+		printStartMessage();
+
+		if (!(operand instanceof IDoubleDeckerAutomaton) && !isFiniteAutomaton()) {
+			throw new IllegalArgumentException(
+					"The input must either be a finite automaton or an IDoubleDeckerAutomaton.");
+		}
+
+		mStates = new ArrayList<>(operand.getStates());
+		final int size = mStates.size();
+		mEdgeKeys = new int[size][];
+		mEdgeTargets = new int[size][];
+		mEdgeSources = new int[size][];
+		mBlock = new int[size];
+		mMembers = new ArrayList<>();
+
+		constructEdges();
+		createInitialPartition(equivalenceClasses, initialPartitionSeparatesFinalsAndNonfinals);
+		refinePartition();
+		constructResultFromPartition(createUnionFind(), addMapOldState2newState);
+
+		if (mLogger.isDebugEnabled()) {
+			mLogger.debug("partition refinement took " + mRounds + " rounds");
+		}
+		printExitMessage();
+	}
+
+	@Override
+	protected INestedWordAutomaton<LETTER, STATE> getOperand() {
+		return mOperand;
+	}
+
+	/**
+	 * Translates the transitions of the operand to edges between state indices. Afterwards the operand is not accessed
+	 * anymore during the refinement, hence it does not need to support concurrent queries.
+	 */
+	private void constructEdges() throws AutomataOperationCanceledException {
+		final Map<STATE, Integer> state2index = new HashMap<>(computeHashCap(mStates.size()));
+		for (int i = 0; i < mStates.size(); ++i) {
+			state2index.put(mStates.get(i), i);
+		}
+		final Map<LETTER, Integer> internalKeys = new HashMap<>();
+		final Map<LETTER, Integer> callKeys = new HashMap<>();
+		final Map<Pair<Integer, LETTER>, Integer> linearReturnKeys = new HashMap<>();
+		final Map<Pair<Integer, LETTER>, Integer> hierarchicalReturnKeys = new HashMap<>();
+
+		final List<List<Integer>> keys = new ArrayList<>(mStates.size());
+		final List<List<Integer>> targets = new ArrayList<>(mStates.size());
+		for (int i = 0; i < mStates.size(); ++i) {
+			keys.add(new ArrayList<>());
+			targets.add(new ArrayList<>());
+		}
+
+		final IDoubleDeckerAutomaton<LETTER, STATE> doubleDecker = mOperand instanceof IDoubleDeckerAutomaton
+				? (IDoubleDeckerAutomaton<LETTER, STATE>) mOperand
+				: null;
+		for (int i = 0; i < mStates.size(); ++i) {
+			final STATE state = mStates.get(i);
+			for (final OutgoingInternalTransition<LETTER, STATE> trans : mOperand.internalSuccessors(state)) {
+				keys.get(i).add(getKey(internalKeys, trans.getLetter()));
+				targets.get(i).add(state2index.get(trans.getSucc()));
+			}
+			for (final OutgoingCallTransition<LETTER, STATE> trans : mOperand.callSuccessors(state)) {
+				keys.get(i).add(getKey(callKeys, trans.getLetter()));
+				targets.get(i).add(state2index.get(trans.getSucc()));
+			}
+			if (doubleDecker == null) {
+				continue;
+			}
+			for (final STATE down : doubleDecker.getDownStates(state)) {
+				final Integer hier = state2index.get(down);
+				if (hier == null) {
+					// empty stack state
+					continue;
+				}
+				for (final OutgoingReturnTransition<LETTER, STATE> trans : mOperand.returnSuccessorsGivenHier(state,
+						down)) {
+					final int succ = state2index.get(trans.getSucc());
+					keys.get(i).add(getKey(linearReturnKeys, new Pair<>(hier, trans.getLetter())));
+					targets.get(i).add(succ);
+					keys.get(hier).add(getKey(hierarchicalReturnKeys, new Pair<>(i, trans.getLetter())));
+					targets.get(hier).add(succ);
+				}
+			}
+			checkForContinuation();
+		}
+
+		final int[] numberOfSources = new int[mStates.size()];
+		for (int i = 0; i < mStates.size(); ++i) {
+			mEdgeKeys[i] = toArray(keys.get(i));
+			mEdgeTargets[i] = toArray(targets.get(i));
+			for (final int target : mEdgeTargets[i]) {
+				++numberOfSources[target];
+			}
+		}
+		for (int i = 0; i < mStates.size(); ++i) {
+			mEdgeSources[i] = new int[numberOfSources[i]];
+		}
+		for (int i = 0; i < mStates.size(); ++i) {
+			for (final int target : mEdgeTargets[i]) {
+				mEdgeSources[target][--numberOfSources[target]] = i;
+			}
+		}
+	}
+
+	private <K> int getKey(final Map<K, Integer> keys, final K key) {
+		final Integer oldKey = keys.get(key);
+		if (oldKey != null) {
+			return oldKey;
+		}
+		keys.put(key, mNumberOfKeys);
+		return mNumberOfKeys++;
+	}
+
+	private static int[] toArray(final List<Integer> list) {
+		final int[] result = new int[list.size()];
+		for (int i = 0; i < result.length; ++i) {
+			result[i] = list.get(i);
+		}
+		return result;
+	}
+
+	private void createInitialPartition(final PartitionBackedSetOfPairs<STATE> equivalenceClasses,
+			final boolean initialPartitionSeparatesFinalsAndNonfinals) {
+		final Collection<? extends Collection<STATE>> modules;
+		if (equivalenceClasses == null) {
+			modules = Arrays.asList(mStates);
+		} else {
+			modules = equivalenceClasses.getRelation();
+		}
+
+		// blocks that are identified by a module and the final status, numbered by the first state
+		final Map<STATE, Integer> state2module = new HashMap<>(computeHashCap(mStates.size()));
+		int module = 0;
+		for (final Collection<STATE> states : modules) {
+			for (final STATE state : states) {
+				state2module.put(state, module);
+			}
+			++module;
+		}
+		final Map<Pair<Integer, Boolean>, Integer> blocks = new HashMap<>();
+		final List<List<Integer>> members = new ArrayList<>();
+		for (int i = 0; i < mStates.size(); ++i) {
+			final STATE state = mStates.get(i);
+			final Integer stateModule = state2module.get(state);
+			assert stateModule != null : "The initial partition does not contain state " + state;
+			final boolean isFinal = !initialPartitionSeparatesFinalsAndNonfinals && mOperand.isFinal(state);
+			final Pair<Integer, Boolean> key = new Pair<>(stateModule, isFinal);
+			Integer block = blocks.get(key);
+			if (block == null) {
+				block = members.size();
+				blocks.put(key, block);
+				members.add(new ArrayList<>());
+			}
+			mBlock[i] = block;
+			members.get(block).add(i);
+		}
+		for (final List<Integer> block : members) {
+			mMembers.add(toArray(block));
+		}
+		assert !initialPartitionSeparatesFinalsAndNonfinals
+				|| assertStatesSeparation() : "initial partition does not separate final/non-final states";
+	}
+
+	private boolean assertStatesSeparation() {
+		for (final int[] block : mMembers) {
+			final boolean isFinal = mOperand.isFinal(mStates.get(block[0]));
+			for (final int state : block) {
+				if (isFinal != mOperand.isFinal(mStates.get(state))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private void refinePartition() throws AutomataOperationCanceledException {
+		int[] dirtyBlocks = new int[mMembers.size()];
+		for (int block = 0; block < dirtyBlocks.length; ++block) {
+			dirtyBlocks[block] = block;
+		}
+		final ForkJoinPool pool = new ForkJoinPool(mParallelism);
+		try {
+			while (true) {
+				dirtyBlocks = Arrays.stream(dirtyBlocks).filter(block -> mMembers.get(block).length > 1).toArray();
+				if (dirtyBlocks.length == 0) {
+					return;
+				}
+				++mRounds;
+
+				// signatures of all states in dirty blocks, with respect to the partition at the start of the round
+				final int[] offsets = new int[dirtyBlocks.length + 1];
+				for (int i = 0; i < dirtyBlocks.length; ++i) {
+					offsets[i + 1] = offsets[i] + mMembers.get(dirtyBlocks[i]).length;
+				}
+				final int[] flatStates = new int[offsets[dirtyBlocks.length]];
+				for (int i = 0; i < dirtyBlocks.length; ++i) {
+					final int[] members = mMembers.get(dirtyBlocks[i]);
+					System.arraycopy(members, 0, flatStates, offsets[i], members.length);
+				}
+				final Signature[] signatures = new Signature[flatStates.length];
+				invoke(pool, flatStates.length, STATES_THRESHOLD,
+						i -> signatures[i] = computeSignature(flatStates[i]));
+
+				// local split of each dirty block, null if the block is not split
+				final int[][] localBlocks = new int[dirtyBlocks.length][];
+				final int[] numberOfLocalBlocks = new int[dirtyBlocks.length];
+				final int[] dirtyBlocksOfRound = dirtyBlocks;
+				invoke(pool, dirtyBlocks.length, BLOCKS_THRESHOLD, i -> {
+					final int[] local = splitBlock(signatures, offsets[i], offsets[i + 1]);
+					numberOfLocalBlocks[i] = local[local.length - 1] + 1;
+					if (numberOfLocalBlocks[i] > 1) {
+						localBlocks[i] = local;
+					}
+				});
+
+				// apply the splits in the order of the blocks
+				final List<Integer> movedStates = new ArrayList<>();
+				for (int i = 0; i < dirtyBlocksOfRound.length; ++i) {
+					if (localBlocks[i] != null) {
+						applySplit(dirtyBlocksOfRound[i], localBlocks[i], numberOfLocalBlocks[i], movedStates);
+					}
+				}
+
+				// only the signatures of states with an edge to a moved state have changed
+				final Set<Integer> nextDirtyBlocks = new HashSet<>();
+				for (final int state : movedStates) {
+					for (final int source : mEdgeSources[state]) {
+						nextDirtyBlocks.add(mBlock[source]);
+					}
+				}
+				dirtyBlocks = nextDirtyBlocks.stream().mapToInt(Integer::intValue).sorted().toArray();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private void invoke(final ForkJoinPool pool, final int size, final int threshold, final IntConsumer body)
+			throws AutomataOperationCanceledException {
+		if (!mServices.getProgressAwareTimer().continueProcessing()) {
+			mCanceled = true;
+		}
+		if (!mCanceled) {
+			pool.invoke(new RangeTask(body, threshold, 0, size));
+		}
+		if (mCanceled) {
+			final String taskDescription = "refining partition of " + mStates.size() + " states in parallel ("
+					+ mMembers.size() + " blocks after " + mRounds + " rounds)";
+			throw new AutomataOperationCanceledException(new RunningTaskInfo(getClass(), taskDescription));
+		}
+	}
+
+	private Signature computeSignature(final int state) {
+		final int[] keys = mEdgeKeys[state];
+		final int[] targets = mEdgeTargets[state];
+		final long[] edges = new long[keys.length];
+		for (int j = 0; j < keys.length; ++j) {
+			edges[j] = ((long) keys[j] << Integer.SIZE) | mBlock[targets[j]];
+		}
+		Arrays.sort(edges);
+		int distinct = 0;
+		for (int j = 0; j < edges.length; ++j) {
+			if (j == 0 || edges[j] != edges[j - 1]) {
+				edges[distinct++] = edges[j];
+			}
+		}
+		return new Signature(distinct == edges.length ? edges : Arrays.copyOf(edges, distinct));
+	}
+
+	/**
+	 * @return local block of each member, numbered by first occurrence; the last entry is the largest local block
+	 */
+	private static int[] splitBlock(final Signature[] signatures, final int from, final int to) {
+		final int[] result = new int[to - from + 1];
+		final Map<Signature, Integer> signature2local = new HashMap<>();
+		int max = 0;
+		for (int i = from; i < to; ++i) {
+			Integer local = signature2local.get(signatures[i]);
+			if (local == null) {
+				local = signature2local.size();
+				signature2local.put(signatures[i], local);
+				max = local;
+			}
+			result[i - from] = local;
+		}
+		result[to - from] = max;
+		return result;
+	}
+
+	/**
+	 * The first local block keeps the number of the old block, the other local blocks get new numbers.
+	 */
+	private void applySplit(final int block, final int[] localBlocks, final int numberOfLocalBlocks,
+			final List<Integer> movedStates) {
+		final int[] members = mMembers.get(block);
+		final int[] sizes = new int[numberOfLocalBlocks];
+		for (int i = 0; i < members.length; ++i) {
+			++sizes[localBlocks[i]];
+		}
+		final int firstNewBlock = mMembers.size();
+		final int[][] newMembers = new int[numberOfLocalBlocks][];
+		for (int local = 0; local < numberOfLocalBlocks; ++local) {
+			newMembers[local] = new int[sizes[local]];
+			sizes[local] = 0;
+		}
+		for (int i = 0; i < members.length; ++i) {
+			final int local = localBlocks[i];
+			final int state = members[i];
+			newMembers[local][sizes[local]++] = state;
+			if (local > 0) {
+				mBlock[state] = firstNewBlock + local - 1;
+				movedStates.add(state);
+			}
+		}
+		mMembers.set(block, newMembers[0]);
+		for (int local = 1; local < numberOfLocalBlocks; ++local) {
+			mMembers.add(newMembers[local]);
+		}
+	}
+
+	private UnionFind<STATE> createUnionFind() {
+		final UnionFind<STATE> result = new UnionFind<>();
+		for (final int[] members : mMembers) {
+			final Set<STATE> block = new HashSet<>(computeHashCap(members.length));
+			for (final int state : members) {
+				block.add(mStates.get(state));
+			}
+			result.addEquivalenceClass(block);
+		}
+		return result;
+	}
+
+	@Override
+	protected Pair<Boolean, String> checkResultHelper(final IMinimizationCheckResultStateFactory<STATE> stateFactory)
+			throws AutomataLibraryException {
+		return checkLanguageEquivalence(stateFactory);
+	}
+
+	/**
+	 * Sorted set of edges of a state, each encoded as the key in the upper and the target block in the lower half.
+	 */
+	private static final class Signature {
+		private final long[] mEdges;
+		private final int mHashCode;
+
+		Signature(final long[] edges) {
+			mEdges = edges;
+			mHashCode = Arrays.hashCode(edges);
+		}
+
+		@Override
+		public int hashCode() {
+			return mHashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Signature)) {
+				return false;
+			}
+			final Signature other = (Signature) obj;
+			return mHashCode == other.mHashCode && Arrays.equals(mEdges, other.mEdges);
+		}
+	}
+
+	/**
+	 * Applies an action to all indices of a range. Large ranges are split, idle threads of the pool steal the halves.
+	 */
+	private final class RangeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final transient IntConsumer mBody;
+		private final int mThreshold;
+		private final int mFrom;
+		private final int mTo;
+
+		RangeTask(final IntConsumer body, final int threshold, final int from, final int to) {
+			mBody = body;
+			mThreshold = threshold;
+			mFrom = from;
+			mTo = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (mTo - mFrom > mThreshold) {
+				final int middle = (mFrom + mTo) >>> 1;
+				invokeAll(new RangeTask(mBody, mThreshold, mFrom, middle),
+						new RangeTask(mBody, mThreshold, middle, mTo));
+				return;
+			}
+			for (int i = mFrom; i < mTo; i++) {
+				if (mCanceled) {
+					return;
+				}
+				mBody.accept(i);
+			}
+			if (!mServices.getProgressAwareTimer().continueProcessing()) {
+				mCanceled = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,473 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.direct.nwa;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.LibraryIdentifiers;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.RunningTaskInfo;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.Pair;
+
+/**
+ * Computes a direct simulation on the states of a nested word automaton without constructing a game graph.
+ * <p>
+ * The automaton is translated to primitive adjacency arrays. An edge is a key together with a target state. Internal
+ * and call transitions are keyed by their letter. Each return transition yields two edges: one from the linear
+ * predecessor, keyed by the hierarchical predecessor and the letter, and one from the hierarchical predecessor, keyed
+ * by the linear predecessor and the letter. A state {@code q} simulates a state {@code p} if {@code q} is accepting
+ * whenever {@code p} is accepting and for each edge from {@code p} to {@code p'} there is an edge with the same key
+ * from {@code q} to some {@code q'} that simulates {@code p'}. Since return transitions are compared for each
+ * hierarchical (resp. linear) predecessor individually, the quotient with respect to mutual simulation is
+ * language-equivalent.
+ * <p>
+ * For each state, the states of its block (see below) that simulate it are stored in a bitset, and the relation is
+ * refined bit-parallel: the bitset of a state is intersected with the predecessors (with respect to the key) of the
+ * bitset of each successor. A state is refined again only if the bitset of one of its successors changed.
+ * <p>
+ * The relation may be smaller than the one that {@link ReduceNwaDirectSimulation} uses, i.e., fewer states may be
+ * merged:
+ * <ul>
+ * <li>The relation is the greatest simulation that relates only states of the same block of the given partition. It
+ * is not the greatest direct simulation of the automaton unless the partition over-approximates it, and a state is
+ * never simulated by a state of another block.</li>
+ * <li>A return edge is keyed by the concrete hierarchical (resp. linear) predecessor state, not by its class. Two
+ * states that return with different but mutually simulating predecessors are not related.</li>
+ * <li>The bitsets need quadratic memory in the block size. Blocks are allocated in ascending order of their size, and
+ * all blocks that do not fit into the given memory bound are skipped: their states are only related to themselves.
+ * This is sound, and apart from a warning in the log it is not reported to the caller.</li>
+ * </ul>
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public class DirectNwaBitsetSimulation<LETTER, STATE> {
+	/**
+	 * Number of refinement steps between two checks for cancellation.
+	 */
+	private static final int CANCELLATION_CHECK_INTERVAL = 1 << 10;
+
+	private final AutomataLibraryServices mServices;
+	private final ILogger mLogger;
+	private final INestedWordAutomaton<LETTER, STATE> mOperand;
+
+	/**
+	 * The states of the operand in a fixed order. States are identified by their index in this list.
+	 */
+	private final List<STATE> mStates;
+	private final Map<STATE, Integer> mState2Index;
+	/**
+	 * Outgoing and incoming edges of each state, sorted by key.
+	 */
+	private final int[][] mOutKeys;
+	private final int[][] mOutTargets;
+	private final int[][] mInKeys;
+	private final int[][] mInSources;
+	private int mNumberOfKeys;
+
+	/**
+	 * Block of each state, index of each state within its block, and members of each block.
+	 */
+	private final int[] mBlock;
+	private final int[] mLocal;
+	private final List<int[]> mMembers;
+
+	/**
+	 * For each state, the bitset (over the local indices of its block) of all states that simulate it. A state whose
+	 * bitset is {@code null} is only simulated by itself.
+	 */
+	private final long[][] mSimulatedBy;
+
+	private long mRefinementSteps;
+
+	/**
+	 * @param services
+	 *            Ultimate services
+	 * @param operand
+	 *            nested word automaton
+	 * @param possibleEquivalenceClasses
+	 *            over-approximation of the mutual simulation; states in different blocks are never related
+	 * @param maxRelationBytes
+	 *            maximal number of bytes for the bitsets
+	 * @throws AutomataOperationCanceledException
+	 *             if the timeout was reached
+	 */
+	public DirectNwaBitsetSimulation(final AutomataLibraryServices services,
+			final INestedWordAutomaton<LETTER, STATE> operand,
+			final Collection<? extends Collection<STATE>> possibleEquivalenceClasses, final long maxRelationBytes)
+			throws AutomataOperationCanceledException {
+		mServices = services;
+		mLogger = services.getLoggingService().getLogger(LibraryIdentifiers.PLUGIN_ID);
+		mOperand = operand;
+
+		mStates = new ArrayList<>(operand.getStates());
+		final int size = mStates.size();
+		mState2Index = new HashMap<>();
+		for (int i = 0; i < size; ++i) {
+			mState2Index.put(mStates.get(i), i);
+		}
+		mOutKeys = new int[size][];
+		mOutTargets = new int[size][];
+		mInKeys = new int[size][];
+		mInSources = new int[size][];
+		mBlock = new int[size];
+		mLocal = new int[size];
+		mMembers = new ArrayList<>();
+		mSimulatedBy = new long[size][];
+
+		constructEdges();
+		constructBlocks(possibleEquivalenceClasses);
+		allocateRelation(maxRelationBytes);
+		refine();
+
+		if (mLogger.isDebugEnabled()) {
+			mLogger.debug("Computed direct simulation of " + size + " states in " + mRefinementSteps + " steps");
+		}
+	}
+
+	/**
+	 * @param simulated
+	 *            state
+	 * @param simulating
+	 *            state
+	 * @return {@code true} iff the second state simulates the first state
+	 */
+	public boolean isSimulatedBy(final STATE simulated, final STATE simulating) {
+		final int p = mState2Index.get(simulated);
+		final int q = mState2Index.get(simulating);
+		if (p == q) {
+			return true;
+		}
+		return mSimulatedBy[p] != null && mBlock[p] == mBlock[q] && contains(mSimulatedBy[p], mLocal[q]);
+	}
+
+	/**
+	 * @return the classes of mutually simulating states
+	 */
+	public Collection<Set<STATE>> getEquivalenceClasses() {
+		final Collection<Set<STATE>> result = new ArrayList<>();
+		final boolean[] assigned = new boolean[mStates.size()];
+		for (int p = 0; p < mStates.size(); ++p) {
+			if (assigned[p]) {
+				continue;
+			}
+			final Set<STATE> equivalenceClass = new HashSet<>();
+			equivalenceClass.add(mStates.get(p));
+			assigned[p] = true;
+			if (mSimulatedBy[p] != null) {
+				final int[] members = mMembers.get(mBlock[p]);
+				final long[] simulatedBy = mSimulatedBy[p];
+				for (int local = nextSetBit(simulatedBy, 0); local >= 0; local = nextSetBit(simulatedBy, local + 1)) {
+					final int q = members[local];
+					if (!assigned[q] && contains(mSimulatedBy[q], mLocal[p])) {
+						equivalenceClass.add(mStates.get(q));
+						assigned[q] = true;
+					}
+				}
+			}
+			result.add(equivalenceClass);
+		}
+		return result;
+	}
+
+	private void constructEdges() {
+		final Map<LETTER, Integer> internalKeys = new HashMap<>();
+		final Map<LETTER, Integer> callKeys = new HashMap<>();
+		final Map<Pair<Integer, LETTER>, Integer> linearReturnKeys = new HashMap<>();
+		final Map<Pair<Integer, LETTER>, Integer> hierarchicalReturnKeys = new HashMap<>();
+
+		final int size = mStates.size();
+		final List<List<long[]>> outEdges = new ArrayList<>(size);
+		for (int i = 0; i < size; ++i) {
+			outEdges.add(new ArrayList<>());
+		}
+		for (int i = 0; i < size; ++i) {
+			final STATE state = mStates.get(i);
+			for (final OutgoingInternalTransition<LETTER, STATE> trans : mOperand.internalSuccessors(state)) {
+				outEdges.get(i).add(edge(getKey(internalKeys, trans.getLetter()), trans.getSucc()));
+			}
+			for (final OutgoingCallTransition<LETTER, STATE> trans : mOperand.callSuccessors(state)) {
+				outEdges.get(i).add(edge(getKey(callKeys, trans.getLetter()), trans.getSucc()));
+			}
+			for (final OutgoingReturnTransition<LETTER, STATE> trans : mOperand.returnSuccessors(state)) {
+				final int hier = mState2Index.get(trans.getHierPred());
+				outEdges.get(i).add(
+						edge(getKey(linearReturnKeys, new Pair<>(hier, trans.getLetter())), trans.getSucc()));
+				outEdges.get(hier)
+						.add(edge(getKey(hierarchicalReturnKeys, new Pair<>(i, trans.getLetter())), trans.getSucc()));
+			}
+		}
+
+		final Comparator<long[]> byKeyAndState = (e1, e2) -> e1[0] != e2[0] ? Long.compare(e1[0], e2[0])
+				: Long.compare(e1[1], e2[1]);
+		final int[] numberOfInEdges = new int[size];
+		for (int i = 0; i < size; ++i) {
+			final List<long[]> edges = outEdges.get(i);
+			edges.sort(byKeyAndState);
+			int distinct = 0;
+			for (int j = 0; j < edges.size(); ++j) {
+				if (j == 0 || byKeyAndState.compare(edges.get(j), edges.get(j - 1)) != 0) {
+					edges.set(distinct++, edges.get(j));
+				}
+			}
+			mOutKeys[i] = new int[distinct];
+			mOutTargets[i] = new int[distinct];
+			for (int j = 0; j < distinct; ++j) {
+				mOutKeys[i][j] = (int) edges.get(j)[0];
+				mOutTargets[i][j] = (int) edges.get(j)[1];
+				++numberOfInEdges[mOutTargets[i][j]];
+			}
+		}
+
+		// incoming edges are added in the order of their keys, hence they are sorted as well
+		for (int i = 0; i < size; ++i) {
+			mInKeys[i] = new int[numberOfInEdges[i]];
+			mInSources[i] = new int[numberOfInEdges[i]];
+			numberOfInEdges[i] = 0;
+		}
+		final List<long[]> allEdges = new ArrayList<>();
+		for (int i = 0; i < size; ++i) {
+			for (int j = 0; j < mOutKeys[i].length; ++j) {
+				allEdges.add(new long[] { mOutKeys[i][j], i, mOutTargets[i][j] });
+			}
+		}
+		allEdges.sort(byKeyAndState);
+		for (final long[] edge : allEdges) {
+			final int target = (int) edge[2];
+			mInKeys[target][numberOfInEdges[target]] = (int) edge[0];
+			mInSources[target][numberOfInEdges[target]] = (int) edge[1];
+			++numberOfInEdges[target];
+		}
+	}
+
+	private long[] edge(final int key, final STATE target) {
+		return new long[] { key, mState2Index.get(target) };
+	}
+
+	private <K> int getKey(final Map<K, Integer> keys, final K key) {
+		final Integer oldKey = keys.get(key);
+		if (oldKey != null) {
+			return oldKey;
+		}
+		keys.put(key, mNumberOfKeys);
+		return mNumberOfKeys++;
+	}
+
+	private void constructBlocks(final Collection<? extends Collection<STATE>> possibleEquivalenceClasses) {
+		Arrays.fill(mBlock, -1);
+		for (final Collection<STATE> equivalenceClass : possibleEquivalenceClasses) {
+			final int[] members = new int[equivalenceClass.size()];
+			int local = 0;
+			for (final STATE state : equivalenceClass) {
+				final int index = mState2Index.get(state);
+				assert mBlock[index] == -1 : "The blocks are not disjoint.";
+				mBlock[index] = mMembers.size();
+				mLocal[index] = local;
+				members[local++] = index;
+			}
+			mMembers.add(members);
+		}
+		// states that are not covered form singleton blocks
+		for (int i = 0; i < mStates.size(); ++i) {
+			if (mBlock[i] == -1) {
+				mBlock[i] = mMembers.size();
+				mLocal[i] = 0;
+				mMembers.add(new int[] { i });
+			}
+		}
+	}
+
+	/**
+	 * Allocates the bitsets for the blocks in ascending order of their size until the memory bound is reached.
+	 */
+	private void allocateRelation(final long maxRelationBytes) {
+		final Integer[] blocks = new Integer[mMembers.size()];
+		for (int block = 0; block < blocks.length; ++block) {
+			blocks[block] = block;
+		}
+		Arrays.sort(blocks, Comparator.comparingInt(block -> mMembers.get(block).length));
+		long remainingBytes = maxRelationBytes;
+		int skippedStates = 0;
+		for (final int block : blocks) {
+			final int[] members = mMembers.get(block);
+			if (members.length == 1) {
+				continue;
+			}
+			final long bytes = (long) members.length * words(members.length) * Long.BYTES;
+			if (bytes > remainingBytes) {
+				skippedStates += members.length;
+				continue;
+			}
+			remainingBytes -= bytes;
+			for (final int p : members) {
+				final long[] simulatedBy = new long[words(members.length)];
+				final boolean pIsFinal = mOperand.isFinal(mStates.get(p));
+				for (int local = 0; local < members.length; ++local) {
+					if (!pIsFinal || mOperand.isFinal(mStates.get(members[local]))) {
+						set(simulatedBy, local);
+					}
+				}
+				mSimulatedBy[p] = simulatedBy;
+			}
+		}
+		if (skippedStates > 0) {
+			mLogger.warn("Memory bound for direct simulation exceeded, " + skippedStates
+					+ " states are only related to themselves");
+		}
+	}
+
+	private void refine() throws AutomataOperationCanceledException {
+		final ArrayDeque<Integer> worklist = new ArrayDeque<>();
+		final boolean[] inWorklist = new boolean[mStates.size()];
+		for (int p = 0; p < mStates.size(); ++p) {
+			if (mSimulatedBy[p] != null) {
+				worklist.add(p);
+				inWorklist[p] = true;
+			}
+		}
+		while (!worklist.isEmpty()) {
+			if (++mRefinementSteps % CANCELLATION_CHECK_INTERVAL == 0
+					&& !mServices.getProgressAwareTimer().continueProcessing()) {
+				final String taskDescription = "computing direct simulation of " + mStates.size() + " states ("
+						+ worklist.size() + " states in worklist)";
+				throw new AutomataOperationCanceledException(new RunningTaskInfo(getClass(), taskDescription));
+			}
+			final int p = worklist.poll();
+			inWorklist[p] = false;
+			if (refine(p)) {
+				for (final int source : mInSources[p]) {
+					if (mSimulatedBy[source] != null && !inWorklist[source]) {
+						worklist.add(source);
+						inWorklist[source] = true;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all states from the bitset of p that cannot match some edge of p.
+	 *
+	 * @return {@code true} iff the bitset changed
+	 */
+	private boolean refine(final int p) {
+		final long[] simulatedBy = mSimulatedBy[p];
+		final long[] matching = new long[simulatedBy.length];
+		boolean changed = false;
+		for (int j = 0; j < mOutKeys[p].length; ++j) {
+			Arrays.fill(matching, 0L);
+			addPredecessorsOfSimulating(mOutKeys[p][j], mOutTargets[p][j], mBlock[p], matching);
+			for (int word = 0; word < simulatedBy.length; ++word) {
+				final long refined = simulatedBy[word] & matching[word];
+				if (refined != simulatedBy[word]) {
+					simulatedBy[word] = refined;
+					changed = true;
+				}
+			}
+		}
+		assert contains(simulatedBy, mLocal[p]) : "The relation must be reflexive.";
+		return changed;
+	}
+
+	/**
+	 * Adds all states of the given block that have an edge with the given key to a state that simulates the given
+	 * successor.
+	 */
+	private void addPredecessorsOfSimulating(final int key, final int succ, final int block, final long[] result) {
+		final long[] simulatingSucc = mSimulatedBy[succ];
+		if (simulatingSucc == null) {
+			addPredecessors(key, succ, block, result);
+			return;
+		}
+		final int[] members = mMembers.get(mBlock[succ]);
+		for (int local = nextSetBit(simulatingSucc, 0); local >= 0; local = nextSetBit(simulatingSucc, local + 1)) {
+			addPredecessors(key, members[local], block, result);
+		}
+	}
+
+	private void addPredecessors(final int key, final int target, final int block, final long[] result) {
+		final int[] keys = mInKeys[target];
+		final int[] sources = mInSources[target];
+		int j = Arrays.binarySearch(keys, key);
+		if (j < 0) {
+			return;
+		}
+		while (j > 0 && keys[j - 1] == key) {
+			--j;
+		}
+		for (; j < keys.length && keys[j] == key; ++j) {
+			if (mBlock[sources[j]] == block) {
+				set(result, mLocal[sources[j]]);
+			}
+		}
+	}
+
+	private static int words(final int bits) {
+		return (bits + Long.SIZE - 1) / Long.SIZE;
+	}
+
+	private static void set(final long[] bitset, final int index) {
+		bitset[index / Long.SIZE] |= 1L << index;
+	}
+
+	private static boolean contains(final long[] bitset, final int index) {
+		return (bitset[index / Long.SIZE] & (1L << index)) != 0;
+	}
+
+	private static int nextSetBit(final long[] bitset, final int fromIndex) {
+		int word = fromIndex / Long.SIZE;
+		if (word >= bitset.length) {
+			return -1;
+		}
+		long bits = bitset[word] & (-1L << fromIndex);
+		while (true) {
+			if (bits != 0) {
+				return word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+			}
+			if (++word == bitset.length) {
+				return -1;
+			}
+			bits = bitset[word];
+		}
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.direct.nwa;
+
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.IDoubleDeckerAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.AbstractMinimizeNwaDd;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.IMinimizationCheckResultStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.IMinimizationStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.NwaApproximateBisimulation;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.NwaApproximateXsimulation.SimulationType;
+import de.uni_freiburg.informatik.ultimate.automata.util.PartitionBackedSetOfPairs;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.UnionFind;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.Pair;
+
+/**
+ * Operation that reduces a given nwa automaton by merging mutually simulating states, where the simulation is computed
+ * by {@link DirectNwaBitsetSimulation}.
+ * <p>
+ * In contrast to {@link ReduceNwaDirectSimulation}, no game graph is constructed, which makes this operation applicable
+ * to larger automata. The price is that the result may be larger; see {@link DirectNwaBitsetSimulation} for the
+ * cases in which states are not merged.
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public final class ReduceNwaDirectBitsetSimulation<LETTER, STATE> extends AbstractMinimizeNwaDd<LETTER, STATE> {
+	/**
+	 * Fraction of the maximal heap size that is used for the relation by default.
+	 */
+	private static final int DEFAULT_HEAP_FRACTION = 4;
+
+	private final IDoubleDeckerAutomaton<LETTER, STATE> mOperand;
+
+	/**
+	 * Constructor with default settings.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param stateFactory
+	 *            state factory
+	 * @param operand
+	 *            the nwa to reduce
+	 * @throws AutomataOperationCanceledException
+	 *             if the operation was canceled
+	 */
+	public ReduceNwaDirectBitsetSimulation(final AutomataLibraryServices services,
+			final IMinimizationStateFactory<STATE> stateFactory, final IDoubleDeckerAutomaton<LETTER, STATE> operand)
+			throws AutomataOperationCanceledException {
+		this(services, stateFactory, operand,
+				new NwaApproximateBisimulation<>(services, operand, SimulationType.DIRECT).getResult(), false);
+	}
+
+	/**
+	 * Constructor that bounds the memory for the simulation relation by a fraction of the maximal heap size.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param stateFactory
+	 *            state factory
+	 * @param operand
+	 *            the nwa to reduce
+	 * @param possibleEquivalenceClasses
+	 *            over-approximation of the mutual simulation; states in different blocks are never merged
+	 * @param addMapOldState2newState
+	 *            add map old state 2 new state?
+	 * @throws AutomataOperationCanceledException
+	 *             if the operation was canceled
+	 */
+	public ReduceNwaDirectBitsetSimulation(final AutomataLibraryServices services,
+			final IMinimizationStateFactory<STATE> stateFactory, final IDoubleDeckerAutomaton<LETTER, STATE> operand,
+			final PartitionBackedSetOfPairs<STATE> possibleEquivalenceClasses, final boolean addMapOldState2newState)
+			throws AutomataOperationCanceledException {
+		this(services, stateFactory, operand, possibleEquivalenceClasses, addMapOldState2newState,
+				Runtime.getRuntime().maxMemory() / DEFAULT_HEAP_FRACTION);
+	}
+
+	/**
+	 * @param services
+	 *            Ultimate services
+	 * @param stateFactory
+	 *            state factory
+	 * @param operand
+	 *            the nwa to reduce
+	 * @param possibleEquivalenceClasses
+	 *            over-approximation of the mutual simulation; states in different blocks are never merged
+	 * @param addMapOldState2newState
+	 *            add map old state 2 new state?
+	 * @param maxRelationBytes
+	 *            maximal number of bytes for the simulation relation
+	 * @throws AutomataOperationCanceledException
+	 *             if the operation was canceled
+	 */
+	public ReduceNwaDirectBitsetSimulation(final AutomataLibraryServices services,
+			final IMinimizationStateFactory<STATE> stateFactory, final IDoubleDeckerAutomaton<LETTER, STATE> operand,
+			final PartitionBackedSetOfPairs<STATE> possibleEquivalenceClasses, final boolean addMapOldState2newState,
+			final long maxRelationBytes) throws AutomataOperationCanceledException {
+		super(services, stateFactory);
+		mOperand = operand;
+
+		printStartMessage();
+
+		final DirectNwaBitsetSimulation<LETTER, STATE> simulation = new DirectNwaBitsetSimulation<>(services, operand,
+				possibleEquivalenceClasses.getRelation(), maxRelationBytes);
+		final UnionFind<STATE> partition = new UnionFind<>();
+		for (final Set<STATE> equivalenceClass : simulation.getEquivalenceClasses()) {
+			partition.addEquivalenceClass(equivalenceClass);
+		}
+		constructResultFromPartition(partition, addMapOldState2newState);
+
+		printExitMessage();
+	}
+
+	@Override
+	protected INestedWordAutomaton<LETTER, STATE> getOperand() {
+		return mOperand;
+	}
+
+	@Override
+	protected Pair<Boolean, String> checkResultHelper(final IMinimizationCheckResultStateFactory<STATE> stateFactory)
+			throws AutomataLibraryException {
+		return checkLanguageEquivalence(stateFactory);
+	}
+}
@@ -44,6 +44,7 @@ import de.uni_freiburg.informatik.ultimate.automata.petrinet.IPetriNetSuccessorP
 import de.uni_freiburg.informatik.ultimate.automata.petrinet.ITransition;
 import de.uni_freiburg.informatik.ultimate.automata.petrinet.Marking;
 import de.uni_freiburg.informatik.ultimate.automata.petrinet.PetriNetNot1SafeException;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.unfolding.PetriNetUnfolder.CoRelationType;
 import de.uni_freiburg.informatik.ultimate.automata.petrinet.visualization.BranchingProcessToUltimateModel;
 import de.uni_freiburg.informatik.ultimate.core.model.models.IElement;
 import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
@@ -125,7 +126,7 @@ public final class BranchingProcess<LETTER, PLACE> implements IAutomaton<LETTER,
 
 	public BranchingProcess(final AutomataLibraryServices services, final IPetriNetSuccessorProvider<LETTER, PLACE> net,
 			final ConfigurationOrder<LETTER, PLACE> order, final boolean useCutoffChekingPossibleExtention,
-			final boolean useB32Optimization) throws PetriNetNot1SafeException {
+			final CoRelationType coRelationType) throws PetriNetNot1SafeException {
 		mServices = services;
 		mLogger = mServices.getLoggingService().getLogger(LibraryIdentifiers.PLUGIN_ID);
 		mNet = net;
@@ -133,10 +134,18 @@ public final class BranchingProcess<LETTER, PLACE> implements IAutomaton<LETTER,
 		mPlace2Conds = new HashRelation<>();
 		mConditions = new HashSet<>();
 		mEvents = new HashSet<>();
-		if (useB32Optimization) {
-			mCoRelation = new ConditionEventsCoRelationB32<>(this);
-		} else {
-			mCoRelation = new ConditionEventsCoRelation<>(this);
+		switch (coRelationType) {
+			case CONDITION_EVENTS:
+				mCoRelation = new ConditionEventsCoRelation<>(this);
+				break;
+			case CONDITION_EVENTS_B32:
+				mCoRelation = new ConditionEventsCoRelationB32<>(this);
+				break;
+			case CONDITION_EVENTS_BITSET:
+				mCoRelation = new ConditionEventsCoRelationBitSet<>(this);
+				break;
+			default:
+				throw new IllegalArgumentException("unknown co-relation " + coRelationType);
 		}
 
 		mUseFirstbornCutoffCheck = useCutoffChekingPossibleExtention;
@@ -84,6 +84,14 @@ public class Condition<LETTER, PLACE> implements Serializable {
 		return mPlace;
 	}
 
+	/**
+	 * @return Number that is unique for this condition within its {@link BranchingProcess}. Numbers are assigned
+	 *         consecutively, starting at 0.
+	 */
+	public int getSerialNumber() {
+		return mSerialNumber;
+	}
+
 	@Override
 	public String toString() {
 		return "c" + mSerialNumber + ":CorrespPlace: " + mPlace.toString();
@@ -33,6 +33,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -52,8 +53,8 @@ import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.HashRela
  */
 public class ConditionEventsCoRelationB32<LETTER, PLACE> implements ICoRelation<LETTER, PLACE> {
 	private static final boolean EXTENDED_ASSERTION_CHECKING = !false;
-	private long mQueryCounterYes;
-	private long mQueryCounterNo;
+	private final LongAdder mQueryCounterYes = new LongAdder();
+	private final LongAdder mQueryCounterNo = new LongAdder();
 
 	/**
 	 * TODO schaetzc 2018-08-16: This does not seem to store all co-relations between conditions and events.
@@ -82,12 +83,12 @@ public class ConditionEventsCoRelationB32<LETTER, PLACE> implements ICoRelation<
 
 	@Override
 	public long getQueryCounterYes() {
-		return mQueryCounterYes;
+		return mQueryCounterYes.sum();
 	}
 
 	@Override
 	public long getQueryCounterNo() {
-		return mQueryCounterNo;
+		return mQueryCounterNo.sum();
 	}
 
 
@@ -181,9 +182,9 @@ public class ConditionEventsCoRelationB32<LETTER, PLACE> implements ICoRelation<
 
 
 		if (result) {
-			mQueryCounterYes++;
+			mQueryCounterYes.increment();
 		} else {
-			mQueryCounterNo++;
+			mQueryCounterNo.increment();
 		}
 		return result;
 	}
@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.petrinet.unfolding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.uni_freiburg.informatik.ultimate.util.datastructures.CompressedBitSet;
+
+/**
+ * A co-relation between a {@link Condition} and an {@link Event} that stores, for each condition, the set of
+ * co-related events as a {@link CompressedBitSet}.
+ * <p>
+ * Conditions and events are identified by their serial numbers, which are assigned consecutively by the
+ * {@link BranchingProcess}. Hence the intersection of co-sets in {@link #update(Event)} and membership queries in
+ * {@link #isInCoRelation(Condition, Condition)} are word-level operations and do not allocate any hash sets.
+ * <p>
+ * The stored relation is the same as the one of {@link ConditionEventsCoRelation}: a condition c is related to an
+ * event e iff c is in co-relation to all successor conditions of e.
+ *
+ * @param <LETTER>
+ *            symbol type
+ * @param <PLACE>
+ *            place content type
+ */
+public class ConditionEventsCoRelationBitSet<LETTER, PLACE> implements ICoRelation<LETTER, PLACE> {
+	private static final boolean EXTENDED_ASSERTION_CHECKING = false;
+	private final LongAdder mQueryCounterYes = new LongAdder();
+	private final LongAdder mQueryCounterNo = new LongAdder();
+
+	/**
+	 * Maps the serial number of a condition to the serial numbers of all events that are in co-relation with this
+	 * condition. Entries are {@code null} for conditions that are not (yet) related to any event.
+	 */
+	private final List<CompressedBitSet> mCoRelation = new ArrayList<>();
+	/**
+	 * Maps the serial number of an event to the event.
+	 */
+	private final List<Event<LETTER, PLACE>> mEvents = new ArrayList<>();
+	private final BranchingProcess<LETTER, PLACE> mBranchingProcess;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param branchingProcess
+	 *            branching process
+	 */
+	public ConditionEventsCoRelationBitSet(final BranchingProcess<LETTER, PLACE> branchingProcess) {
+		mBranchingProcess = branchingProcess;
+	}
+
+	@Override
+	public long getQueryCounterYes() {
+		return mQueryCounterYes.sum();
+	}
+
+	@Override
+	public long getQueryCounterNo() {
+		return mQueryCounterNo.sum();
+	}
+
+	@Override
+	public void initialize(final Set<Condition<LETTER, PLACE>> initialConditions) {
+		// there are no events the conditions could be in relation with yet.
+		// hence there's nothing to do here
+	}
+
+	private CompressedBitSet getCoRelatedEventIds(final Condition<LETTER, PLACE> c) {
+		final int index = c.getSerialNumber();
+		if (index >= mCoRelation.size()) {
+			return null;
+		}
+		return mCoRelation.get(index);
+	}
+
+	private CompressedBitSet getOrConstructCoRelatedEventIds(final Condition<LETTER, PLACE> c) {
+		final int index = ensureIndex(c);
+		CompressedBitSet result = mCoRelation.get(index);
+		if (result == null) {
+			result = new CompressedBitSet();
+			mCoRelation.set(index, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Makes sure that {@link #mCoRelation} has an entry for c.
+	 *
+	 * @return the index of c in {@link #mCoRelation}
+	 */
+	private int ensureIndex(final Condition<LETTER, PLACE> c) {
+		final int index = c.getSerialNumber();
+		while (index >= mCoRelation.size()) {
+			mCoRelation.add(null);
+		}
+		return index;
+	}
+
+	private void registerEvent(final Event<LETTER, PLACE> e) {
+		final int index = e.getSerialNumber();
+		assert index >= 0 : "event not yet added to branching process";
+		while (index >= mEvents.size()) {
+			mEvents.add(null);
+		}
+		mEvents.set(index, e);
+	}
+
+	@Override
+	public void update(final Event<LETTER, PLACE> e) {
+		registerEvent(e);
+		if (e.getTransition() == null) {
+			// e is out initial dummy event
+			assert e.getPredecessorConditions().isEmpty() : "not initial event";
+			return;
+		}
+		final int eventId = e.getSerialNumber();
+		// An existing condition c is in co-relation with e if the predecessor event
+		// of c is in co-relation with all predecessor events of e.
+		// Successor conditions of e are in co-relation with all events e' that are
+		// in co-relation with all predecessor conditions of e.
+		final CompressedBitSet intersection = computeCommonCoRelatedEventIds(e.getPredecessorConditions());
+		final Iterator<Condition<LETTER, PLACE>> it = e.getSuccessorConditions().iterator();
+		if (it.hasNext() && !intersection.isEmpty()) {
+			// the first successor takes the intersection itself, all others get a copy
+			mCoRelation.set(ensureIndex(it.next()), intersection);
+			while (it.hasNext()) {
+				mCoRelation.set(ensureIndex(it.next()), new CompressedBitSet(intersection));
+			}
+		}
+		intersection.forEach(id -> {
+			for (final Condition<LETTER, PLACE> c : mEvents.get(id).getSuccessorConditions()) {
+				getOrConstructCoRelatedEventIds(c).add(eventId);
+			}
+		});
+		for (final Condition<LETTER, PLACE> c : e.getConditionMark()) {
+			if (!c.getPredecessorEvent().equals(e)) {
+				getOrConstructCoRelatedEventIds(c).add(eventId);
+			}
+		}
+	}
+
+	/**
+	 * @return Fresh set that contains the serial numbers of all events that are in co-relation with all given
+	 *         conditions.
+	 */
+	private CompressedBitSet computeCommonCoRelatedEventIds(final Collection<Condition<LETTER, PLACE>> conditions) {
+		CompressedBitSet result = null;
+		for (final Condition<LETTER, PLACE> c : conditions) {
+			final CompressedBitSet coRelated = getCoRelatedEventIds(c);
+			if (coRelated == null) {
+				return new CompressedBitSet();
+			}
+			if (result == null) {
+				result = new CompressedBitSet(coRelated);
+			} else {
+				result.and(coRelated);
+			}
+			if (result.isEmpty()) {
+				return result;
+			}
+		}
+		return result == null ? new CompressedBitSet() : result;
+	}
+
+	@Override
+	public boolean isInCoRelation(final Condition<LETTER, PLACE> c1, final Condition<LETTER, PLACE> c2) {
+		final CompressedBitSet coRelated = getCoRelatedEventIds(c1);
+		final boolean result = (coRelated != null && coRelated.contains(c2.getPredecessorEvent().getSerialNumber()))
+				|| c1.getPredecessorEvent().conditionMarkContains(c2);
+		assert result == isInCoRelationNaive(c1, c2) : String
+				.format("contradictory co-Relation for %s,%s: normal=%b != %b=naive", c1, c2, result, !result);
+		if (result) {
+			mQueryCounterYes.increment();
+		} else {
+			mQueryCounterNo.increment();
+		}
+		return result;
+	}
+
+	private boolean isInCoRelationNaive(final Condition<LETTER, PLACE> c1, final Condition<LETTER, PLACE> c2) {
+		return !mBranchingProcess.inCausalRelation(c1, c2) && !mBranchingProcess.inConflict(c1, c2);
+	}
+
+	/**
+	 * Checks if two events are in irreflexive co-relation. See
+	 * {@link ConditionEventsCoRelation#isInIrreflexiveCoRelation(Event, Event)} for a proof of correctness.
+	 *
+	 * @param e1
+	 *            An event
+	 * @param e2
+	 *            Another event
+	 * @return e1 ic e2 (e1 and e2 are in irreflexive co-relation)
+	 */
+	public boolean isInIrreflexiveCoRelation(final Event<LETTER, PLACE> e1, final Event<LETTER, PLACE> e2) {
+		if (e1 == e2) {
+			return false;
+		}
+		if (mBranchingProcess.getDummyRoot() == e1 || mBranchingProcess.getDummyRoot() == e2) {
+			return false;
+		}
+		final Collection<Condition<LETTER, PLACE>> conditions1 = e1.getPredecessorConditions();
+		final Collection<Condition<LETTER, PLACE>> conditions2 = e2.getPredecessorConditions();
+		for (final Condition<LETTER, PLACE> c1 : conditions1) {
+			// e1 and e2 are in conflict
+			if (conditions2.contains(c1) || !isCoset(conditions2, c1)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isInCoRelation(final Condition<LETTER, PLACE> cond, final Event<LETTER, PLACE> event) {
+		if (event.getPredecessorConditions().contains(cond)) {
+			return false;
+		}
+		return isCoset(event.getPredecessorConditions(), cond);
+	}
+
+	@Override
+	public boolean isCoset(final Collection<Condition<LETTER, PLACE>> coSet, final Condition<LETTER, PLACE> c) {
+		for (final Condition<LETTER, PLACE> condition : coSet) {
+			if (!isInCoRelation(c, condition)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < mCoRelation.size(); i++) {
+			if (mCoRelation.get(i) != null) {
+				sb.append("c" + i + " co " + mCoRelation.get(i) + System.lineSeparator());
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Adds the successor conditions of all events in coRelatedEvents to result.
+	 *
+	 * @param omitCutoffEvents
+	 *            if true, successor conditions of cut-off events are not added
+	 */
+	private void addSuccessorConditions(final CompressedBitSet coRelatedEvents, final boolean omitCutoffEvents,
+			final PLACE place, final Set<Condition<LETTER, PLACE>> result) {
+		if (coRelatedEvents == null) {
+			return;
+		}
+		coRelatedEvents.forEach(id -> {
+			final Event<LETTER, PLACE> e = mEvents.get(id);
+			if (omitCutoffEvents && e.isCutoffEvent()) {
+				return;
+			}
+			for (final Condition<LETTER, PLACE> c : e.getSuccessorConditions()) {
+				if (place == null || c.getPlace().equals(place)) {
+					result.add(c);
+				}
+			}
+		});
+	}
+
+	private Set<Condition<LETTER, PLACE>> computeCoRelatedConditions(final Condition<LETTER, PLACE> cond,
+			final boolean omitCutoffEvents, final PLACE place) {
+		final Set<Condition<LETTER, PLACE>> result = new HashSet<>();
+		for (final Condition<LETTER, PLACE> c : cond.getPredecessorEvent().getConditionMark()) {
+			if (place == null || c.getPlace().equals(place)) {
+				result.add(c);
+			}
+		}
+		addSuccessorConditions(getCoRelatedEventIds(cond), omitCutoffEvents, place, result);
+		return result;
+	}
+
+	@Override
+	public Set<Condition<LETTER, PLACE>> computeCoRelatatedConditions(final Condition<LETTER, PLACE> cond) {
+		final Set<Condition<LETTER, PLACE>> result = computeCoRelatedConditions(cond, false, null);
+		if (EXTENDED_ASSERTION_CHECKING) {
+			assert result
+					.equals(computeCoRelatatedConditionsInefficient(cond)) : "inconsistent co-relation information";
+		}
+		return result;
+	}
+
+	@Override
+	public Set<Condition<LETTER, PLACE>> computeNonCutoffCoRelatatedConditions(final Condition<LETTER, PLACE> cond) {
+		return computeCoRelatedConditions(cond, true, null);
+	}
+
+	private Set<Condition<LETTER, PLACE>> computeCoRelatatedConditionsInefficient(final Condition<LETTER, PLACE> cond) {
+		final Set<Condition<LETTER, PLACE>> result = new HashSet<>();
+		for (final Condition<LETTER, PLACE> c2 : mBranchingProcess.getConditions()) {
+			if (isInCoRelation(cond, c2)) {
+				result.add(c2);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public int computeMaximalDegree() {
+		int max = 0;
+		for (final CompressedBitSet coRelated : mCoRelation) {
+			if (coRelated == null) {
+				continue;
+			}
+			final int[] degree = new int[1];
+			coRelated.forEach(id -> degree[0] += mEvents.get(id).getSuccessorConditions().size());
+			max = Math.max(max, degree[0]);
+		}
+		return max;
+	}
+
+	@Override
+	public Set<Condition<LETTER, PLACE>> computeCoRelatatedConditions(final Condition<LETTER, PLACE> cond,
+			final PLACE p) {
+		return computeCoRelatedConditions(cond, false, p);
+	}
+
+	@Override
+	public Set<Event<LETTER, PLACE>> computeCoRelatatedEvents(final Event<LETTER, PLACE> e) {
+		final Set<Condition<LETTER, PLACE>> succCond = e.getSuccessorConditions();
+		if (succCond.isEmpty()) {
+			throw new UnsupportedOperationException("event without successor conditions");
+		}
+		return toEvents(computeCommonCoRelatedEventIds(succCond));
+	}
+
+	@Override
+	public Set<Event<LETTER, PLACE>> computeCoRelatatedEvents(final Condition<LETTER, PLACE> c) {
+		final CompressedBitSet coRelated = getCoRelatedEventIds(c);
+		if (coRelated == null) {
+			return new HashSet<>();
+		}
+		return toEvents(coRelated);
+	}
+
+	private Set<Event<LETTER, PLACE>> toEvents(final CompressedBitSet eventIds) {
+		final Set<Event<LETTER, PLACE>> result = new HashSet<>();
+		eventIds.forEach(id -> result.add(mEvents.get(id)));
+		return result;
+	}
+}
@@ -28,6 +28,7 @@
 package de.uni_freiburg.informatik.ultimate.automata.petrinet.unfolding;
 
 import java.util.Comparator;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Order on configurations.
@@ -42,12 +43,12 @@ import java.util.Comparator;
  */
 public abstract class ConfigurationOrder<LETTER, PLACE> implements Comparator<Event<LETTER, PLACE>> {
 
-	private int mComparisonCounter = 0;
+	private final LongAdder mComparisonCounter = new LongAdder();
 
 	/** Compares two events by comparing their local configurations. */
 	@Override
 	public int compare(final Event<LETTER, PLACE> o1, final Event<LETTER, PLACE> o2) {
-		mComparisonCounter++;
+		mComparisonCounter.increment();
 		if (o1 == o2) {
 			return 0;
 		}
@@ -68,7 +69,7 @@ public abstract class ConfigurationOrder<LETTER, PLACE> implements Comparator<Ev
 	protected abstract int compare(Configuration<LETTER, PLACE> o1, Configuration<LETTER, PLACE> o2);
 
 	public int getNumberOfComparisons() {
-		return mComparisonCounter;
+		return mComparisonCounter.intValue();
 	}
 
 	/**
@@ -1,6 +1,7 @@
 package de.uni_freiburg.informatik.ultimate.automata.petrinet.unfolding;
 
 import java.util.Comparator;
+import java.util.concurrent.atomic.LongAdder;
 
 
 /**
@@ -20,7 +21,7 @@ import java.util.Comparator;
  */
 public class EsparzaRoemerVoglerOrder<LETTER, PLACE> extends ConfigurationOrder<LETTER, PLACE> {
 	final Comparator<Event<LETTER, PLACE>> mIdComparator = new IdComparator();
-	int mFotateNormalFormComparisons = 0;
+	final LongAdder mFotateNormalFormComparisons = new LongAdder();
 	@Override
 	public int compare(final Configuration<LETTER, PLACE> c1, final Configuration<LETTER, PLACE> c2) {
 		// we compare first the sizes of C1 and C2; if they are equal, we compare ϕ(C1)
@@ -37,7 +38,7 @@ public class EsparzaRoemerVoglerOrder<LETTER, PLACE> extends ConfigurationOrder<
 		// 2002FMSD - Esparza,Römer,Vogler - An Improvement of McMillan's Unfolding Algorithm
 		c1.computeFoataNormalForm();
 		c2.computeFoataNormalForm();
-		mFotateNormalFormComparisons++;
+		mFotateNormalFormComparisons.increment();
 		int depth = 1;
 		while(true) {
 			result = c1.compareMin(c2, depth, mIdComparator);
@@ -54,7 +55,7 @@ public class EsparzaRoemerVoglerOrder<LETTER, PLACE> extends ConfigurationOrder<
 	}
 	
 	public int getFotateNormalFormComparisons() {
-		return mFotateNormalFormComparisons;
+		return mFotateNormalFormComparisons.intValue();
 	}
 
 	class IdComparator implements Comparator<Event<LETTER, PLACE>> {
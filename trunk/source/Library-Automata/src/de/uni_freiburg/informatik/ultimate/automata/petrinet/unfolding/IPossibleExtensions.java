@@ -27,6 +27,9 @@
  */
 package de.uni_freiburg.informatik.ultimate.automata.petrinet.unfolding;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 import de.uni_freiburg.informatik.ultimate.automata.petrinet.PetriNetNot1SafeException;
 
 /**
@@ -55,6 +58,32 @@ public interface IPossibleExtensions<LETTER, PLACE> {
 	 */
 	void update(Event<LETTER, PLACE> event) throws PetriNetNot1SafeException;
 
+	/**
+	 * Removes and returns all minimal elements whose local configuration has the same size as the one of the minimal
+	 * element. Requires that the specified Order compares the sizes of local configurations first (which is the case
+	 * for all adequate orders that we support). Throws an Exception if queue empty.
+	 *
+	 * @return the minimal elements, in the order in which {@link #remove()} would have returned them
+	 */
+	List<Event<LETTER, PLACE>> removeLayer();
+
+	/**
+	 * Extends set of possible extensions by all possible extensions which are successors of the given events. The
+	 * events must have been added to the branching process in the given order. Each possible extension is found only
+	 * for the last of the given events that it depends on, as if {@link #update(Event)} had been called directly after
+	 * adding each event.
+	 *
+	 * @param events
+	 *            events
+	 * @param pool
+	 *            pool whose threads evolve the candidates
+	 * @param deterministic
+	 *            if true, new possible extensions are added in the same order as by {@link #update(Event)}, otherwise
+	 *            they are added as soon as some thread has found them
+	 */
+	void update(List<Event<LETTER, PLACE>> events, ForkJoinPool pool, boolean deterministic)
+			throws PetriNetNot1SafeException;
+
 	/**
 	 * @return The size.
 	 */
@@ -27,11 +27,14 @@
  */
 package de.uni_freiburg.informatik.ultimate.automata.petrinet.unfolding;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
 import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
@@ -65,7 +68,10 @@ import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.TreeHash
  */
 public final class PetriNetUnfolder<LETTER, PLACE> {
 	private static final boolean EXTENDED_ASSERTION_CHECKING = false;
-	private static final boolean B32_OPTIMIZATION = true;
+	/**
+	 * Data structure that is used by default to store the co-relation of the {@link BranchingProcess}.
+	 */
+	public static final CoRelationType DEFAULT_CO_RELATION_TYPE = CoRelationType.CONDITION_EVENTS_B32;
 
 	private final AutomataLibraryServices mServices;
 	private final ILogger mLogger;
@@ -73,6 +79,8 @@ public final class PetriNetUnfolder<LETTER, PLACE> {
 	private final IPetriNetSuccessorProvider<LETTER, PLACE> mOperand;
 	private final boolean mStopIfAcceptingRunFound;
 	private final boolean mSameTransitionCutOff;
+	private final int mParallelism;
+	private final boolean mDeterministic;
 	private final ConfigurationOrder<LETTER, PLACE>  mOrder;
 	private final IPossibleExtensions<LETTER, PLACE> mPossibleExtensions;
 	private final BranchingProcess<LETTER, PLACE> mUnfolding;
@@ -101,11 +109,83 @@ public final class PetriNetUnfolder<LETTER, PLACE> {
 	public PetriNetUnfolder(final AutomataLibraryServices services, final IPetriNetSuccessorProvider<LETTER, PLACE> operand,
 			final EventOrderEnum order, final boolean sameTransitionCutOff, final boolean stopIfAcceptingRunFound)
 			throws AutomataOperationCanceledException, PetriNetNot1SafeException {
+		this(services, operand, order, sameTransitionCutOff, stopIfAcceptingRunFound, 1, true, false);
+	}
+
+	/**
+	 * Build the finite Prefix of PetriNet net, possibly using several threads.
+	 *
+	 * @see #PetriNetUnfolder(AutomataLibraryServices, IPetriNetSuccessorProvider, EventOrderEnum, boolean, boolean,
+	 *      int, boolean, boolean, CoRelationType)
+	 */
+	public PetriNetUnfolder(final AutomataLibraryServices services, final IPetriNetSuccessorProvider<LETTER, PLACE> operand,
+			final EventOrderEnum order, final boolean sameTransitionCutOff, final boolean stopIfAcceptingRunFound,
+			final int parallelism, final boolean deterministic)
+			throws AutomataOperationCanceledException, PetriNetNot1SafeException {
+		this(services, operand, order, sameTransitionCutOff, stopIfAcceptingRunFound, parallelism, deterministic,
+				false);
+	}
+
+	/**
+	 * Build the finite Prefix of PetriNet net, possibly using several threads.
+	 *
+	 * @see #PetriNetUnfolder(AutomataLibraryServices, IPetriNetSuccessorProvider, EventOrderEnum, boolean, boolean,
+	 *      int, boolean, boolean, CoRelationType)
+	 */
+	public PetriNetUnfolder(final AutomataLibraryServices services, final IPetriNetSuccessorProvider<LETTER, PLACE> operand,
+			final EventOrderEnum order, final boolean sameTransitionCutOff, final boolean stopIfAcceptingRunFound,
+			final int parallelism, final boolean deterministic, final boolean parallelCandidateEvolution)
+			throws AutomataOperationCanceledException, PetriNetNot1SafeException {
+		this(services, operand, order, sameTransitionCutOff, stopIfAcceptingRunFound, parallelism, deterministic,
+				parallelCandidateEvolution, DEFAULT_CO_RELATION_TYPE);
+	}
+
+	/**
+	 * Build the finite Prefix of PetriNet net, possibly using several threads.
+	 * <p>
+	 * If more than one thread is used, the unfolding proceeds in layers: All minimal possible extensions whose local
+	 * configurations have the same size are added to the prefix at once, and the possible extensions that are
+	 * successors of these events are computed concurrently. Each of our orders compares the sizes of local
+	 * configurations first. Hence these successors are greater than all events of the layer, and events are still
+	 * added in the order that is used to determine cut-off events. In particular, no event that was already added can
+	 * become a cut-off event later.
+	 *
+	 * @param order
+	 *            the order on events and configurations respectively is used to determine cut-off events.
+	 * @param sameTransitionCutOff
+	 *            if true, an additional condition for cut-off events is used: An event and its companion must belong to
+	 *            the same transition from the net.
+	 * @param stopIfAcceptingRunFound
+	 *            if false, the complete finite Prefix will be build.
+	 * @param parallelism
+	 *            number of threads that compute possible extensions; 1 for the sequential unfolding
+	 * @param deterministic
+	 *            if true, the result (including the serial numbers of conditions) does not depend on the scheduling of
+	 *            the threads. Otherwise possible extensions are added as soon as they are found.
+	 * @param parallelCandidateEvolution
+	 *            if true, the sequential unfolding evolves the candidates of each event concurrently on the common
+	 *            fork-join pool. The result is the same as without this option.
+	 * @param coRelationType
+	 *            data structure that stores the co-relation of the {@link BranchingProcess}. It does not influence the
+	 *            result.
+	 * @throws AutomataOperationCanceledException
+	 *             if timeout exceeds
+	 * @throws PetriNetNot1SafeException
+	 */
+	public PetriNetUnfolder(final AutomataLibraryServices services, final IPetriNetSuccessorProvider<LETTER, PLACE> operand,
+			final EventOrderEnum order, final boolean sameTransitionCutOff, final boolean stopIfAcceptingRunFound,
+			final int parallelism, final boolean deterministic, final boolean parallelCandidateEvolution,
+			final CoRelationType coRelationType) throws AutomataOperationCanceledException, PetriNetNot1SafeException {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive");
+		}
 		mServices = services;
 		mLogger = mServices.getLoggingService().getLogger(LibraryIdentifiers.PLUGIN_ID);
 		mOperand = operand;
 		mStopIfAcceptingRunFound = stopIfAcceptingRunFound;
 		mSameTransitionCutOff = sameTransitionCutOff;
+		mParallelism = parallelism;
+		mDeterministic = deterministic;
 		mLogger.debug("Start unfolding. Net " + mOperand.sizeInformation()
 				+ (mStopIfAcceptingRunFound ? "We stop if some accepting run was found"
 						: "We compute complete finite Prefix"));
@@ -122,8 +202,9 @@ public final class PetriNetUnfolder<LETTER, PLACE> {
 			default:
 				throw new IllegalArgumentException();
 		}
-		mUnfolding = new BranchingProcess<>(mServices, operand, mOrder, USE_FIRSTBORN_CUTOFF_CHECK, B32_OPTIMIZATION);
-		mPossibleExtensions = new PossibleExtensions<>(mUnfolding, mOrder, USE_FIRSTBORN_CUTOFF_CHECK, B32_OPTIMIZATION);
+		mUnfolding = new BranchingProcess<>(mServices, operand, mOrder, USE_FIRSTBORN_CUTOFF_CHECK, coRelationType);
+		mPossibleExtensions = new PossibleExtensions<>(mUnfolding, mOrder, USE_FIRSTBORN_CUTOFF_CHECK,
+				coRelationType.providesEfficientNonCutoffQueries(), parallelCandidateEvolution);
 
 		computeUnfolding();
 		mLogger.info(mStatistics.prettyprintCutOffInformation());
@@ -161,39 +242,84 @@ public final class PetriNetUnfolder<LETTER, PLACE> {
 		}
 		mPossibleExtensions.update(mUnfolding.getDummyRoot());
 
-		while (!mPossibleExtensions.isEmpy()) {
-			final Event<LETTER, PLACE> e = mPossibleExtensions.remove();
+		final ForkJoinPool pool = mParallelism > 1 ? new ForkJoinPool(mParallelism) : null;
+		try {
+			while (!mPossibleExtensions.isEmpy()) {
+				final boolean finished;
+				if (pool == null) {
+					finished = computeUnfoldingHelper(mPossibleExtensions.remove());
+				} else {
+					finished = computeUnfoldingHelper(mPossibleExtensions.removeLayer(), pool);
+				}
+				if (finished) {
+					return;
+				}
 
-			final boolean finished = computeUnfoldingHelper(e);
-			if (finished) {
-				return;
+				if (!mServices.getProgressAwareTimer().continueProcessing()) {
+					final RunningTaskInfo rti = new RunningTaskInfo(getClass(),
+							"constructing finite prefix that currently has " + mUnfolding.getConditions().size()
+									+ " conditions, " + mUnfolding.getEvents().size() + " events (" +
+									mStatistics.prettyprintCutOffInformation() + " " +
+									mStatistics.prettyprintCoRelationInformation() + " " +
+									mStatistics.prettyprintPossibleExtensionsMaximalSize() + " " +
+									mStatistics.prettyprintNumberOfEventComparisons() + " " +
+									mStatistics.prettyprintPossibleExtensionCandidatesInformation() + " " +
+									mStatistics.prettyprintCoRelationMaximalDegree() + " " +
+									mStatistics.prettyprintConditionPerPlaceMax() + ")");
+					throw new AutomataOperationCanceledException(rti);
+				}
 			}
-
-			if (!mServices.getProgressAwareTimer().continueProcessing()) {
-				final RunningTaskInfo rti = new RunningTaskInfo(getClass(),
-						"constructing finite prefix that currently has " + mUnfolding.getConditions().size()
-								+ " conditions, " + mUnfolding.getEvents().size() + " events (" +
-								mStatistics.prettyprintCutOffInformation() + " " +
-								mStatistics.prettyprintCoRelationInformation() + " " +
-								mStatistics.prettyprintPossibleExtensionsMaximalSize() + " " +
-								mStatistics.prettyprintNumberOfEventComparisons() + " " +
-								mStatistics.prettyprintPossibleExtensionCandidatesInformation() + " " +
-								mStatistics.prettyprintCoRelationMaximalDegree() + " " +
-								mStatistics.prettyprintConditionPerPlaceMax() + ")");
-				throw new AutomataOperationCanceledException(rti);
+		} finally {
+			if (pool != null) {
+				pool.shutdownNow();
 			}
 		}
 	}
 
-	private boolean computeUnfoldingHelper(final Event<LETTER, PLACE> event) throws PetriNetNot1SafeException {
-		assert !parentIsCutoffEvent(event) : "We must not construct successors of cut-off events.";
-		boolean isCutOffEvent;
+	private boolean isCutoffEvent(final Event<LETTER, PLACE> event) {
 		if (!USE_FIRSTBORN_CUTOFF_CHECK) {
-			isCutOffEvent = mUnfolding.isCutoffEvent(event, mOrder, mSameTransitionCutOff);
+			return mUnfolding.isCutoffEvent(event, mOrder, mSameTransitionCutOff);
 		}
-		else {
-			isCutOffEvent = event.isCutoffEvent();
+		return event.isCutoffEvent();
+	}
+
+	/**
+	 * Adds all events of a layer to the prefix (in the order of the layer) and computes the possible extensions that
+	 * are successors of the non-cut-off events afterwards.
+	 */
+	private boolean computeUnfoldingHelper(final List<Event<LETTER, PLACE>> layer, final ForkJoinPool pool)
+			throws PetriNetNot1SafeException {
+		final List<Event<LETTER, PLACE>> nonCutOffEvents = new ArrayList<>(layer.size());
+		for (final Event<LETTER, PLACE> event : layer) {
+			assert !parentIsCutoffEvent(event) : "We must not construct successors of cut-off events.";
+			final boolean isCutOffEvent = isCutoffEvent(event);
+			final boolean succOfEventIsAccpting = mUnfolding.addEvent(event);
+			if (succOfEventIsAccpting && mRun == null) {
+				mRun = constructRun(event);
+				if (mStopIfAcceptingRunFound) {
+					return true;
+				}
+			}
+			if (!isCutOffEvent) {
+				nonCutOffEvents.add(event);
+			}
+			mStatistics.add(event);
 		}
+		if (!nonCutOffEvents.isEmpty()) {
+			final long sizeBefore = mPossibleExtensions.size();
+			mPossibleExtensions.update(nonCutOffEvents, pool, mDeterministic);
+			final long newPossibleExtensions = mPossibleExtensions.size() - sizeBefore;
+			mLogger.debug("Layer of " + layer.size() + " events (" + nonCutOffEvents.size()
+					+ " non-cut-off) lead to " + newPossibleExtensions + " new possible extensions.");
+		}
+		mLogger.debug("Possible Extension size: " + mPossibleExtensions.size() + ", total #Events: "
+				+ mUnfolding.getEvents().size() + ", total #Conditions: " + mUnfolding.getConditions().size());
+		return false;
+	}
+
+	private boolean computeUnfoldingHelper(final Event<LETTER, PLACE> event) throws PetriNetNot1SafeException {
+		assert !parentIsCutoffEvent(event) : "We must not construct successors of cut-off events.";
+		final boolean isCutOffEvent = isCutoffEvent(event);
 		final boolean succOfEventIsAccpting = mUnfolding.addEvent(event);
 		// assert !unfolding.pairwiseConflictOrCausalRelation(e.getPredecessorConditions());
 		if (succOfEventIsAccpting && mRun == null) {
@@ -310,6 +436,39 @@ public final class PetriNetUnfolder<LETTER, PLACE> {
 	}
 
 
+	/**
+	 * Implementations of {@link ICoRelation}.
+	 */
+	public enum CoRelationType {
+		/**
+		 * {@link ConditionEventsCoRelation}
+		 */
+		CONDITION_EVENTS(false),
+		/**
+		 * {@link ConditionEventsCoRelationB32}
+		 */
+		CONDITION_EVENTS_B32(true),
+		/**
+		 * {@link ConditionEventsCoRelationBitSet}
+		 */
+		CONDITION_EVENTS_BITSET(true),
+		;
+
+		private final boolean mEfficientNonCutoffQueries;
+
+		CoRelationType(final boolean efficientNonCutoffQueries) {
+			mEfficientNonCutoffQueries = efficientNonCutoffQueries;
+		}
+
+		/**
+		 * @return true iff {@link ICoRelation#computeNonCutoffCoRelatatedConditions(Condition)} does not have to
+		 *         compute all co-related conditions first.
+		 */
+		public boolean providesEfficientNonCutoffQueries() {
+			return mEfficientNonCutoffQueries;
+		}
+	}
+
 	public BranchingProcess<LETTER, PLACE> getResult() {
 		return mUnfolding;
 	}
@@ -34,12 +34,16 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import de.uni_freiburg.informatik.ultimate.automata.petrinet.IPetriNet;
@@ -68,12 +72,21 @@ public class PossibleExtensions<LETTER, PLACE> implements IPossibleExtensions<LE
 	 * issue. https://github.com/ultimate-pa/ultimate/issues/448
 	 */
 	private static final boolean USE_FORWARD_CHECKING = false;
+	/**
+	 * Number of candidates up to which an {@link EvolveTask} is not split further.
+	 */
+	private static final int CANDIDATES_THRESHOLD = 4;
 	private final Queue<Event<LETTER, PLACE>> mPe;
 	private final Map<Marking<LETTER, PLACE>, Event<LETTER, PLACE>> mMarkingEventMap = new HashMap<>();
 	private int mMaximalSize = 0;
 	private static final boolean USE_PQ = true;
 	private final boolean mUseFirstbornCutoffCheck;
 	private final boolean mUseB32Optimization;
+	/**
+	 * If true, the candidates of an event are evolved concurrently on the common
+	 * fork-join pool. See {@link #updateParallel(Collection)}.
+	 */
+	private final boolean mParallelCandidateEvolution;
 	/**
 	 * If {@link Event} is known to be cut-off event we can move it immediately
 	 * to front because it will not create descendants. This optimization keeps
@@ -96,6 +109,12 @@ public class PossibleExtensions<LETTER, PLACE> implements IPossibleExtensions<LE
 	public PossibleExtensions(final BranchingProcess<LETTER, PLACE> branchingProcess,
 			final ConfigurationOrder<LETTER, PLACE> order, final boolean useFirstbornCutoffCheck,
 			final boolean useB32Optimization) {
+		this(branchingProcess, order, useFirstbornCutoffCheck, useB32Optimization, false);
+	}
+
+	public PossibleExtensions(final BranchingProcess<LETTER, PLACE> branchingProcess,
+			final ConfigurationOrder<LETTER, PLACE> order, final boolean useFirstbornCutoffCheck,
+			final boolean useB32Optimization, final boolean parallelCandidateEvolution) {
 		mUseFirstbornCutoffCheck = useFirstbornCutoffCheck;
 		mBranchingProcess = branchingProcess;
 		if (USE_PQ) {
@@ -111,6 +130,7 @@ public class PossibleExtensions<LETTER, PLACE> implements IPossibleExtensions<LE
 		mOrder = order;
 		mMarkingEventMap.put(mBranchingProcess.getDummyRoot().getMark(), mBranchingProcess.getDummyRoot());
 		mUseB32Optimization = useB32Optimization;
+		mParallelCandidateEvolution = parallelCandidateEvolution;
 	}
 
 	@Override
@@ -122,9 +142,30 @@ public class PossibleExtensions<LETTER, PLACE> implements IPossibleExtensions<LE
 		}
 	}
 
+	@Override
+	public List<Event<LETTER, PLACE>> removeLayer() {
+		final List<Event<LETTER, PLACE>> result = new ArrayList<>();
+		if (!mFastpathCutoffEventList.isEmpty()) {
+			result.addAll(mFastpathCutoffEventList);
+			mFastpathCutoffEventList.clear();
+			return result;
+		}
+		final Event<LETTER, PLACE> first = mPe.remove();
+		result.add(first);
+		final int size = first.getLocalConfiguration().size();
+		while (!mPe.isEmpty() && mPe.peek().getLocalConfiguration().size() == size) {
+			result.add(mPe.remove());
+		}
+		return result;
+	}
+
 	@Override
 	public void update(final Event<LETTER, PLACE> event) throws PetriNetNot1SafeException {
 		final Collection<Candidate<LETTER, PLACE>> candidates = computeCandidates(event);
+		if (mParallelCandidateEvolution && !USE_FORWARD_CHECKING && candidates.size() > 1) {
+			updateParallel(candidates);
+			return;
+		}
 		for (final Candidate<LETTER, PLACE> candidate : candidates) {
 			if (candidate.getInstantiated().isEmpty()) {
 				throw new AssertionError("at least one place has to be instantiated");
@@ -143,6 +184,134 @@ public class PossibleExtensions<LETTER, PLACE> implements IPossibleExtensions<LE
 		}
 	}
 
+	/**
+	 * Evolves all candidates concurrently and adds the resulting events afterwards.
+	 * <p>
+	 * The evolution of a candidate only reads the {@link BranchingProcess} and its
+	 * co-relation, hence different candidates can be evolved independently. The
+	 * construction of events modifies the {@link BranchingProcess} (serial numbers
+	 * of conditions) and the queue. We do it sequentially, in the order of the
+	 * candidates and in the order in which each candidate was instantiated. This
+	 * is the same order in which the sequential evolution adds events, hence the
+	 * result does not depend on the scheduling of the threads.
+	 * <p>
+	 * The query counters of the co-relation are thread-safe.
+	 */
+	private void updateParallel(final Collection<Candidate<LETTER, PLACE>> candidates)
+			throws PetriNetNot1SafeException {
+		for (final Candidate<LETTER, PLACE> candidate : candidates) {
+			if (candidate.getInstantiated().isEmpty()) {
+				throw new AssertionError("at least one place has to be instantiated");
+			}
+		}
+		final List<List<List<Condition<LETTER, PLACE>>>> instantiationsOfCandidates = candidates.parallelStream()
+				.map(this::computeFullInstantiations).collect(Collectors.toList());
+		final Iterator<Candidate<LETTER, PLACE>> it = candidates.iterator();
+		for (final List<List<Condition<LETTER, PLACE>>> instantiations : instantiationsOfCandidates) {
+			addInstantiations(it.next(), instantiations);
+		}
+	}
+
+	/**
+	 * Computes the candidates of all events first. The events are already part of
+	 * the {@link BranchingProcess}, hence we have to ignore the conditions of all
+	 * events that come later in the list; otherwise an extension that depends on
+	 * several of these events would be found more than once. The candidates are
+	 * then evolved by the threads of the pool, see
+	 * {@link #updateParallel(Collection)} for the reasons why this is safe.
+	 * <p>
+	 * If the result does not have to be deterministic, each thread adds the events
+	 * of a candidate as soon as it has evolved the candidate. The set of events
+	 * that is added is the same but the order in which they are added (and hence
+	 * the serial numbers of their conditions and, for orders that are not total,
+	 * which of two events with the same marking becomes the cut-off event) depends
+	 * on the scheduling of the threads.
+	 */
+	@Override
+	public void update(final List<Event<LETTER, PLACE>> events, final ForkJoinPool pool,
+			final boolean deterministic) throws PetriNetNot1SafeException {
+		final List<Candidate<LETTER, PLACE>> candidates = new ArrayList<>();
+		final Set<Event<LETTER, PLACE>> laterEvents = new HashSet<>(events);
+		for (final Event<LETTER, PLACE> event : events) {
+			laterEvents.remove(event);
+			candidates.addAll(computeCandidates(event, laterEvents));
+		}
+		for (final Candidate<LETTER, PLACE> candidate : candidates) {
+			if (candidate.getInstantiated().isEmpty()) {
+				throw new AssertionError("at least one place has to be instantiated");
+			}
+		}
+		if (candidates.isEmpty()) {
+			return;
+		}
+		if (deterministic) {
+			final List<List<List<Condition<LETTER, PLACE>>>> instantiationsOfCandidates =
+					new ArrayList<>(Collections.nCopies(candidates.size(), null));
+			pool.invoke(new EvolveTask(candidates, 0, candidates.size(), instantiationsOfCandidates, null));
+			for (int i = 0; i < candidates.size(); i++) {
+				addInstantiations(candidates.get(i), instantiationsOfCandidates.get(i));
+			}
+		} else {
+			final AtomicReference<PetriNetNot1SafeException> exception = new AtomicReference<>();
+			pool.invoke(new EvolveTask(candidates, 0, candidates.size(), null, exception));
+			if (exception.get() != null) {
+				throw exception.get();
+			}
+		}
+	}
+
+	/**
+	 * Adds the events for all instantiations of a candidate.
+	 */
+	private void addInstantiations(final Candidate<LETTER, PLACE> candidate,
+			final List<List<Condition<LETTER, PLACE>>> instantiations) throws PetriNetNot1SafeException {
+		final int possibleExtensionsBefore = size();
+		for (final List<Condition<LETTER, PLACE>> predecessors : instantiations) {
+			addEvents(candidate.getTransition(), predecessors);
+		}
+		if (size() > possibleExtensionsBefore) {
+			mUsefulExtensionCandidates++;
+		} else {
+			mUselessExtensionCandidates++;
+		}
+	}
+
+	/**
+	 * Variant of {@link #evolveCandidate(Candidate)} that does not modify this
+	 * object.
+	 *
+	 * @return All instantiations of the candidate's places by co-sets, in the order
+	 *         in which {@link #evolveCandidate(Candidate)} would find them.
+	 */
+	private List<List<Condition<LETTER, PLACE>>> computeFullInstantiations(final Candidate<LETTER, PLACE> cand) {
+		final List<List<Condition<LETTER, PLACE>>> result = new ArrayList<>();
+		computeFullInstantiations(cand, result);
+		return result;
+	}
+
+	@SuppressWarnings("squid:S1698")
+	private void computeFullInstantiations(final Candidate<LETTER, PLACE> cand,
+			final List<List<Condition<LETTER, PLACE>>> result) {
+		if (cand.isFullyInstantiated()) {
+			result.add(new ArrayList<>(cand.getInstantiated()));
+			return;
+		}
+		final PLACE nextUninstantiated = cand.getNextUninstantiatedPlace();
+		final ICoRelation<LETTER, PLACE> coRelation = mBranchingProcess.getCoRelation();
+		final List<Condition<LETTER, PLACE>> yetInstantiated = cand.getInstantiatedButNotInitially();
+		final Set<Condition<LETTER, PLACE>> inCoRelationWithAllInstantiated =
+				cand.getPossibleInstantiations(nextUninstantiated).stream()
+				.filter(x -> coRelation.isCoset(yetInstantiated, x)).collect(Collectors.toSet());
+		for (final Condition<LETTER, PLACE> c : inCoRelationWithAllInstantiated) {
+			// equality intended here
+			assert c.getPlace().equals(nextUninstantiated);
+			assert !cand.getInstantiated().contains(c);
+			cand.instantiateNext(c);
+			computeFullInstantiations(cand, result);
+			cand.undoOneInstantiation();
+		}
+	}
+
 	private boolean firstbornCutoffCheck(final Event<LETTER, PLACE> newEvent) {
 		final Event<LETTER, PLACE> eventWithSameMarking = mMarkingEventMap.get(newEvent.getMark());
 		if (eventWithSameMarking == null) {
@@ -167,8 +336,17 @@ public class PossibleExtensions<LETTER, PLACE> implements IPossibleExtensions<LE
 	 */
 
 	private void addFullyInstantiatedCandidate(final Candidate<LETTER, PLACE> cand) throws PetriNetNot1SafeException {
-		for (final ITransition<LETTER, PLACE> trans : cand.getTransition().getTransitions()) {
-			final Event<LETTER, PLACE> newEvent = new Event<>(cand.getInstantiated(), trans, mBranchingProcess);
+		addEvents(cand.getTransition(), cand.getInstantiated());
+	}
+
+	/**
+	 * Adds one event for each transition of succTransProvider whose predecessors
+	 * are the given conditions.
+	 */
+	private void addEvents(final ISuccessorTransitionProvider<LETTER, PLACE> succTransProvider,
+			final List<Condition<LETTER, PLACE>> predecessors) throws PetriNetNot1SafeException {
+		for (final ITransition<LETTER, PLACE> trans : succTransProvider.getTransitions()) {
+			final Event<LETTER, PLACE> newEvent = new Event<>(predecessors, trans, mBranchingProcess);
 			if (mUseFirstbornCutoffCheck) {
 				if (firstbornCutoffCheck(newEvent)) {
 					mFastpathCutoffEventList.add(newEvent);
@@ -253,6 +431,18 @@ public class PossibleExtensions<LETTER, PLACE> implements IPossibleExtensions<LE
 	 *         the {@code Event}.
 	 */
 	private Collection<Candidate<LETTER, PLACE>> computeCandidates(final Event<LETTER, PLACE> event) {
+		return computeCandidates(event, Collections.emptySet());
+	}
+
+	/**
+	 * @param ignoredEvents
+	 *            events whose successor conditions are not used to instantiate
+	 *            the candidates
+	 * @return All {@code Candidate}s for possible extensions that are successors of
+	 *         the {@code Event}.
+	 */
+	private Collection<Candidate<LETTER, PLACE>> computeCandidates(final Event<LETTER, PLACE> event,
+			final Set<Event<LETTER, PLACE>> ignoredEvents) {
 		if (event.getSuccessorConditions().isEmpty()) {
 			return Collections.emptySet();
 		}
@@ -264,12 +454,14 @@ public class PossibleExtensions<LETTER, PLACE> implements IPossibleExtensions<LE
 			if (mUseB32Optimization) {
 				coRelatedConditions = coRelation.computeNonCutoffCoRelatatedConditions(newConditions.iterator().next());
 				for (final Condition<LETTER, PLACE> c : coRelatedConditions) {
-					place2coRelatedConditions.addPair(c.getPlace(), c);
+					if (!ignoredEvents.contains(c.getPredecessorEvent())) {
+						place2coRelatedConditions.addPair(c.getPlace(), c);
+					}
 				}
 			} else {
 				coRelatedConditions = coRelation.computeCoRelatatedConditions(newConditions.iterator().next());
 				for (final Condition<LETTER, PLACE> c : coRelatedConditions) {
-					if (!c.getPredecessorEvent().isCutoffEvent()) {
+					if (!c.getPredecessorEvent().isCutoffEvent() && !ignoredEvents.contains(c.getPredecessorEvent())) {
 						place2coRelatedConditions.addPair(c.getPlace(), c);
 					}
 				}
@@ -334,6 +526,64 @@ public class PossibleExtensions<LETTER, PLACE> implements IPossibleExtensions<LE
 		return mMaximalSize;
 	}
 
+	/**
+	 * Evolves the candidates in the given index range. Large ranges are split, idle
+	 * threads of the pool steal the halves.
+	 * <p>
+	 * If a result list is given, the instantiations of each candidate are stored at
+	 * the candidate's index. Otherwise the events are added directly, under the
+	 * lock of the {@link PossibleExtensions} object, and the first exception is
+	 * stored.
+	 */
+	private final class EvolveTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final List<Candidate<LETTER, PLACE>> mCandidates;
+		private final int mFrom;
+		private final int mTo;
+		private final List<List<List<Condition<LETTER, PLACE>>>> mResult;
+		private final AtomicReference<PetriNetNot1SafeException> mException;
+
+		public EvolveTask(final List<Candidate<LETTER, PLACE>> candidates, final int from, final int to,
+				final List<List<List<Condition<LETTER, PLACE>>>> result,
+				final AtomicReference<PetriNetNot1SafeException> exception) {
+			mCandidates = candidates;
+			mFrom = from;
+			mTo = to;
+			mResult = result;
+			mException = exception;
+		}
+
+		@Override
+		protected void compute() {
+			if (mTo - mFrom > CANDIDATES_THRESHOLD) {
+				final int middle = (mFrom + mTo) >>> 1;
+				invokeAll(new EvolveTask(mCandidates, mFrom, middle, mResult, mException),
+						new EvolveTask(mCandidates, middle, mTo, mResult, mException));
+				return;
+			}
+			for (int i = mFrom; i < mTo; i++) {
+				final Candidate<LETTER, PLACE> candidate = mCandidates.get(i);
+				final List<List<Condition<LETTER, PLACE>>> instantiations = computeFullInstantiations(candidate);
+				if (mResult != null) {
+					mResult.set(i, instantiations);
+					continue;
+				}
+				synchronized (PossibleExtensions.this) {
+					if (mException.get() != null) {
+						return;
+					}
+					try {
+						addInstantiations(candidate, instantiations);
+					} catch (final PetriNetNot1SafeException e) {
+						mException.set(e);
+						return;
+					}
+				}
+			}
+		}
+	}
+
 
 
 
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter.NamedAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.netdatastructures.BoundedPetriNet;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.automata.tree.StringRankedLetter;
+import de.uni_freiburg.informatik.ultimate.automata.tree.TreeAutomatonBU;
+import de.uni_freiburg.informatik.ultimate.automata.tree.TreeAutomatonRule;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Round trip tests for {@link BinaryAutomatonWriter} and {@link BinaryAutomatonReader}: An automaton is printed in the
+ * ATS format, written in the binary format, read again, and printed again.
+ */
+public class BinaryAutomatonTest {
+
+	private AutomataLibraryServices mServices;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+	}
+
+	@Test
+	public void nestedWordAutomaton() throws IOException {
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(mServices,
+				new VpAlphabet<>(set("a", "b"), set("call"), set("return")), new StringFactory());
+		nwa.addState(true, false, "q0");
+		nwa.addState(false, false, "q1");
+		nwa.addState(false, true, "q2");
+		nwa.addInternalTransition("q0", "a", "q0");
+		nwa.addInternalTransition("q0", "b", "q1");
+		nwa.addCallTransition("q1", "call", "q0");
+		nwa.addReturnTransition("q1", "q1", "return", "q2");
+		nwa.addInternalTransition("q2", "a", "q2");
+		assertRoundTrip("nwa", nwa);
+	}
+
+	@Test
+	public void petriNet() throws IOException {
+		final BoundedPetriNet<String, String> net = new BoundedPetriNet<>(mServices, set("a", "b", "c"), false);
+		net.addPlace("p0", true, false);
+		net.addPlace("p1", true, false);
+		net.addPlace("p2", false, false);
+		net.addPlace("p3", false, true);
+		net.addTransition("a", set("p0"), set("p2"));
+		net.addTransition("b", set("p1", "p2"), set("p3"));
+		net.addTransition("c", set("p3"), set("p0", "p1"));
+		assertRoundTrip("net", net);
+	}
+
+	@Test
+	public void treeAutomaton() throws IOException {
+		final StringRankedLetter zero = new StringRankedLetter("zero", 0);
+		final StringRankedLetter succ = new StringRankedLetter("succ", 1);
+		final StringRankedLetter plus = new StringRankedLetter("plus", 2);
+		final TreeAutomatonBU<StringRankedLetter, String> tree = new TreeAutomatonBU<>();
+		tree.addLetter(zero);
+		tree.addLetter(succ);
+		tree.addLetter(plus);
+		tree.addState("even");
+		tree.addState("odd");
+		tree.addFinalState("even");
+		tree.addRule(new TreeAutomatonRule<>(zero, Collections.emptyList(), "even"));
+		tree.addRule(new TreeAutomatonRule<>(succ, Arrays.asList("even"), "odd"));
+		tree.addRule(new TreeAutomatonRule<>(succ, Arrays.asList("odd"), "even"));
+		tree.addRule(new TreeAutomatonRule<>(plus, Arrays.asList("odd", "odd"), "even"));
+		tree.addRule(new TreeAutomatonRule<>(plus, Arrays.asList("even", "odd"), "odd"));
+		assertRoundTrip("tree", tree);
+	}
+
+	@Test
+	public void severalAutomataInOneFile() throws IOException {
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(mServices,
+				new VpAlphabet<>(set("a")), new StringFactory());
+		nwa.addState(true, true, "q");
+		nwa.addInternalTransition("q", "a", "q");
+		final BoundedPetriNet<String, String> net = new BoundedPetriNet<>(mServices, set("a"), true);
+		net.addPlace("q", true, true);
+		net.addTransition("a", set("q"), set("q"));
+
+		final BinaryAutomatonWriter writer = new BinaryAutomatonWriter(mServices);
+		writer.add(new NamedAutomaton<>("first", nwa));
+		writer.add(new NamedAutomaton<>("second", net));
+		final File file =
+				File.createTempFile("automata", '.' + AutomatonDefinitionPrinter.Format.BINARY.getFileEnding());
+		try {
+			writer.write(file);
+			final List<NamedAutomaton<?, String>> read = new BinaryAutomatonReader(mServices, file).getAutomata();
+			Assert.assertEquals(2, read.size());
+			Assert.assertEquals("first", read.get(0).getName());
+			Assert.assertEquals(print("first", nwa), print("first", read.get(0).getAutomaton()));
+			Assert.assertEquals("second", read.get(1).getName());
+			Assert.assertEquals(print("second", net), print("second", read.get(1).getAutomaton()));
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void truncatedInput() throws IOException {
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(mServices,
+				new VpAlphabet<>(set("a")), new StringFactory());
+		nwa.addState(true, true, "q");
+		final byte[] bytes = write("nwa", nwa);
+		new BinaryAutomatonReader(mServices, ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 1)));
+	}
+
+	@Test(expected = IOException.class)
+	public void lengthExceedsInput() throws IOException {
+		// the number of strings is the largest variable-length integer, followed by a few bytes only
+		final ByteBuffer buffer = ByteBuffer.allocate(16);
+		buffer.putInt(BinaryAutomatonWriter.MAGIC);
+		buffer.put(new byte[] { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 });
+		buffer.flip();
+		new BinaryAutomatonReader(mServices, buffer);
+	}
+
+	private void assertRoundTrip(final String name, final IAutomaton<?, ?> automaton) throws IOException {
+		final String expected = print(name, automaton);
+		final List<NamedAutomaton<?, String>> read =
+				new BinaryAutomatonReader(mServices, ByteBuffer.wrap(write(name, automaton))).getAutomata();
+		Assert.assertEquals(1, read.size());
+		Assert.assertEquals(name, read.get(0).getName());
+		Assert.assertEquals(expected, print(name, read.get(0).getAutomaton()));
+	}
+
+	private byte[] write(final String name, final IAutomaton<?, ?> automaton) throws IOException {
+		final BinaryAutomatonWriter writer = new BinaryAutomatonWriter(mServices);
+		writer.add(new NamedAutomaton<>(name, automaton));
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writer.write(out);
+		return out.toByteArray();
+	}
+
+	private String print(final String name, final IAutomaton<?, ?> automaton) {
+		return AutomatonDefinitionPrinter.toString(mServices, name, automaton);
+	}
+
+	@SafeVarargs
+	private static <E> HashSet<E> set(final E... elements) {
+		return new HashSet<>(Arrays.asList(elements));
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INwaOutgoingLetterAndTransitionProvider;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedRun;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Compares {@link IsEmptyParallel} with {@link IsEmpty} on intersections of random nested word automata. The
+ * intersections are constructed on demand, as the abstractions of a CEGAR loop.
+ */
+public class IsEmptyParallelTest {
+
+	private static final int NUMBER_OF_AUTOMATA = 100;
+
+	private AutomataLibraryServices mServices;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+	}
+
+	@Test
+	public void emptinessAgreesWithIsEmpty() throws AutomataLibraryException {
+		int nonEmpty = 0;
+		for (int seed = 0; seed < NUMBER_OF_AUTOMATA; seed++) {
+			final NestedRun<String, String> expected = new IsEmpty<>(mServices, createIntersection(seed)).getNestedRun();
+			final INwaOutgoingLetterAndTransitionProvider<String, String> nwa = createIntersection(seed);
+			final NestedRun<String, String> actual = new IsEmptyParallel<>(mServices, nwa).getNestedRun();
+			if (expected == null) {
+				Assert.assertNull("run for empty automaton " + seed, actual);
+				continue;
+			}
+			nonEmpty++;
+			Assert.assertNotNull("no run for automaton " + seed, actual);
+			Assert.assertTrue("run not accepted by automaton " + seed,
+					new Accepts<>(mServices, nwa, actual.getWord()).getResult());
+		}
+		Assert.assertTrue("too few nonempty automata", nonEmpty > NUMBER_OF_AUTOMATA / 10);
+		Assert.assertTrue("too few empty automata", nonEmpty < NUMBER_OF_AUTOMATA * 9 / 10);
+	}
+
+	@Test
+	public void runDoesNotDependOnThreads() throws AutomataLibraryException {
+		final ForkJoinPool singleThread = new ForkJoinPool(1);
+		final ForkJoinPool fourThreads = new ForkJoinPool(4);
+		try {
+			for (int seed = 0; seed < NUMBER_OF_AUTOMATA; seed++) {
+				final String expected =
+						describe(new IsEmptyParallel<>(mServices, createIntersection(seed), singleThread).getNestedRun());
+				for (int repetition = 0; repetition < 3; repetition++) {
+					Assert.assertEquals("different run for automaton " + seed, expected, describe(
+							new IsEmptyParallel<>(mServices, createIntersection(seed), fourThreads).getNestedRun()));
+				}
+			}
+		} finally {
+			singleThread.shutdown();
+			fourThreads.shutdown();
+		}
+	}
+
+	private INestedWordAutomaton<String, String> createRandomNwa(final int seed) {
+		return new GetRandomNwa(mServices, 2, 40, 0.01, 0.01, 0.01, 0.03, seed).getResult();
+	}
+
+	private INwaOutgoingLetterAndTransitionProvider<String, String> createIntersection(final int seed)
+			throws AutomataLibraryException {
+		return new IntersectNwa<>(createRandomNwa(seed), createRandomNwa(NUMBER_OF_AUTOMATA + seed), new StringFactory(),
+				false);
+	}
+
+	private static String describe(final NestedRun<String, String> run) {
+		return run == null ? "empty" : run.getWord() + " " + run.getStateSequence();
+	}
+}
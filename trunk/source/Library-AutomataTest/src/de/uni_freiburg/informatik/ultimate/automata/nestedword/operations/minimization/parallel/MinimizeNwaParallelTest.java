@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.parallel;
+
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.IDoubleDeckerAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.GetRandomNwa;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.IsEquivalent;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.RemoveUnreachable;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.MinimizeSevpa;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Compares {@link MinimizeNwaParallel} with the sequential {@link MinimizeSevpa} on random nested word automata.
+ */
+public class MinimizeNwaParallelTest {
+
+	private static final int NUMBER_OF_AUTOMATA = 100;
+
+	private AutomataLibraryServices mServices;
+	private StringFactory mStateFactory;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+		mStateFactory = new StringFactory();
+	}
+
+	@Test
+	public void resultIsEquivalentAndNotLargerThanMinimizeSevpa() throws AutomataLibraryException {
+		for (int seed = 0; seed < NUMBER_OF_AUTOMATA; seed++) {
+			final IDoubleDeckerAutomaton<String, String> operand = createRandomNwa(seed);
+			final INestedWordAutomaton<String, String> result =
+					new MinimizeNwaParallel<>(mServices, mStateFactory, operand).getResult();
+			Assert.assertTrue("result not equivalent for automaton " + seed,
+					new IsEquivalent<>(mServices, mStateFactory, operand, result).getResult());
+			final int sequentialSize = new MinimizeSevpa<>(mServices, mStateFactory, operand).getResult().size();
+			Assert.assertTrue("result larger than the one of MinimizeSevpa for automaton " + seed,
+					result.size() <= sequentialSize);
+		}
+	}
+
+	@Test
+	public void resultDoesNotDependOnThreads() throws AutomataLibraryException {
+		for (int seed = 0; seed < NUMBER_OF_AUTOMATA; seed++) {
+			final IDoubleDeckerAutomaton<String, String> operand = createRandomNwa(seed);
+			final INestedWordAutomaton<String, String> sequential =
+					new MinimizeNwaParallel<>(mServices, mStateFactory, operand, null, false, false, 1).getResult();
+			final INestedWordAutomaton<String, String> parallel =
+					new MinimizeNwaParallel<>(mServices, mStateFactory, operand, null, false, false, 4).getResult();
+			Assert.assertEquals("different result for automaton " + seed, new HashSet<>(sequential.getStates()),
+					new HashSet<>(parallel.getStates()));
+		}
+	}
+
+	/**
+	 * Random automata with few return transitions, such that the equivalence check remains cheap.
+	 */
+	private IDoubleDeckerAutomaton<String, String> createRandomNwa(final int seed) throws AutomataLibraryException {
+		final INestedWordAutomaton<String, String> nwa =
+				new GetRandomNwa(mServices, 2, 12, 0.03, 0.01, 0.01, 0.2, seed).getResult();
+		return new RemoveUnreachable<>(mServices, nwa).getResult();
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.petrinet.unfolding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.netdatastructures.BoundedPetriNet;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.unfolding.PetriNetUnfolder.CoRelationType;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.unfolding.PetriNetUnfolder.EventOrderEnum;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Checks that the variants of {@link PetriNetUnfolder} compute the same finite prefix. Events are compared by their
+ * transition and their causal history, which does not depend on the order in which the events were constructed.
+ */
+public class PetriNetUnfolderTest {
+
+	private AutomataLibraryServices mServices;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+	}
+
+	@Test
+	public void deterministicParallelUnfoldingEqualsSequentialUnfolding() throws AutomataLibraryException {
+		for (int components = 2; components <= 5; components++) {
+			final BoundedPetriNet<String, String> net = createRing(components);
+			for (final EventOrderEnum order : Arrays.asList(EventOrderEnum.ERV, EventOrderEnum.DBO)) {
+				final Map<String, Boolean> sequential =
+						describe(new PetriNetUnfolder<>(mServices, net, order, false, false, 1, true));
+				Assert.assertTrue("prefix without cut-off events", sequential.containsValue(true));
+				for (int threads = 2; threads <= 4; threads++) {
+					final PetriNetUnfolder<String, String> parallel =
+							new PetriNetUnfolder<>(mServices, net, order, false, false, threads, true);
+					Assert.assertEquals("different prefix for " + components + " components, " + order + ", "
+							+ threads + " threads", sequential, describe(parallel));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void parallelCandidateEvolutionEqualsSequentialEvolution() throws AutomataLibraryException {
+		for (int components = 2; components <= 5; components++) {
+			final BoundedPetriNet<String, String> net = createRing(components);
+			for (final EventOrderEnum order : EventOrderEnum.values()) {
+				final PetriNetUnfolder<String, String> sequential =
+						new PetriNetUnfolder<>(mServices, net, order, false, false, 1, true, false);
+				final PetriNetUnfolder<String, String> parallel =
+						new PetriNetUnfolder<>(mServices, net, order, false, false, 1, true, true);
+				// the events are even constructed in the same order
+				Assert.assertEquals("different prefix for " + components + " components, " + order,
+						serialNumbers(sequential), serialNumbers(parallel));
+				Assert.assertEquals("different cut-off events for " + components + " components, " + order,
+						describe(sequential), describe(parallel));
+			}
+		}
+	}
+
+	@Test
+	public void coRelationTypesComputeSamePrefix() throws AutomataLibraryException {
+		for (int components = 2; components <= 5; components++) {
+			final BoundedPetriNet<String, String> net = createRing(components);
+			for (final EventOrderEnum order : EventOrderEnum.values()) {
+				final PetriNetUnfolder<String, String> reference = new PetriNetUnfolder<>(mServices, net, order, false,
+						false, 1, true, false, CoRelationType.CONDITION_EVENTS);
+				final Map<String, Integer> expectedEvents = serialNumbers(reference);
+				final Map<String, Boolean> expectedCutoffs = describe(reference);
+				final Set<String> expectedCoRelation = describeCoRelation(reference);
+				for (final CoRelationType type : Arrays.asList(CoRelationType.CONDITION_EVENTS_B32,
+						CoRelationType.CONDITION_EVENTS_BITSET)) {
+					final PetriNetUnfolder<String, String> unfolder =
+							new PetriNetUnfolder<>(mServices, net, order, false, false, 1, true, false, type);
+					final String message = components + " components, " + order + ", " + type;
+					Assert.assertEquals("different prefix for " + message, expectedEvents, serialNumbers(unfolder));
+					Assert.assertEquals("different cut-off events for " + message, expectedCutoffs,
+							describe(unfolder));
+					Assert.assertEquals("different co-relation for " + message, expectedCoRelation,
+							describeCoRelation(unfolder));
+				}
+			}
+		}
+	}
+
+	/**
+	 * A ring of components. Each component can move from a to b in two ways, and two neighboring components move
+	 * back from b to a together.
+	 */
+	private BoundedPetriNet<String, String> createRing(final int components) {
+		final Set<String> alphabet = new HashSet<>();
+		for (int i = 0; i < components; i++) {
+			alphabet.add("t" + i);
+			alphabet.add("u" + i);
+			alphabet.add("s" + i);
+		}
+		final BoundedPetriNet<String, String> net = new BoundedPetriNet<>(mServices, alphabet, false);
+		for (int i = 0; i < components; i++) {
+			net.addPlace("a" + i, true, false);
+			net.addPlace("b" + i, false, false);
+		}
+		for (int i = 0; i < components; i++) {
+			final int next = (i + 1) % components;
+			net.addTransition("t" + i, Collections.singleton("a" + i), Collections.singleton("b" + i));
+			net.addTransition("u" + i, Collections.singleton("a" + i), Collections.singleton("b" + i));
+			net.addTransition("s" + i, new HashSet<>(Arrays.asList("b" + i, "b" + next)),
+					new HashSet<>(Arrays.asList("a" + i, "a" + next)));
+		}
+		return net;
+	}
+
+	/**
+	 * @return For every event of the finite prefix its description and whether it is a cut-off event.
+	 */
+	private static Map<String, Boolean> describe(final PetriNetUnfolder<String, String> unfolder) {
+		final Map<Event<String, String>, String> descriptions = new HashMap<>();
+		final Map<String, Boolean> result = new HashMap<>();
+		for (final Event<String, String> event : unfolder.getFinitePrefix().getEvents()) {
+			final String description = describe(event, descriptions);
+			final Boolean before = result.put(description, event.isCutoffEvent());
+			Assert.assertNull("event constructed twice: " + description, before);
+		}
+		return result;
+	}
+
+	/**
+	 * @return For every event of the finite prefix its description and its serial number.
+	 */
+	private static Map<String, Integer> serialNumbers(final PetriNetUnfolder<String, String> unfolder) {
+		final Map<Event<String, String>, String> descriptions = new HashMap<>();
+		final Map<String, Integer> result = new HashMap<>();
+		for (final Event<String, String> event : unfolder.getFinitePrefix().getEvents()) {
+			result.put(describe(event, descriptions), event.getSerialNumber());
+		}
+		return result;
+	}
+
+	/**
+	 * @return For every pair of co-related conditions of the finite prefix the descriptions of both conditions.
+	 */
+	private static Set<String> describeCoRelation(final PetriNetUnfolder<String, String> unfolder) {
+		final BranchingProcess<String, String> prefix = unfolder.getFinitePrefix();
+		final Map<Event<String, String>, String> descriptions = new HashMap<>();
+		final Set<String> result = new HashSet<>();
+		for (final Condition<String, String> condition : prefix.getConditions()) {
+			for (final Condition<String, String> coRelated : prefix.getCoRelation()
+					.computeCoRelatatedConditions(condition)) {
+				result.add(describe(condition, descriptions) + " co " + describe(coRelated, descriptions));
+			}
+		}
+		return result;
+	}
+
+	private static String describe(final Condition<String, String> condition,
+			final Map<Event<String, String>, String> descriptions) {
+		return condition.getPlace() + "<-" + describe(condition.getPredecessorEvent(), descriptions);
+	}
+
+	private static String describe(final Event<String, String> event,
+			final Map<Event<String, String>, String> descriptions) {
+		String result = descriptions.get(event);
+		if (result == null) {
+			final List<String> predecessors = new ArrayList<>();
+			for (final Condition<String, String> condition : event.getPredecessorConditions()) {
+				predecessors.add(describe(condition, descriptions));
+			}
+			Collections.sort(predecessors);
+			result = (event.getTransition() == null ? "root" : event.getTransition().getSymbol()) + predecessors;
+			descriptions.put(event, result);
+		}
+		return result;
+	}
+}
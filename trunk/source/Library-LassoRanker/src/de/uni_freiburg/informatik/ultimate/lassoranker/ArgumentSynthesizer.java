@@ -164,10 +164,11 @@ public abstract class ArgumentSynthesizer implements Closeable {
 	}
 
 	/**
-	 * Perform cleanup actions
+	 * Perform cleanup actions. May be called by another thread than the one that runs the synthesis in order to stop
+	 * it.
 	 */
 	@Override
-	public void close() {
+	public synchronized void close() {
 		if (!mClosed) {
 			mScript.exit();
 			mClosed = true;
@@ -28,13 +28,16 @@
  */
 package de.uni_freiburg.informatik.ultimate.lassoranker;
 
+import java.io.Closeable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
 import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
@@ -216,7 +219,8 @@ public class LassoAnalysis {
 		mCfgSmtToolkit = csToolkit;
 		mSymbolTable = csToolkit.getSymbolTable();
 
-		mLassoTerminationAnalysisBenchmarks = new ArrayList<>();
+		// synchronized because templates may be tried concurrently, see synthesizeTerminationArgument
+		mLassoTerminationAnalysisBenchmarks = Collections.synchronizedList(new ArrayList<>());
 
 		mLassoNonterminationAnalysisBenchmarks = new ArrayList<>();
 
@@ -346,7 +350,9 @@ public class LassoAnalysis {
 	}
 
 	public List<TerminationAnalysisBenchmark> getTerminationAnalysisBenchmarks() {
-		return mLassoTerminationAnalysisBenchmarks;
+		synchronized (mLassoTerminationAnalysisBenchmarks) {
+			return new ArrayList<>(mLassoTerminationAnalysisBenchmarks);
+		}
 	}
 
 	public List<NonterminationAnalysisBenchmark> getNonterminationAnalysisBenchmarks() {
@@ -485,6 +491,46 @@ public class LassoAnalysis {
 	 */
 	public TerminationArgument tryTemplate(final RankingTemplate template, final TerminationAnalysisSettings settings)
 			throws SMTLIBException, TermException, IOException {
+		final TerminationArgument ta = synthesizeTerminationArgument(template, settings);
+		if (ta != null) {
+			final Term[] lexTerm = ta.getRankingFunction().asLexTerm(mMgdScript.getScript());
+			for (final Term t : lexTerm) {
+				mLogger.debug(new DebugMessage("{0}", new SMTPrettyPrinter(t)));
+			}
+		}
+		return ta;
+	}
+
+	/**
+	 * Try to find a termination argument for the lasso program specified by the given ranking function template
+	 * without using the script of the lasso program. Each template is solved by a solver instance of its own, hence this
+	 * method may be called concurrently for different templates.
+	 *
+	 * @param template
+	 *            the ranking function template
+	 * @param settings
+	 *            (local) settings for termination analysis
+	 * @return the termination argument or null of none is found
+	 * @throws IOException
+	 */
+	public TerminationArgument synthesizeTerminationArgument(final RankingTemplate template,
+			final TerminationAnalysisSettings settings) throws SMTLIBException, TermException, IOException {
+		return synthesizeTerminationArgument(template, settings, synthesizer -> {
+			// nobody needs to stop the synthesis early
+		});
+	}
+
+	/**
+	 * Like {@link #synthesizeTerminationArgument(RankingTemplate, TerminationAnalysisSettings)}, but reports each
+	 * {@link TerminationArgumentSynthesizer} to the given consumer before it is used. Another thread may stop the
+	 * synthesis by closing the synthesizer, which exits its solver; the synthesis then fails with an exception.
+	 *
+	 * @param synthesizerCreated
+	 *            called with each synthesizer directly after it was created
+	 */
+	public TerminationArgument synthesizeTerminationArgument(final RankingTemplate template,
+			final TerminationAnalysisSettings settings, final Consumer<Closeable> synthesizerCreated)
+			throws SMTLIBException, TermException, IOException {
 		// ignore stem
 		mLogger.info("Using template '" + template.getName() + "'.");
 		mLogger.debug(template);
@@ -495,6 +541,7 @@ public class LassoAnalysis {
 
 			final TerminationArgumentSynthesizer tas = new TerminationArgumentSynthesizer(lasso, template, mPreferences,
 					settings, mArrayIndexSupportingInvariants, mServices);
+			synthesizerCreated.accept(tas);
 			final LBool constraintSat = tas.synthesize();
 
 			final long endTime = System.nanoTime();
@@ -510,10 +557,6 @@ public class LassoAnalysis {
 				mLogger.info("Proved termination.");
 				final TerminationArgument ta = tas.getArgument();
 				mLogger.info(ta);
-				final Term[] lexTerm = ta.getRankingFunction().asLexTerm(mMgdScript.getScript());
-				for (final Term t : lexTerm) {
-					mLogger.debug(new DebugMessage("{0}", new SMTPrettyPrinter(t)));
-				}
 				tas.close();
 				return ta;
 			} else if (constraintSat == LBool.UNKNOWN) {
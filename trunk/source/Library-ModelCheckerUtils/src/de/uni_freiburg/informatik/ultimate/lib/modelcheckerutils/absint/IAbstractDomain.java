@@ -103,6 +103,17 @@ public interface IAbstractDomain<STATE extends IAbstractState<STATE>, ACTION> {
 		return false;
 	}
 
+	/**
+	 * This setting defines whether the fixpoint engine may analyze independent parts of a program in parallel. This
+	 * requires that the operators of this domain and its states can be used by several threads at the same time, e.g.,
+	 * because they do not use an SMT solver and do not cache results.
+	 *
+	 * @return true iff the operators and states of this domain are thread-safe.
+	 */
+	default boolean isThreadSafe() {
+		return false;
+	}
+
 	/**
 	 * This method is called after the fixpoint computation ends. You can use it to report domain-specific statistics
 	 * after a run.
@@ -44,7 +44,8 @@ import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.NestedMa
 
 /**
  * IHoareTripleChecker that caches already computed results. Also tries to use these results for more intelligent
- * checks.
+ * checks. Optionally, results are also looked up in and stored to a {@link SharedHoareTripleCache} that outlives this
+ * checker.
  *
  * @author Matthias Heizmann
  *
@@ -65,6 +66,7 @@ public abstract class CachingHoareTripleChecker implements IHoareTripleChecker {
 	private final NestedMap3<IAction, IPredicate, IPredicate, Validity> mInternalCache;
 	private final NestedMap3<IAction, IPredicate, IPredicate, Validity> mCallCache;
 	private final Map<IPredicate, NestedMap3<IAction, IPredicate, IPredicate, Validity>> mReturnCache;
+	private final SharedHoareTripleCache mSharedCache;
 
 	public CachingHoareTripleChecker(final IUltimateServiceProvider services,
 			final IHoareTripleChecker protectedHoareTripleChecker, final IPredicateUnifier predicateUnifer) {
@@ -77,6 +79,21 @@ public abstract class CachingHoareTripleChecker implements IHoareTripleChecker {
 			final NestedMap3<IAction, IPredicate, IPredicate, Validity> initialInternalCache,
 			final NestedMap3<IAction, IPredicate, IPredicate, Validity> initialCallCache,
 			final Map<IPredicate, NestedMap3<IAction, IPredicate, IPredicate, Validity>> initialReturnCache) {
+		this(services, protectedHoareTripleChecker, predicateUnifer, initialInternalCache, initialCallCache,
+				initialReturnCache, null);
+	}
+
+	/**
+	 * @param sharedCache
+	 *            cache that is shared with other checkers (e.g., of other CEGAR iterations or other threads), or null
+	 *            if results should only be cached locally.
+	 */
+	public CachingHoareTripleChecker(final IUltimateServiceProvider services,
+			final IHoareTripleChecker protectedHoareTripleChecker, final IPredicateUnifier predicateUnifer,
+			final NestedMap3<IAction, IPredicate, IPredicate, Validity> initialInternalCache,
+			final NestedMap3<IAction, IPredicate, IPredicate, Validity> initialCallCache,
+			final Map<IPredicate, NestedMap3<IAction, IPredicate, IPredicate, Validity>> initialReturnCache,
+			final SharedHoareTripleCache sharedCache) {
 		super();
 		mServices = services;
 		mLogger = mServices.getLoggingService().getLogger(ModelCheckerUtils.PLUGIN_ID);
@@ -85,16 +102,30 @@ public abstract class CachingHoareTripleChecker implements IHoareTripleChecker {
 		mInternalCache = Objects.requireNonNull(initialInternalCache);
 		mCallCache = Objects.requireNonNull(initialCallCache);
 		mReturnCache = Objects.requireNonNull(initialReturnCache);
+		mSharedCache = sharedCache;
 	}
 
 	@Override
 	public Validity checkInternal(final IPredicate pre, final IInternalAction act, final IPredicate succ) {
 		Validity result = getFromInternalCache(pre, act, succ);
+		if (result == null && mSharedCache != null) {
+			result = mSharedCache.getInternal(pre, act, succ);
+			if (result == null) {
+				getEdgeCheckerBenchmark().getSharedCacheMisses().incIn();
+			} else {
+				getEdgeCheckerBenchmark().getSharedCacheHits().incIn();
+				addToInternalCache(pre, act, succ, result);
+				return result;
+			}
+		}
 		if (result == null) {
 			result = extendedBinaryCacheCheck(pre, act, succ, mInternalCache);
 			if (result == null) {
 				result = mComputingHoareTripleChecker.checkInternal(pre, act, succ);
 				mResultFromSolver.incIn();
+				if (mSharedCache != null && mSharedCache.putInternal(pre, act, succ, result)) {
+					getEdgeCheckerBenchmark().incSharedCacheEvictions();
+				}
 			} else {
 				mResultFromExtendedCacheCheck.incIn();
 			}
@@ -117,11 +148,24 @@ public abstract class CachingHoareTripleChecker implements IHoareTripleChecker {
 	@Override
 	public Validity checkCall(final IPredicate pre, final ICallAction act, final IPredicate succ) {
 		Validity result = getFromCallCache(pre, act, succ);
+		if (result == null && mSharedCache != null) {
+			result = mSharedCache.getCall(pre, act, succ);
+			if (result == null) {
+				getEdgeCheckerBenchmark().getSharedCacheMisses().incCa();
+			} else {
+				getEdgeCheckerBenchmark().getSharedCacheHits().incCa();
+				addToCallCache(pre, act, succ, result);
+				return result;
+			}
+		}
 		if (result == null) {
 			result = extendedBinaryCacheCheck(pre, act, succ, mCallCache);
 			if (result == null) {
 				result = mComputingHoareTripleChecker.checkCall(pre, act, succ);
 				mResultFromSolver.incCa();
+				if (mSharedCache != null && mSharedCache.putCall(pre, act, succ, result)) {
+					getEdgeCheckerBenchmark().incSharedCacheEvictions();
+				}
 			} else {
 				mResultFromExtendedCacheCheck.incCa();
 			}
@@ -145,6 +189,16 @@ public abstract class CachingHoareTripleChecker implements IHoareTripleChecker {
 	public Validity checkReturn(final IPredicate preLin, final IPredicate preHier, final IReturnAction act,
 			final IPredicate succ) {
 		Validity result = getFromReturnCache(preLin, preHier, act, succ);
+		if (result == null && mSharedCache != null) {
+			result = mSharedCache.getReturn(preLin, preHier, act, succ);
+			if (result == null) {
+				getEdgeCheckerBenchmark().getSharedCacheMisses().incRe();
+			} else {
+				getEdgeCheckerBenchmark().getSharedCacheHits().incRe();
+				addToReturnCache(preLin, preHier, act, succ, result);
+				return result;
+			}
+		}
 		if (result == null) {
 			if (!mReturnCache.containsKey(preHier)) {
 				mReturnCache.put(preHier, new NestedMap3<>());
@@ -153,6 +207,9 @@ public abstract class CachingHoareTripleChecker implements IHoareTripleChecker {
 			if (result == null) {
 				result = mComputingHoareTripleChecker.checkReturn(preLin, preHier, act, succ);
 				mResultFromSolver.incRe();
+				if (mSharedCache != null && mSharedCache.putReturn(preLin, preHier, act, succ, result)) {
+					getEdgeCheckerBenchmark().incSharedCacheEvictions();
+				}
 			} else {
 				mResultFromExtendedCacheCheck.incRe();
 			}
@@ -26,6 +26,7 @@
  */
 package de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -60,6 +61,13 @@ public class CachingHoareTripleCheckerMap extends CachingHoareTripleChecker {
 				initialReturnCache);
 	}
 
+	public CachingHoareTripleCheckerMap(final IUltimateServiceProvider services,
+			final IHoareTripleChecker protectedHoareTripleChecker, final IPredicateUnifier predicateUnifer,
+			final SharedHoareTripleCache sharedCache) {
+		super(services, protectedHoareTripleChecker, predicateUnifer, new NestedMap3<>(), new NestedMap3<>(),
+				new HashMap<>(), sharedCache);
+	}
+
 	@Override
 	protected Validity extendedBinaryCacheCheck(final IPredicate pre, final IAction act, final IPredicate succ,
 			final NestedMap3<IAction, IPredicate, IPredicate, Validity> binaryCache) {
@@ -45,6 +45,9 @@ public class HoareTripleCheckerStatisticsGenerator implements IStatisticsDataPro
 	protected final InCaReCounter mSolverCounterUnsat;
 	protected final InCaReCounter mSolverCounterUnknown;
 	protected final InCaReCounter mSolverCounterNotChecked;
+	protected final InCaReCounter mSharedCacheHits;
+	protected final InCaReCounter mSharedCacheMisses;
+	protected int mSharedCacheEvictions;
 	protected final Benchmark mBenchmark;
 
 	protected boolean mRunning = false;
@@ -58,6 +61,8 @@ public class HoareTripleCheckerStatisticsGenerator implements IStatisticsDataPro
 		mSolverCounterUnsat = new InCaReCounter();
 		mSolverCounterUnknown = new InCaReCounter();
 		mSolverCounterNotChecked= new InCaReCounter();
+		mSharedCacheHits = new InCaReCounter();
+		mSharedCacheMisses = new InCaReCounter();
 		mBenchmark = new Benchmark();
 		mBenchmark.register(String.valueOf(HoareTripleCheckerStatisticsDefinitions.Time));
 	}
@@ -86,6 +91,18 @@ public class HoareTripleCheckerStatisticsGenerator implements IStatisticsDataPro
 	public InCaReCounter getSolverCounterNotChecked() {
 		return mSolverCounterNotChecked;
 	}
+	public InCaReCounter getSharedCacheHits() {
+		return mSharedCacheHits;
+	}
+	public InCaReCounter getSharedCacheMisses() {
+		return mSharedCacheMisses;
+	}
+	public int getSharedCacheEvictions() {
+		return mSharedCacheEvictions;
+	}
+	public void incSharedCacheEvictions() {
+		mSharedCacheEvictions++;
+	}
 	public long getEdgeCheckerTime() {
 		return (long) mBenchmark.getElapsedTime(String.valueOf(HoareTripleCheckerStatisticsDefinitions.Time), TimeUnit.NANOSECONDS);
 	}
@@ -123,6 +140,12 @@ public class HoareTripleCheckerStatisticsGenerator implements IStatisticsDataPro
 			return mSolverCounterUnknown;
 		case SolverNotchecked:
 			return mSolverCounterNotChecked;
+		case SharedCacheHits:
+			return mSharedCacheHits;
+		case SharedCacheMisses:
+			return mSharedCacheMisses;
+		case SharedCacheEvictions:
+			return mSharedCacheEvictions;
 		case Time:
 			return getEdgeCheckerTime();
 		default:
@@ -154,6 +177,12 @@ public class HoareTripleCheckerStatisticsGenerator implements IStatisticsDataPro
 		builder.append(mSolverCounterUnknown);
 		builder.append(", mSolverCounterNotChecked=");
 		builder.append(mSolverCounterNotChecked);
+		builder.append(", mSharedCacheHits=");
+		builder.append(mSharedCacheHits);
+		builder.append(", mSharedCacheMisses=");
+		builder.append(mSharedCacheMisses);
+		builder.append(", mSharedCacheEvictions=");
+		builder.append(mSharedCacheEvictions);
 		builder.append("]");
 		return builder.toString();
 	}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE ModelCheckerUtils Library.
+ *
+ * The ULTIMATE ModelCheckerUtils Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE ModelCheckerUtils Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE ModelCheckerUtils Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE ModelCheckerUtils Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE ModelCheckerUtils Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IAction;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.IHoareTripleChecker.Validity;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicate;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+
+/**
+ * Thread-safe cache of Hoare triple results that can outlive a single {@link CachingHoareTripleChecker}.
+ *
+ * Triples are identified by the formulas of their predicates and not by the predicates themselves. Hence, results
+ * can be reused by checkers that use different {@link IPredicate} objects (e.g., from the predicate unifiers of
+ * different CEGAR iterations) as long as all checkers work on the same script and the same program.
+ *
+ * The cache is split into a fixed number of shards, each guarded by its own lock. Every shard is bounded and evicts
+ * its least recently used entry if it becomes full. Only definite results ({@link Validity#VALID} and
+ * {@link Validity#INVALID}) are stored. The cache does not count hits, misses, and evictions itself; each
+ * {@link CachingHoareTripleChecker} reports them in its {@link HoareTripleCheckerStatisticsGenerator}.
+ *
+ */
+public class SharedHoareTripleCache {
+
+	private static final int DEFAULT_NUMBER_OF_SHARDS = 16;
+
+	private final Shard[] mShards;
+	private final int mShardMask;
+
+	public SharedHoareTripleCache(final int capacity) {
+		this(capacity, DEFAULT_NUMBER_OF_SHARDS);
+	}
+
+	/**
+	 * @param capacity
+	 *            maximal number of entries in the cache.
+	 * @param numberOfShards
+	 *            number of independently locked parts of the cache; rounded down to a power of two.
+	 */
+	public SharedHoareTripleCache(final int capacity, final int numberOfShards) {
+		if (capacity <= 0 || numberOfShards <= 0) {
+			throw new IllegalArgumentException("capacity and number of shards have to be positive");
+		}
+		final int shards = Integer.highestOneBit(Math.min(numberOfShards, capacity));
+		mShards = new Shard[shards];
+		final int capacityPerShard = (capacity + shards - 1) / shards;
+		for (int i = 0; i < shards; i++) {
+			mShards[i] = new Shard(capacityPerShard);
+		}
+		mShardMask = shards - 1;
+	}
+
+	public Validity getInternal(final IPredicate pre, final IAction act, final IPredicate succ) {
+		return get(new Triple(pre.getFormula(), null, act, succ.getFormula()));
+	}
+
+	public Validity getCall(final IPredicate pre, final IAction act, final IPredicate succ) {
+		return getInternal(pre, act, succ);
+	}
+
+	public Validity getReturn(final IPredicate preLin, final IPredicate preHier, final IAction act,
+			final IPredicate succ) {
+		return get(new Triple(preLin.getFormula(), preHier.getFormula(), act, succ.getFormula()));
+	}
+
+	/**
+	 * @return true iff another entry was evicted to make room for this one.
+	 */
+	public boolean putInternal(final IPredicate pre, final IAction act, final IPredicate succ,
+			final Validity validity) {
+		return put(new Triple(pre.getFormula(), null, act, succ.getFormula()), validity);
+	}
+
+	/**
+	 * @return true iff another entry was evicted to make room for this one.
+	 */
+	public boolean putCall(final IPredicate pre, final IAction act, final IPredicate succ, final Validity validity) {
+		return putInternal(pre, act, succ, validity);
+	}
+
+	/**
+	 * @return true iff another entry was evicted to make room for this one.
+	 */
+	public boolean putReturn(final IPredicate preLin, final IPredicate preHier, final IAction act,
+			final IPredicate succ, final Validity validity) {
+		return put(new Triple(preLin.getFormula(), preHier.getFormula(), act, succ.getFormula()), validity);
+	}
+
+	private Validity get(final Triple triple) {
+		final Shard shard = getShard(triple);
+		synchronized (shard) {
+			return shard.get(triple);
+		}
+	}
+
+	private boolean put(final Triple triple, final Validity validity) {
+		if (validity != Validity.VALID && validity != Validity.INVALID) {
+			return false;
+		}
+		final Shard shard = getShard(triple);
+		synchronized (shard) {
+			shard.mEvicted = false;
+			shard.put(triple, validity);
+			return shard.mEvicted;
+		}
+	}
+
+	private Shard getShard(final Triple triple) {
+		final int hash = triple.hashCode();
+		return mShards[(hash ^ (hash >>> 16)) & mShardMask];
+	}
+
+	public int size() {
+		int result = 0;
+		for (final Shard shard : mShards) {
+			synchronized (shard) {
+				result += shard.size();
+			}
+		}
+		return result;
+	}
+
+	public void clear() {
+		for (final Shard shard : mShards) {
+			synchronized (shard) {
+				shard.clear();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SharedHoareTripleCache [size=" + size() + "]";
+	}
+
+	/**
+	 * Part of the cache that is guarded by a single lock. Access order is maintained, hence the eldest entry is the
+	 * least recently used one.
+	 */
+	private static final class Shard extends LinkedHashMap<Triple, Validity> {
+		private static final long serialVersionUID = 1L;
+
+		private final int mCapacity;
+		private boolean mEvicted;
+
+		Shard(final int capacity) {
+			super(16, 0.75f, true);
+			mCapacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<Triple, Validity> eldest) {
+			if (size() > mCapacity) {
+				mEvicted = true;
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Key of the cache. The hierarchical precondition is null for internal and call actions.
+	 */
+	private static final class Triple {
+		private final Term mPre;
+		private final Term mHierPre;
+		private final IAction mAction;
+		private final Term mSucc;
+		private final int mHashCode;
+
+		Triple(final Term pre, final Term hierPre, final IAction action, final Term succ) {
+			mPre = Objects.requireNonNull(pre);
+			mHierPre = hierPre;
+			mAction = Objects.requireNonNull(action);
+			mSucc = Objects.requireNonNull(succ);
+			mHashCode = Objects.hash(pre, hierPre, action, succ);
+		}
+
+		@Override
+		public int hashCode() {
+			return mHashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Triple)) {
+				return false;
+			}
+			final Triple other = (Triple) obj;
+			return mHashCode == other.mHashCode && mPre == other.mPre && mHierPre == other.mHierPre
+					&& mAction.equals(other.mAction) && mSucc == other.mSucc;
+		}
+	}
+}
@@ -26,12 +26,15 @@
  */
 package de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt;
 
+import java.util.Map;
+
 import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.IHoareTripleChecker;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.IHoareTripleChecker.Validity;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.managedscript.ManagedScript;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicate;
 import de.uni_freiburg.informatik.ultimate.logic.QuotedObject;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
 import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
 
@@ -67,6 +70,19 @@ public class MonolithicImplicationChecker {
 	 */
 	public Validity checkImplication(final Term antecedent, final Term antecedentClosedFormula, final boolean affirmAntecedentNeitherValidNorUnsat,
 			final Term succedent, final Term succedentClosedFormula, final boolean affirmSuccedentNeitherValidNorUnsat) {
+		return checkImplication(antecedent, antecedentClosedFormula, affirmAntecedentNeitherValidNorUnsat, succedent,
+				succedentClosedFormula, affirmSuccedentNeitherValidNorUnsat, null, null);
+	}
+
+	/**
+	 * Check if implication antecedent ==> succedent is valid. If the solver finds a counterexample to the
+	 * implication, the values that the terms valueTerms have in this counterexample are added to
+	 * counterexampleValues. Requires that the solver produces models if valueTerms is not null.
+	 */
+	public Validity checkImplication(final Term antecedent, final Term antecedentClosedFormula,
+			final boolean affirmAntecedentNeitherValidNorUnsat, final Term succedent, final Term succedentClosedFormula,
+			final boolean affirmSuccedentNeitherValidNorUnsat, final Term[] valueTerms,
+			final Map<Term, Term> counterexampleValues) {
 		if (affirmAntecedentNeitherValidNorUnsat && affirmSuccedentNeitherValidNorUnsat) {
 			final Validity dataflowAnalysisResult = dataflowBasedImplicationCheck(antecedent, succedent);
 			if (dataflowAnalysisResult == Validity.INVALID) {
@@ -82,13 +98,20 @@ public class MonolithicImplicationChecker {
 		mManagedScript.assertTerm(this, antecedentClosedFormula);
 		mManagedScript.assertTerm(this, SmtUtils.not(mManagedScript.getScript(), succedentClosedFormula));
 		final LBool lbool = mManagedScript.checkSat(this);
+		if (lbool == LBool.SAT && valueTerms != null && valueTerms.length > 0) {
+			try {
+				counterexampleValues.putAll(mManagedScript.getValue(this, valueTerms));
+			} catch (final SMTLIBException | UnsupportedOperationException e) {
+				// the counterexample is optional, the result of the check is not affected
+			}
+		}
 		mManagedScript.pop(this, 1);
 		mManagedScript.echo(this, new QuotedObject("Finished implication check"));
 		mManagedScript.unlock(this);
 		return IHoareTripleChecker.convertLBool2Validity(lbool);
 	}
 
-	private Validity dataflowBasedImplicationCheck(final Term antecedent, final Term succedent) {
+	protected Validity dataflowBasedImplicationCheck(final Term antecedent, final Term succedent) {
 		return Validity.UNKNOWN;
 	}
 
@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE ModelCheckerUtils Library.
+ *
+ * The ULTIMATE ModelCheckerUtils Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE ModelCheckerUtils Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE ModelCheckerUtils Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE ModelCheckerUtils Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE ModelCheckerUtils Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.managedscript;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.ModelCheckerUtils;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SolverBuilder;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SolverBuilder.SolverSettings;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.scripttransfer.HistoryRecordingScript;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.scripttransfer.ISmtDeclarable;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.scripttransfer.NonDeclaringTermTransferrer;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.scripttransfer.TermTransferrer;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+
+/**
+ * A fixed number of additional solver instances that check queries in parallel to the thread that uses a main
+ * {@link ManagedScript}. The main script has to contain a {@link HistoryRecordingScript}, which is the case for all
+ * scripts built by {@link SolverBuilder}.
+ *
+ * Clients obtain exclusive access to one instance via a {@link Lease}. When a lease is acquired, the declarations of
+ * the main script are replayed into the instance by {@link HistoryRecordingScript#replayHistory}. Only the
+ * declarations that the instance is missing are replayed, and declarations that were popped from the main script are
+ * popped from the instance as well. Every lease works in its own stack frame of the instance, which is popped when the
+ * lease is closed.
+ *
+ * Terms of the main script are only read by the instances, hence the thread that owns the main script may continue to
+ * use it while queries are checked, as long as it does not pop declarations that are used by pending queries.
+ * Transferring terms back into the main script constructs terms and declares symbols there, which is only allowed for
+ * the thread that owns the main script.
+ *
+ */
+public class ManagedScriptPool implements AutoCloseable {
+
+	private final ILogger mLogger;
+	private final ManagedScript mMainScript;
+	private final HistoryRecordingScript mMainHistory;
+	private final IUltimateServiceProvider mServices;
+	private final IntFunction<Script> mSolverFactory;
+	private final AtomicInteger mNextInstanceNumber = new AtomicInteger();
+	private final int mSize;
+	private final BlockingQueue<Instance> mIdleInstances;
+	private final ExecutorService mExecutor;
+	private volatile boolean mClosed;
+
+	/**
+	 * Create a pool whose instances are built by {@link SolverBuilder}.
+	 *
+	 * @param mainScript
+	 *            the script whose terms are checked by the pooled instances.
+	 * @param settings
+	 *            settings of the pooled instances; the solver mode has to be set.
+	 * @param solverId
+	 *            prefix of the names of the pooled instances.
+	 * @param size
+	 *            number of pooled instances and of worker threads.
+	 */
+	public ManagedScriptPool(final IUltimateServiceProvider services, final ManagedScript mainScript,
+			final SolverSettings settings, final String solverId, final int size) {
+		this(services, mainScript, i -> SolverBuilder.buildAndInitializeSolver(services, settings, solverId + "_" + i),
+				size);
+	}
+
+	/**
+	 * @param mainScript
+	 *            the script whose terms are checked by the pooled instances.
+	 * @param solverFactory
+	 *            builds the solver instance with the given number. The instance has to be initialized with the logic
+	 *            of the main script but must not contain any declarations.
+	 * @param size
+	 *            number of pooled instances and of worker threads.
+	 */
+	public ManagedScriptPool(final IUltimateServiceProvider services, final ManagedScript mainScript,
+			final IntFunction<Script> solverFactory, final int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("pool needs at least one solver instance");
+		}
+		mMainHistory = HistoryRecordingScript.extractHistoryRecordingScript(mainScript.getScript());
+		if (mMainHistory == null) {
+			throw new IllegalArgumentException("main script has no " + HistoryRecordingScript.class.getSimpleName());
+		}
+		mServices = services;
+		mLogger = services.getLoggingService().getLogger(ModelCheckerUtils.PLUGIN_ID);
+		mMainScript = mainScript;
+		mSolverFactory = solverFactory;
+		mSize = size;
+		mIdleInstances = new ArrayBlockingQueue<>(size);
+		for (int i = 0; i < size; i++) {
+			mIdleInstances.add(createInstance());
+		}
+		final AtomicInteger threadNumber = new AtomicInteger();
+		mExecutor = Executors.newFixedThreadPool(size, runnable -> {
+			final Thread thread = new Thread(runnable, solverId(threadNumber.getAndIncrement()));
+			thread.setDaemon(true);
+			return thread;
+		});
+		mLogger.info("Constructed pool of " + size + " solver instances");
+	}
+
+	private static String solverId(final int number) {
+		return ManagedScriptPool.class.getSimpleName() + "-worker-" + number;
+	}
+
+	private Instance createInstance() {
+		Script script = mSolverFactory.apply(mNextInstanceNumber.getAndIncrement());
+		if (HistoryRecordingScript.extractHistoryRecordingScript(script) == null) {
+			script = new HistoryRecordingScript(script);
+		}
+		return new Instance(new ManagedScript(mServices, script));
+	}
+
+	/**
+	 * Obtain exclusive access to one solver instance. Blocks until some instance is idle.
+	 */
+	public Lease acquire() throws InterruptedException {
+		checkNotClosed();
+		return new Lease(mIdleInstances.take());
+	}
+
+	/**
+	 * Obtain exclusive access to one solver instance if some instance is idle.
+	 *
+	 * @return a lease or null if all instances are in use.
+	 */
+	public Lease tryAcquire() {
+		checkNotClosed();
+		final Instance instance = mIdleInstances.poll();
+		return instance == null ? null : new Lease(instance);
+	}
+
+	/**
+	 * Run a computation on some solver instance. The computation is executed by a worker thread of this pool and gets
+	 * exclusive access to the instance until it returns. The computation must not use the main script except for
+	 * reading its terms.
+	 */
+	public <T> Future<T> submit(final Function<Lease, T> computation) {
+		checkNotClosed();
+		return mExecutor.submit(() -> {
+			try (final Lease lease = acquire()) {
+				return computation.apply(lease);
+			}
+		});
+	}
+
+	/**
+	 * Check the satisfiability of independent formulas in parallel. Each formula is checked in its own stack frame,
+	 * hence the results do not influence each other.
+	 *
+	 * @param formulas
+	 *            closed formulas of the main script.
+	 * @return one future per formula, in the order of the given formulas.
+	 */
+	public List<Future<LBool>> checkSat(final List<Term> formulas) {
+		final List<Future<LBool>> result = new ArrayList<>(formulas.size());
+		for (final Term formula : formulas) {
+			result.add(submit(lease -> lease.checkSat(formula)));
+		}
+		return result;
+	}
+
+	public int size() {
+		return mSize;
+	}
+
+	public ManagedScript getMainScript() {
+		return mMainScript;
+	}
+
+	private void checkNotClosed() {
+		if (mClosed) {
+			throw new IllegalStateException("pool already closed");
+		}
+	}
+
+	/**
+	 * Stop all worker threads and exit all idle solver instances. Instances that are still leased are exited when
+	 * their lease is closed.
+	 */
+	@Override
+	public void close() {
+		if (mClosed) {
+			return;
+		}
+		mClosed = true;
+		mExecutor.shutdownNow();
+		Instance instance;
+		while ((instance = mIdleInstances.poll()) != null) {
+			instance.exit();
+		}
+	}
+
+	/**
+	 * A pooled solver instance together with the part of the history of the main script that was replayed into it.
+	 */
+	private final class Instance {
+		private final ManagedScript mManagedScript;
+		private ISmtDeclarable[] mReplayed = new ISmtDeclarable[0];
+
+		private Instance(final ManagedScript managedScript) {
+			mManagedScript = managedScript;
+		}
+
+		private void exit() {
+			try {
+				mManagedScript.getScript().exit();
+			} catch (final RuntimeException ex) {
+				mLogger.warn("Exception while exiting pooled solver: " + ex.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Exclusive access to one solver instance of a {@link ManagedScriptPool}. The instance is locked by the lease,
+	 * i.e., the lease has to be used as lock owner for all operations on {@link #getManagedScript()}. Every push has to
+	 * be matched by a pop before the lease is closed.
+	 */
+	public final class Lease implements AutoCloseable {
+		private final Instance mInstance;
+		private boolean mReleased;
+
+		private Lease(final Instance instance) {
+			try {
+				instance.mReplayed = mMainHistory.replayHistory(instance.mManagedScript.getScript(), instance.mReplayed);
+			} catch (final RuntimeException ex) {
+				// the instance may have received only a part of the declarations
+				instance.exit();
+				mIdleInstances.add(createInstance());
+				throw ex;
+			}
+			mInstance = instance;
+			mInstance.mManagedScript.lock(this);
+			mInstance.mManagedScript.push(this, 1);
+		}
+
+		public ManagedScript getManagedScript() {
+			return mInstance.mManagedScript;
+		}
+
+		/**
+		 * Transfer a term of the main script to the leased instance. All symbols of the term have to be declared in
+		 * the main script when the lease was acquired.
+		 */
+		public Term transferToInstance(final Term term) {
+			return new NonDeclaringTermTransferrer(mInstance.mManagedScript.getScript()).transform(term);
+		}
+
+		/**
+		 * Transfer a term of the leased instance to the main script. Must only be called by the thread that owns the
+		 * main script.
+		 */
+		public Term transferToMain(final Term term) {
+			return new TermTransferrer(mInstance.mManagedScript.getScript(), mMainScript.getScript()).transform(term);
+		}
+
+		/**
+		 * Check the satisfiability of a closed formula of the main script in a new stack frame.
+		 */
+		public LBool checkSat(final Term formula) {
+			final ManagedScript instance = mInstance.mManagedScript;
+			final Term transferred = transferToInstance(formula);
+			instance.push(this, 1);
+			try {
+				instance.assertTerm(this, transferred);
+				return instance.checkSat(this);
+			} finally {
+				instance.pop(this, 1);
+			}
+		}
+
+		@Override
+		public void close() {
+			if (mReleased) {
+				return;
+			}
+			mReleased = true;
+			mInstance.mManagedScript.pop(this, 1);
+			mInstance.mManagedScript.unlock(this);
+			if (mClosed) {
+				mInstance.exit();
+			} else {
+				mIdleInstances.add(mInstance);
+			}
+		}
+	}
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE ModelCheckerUtils Library.
+ *
+ * The ULTIMATE ModelCheckerUtils Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE ModelCheckerUtils Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE ModelCheckerUtils Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE ModelCheckerUtils Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE ModelCheckerUtils Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.IHoareTripleChecker.Validity;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.ConstantFinder;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.ContainsQuantifier;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.MonolithicImplicationChecker;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.NonTheorySymbol;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.NonTheorySymbolFinder;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SmtUtils;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SubstitutionWithLocalSimplification;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.managedscript.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.logic.ApplicationTerm;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
+
+/**
+ * Answers implication checks between the formulas of a {@link PredicateUnifier} and caches information that allows
+ * to answer later checks without calling the SMT solver.
+ *
+ * For every formula we store
+ * <ul>
+ * <li>its conjuncts (and a 64-bit signature of the conjuncts as a pre-filter),
+ * <li>its free variables, if the formula is quantifier-free and contains no other non-theory symbols,
+ * <li>whether it is known to be satisfiable and whether it is known to be not valid,
+ * <li>its truth value in the counterexamples that the solver returned for previous checks.
+ * </ul>
+ * An implication A ==> B is
+ * <ul>
+ * <li>valid if every conjunct of B is a conjunct of A,
+ * <li>not valid if A is satisfiable, B is not valid, and A and B do not share a variable (in this case a model for A
+ * and a counterexample for B can be combined),
+ * <li>not valid if some previous counterexample satisfies A but not B.
+ * </ul>
+ * These rules are applied after the dataflow-based check of {@link MonolithicImplicationChecker} and before the
+ * solver. Counterexamples are only collected if the solver produces models and at most a fixed number of
+ * counterexamples is kept. Once all slots are filled, only every {@value #COUNTEREXAMPLE_REFRESH_INTERVAL}th
+ * invalid implication asks the solver for its counterexample, which then replaces the oldest one.
+ *
+ */
+public class PredicateImplicationIndex extends MonolithicImplicationChecker {
+
+	private static final int DEFAULT_MAX_COUNTEREXAMPLES = 32;
+	private static final int COUNTEREXAMPLE_REFRESH_INTERVAL = 8;
+
+	private static final byte EVAL_NONE = 0;
+	private static final byte EVAL_TRUE = 1;
+	private static final byte EVAL_FALSE = 2;
+	private static final byte EVAL_UNKNOWN = 3;
+
+	private final ManagedScript mMgdScript;
+	private final PredicateUnifierStatisticsGenerator mStatistics;
+	private final Map<Term, Signature> mSignatures = new HashMap<>();
+	private final boolean mCollectCounterexamples;
+	private final int mMaxCounterexamples;
+	private final List<Map<Term, Term>> mCounterexamples = new ArrayList<>();
+	/**
+	 * Generation of the counterexample in each slot; used to invalidate cached evaluations if a slot is reused.
+	 */
+	private final int[] mCounterexampleGenerations;
+	private int mNextSlot;
+	private int mGeneration;
+	/**
+	 * Number of invalid implications that the solver found since the last time we asked for a counterexample.
+	 */
+	private int mInvalidWithoutCounterexample;
+
+	public PredicateImplicationIndex(final IUltimateServiceProvider services, final ManagedScript mgdScript,
+			final PredicateUnifierStatisticsGenerator statistics) {
+		this(services, mgdScript, statistics, DEFAULT_MAX_COUNTEREXAMPLES);
+	}
+
+	public PredicateImplicationIndex(final IUltimateServiceProvider services, final ManagedScript mgdScript,
+			final PredicateUnifierStatisticsGenerator statistics, final int maxCounterexamples) {
+		super(services, mgdScript);
+		mMgdScript = mgdScript;
+		mStatistics = statistics;
+		mMaxCounterexamples = maxCounterexamples;
+		mCounterexampleGenerations = new int[Math.max(maxCounterexamples, 0)];
+		mCollectCounterexamples = maxCounterexamples > 0 && producesModels(mgdScript);
+	}
+
+	private static boolean producesModels(final ManagedScript mgdScript) {
+		try {
+			return Boolean.TRUE.equals(mgdScript.getScript().getOption(":produce-models"));
+		} catch (final SMTLIBException | UnsupportedOperationException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public Validity checkImplication(final Term antecedent, final Term antecedentClosedFormula,
+			final boolean affirmAntecedentNeitherValidNorUnsat, final Term succedent, final Term succedentClosedFormula,
+			final boolean affirmSuccedentNeitherValidNorUnsat) {
+		if (affirmAntecedentNeitherValidNorUnsat && affirmSuccedentNeitherValidNorUnsat) {
+			final Validity dataflowAnalysisResult = dataflowBasedImplicationCheck(antecedent, succedent);
+			if (dataflowAnalysisResult == Validity.INVALID) {
+				return dataflowAnalysisResult;
+			}
+		}
+		final Signature ante = getSignature(antecedent, antecedentClosedFormula);
+		final Signature succ = getSignature(succedent, succedentClosedFormula);
+		final Validity cheap = checkWithoutSolver(ante, succ);
+		if (cheap != null) {
+			learn(ante, succ, cheap);
+			return cheap;
+		}
+		final Validity result;
+		// the dataflow-based check was already done above
+		if (wantsCounterexample()) {
+			final Set<ApplicationTerm> constants = new HashSet<>(ante.mConstants);
+			constants.addAll(succ.mConstants);
+			final Map<Term, Term> counterexample = new HashMap<>();
+			result = super.checkImplication(antecedent, antecedentClosedFormula, false, succedent,
+					succedentClosedFormula, false, constants.toArray(new Term[constants.size()]), counterexample);
+			if (result == Validity.INVALID) {
+				mInvalidWithoutCounterexample = 0;
+				if (!counterexample.isEmpty()) {
+					addCounterexample(counterexample);
+				}
+			}
+		} else {
+			result = super.checkImplication(antecedent, antecedentClosedFormula, false, succedent,
+					succedentClosedFormula, false);
+			if (result == Validity.INVALID) {
+				mInvalidWithoutCounterexample++;
+			}
+		}
+		learn(ante, succ, result);
+		return result;
+	}
+
+	private boolean wantsCounterexample() {
+		if (!mCollectCounterexamples) {
+			return false;
+		}
+		return mCounterexamples.size() < mMaxCounterexamples
+				|| mInvalidWithoutCounterexample >= COUNTEREXAMPLE_REFRESH_INTERVAL - 1;
+	}
+
+	private Validity checkWithoutSolver(final Signature ante, final Signature succ) {
+		if ((succ.mConjunctBits & ~ante.mConjunctBits) == 0 && ante.mConjuncts.containsAll(succ.mConjunctList)) {
+			mStatistics.incrementImplicationChecksByConjuncts();
+			return Validity.VALID;
+		}
+		if (ante.mSatisfiable == Boolean.TRUE && succ.mValid == Boolean.FALSE && ante.mVariables != null
+				&& succ.mVariables != null && Collections.disjoint(ante.mVariables, succ.mVariables)) {
+			mStatistics.incrementImplicationChecksByIndependence();
+			return Validity.INVALID;
+		}
+		for (int slot = 0; slot < mCounterexamples.size(); slot++) {
+			if (evaluate(ante, slot) == EVAL_TRUE && evaluate(succ, slot) == EVAL_FALSE) {
+				mStatistics.incrementImplicationChecksByModels();
+				return Validity.INVALID;
+			}
+		}
+		return null;
+	}
+
+	private static void learn(final Signature ante, final Signature succ, final Validity result) {
+		if (result == Validity.INVALID) {
+			ante.mSatisfiable = Boolean.TRUE;
+			succ.mValid = Boolean.FALSE;
+		}
+	}
+
+	private void addCounterexample(final Map<Term, Term> counterexample) {
+		final int slot;
+		if (mCounterexamples.size() < mMaxCounterexamples) {
+			slot = mCounterexamples.size();
+			mCounterexamples.add(counterexample);
+		} else {
+			slot = mNextSlot;
+			mNextSlot = (mNextSlot + 1) % mMaxCounterexamples;
+			mCounterexamples.set(slot, counterexample);
+		}
+		mGeneration++;
+		mCounterexampleGenerations[slot] = mGeneration;
+	}
+
+	/**
+	 * Truth value of a formula in the counterexample stored in slot. Only a formula whose constants all have a value
+	 * in the counterexample and that simplifies to true or false has a truth value.
+	 */
+	private byte evaluate(final Signature signature, final int slot) {
+		if (signature.mEvaluatedGenerations[slot] == mCounterexampleGenerations[slot]
+				&& signature.mEvaluations[slot] != EVAL_NONE) {
+			return signature.mEvaluations[slot];
+		}
+		final Map<Term, Term> counterexample = mCounterexamples.get(slot);
+		byte value;
+		if (counterexample.keySet().containsAll(signature.mConstants)) {
+			final Map<Term, Term> substitution = new HashMap<>();
+			for (final ApplicationTerm constant : signature.mConstants) {
+				substitution.put(constant, counterexample.get(constant));
+			}
+			final Term evaluated =
+					new SubstitutionWithLocalSimplification(mMgdScript, substitution).transform(signature.mClosedFormula);
+			if (SmtUtils.isTrueLiteral(evaluated)) {
+				value = EVAL_TRUE;
+			} else if (SmtUtils.isFalseLiteral(evaluated)) {
+				value = EVAL_FALSE;
+			} else {
+				value = EVAL_UNKNOWN;
+			}
+		} else {
+			value = EVAL_UNKNOWN;
+		}
+		signature.mEvaluations[slot] = value;
+		signature.mEvaluatedGenerations[slot] = mCounterexampleGenerations[slot];
+		return value;
+	}
+
+	private Signature getSignature(final Term formula, final Term closedFormula) {
+		Signature signature = mSignatures.get(closedFormula);
+		if (signature == null) {
+			signature = new Signature(formula, closedFormula, mCounterexampleGenerations.length);
+			mSignatures.put(closedFormula, signature);
+		}
+		return signature;
+	}
+
+	/**
+	 * @return true iff all values of the sort are determined by SMT-LIB theories. Axioms of the program cannot
+	 *         constrain variables of such sorts.
+	 */
+	private static boolean isTheorySort(final Sort sort) {
+		final Sort realSort = sort.getRealSort();
+		if (!realSort.isInternal()) {
+			return false;
+		}
+		for (final Sort arg : realSort.getArguments()) {
+			if (!isTheorySort(arg)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Information about one formula.
+	 */
+	private static final class Signature {
+		private final Term mClosedFormula;
+		private final List<Term> mConjunctList;
+		private final Set<Term> mConjuncts;
+		private final long mConjunctBits;
+		/**
+		 * Free variables of the formula or null if the formula contains quantifiers, non-theory symbols other than
+		 * variables, or variables whose sort is not a theory sort.
+		 */
+		private final Set<TermVariable> mVariables;
+		private final Set<ApplicationTerm> mConstants;
+		private Boolean mSatisfiable;
+		private Boolean mValid;
+		private final byte[] mEvaluations;
+		private final int[] mEvaluatedGenerations;
+
+		Signature(final Term formula, final Term closedFormula, final int counterexampleSlots) {
+			mClosedFormula = closedFormula;
+			mConjunctList = Arrays.asList(SmtUtils.getConjuncts(formula));
+			mConjuncts = new HashSet<>(mConjunctList);
+			long bits = 0;
+			for (final Term conjunct : mConjunctList) {
+				bits |= 1L << (conjunct.hashCode() & 63);
+			}
+			mConjunctBits = bits;
+			mVariables = computeVariables(formula);
+			mConstants = new ConstantFinder().findConstants(closedFormula, true);
+			mEvaluations = new byte[counterexampleSlots];
+			mEvaluatedGenerations = new int[counterexampleSlots];
+			if (SmtUtils.isTrueLiteral(formula)) {
+				mSatisfiable = Boolean.TRUE;
+				mValid = Boolean.TRUE;
+			} else if (SmtUtils.isFalseLiteral(formula)) {
+				mSatisfiable = Boolean.FALSE;
+				mValid = Boolean.FALSE;
+			}
+		}
+
+		private static Set<TermVariable> computeVariables(final Term formula) {
+			if (new ContainsQuantifier().containsQuantifier(formula)) {
+				return null;
+			}
+			for (final NonTheorySymbol<?> symbol : new NonTheorySymbolFinder().findNonTheorySymbols(formula)) {
+				if (!(symbol instanceof NonTheorySymbol.Variable)) {
+					return null;
+				}
+			}
+			final Set<TermVariable> result = new HashSet<>(Arrays.asList(formula.getFreeVars()));
+			for (final TermVariable tv : result) {
+				if (!isTheorySort(tv.getSort())) {
+					return null;
+				}
+			}
+			return result;
+		}
+	}
+}
@@ -34,6 +34,8 @@ import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.RunningTaskInfo;
@@ -42,6 +44,7 @@ import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
 import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.IIcfgSymbolTable;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.variables.IProgramVar;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.IHoareTripleChecker;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.IHoareTripleChecker.Validity;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.CommuhashNormalForm;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.ContainsQuantifier;
@@ -52,6 +55,7 @@ import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SmtUtils.Xn
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.linearterms.PrenexNormalForm;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.linearterms.QuantifierSequence;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.managedscript.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.managedscript.ManagedScriptPool;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.PredicateUnifierStatisticsGenerator.PredicateUnifierStatisticsType;
 import de.uni_freiburg.informatik.ultimate.logic.AnnotatedTerm;
 import de.uni_freiburg.informatik.ultimate.logic.Annotation;
@@ -59,6 +63,7 @@ import de.uni_freiburg.informatik.ultimate.logic.CheckClosedTerm;
 import de.uni_freiburg.informatik.ultimate.logic.QuantifiedFormula;
 import de.uni_freiburg.informatik.ultimate.logic.QuotedObject;
 import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
 import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
 import de.uni_freiburg.informatik.ultimate.util.DebugMessage;
@@ -89,6 +94,7 @@ public class PredicateUnifier implements IPredicateUnifier {
 	protected final IUltimateServiceProvider mServices;
 	private final Script mScript;
 	private final MonolithicImplicationChecker mImplicationChecker;
+	private final ManagedScriptPool mImplicationCheckPool;
 	private final IIcfgSymbolTable mSymbolTable;
 	private final SimplificationTechnique mSimplificationTechnique;
 	private final XnfConversionTechnique mXnfConversionTechnique;
@@ -102,6 +108,41 @@ public class PredicateUnifier implements IPredicateUnifier {
 			final ManagedScript mgdScript, final BasicPredicateFactory predicateFactory,
 			final IIcfgSymbolTable symbolTable, final SimplificationTechnique simplificationTechnique,
 			final XnfConversionTechnique xnfConversionTechnique, final IPredicate... initialPredicates) {
+		this(logger, services, mgdScript, predicateFactory, symbolTable, simplificationTechnique,
+				xnfConversionTechnique, false, initialPredicates);
+	}
+
+	/**
+	 * @param useImplicationIndex
+	 *            if true, implication checks go through a {@link PredicateImplicationIndex} that answers some of them
+	 *            without the solver.
+	 */
+	public PredicateUnifier(final ILogger logger, final IUltimateServiceProvider services,
+			final ManagedScript mgdScript, final BasicPredicateFactory predicateFactory,
+			final IIcfgSymbolTable symbolTable, final SimplificationTechnique simplificationTechnique,
+			final XnfConversionTechnique xnfConversionTechnique, final boolean useImplicationIndex,
+			final IPredicate... initialPredicates) {
+		this(logger, services, mgdScript, predicateFactory, symbolTable, simplificationTechnique,
+				xnfConversionTechnique, useImplicationIndex, null, initialPredicates);
+	}
+
+	/**
+	 * @param useImplicationIndex
+	 *            if true, implication checks go through a {@link PredicateImplicationIndex} that answers some of them
+	 *            without the solver.
+	 * @param implicationCheckPool
+	 *            if not null, the implication checks between a new term and the known predicates are checked in
+	 *            parallel by the solver instances of this pool, whose main script has to be mgdScript.
+	 */
+	public PredicateUnifier(final ILogger logger, final IUltimateServiceProvider services,
+			final ManagedScript mgdScript, final BasicPredicateFactory predicateFactory,
+			final IIcfgSymbolTable symbolTable, final SimplificationTechnique simplificationTechnique,
+			final XnfConversionTechnique xnfConversionTechnique, final boolean useImplicationIndex,
+			final ManagedScriptPool implicationCheckPool, final IPredicate... initialPredicates) {
+		if (implicationCheckPool != null && implicationCheckPool.getMainScript() != mgdScript) {
+			throw new IllegalArgumentException("pool does not check terms of this script");
+		}
+		mImplicationCheckPool = implicationCheckPool;
 		mPredicateUnifierBenchmarkGenerator = new PredicateUnifierStatisticsGenerator();
 		mSimplificationTechnique = simplificationTechnique;
 		mXnfConversionTechnique = xnfConversionTechnique;
@@ -111,7 +152,12 @@ public class PredicateUnifier implements IPredicateUnifier {
 		mSymbolTable = symbolTable;
 		mServices = services;
 		mLogger = logger;
-		mImplicationChecker = new MonolithicImplicationChecker(mServices, mMgnScript);
+		if (useImplicationIndex) {
+			mImplicationChecker =
+					new PredicateImplicationIndex(mServices, mMgnScript, mPredicateUnifierBenchmarkGenerator);
+		} else {
+			mImplicationChecker = new MonolithicImplicationChecker(mServices, mMgnScript);
+		}
 		mTerm2Predicates = new HashMap<>();
 		final Term trueTerm = mScript.term("true");
 		IPredicate truePredicate = null;
@@ -746,6 +792,8 @@ public class PredicateUnifier implements IPredicateUnifier {
 		private final IPredicate mEquivalentLeqQuantifiedPredicate;
 		private IPredicate mEquivalentGtQuantifiedPredicate;
 		private boolean mIsIntricatePredicate;
+		private final Map<IPredicate, Future<LBool>> mPendingImplies = new HashMap<>();
+		private final Map<IPredicate, Future<LBool>> mPendingExplies = new HashMap<>();
 
 		/**
 		 * Compare a new term/vars with all known predicates of this PredicateUnifier. Information about predicates that
@@ -770,7 +818,11 @@ public class PredicateUnifier implements IPredicateUnifier {
 			mTermContainsQuantifiers = new ContainsQuantifier().containsQuantifier(term);
 
 			mScript.echo(new QuotedObject("begin unification"));
-			mEquivalentLeqQuantifiedPredicate = compare();
+			try {
+				mEquivalentLeqQuantifiedPredicate = compare();
+			} finally {
+				cancelPooledChecks();
+			}
 			mScript.echo(new QuotedObject("end unification"));
 		}
 
@@ -882,6 +934,9 @@ public class PredicateUnifier implements IPredicateUnifier {
 				return null;
 			}
 
+			if (mImplicationCheckPool != null) {
+				submitPooledChecks();
+			}
 			for (final IPredicate other : mKnownPredicates) {
 				if (other == mTruePredicate || other == mFalsePredicate) {
 					continue;
@@ -896,8 +951,13 @@ public class PredicateUnifier implements IPredicateUnifier {
 				final Term otherClosedTerm = other.getClosedFormula();
 				Validity implies = mImpliedPredicates.get(other);
 				if (implies == null) {
-					implies = mImplicationChecker.checkImplication(mTerm, mClosedTerm, false, other.getFormula(),
-							other.getClosedFormula(), false);
+					final Future<LBool> pooled = mPendingImplies.remove(other);
+					if (pooled == null) {
+						implies = mImplicationChecker.checkImplication(mTerm, mClosedTerm, false, other.getFormula(),
+								other.getClosedFormula(), false);
+					} else {
+						implies = getPooledResult(pooled);
+					}
 					if (implies == Validity.VALID) {
 						// if (this ==> other) and (other ==> impliedByOther) then
 						// we conclude (this ==> impliedByOther)
@@ -931,8 +991,13 @@ public class PredicateUnifier implements IPredicateUnifier {
 				}
 				Validity explies = mExpliedPredicates.get(other);
 				if (explies == null) {
-					explies = mImplicationChecker.checkImplication(other.getFormula(), other.getClosedFormula(), false,
-							mTerm, mClosedTerm, false);
+					final Future<LBool> pooled = mPendingExplies.remove(other);
+					if (pooled == null) {
+						explies = mImplicationChecker.checkImplication(other.getFormula(), other.getClosedFormula(),
+								false, mTerm, mClosedTerm, false);
+					} else {
+						explies = getPooledResult(pooled);
+					}
 					if (explies == Validity.VALID) {
 						// if (other ==> this) and (expliedByOther ==> other)
 						// we conclude (expliedByOther ==> this)
@@ -985,6 +1050,52 @@ public class PredicateUnifier implements IPredicateUnifier {
 			return null;
 		}
 
+		/**
+		 * Submit the implication checks against all known predicates to the pool. The checks are submitted before the
+		 * first result is needed, hence results obtained by transitivity do not save any check here, but all checks
+		 * run in parallel. Checks whose result is not needed any more are cancelled after the comparison.
+		 */
+		private void submitPooledChecks() {
+			for (final IPredicate other : mKnownPredicates) {
+				if (other == mTruePredicate || other == mFalsePredicate
+						|| PredicateUnifier.this.isIntricatePredicate(other)) {
+					continue;
+				}
+				final Term otherClosedTerm = other.getClosedFormula();
+				if (!mImpliedPredicates.containsKey(other)) {
+					final Term query = mScript.term("and", mClosedTerm, SmtUtils.not(mScript, otherClosedTerm));
+					mPendingImplies.put(other, mImplicationCheckPool.submit(lease -> lease.checkSat(query)));
+				}
+				if (!mExpliedPredicates.containsKey(other)) {
+					final Term query = mScript.term("and", otherClosedTerm, SmtUtils.not(mScript, mClosedTerm));
+					mPendingExplies.put(other, mImplicationCheckPool.submit(lease -> lease.checkSat(query)));
+				}
+			}
+		}
+
+		private Validity getPooledResult(final Future<LBool> pooled) {
+			try {
+				return IHoareTripleChecker.convertLBool2Validity(pooled.get());
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ToolchainCanceledException(this.getClass(),
+						"waiting for implication checks against " + mKnownPredicates.size() + " known predicates");
+			} catch (final ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new AssertionError(e.getCause());
+			}
+		}
+
+		private void cancelPooledChecks() {
+			// running checks are not interrupted, they return their instance to the pool when they are done
+			mPendingImplies.values().forEach(pooled -> pooled.cancel(false));
+			mPendingExplies.values().forEach(pooled -> pooled.cancel(false));
+			mPendingImplies.clear();
+			mPendingExplies.clear();
+		}
+
 		private void checkTimeout(final Term closedTerm) {
 			if (!mServices.getProgressMonitorService().continueProcessing()) {
 				final String quantifierInformation = generateQuantifierInformation(closedTerm);
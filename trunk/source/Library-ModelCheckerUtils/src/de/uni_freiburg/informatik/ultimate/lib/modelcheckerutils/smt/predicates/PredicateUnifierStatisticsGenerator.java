@@ -20,6 +20,9 @@ public final class PredicateUnifierStatisticsGenerator implements IStatisticsDat
 	private int mIntricatePredicates = 0;
 	private int mDeprecatedPredicatesCount = 0;
 	private int mImplicationChecksByTransitivity = 0;
+	private int mImplicationChecksByConjuncts = 0;
+	private int mImplicationChecksByIndependence = 0;
+	private int mImplicationChecksByModels = 0;
 	protected final Benchmark mBenchmark;
 
 	protected boolean mRunning = false;
@@ -61,6 +64,18 @@ public final class PredicateUnifierStatisticsGenerator implements IStatisticsDat
 		mImplicationChecksByTransitivity++;
 	}
 
+	public void incrementImplicationChecksByConjuncts() {
+		mImplicationChecksByConjuncts++;
+	}
+
+	public void incrementImplicationChecksByIndependence() {
+		mImplicationChecksByIndependence++;
+	}
+
+	public void incrementImplicationChecksByModels() {
+		mImplicationChecksByModels++;
+	}
+
 	public long getTime() {
 		return (long) mBenchmark.getElapsedTime(String.valueOf(PredicateUniferStatisticsDefinitions.Time),
 				TimeUnit.NANOSECONDS);
@@ -104,6 +119,12 @@ public final class PredicateUnifierStatisticsGenerator implements IStatisticsDat
 			return mDeprecatedPredicatesCount;
 		case ImplicationChecksByTransitivity:
 			return mImplicationChecksByTransitivity;
+		case ImplicationChecksByConjuncts:
+			return mImplicationChecksByConjuncts;
+		case ImplicationChecksByIndependence:
+			return mImplicationChecksByIndependence;
+		case ImplicationChecksByModels:
+			return mImplicationChecksByModels;
 		case Time:
 			return getTime();
 		default:
@@ -134,6 +155,12 @@ public final class PredicateUnifierStatisticsGenerator implements IStatisticsDat
 
 		ImplicationChecksByTransitivity(Integer.class, StatisticsType.INTEGER_ADDITION, StatisticsType.DATA_BEFORE_KEY),
 
+		ImplicationChecksByConjuncts(Integer.class, StatisticsType.INTEGER_ADDITION, StatisticsType.DATA_BEFORE_KEY),
+
+		ImplicationChecksByIndependence(Integer.class, StatisticsType.INTEGER_ADDITION, StatisticsType.DATA_BEFORE_KEY),
+
+		ImplicationChecksByModels(Integer.class, StatisticsType.INTEGER_ADDITION, StatisticsType.DATA_BEFORE_KEY),
+
 		Time(Integer.class, StatisticsType.LONG_ADDITION, StatisticsType.NANOS_BEFORE_KEY),;
 
 		private final Class<?> mClazz;
@@ -48,6 +48,9 @@ import de.uni_freiburg.informatik.ultimate.logic.WrapperScript;
  *
  * {@link ISmtDeclarable} can be used to initialize a new solver instance with the same functions, sorts and variables.
  *
+ * The history may be read by other threads while the thread that owns this script declares symbols, pushes, and
+ * pops. All accesses to the history are synchronized on this script; the calls to the underlying script are not.
+ *
  * @author Daniel Dietsch (dietsch@informatik.uni-freiburg.de)
  *
  */
@@ -80,8 +83,10 @@ public class HistoryRecordingScript extends WrapperScript {
 	@Override
 	public void reset() {
 		super.reset();
-		mHistory.clear();
-		mSymbolTable.clear();
+		synchronized (this) {
+			mHistory.clear();
+			mSymbolTable.clear();
+		}
 	}
 
 	@Override
@@ -106,10 +111,12 @@ public class HistoryRecordingScript extends WrapperScript {
 	public void push(final int levels) {
 		super.push(levels);
 		assert levels > 0;
-		for (int i = 0; i < levels; ++i) {
-			mHistory.push(StackMarker.INSTANCE);
+		synchronized (this) {
+			for (int i = 0; i < levels; ++i) {
+				mHistory.push(StackMarker.INSTANCE);
+			}
+			mCurrentStackLevel += levels;
 		}
-		mCurrentStackLevel += levels;
 	}
 
 	@Override
@@ -118,7 +125,7 @@ public class HistoryRecordingScript extends WrapperScript {
 		removeStackLevelsFromHistory(levels);
 	}
 
-	private void removeStackLevelsFromHistory(final int levels) {
+	private synchronized void removeStackLevelsFromHistory(final int levels) {
 		assert levels > 0;
 		final Iterator<ISmtDeclarable> iter = mHistory.iterator();
 		int markerCount = 0;
@@ -142,7 +149,7 @@ public class HistoryRecordingScript extends WrapperScript {
 		}
 	}
 
-	private void insert(final ISmtDeclarable declarable) {
+	private synchronized void insert(final ISmtDeclarable declarable) {
 		mHistory.push(declarable);
 		final ISmtDeclarable old = mSymbolTable.put(declarable.getName(), declarable);
 		assert old == null : "overwriting already existing symbol in history: " + old;
@@ -161,15 +168,69 @@ public class HistoryRecordingScript extends WrapperScript {
 	 *            {@link Script}.
 	 */
 	public void transferHistoryFromRecord(final Script script) {
-		final Iterator<ISmtDeclarable> iter = mHistory.descendingIterator();
-		while (iter.hasNext()) {
-			final ISmtDeclarable elem = iter.next();
-			if (elem instanceof StackMarker) {
+		replayHistory(script, new ISmtDeclarable[0]);
+	}
+
+	/**
+	 * Brings a script that received an earlier state of the history of this {@link Script} instance up to date. The
+	 * stack frames of the other script that contain declarations which were popped from this script since are popped,
+	 * and all declarations, definitions, and pushes that the other script is missing are redone.
+	 *
+	 * The history is copied while holding the monitor of this script, hence this method can be called by any thread
+	 * while the owner of this script continues to use it. The other script must not be changed by anyone else between
+	 * two calls.
+	 *
+	 * @param script
+	 *            The {@link Script} instance that receives the declarations.
+	 * @param replayed
+	 *            The result of the last call of this method for script, or an empty array if script has not received
+	 *            any declarations yet.
+	 * @return The history that script has now received, oldest entry first.
+	 * @throws IllegalSmtDeclarableUsageException
+	 *             if a declaration outside of all stack frames was removed from this script since the last call.
+	 */
+	public ISmtDeclarable[] replayHistory(final Script script, final ISmtDeclarable[] replayed) {
+		final ISmtDeclarable[] history = getHistorySnapshot();
+		int keep = 0;
+		while (keep < replayed.length && keep < history.length && replayed[keep] == history[keep]) {
+			keep++;
+		}
+		// All frames share one marker instance. If the first entry that differs is a declaration, the frame that
+		// contains it was popped and pushed again, and it has to be popped in script as well.
+		if (keep < replayed.length && replayed[keep] != StackMarker.INSTANCE) {
+			do {
+				keep--;
+			} while (keep >= 0 && replayed[keep] != StackMarker.INSTANCE);
+			if (keep < 0) {
+				throw new IllegalSmtDeclarableUsageException("Declarations outside of all stack frames were removed");
+			}
+		}
+		int levels = 0;
+		for (int i = keep; i < replayed.length; i++) {
+			if (replayed[i] == StackMarker.INSTANCE) {
+				levels++;
+			}
+		}
+		if (levels > 0) {
+			script.pop(levels);
+		}
+		for (int i = keep; i < history.length; i++) {
+			if (history[i] == StackMarker.INSTANCE) {
 				script.push(1);
-				continue;
+			} else {
+				history[i].defineOrDeclare(script);
 			}
-			elem.defineOrDeclare(script);
 		}
+		return history;
+	}
+
+	private synchronized ISmtDeclarable[] getHistorySnapshot() {
+		final ISmtDeclarable[] result = new ISmtDeclarable[mHistory.size()];
+		final Iterator<ISmtDeclarable> iter = mHistory.descendingIterator();
+		for (int i = 0; i < result.length; i++) {
+			result[i] = iter.next();
+		}
+		return result;
 	}
 
 	/**
@@ -224,7 +285,7 @@ public class HistoryRecordingScript extends WrapperScript {
 	}
 
 	@Override
-	public String toString() {
+	public synchronized String toString() {
 		return getClass().getSimpleName() + ": " + mHistory;
 	}
 
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE ModelCheckerUtilsTest Library.
+ *
+ * The ULTIMATE ModelCheckerUtilsTest Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE ModelCheckerUtilsTest Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE ModelCheckerUtilsTest Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE ModelCheckerUtilsTest Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE ModelCheckerUtilsTest Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.modelcheckerutils.hoaretriple;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.BasicInternalAction;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IAction;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.ICallAction;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IInternalAction;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IReturnAction;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.variables.IProgramVar;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.CachingHoareTripleChecker;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.HoareTripleCheckerStatisticsGenerator;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.IHoareTripleChecker;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.IHoareTripleChecker.Validity;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.SharedHoareTripleCache;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicate;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicateUnifier;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.NoopScript;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.NestedMap3;
+
+/**
+ * Tests for {@link SharedHoareTripleCache} and for the statistics that a {@link CachingHoareTripleChecker} reports
+ * about it.
+ */
+public class SharedHoareTripleCacheTest {
+
+	private IUltimateServiceProvider mServices;
+	private Term mXPositive;
+	private Term mXNegative;
+	private Term mXZero;
+	private IInternalAction mAction;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		final Script script = new NoopScript();
+		script.setLogic(Logics.QF_LIA);
+		script.declareFun("x", new Sort[0], script.sort("Int"));
+		final Term x = script.term("x");
+		mXPositive = script.term(">", x, script.numeral("0"));
+		mXNegative = script.term("<", x, script.numeral("0"));
+		mXZero = script.term("=", x, script.numeral("0"));
+		mAction = new BasicInternalAction("proc", "proc", null);
+	}
+
+	@Test
+	public void hitMissAndEviction() {
+		final SharedHoareTripleCache cache = new SharedHoareTripleCache(2, 1);
+		final IPredicate positive = new FakePredicate(mXPositive);
+		final IPredicate negative = new FakePredicate(mXNegative);
+		final IPredicate zero = new FakePredicate(mXZero);
+
+		Assert.assertNull(cache.getInternal(positive, mAction, negative));
+		Assert.assertFalse(cache.putInternal(positive, mAction, negative, Validity.INVALID));
+		Assert.assertFalse(cache.putInternal(negative, mAction, positive, Validity.VALID));
+		// the lookup makes (positive, negative) the most recently used entry
+		Assert.assertEquals(Validity.INVALID, cache.getInternal(positive, mAction, negative));
+		Assert.assertTrue(cache.putInternal(zero, mAction, zero, Validity.VALID));
+		Assert.assertEquals(2, cache.size());
+		Assert.assertNull("least recently used entry was not evicted", cache.getInternal(negative, mAction, positive));
+		Assert.assertEquals(Validity.INVALID, cache.getInternal(positive, mAction, negative));
+		Assert.assertEquals(Validity.VALID, cache.getInternal(zero, mAction, zero));
+	}
+
+	@Test
+	public void hitForEqualFormulasOfDifferentPredicates() {
+		final SharedHoareTripleCache cache = new SharedHoareTripleCache(10);
+		cache.putInternal(new FakePredicate(mXPositive), mAction, new FakePredicate(mXNegative), Validity.INVALID);
+		Assert.assertEquals(Validity.INVALID,
+				cache.getInternal(new FakePredicate(mXPositive), mAction, new FakePredicate(mXNegative)));
+		Assert.assertNull(cache.getInternal(new FakePredicate(mXNegative), mAction, new FakePredicate(mXPositive)));
+	}
+
+	@Test
+	public void unknownResultsAreNotStored() {
+		final SharedHoareTripleCache cache = new SharedHoareTripleCache(10);
+		cache.putInternal(new FakePredicate(mXPositive), mAction, new FakePredicate(mXZero), Validity.UNKNOWN);
+		Assert.assertNull(cache.getInternal(new FakePredicate(mXPositive), mAction, new FakePredicate(mXZero)));
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void checkerStatisticsCountHitsMissesAndEvictions() {
+		final SharedHoareTripleCache cache = new SharedHoareTripleCache(1, 1);
+		final CountingHoareTripleChecker solver = new CountingHoareTripleChecker(Validity.VALID);
+
+		// first iteration: both triples are computed, the second one evicts the first one
+		final CachingHoareTripleChecker first = createCachingChecker(solver, cache);
+		first.checkInternal(new FakePredicate(mXPositive), mAction, new FakePredicate(mXZero));
+		first.checkInternal(new FakePredicate(mXNegative), mAction, new FakePredicate(mXZero));
+		Assert.assertEquals(2, solver.mCalls);
+		final HoareTripleCheckerStatisticsGenerator firstStatistics = first.getEdgeCheckerBenchmark();
+		Assert.assertEquals(0, firstStatistics.getSharedCacheHits().getInternal());
+		Assert.assertEquals(2, firstStatistics.getSharedCacheMisses().getInternal());
+		Assert.assertEquals(1, firstStatistics.getSharedCacheEvictions());
+
+		// second iteration: new predicates with the same formulas, only the evicted triple is computed again
+		final CountingHoareTripleChecker secondSolver = new CountingHoareTripleChecker(Validity.VALID);
+		final CachingHoareTripleChecker second = createCachingChecker(secondSolver, cache);
+		Assert.assertEquals(Validity.VALID,
+				second.checkInternal(new FakePredicate(mXNegative), mAction, new FakePredicate(mXZero)));
+		Assert.assertEquals(0, secondSolver.mCalls);
+		Assert.assertEquals(Validity.VALID,
+				second.checkInternal(new FakePredicate(mXPositive), mAction, new FakePredicate(mXZero)));
+		Assert.assertEquals(1, secondSolver.mCalls);
+		final HoareTripleCheckerStatisticsGenerator secondStatistics = second.getEdgeCheckerBenchmark();
+		Assert.assertEquals(1, secondStatistics.getSharedCacheHits().getInternal());
+		Assert.assertEquals(1, secondStatistics.getSharedCacheMisses().getInternal());
+		Assert.assertEquals(1, secondStatistics.getSharedCacheEvictions());
+	}
+
+	private CachingHoareTripleChecker createCachingChecker(final IHoareTripleChecker solver,
+			final SharedHoareTripleCache cache) {
+		// the predicate unifier is only used by extendedBinaryCacheCheck, which this checker does not do
+		final IPredicateUnifier unifier = (IPredicateUnifier) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { IPredicateUnifier.class }, (proxy, method, args) -> {
+					throw new UnsupportedOperationException(method.getName());
+				});
+		return new CachingHoareTripleChecker(mServices, solver, unifier, new NestedMap3<>(), new NestedMap3<>(),
+				new HashMap<>(), cache) {
+			@Override
+			protected Validity extendedBinaryCacheCheck(final IPredicate pre, final IAction act,
+					final IPredicate succ, final NestedMap3<IAction, IPredicate, IPredicate, Validity> binaryCache) {
+				return null;
+			}
+		};
+	}
+
+	/**
+	 * Returns a fixed result and counts how often it is asked.
+	 */
+	private static final class CountingHoareTripleChecker implements IHoareTripleChecker {
+		private final Validity mResult;
+		private final HoareTripleCheckerStatisticsGenerator mStatistics = new HoareTripleCheckerStatisticsGenerator();
+		private int mCalls;
+
+		private CountingHoareTripleChecker(final Validity result) {
+			mResult = result;
+		}
+
+		@Override
+		public Validity checkInternal(final IPredicate pre, final IInternalAction act, final IPredicate succ) {
+			mCalls++;
+			return mResult;
+		}
+
+		@Override
+		public Validity checkCall(final IPredicate pre, final ICallAction act, final IPredicate succ) {
+			mCalls++;
+			return mResult;
+		}
+
+		@Override
+		public Validity checkReturn(final IPredicate preLin, final IPredicate preHier, final IReturnAction act,
+				final IPredicate succ) {
+			mCalls++;
+			return mResult;
+		}
+
+		@Override
+		public HoareTripleCheckerStatisticsGenerator getEdgeCheckerBenchmark() {
+			return mStatistics;
+		}
+
+		@Override
+		public void releaseLock() {
+			// does not hold a lock
+		}
+	}
+
+	private static final class FakePredicate implements IPredicate {
+		private final Term mFormula;
+
+		private FakePredicate(final Term formula) {
+			mFormula = formula;
+		}
+
+		@Override
+		public String[] getProcedures() {
+			return new String[0];
+		}
+
+		@Override
+		public Set<IProgramVar> getVars() {
+			return Collections.emptySet();
+		}
+
+		@Override
+		public Term getFormula() {
+			return mFormula;
+		}
+
+		@Override
+		public Term getClosedFormula() {
+			return mFormula;
+		}
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE ModelCheckerUtilsTest Library.
+ *
+ * The ULTIMATE ModelCheckerUtilsTest Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE ModelCheckerUtilsTest Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE ModelCheckerUtilsTest Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE ModelCheckerUtilsTest Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE ModelCheckerUtilsTest Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.managedscript;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.managedscript.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.managedscript.ManagedScriptPool;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.managedscript.ManagedScriptPool.Lease;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.scripttransfer.HistoryRecordingScript;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+import de.uni_freiburg.informatik.ultimate.smtsolver.external.SmtInterpolLogProxyWrapper;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Checks that the instances of a {@link ManagedScriptPool} answer queries like the main script while the main script
+ * declares and pops symbols between the queries, and while several threads submit queries at the same time.
+ */
+public class ManagedScriptPoolTest {
+
+	private static final int POOL_SIZE = 3;
+	private static final int NUM_VARS = 5;
+	private static final int NUM_QUERIES = 40;
+	private static final int NUM_ROUNDS = 6;
+	private static final int NUM_CLIENTS = 3;
+
+	private IUltimateServiceProvider mServices;
+	private ILogger mLogger;
+	private Script mScript;
+	private ManagedScript mMgdScript;
+	private ManagedScriptPool mPool;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		mLogger = mServices.getLoggingService().getLogger(getClass());
+		mScript = new HistoryRecordingScript(createSolver());
+		mMgdScript = new ManagedScript(mServices, mScript);
+		mPool = new ManagedScriptPool(mServices, mMgdScript, i -> createSolver(), POOL_SIZE);
+	}
+
+	@After
+	public void tearDown() {
+		mPool.close();
+		mScript.exit();
+	}
+
+	private Script createSolver() {
+		final Script solver = new SMTInterpol(new SmtInterpolLogProxyWrapper(mLogger));
+		solver.setLogic(Logics.QF_LIA);
+		return solver;
+	}
+
+	/**
+	 * In every round, declare variables with the same names in a new stack frame of the main script, check random
+	 * queries over them on several client threads, and pop the frame again. The variables change their sort in every
+	 * round, hence an instance that still has the declarations of an earlier round cannot build the queries.
+	 */
+	@Test
+	public void batchesAgreeWithMainScript() throws InterruptedException, ExecutionException {
+		final Random random = new Random(4711);
+		mScript.declareFun("g", new Sort[0], mScript.sort("Int"));
+		for (int round = 0; round < NUM_ROUNDS; round++) {
+			mScript.push(1);
+			final boolean useInts = round % 2 == 0;
+			for (int i = 0; i < NUM_VARS; i++) {
+				mScript.declareFun("v" + i, new Sort[0], mScript.sort(useInts ? "Int" : "Bool"));
+			}
+			final List<Term> queries = new ArrayList<>();
+			for (int i = 0; i < NUM_QUERIES; i++) {
+				queries.add(useInts ? randomArithmeticQuery(random) : randomBooleanQuery(random));
+			}
+			final List<Future<LBool>> results = checkSatOnClients(queries);
+			for (int i = 0; i < queries.size(); i++) {
+				mScript.push(1);
+				mScript.assertTerm(queries.get(i));
+				final LBool expected = mScript.checkSat();
+				mScript.pop(1);
+				Assert.assertEquals("different result for " + queries.get(i), expected, results.get(i).get());
+			}
+			mScript.pop(1);
+		}
+	}
+
+	/**
+	 * Split the queries among several threads that submit them to the pool at the same time.
+	 */
+	private List<Future<LBool>> checkSatOnClients(final List<Term> queries) throws InterruptedException {
+		final List<List<Future<LBool>>> resultsPerClient = new ArrayList<>();
+		final List<Thread> clients = new ArrayList<>();
+		for (int c = 0; c < NUM_CLIENTS; c++) {
+			final List<Term> share = new ArrayList<>();
+			for (int i = c; i < queries.size(); i += NUM_CLIENTS) {
+				share.add(queries.get(i));
+			}
+			final List<Future<LBool>> results = new ArrayList<>();
+			resultsPerClient.add(results);
+			final Thread client = new Thread(() -> results.addAll(mPool.checkSat(share)));
+			clients.add(client);
+			client.start();
+		}
+		for (final Thread client : clients) {
+			client.join();
+		}
+		final List<Future<LBool>> result = new ArrayList<>();
+		for (int i = 0; i < queries.size(); i++) {
+			result.add(resultsPerClient.get(i % NUM_CLIENTS).get(i / NUM_CLIENTS));
+		}
+		return result;
+	}
+
+	private Term randomArithmeticQuery(final Random random) {
+		final Term[] conjuncts = new Term[3];
+		for (int i = 0; i < conjuncts.length; i++) {
+			final Term sum = mScript.term("+", randomMonomial(random), randomMonomial(random),
+					mScript.term("g"));
+			conjuncts[i] = mScript.term(random.nextBoolean() ? "<=" : "=", sum,
+					mScript.numeral(String.valueOf(random.nextInt(7) - 3)));
+		}
+		return mScript.term("and", mScript.term("=", mScript.term("g"), mScript.numeral("1")),
+				mScript.term("and", conjuncts));
+	}
+
+	private Term randomMonomial(final Random random) {
+		return mScript.term("*", mScript.numeral(String.valueOf(random.nextInt(5) - 2)),
+				mScript.term("v" + random.nextInt(NUM_VARS)));
+	}
+
+	private Term randomBooleanQuery(final Random random) {
+		final Term[] clauses = new Term[8];
+		for (int i = 0; i < clauses.length; i++) {
+			final Term[] lits = new Term[2];
+			for (int j = 0; j < lits.length; j++) {
+				final Term var = mScript.term("v" + random.nextInt(NUM_VARS));
+				lits[j] = random.nextBoolean() ? var : mScript.term("not", var);
+			}
+			clauses[i] = mScript.term("or", lits);
+		}
+		return mScript.term("and", clauses);
+	}
+
+	@Test
+	public void leasesAreExclusive() throws InterruptedException {
+		final List<Lease> leases = new ArrayList<>();
+		for (int i = 0; i < POOL_SIZE; i++) {
+			leases.add(mPool.acquire());
+		}
+		Assert.assertNull(mPool.tryAcquire());
+		leases.get(0).close();
+		try (final Lease lease = mPool.tryAcquire()) {
+			Assert.assertNotNull(lease);
+			Assert.assertEquals(LBool.UNSAT, lease.checkSat(mScript.term("false")));
+		}
+		for (final Lease lease : leases) {
+			lease.close();
+		}
+	}
+
+	/**
+	 * A symbol that a lease declares in its instance can be transferred back, and is gone when the next lease gets
+	 * the same instance.
+	 */
+	@Test
+	public void leaseFrameIsPopped() throws InterruptedException {
+		final Term x;
+		try (final Lease lease = mPool.acquire()) {
+			final ManagedScript instance = lease.getManagedScript();
+			instance.declareFun(lease, "x", new Sort[0], instance.getScript().sort("Int"));
+			x = lease.transferToMain(instance.term(lease, "x"));
+		}
+		Assert.assertEquals(mScript.sort("Int"), x.getSort());
+		// x is declared in the main script now, hence it is replayed into all instances
+		final List<Term> queries = new ArrayList<>();
+		for (int i = 0; i < 2 * POOL_SIZE; i++) {
+			queries.add(mScript.term("=", x, mScript.numeral(String.valueOf(i))));
+		}
+		for (final Future<LBool> result : mPool.checkSat(queries)) {
+			try {
+				Assert.assertEquals(LBool.SAT, result.get());
+			} catch (final ExecutionException e) {
+				throw new AssertionError(e.getCause());
+			}
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE ModelCheckerUtilsTest Library.
+ *
+ * The ULTIMATE ModelCheckerUtilsTest Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE ModelCheckerUtilsTest Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE ModelCheckerUtilsTest Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE ModelCheckerUtilsTest Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE ModelCheckerUtilsTest Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger.LogLevel;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.DefaultIcfgSymbolTable;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.variables.IProgramNonOldVar;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SmtUtils.SimplificationTechnique;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SmtUtils.XnfConversionTechnique;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.managedscript.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.BasicPredicateFactory;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicate;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.PredicateImplicationIndex;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.PredicateUnifier;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.PredicateUnifierStatisticsGenerator.PredicateUniferStatisticsDefinitions;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.biesenb.TestPredicateFactory;
+import de.uni_freiburg.informatik.ultimate.smtsolver.external.Scriptor;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Checks that a {@link PredicateUnifier} that uses a {@link PredicateImplicationIndex} unifies terms to the same
+ * predicates and computes the same coverage relation as a {@link PredicateUnifier} that asks the solver for every
+ * implication.
+ */
+public class PredicateImplicationIndexTest {
+
+	private IUltimateServiceProvider mServices;
+	private Script mScript;
+	private ManagedScript mMgdScript;
+	private ILogger mLogger;
+	private DefaultIcfgSymbolTable mTable;
+	private BasicPredicateFactory mBasicFactory;
+	private IProgramNonOldVar mA;
+	private IProgramNonOldVar mB;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock(LogLevel.INFO);
+		mLogger = mServices.getLoggingService().getLogger(getClass());
+		try {
+			mScript = new Scriptor("z3 SMTLIB2_COMPLIANT=true -memory:2024 -smt2 -in", mLogger, mServices, "z3");
+		} catch (final IOException e) {
+			throw new AssertionError(e);
+		}
+		mMgdScript = new ManagedScript(mServices, mScript);
+		// counterexamples of the index are only collected if the solver produces models
+		mScript.setOption(":produce-models", true);
+		mScript.setLogic(Logics.ALL);
+		final TestPredicateFactory factory = new TestPredicateFactory(mMgdScript);
+		mTable = new DefaultIcfgSymbolTable();
+		mA = factory.constructProgramVar("a");
+		mB = factory.constructProgramVar("b");
+		mTable.add(mA);
+		mTable.add(mB);
+		mBasicFactory = new BasicPredicateFactory(mServices, mMgdScript, mTable);
+	}
+
+	@After
+	public void tearDown() {
+		mScript.exit();
+	}
+
+	@Test
+	public void sameRepresentativesAndCoverageWithAndWithoutIndex() {
+		final List<Term> terms = constructTerms();
+		final PredicateUnifier plain = constructUnifier(false);
+		final PredicateUnifier indexed = constructUnifier(true);
+
+		final List<IPredicate> plainPredicates = new ArrayList<>();
+		final List<IPredicate> indexedPredicates = new ArrayList<>();
+		for (final Term term : terms) {
+			plainPredicates.add(plain.getOrConstructPredicate(term));
+			indexedPredicates.add(indexed.getOrConstructPredicate(term));
+		}
+
+		for (int i = 0; i < terms.size(); i++) {
+			Assert.assertEquals("different representative for " + terms.get(i),
+					plainPredicates.get(i).getFormula(), indexedPredicates.get(i).getFormula());
+			for (int j = 0; j < terms.size(); j++) {
+				Assert.assertEquals("different coverage for " + terms.get(i) + " and " + terms.get(j),
+						plain.getCoverageRelation().isCovered(plainPredicates.get(i), plainPredicates.get(j)),
+						indexed.getCoverageRelation().isCovered(indexedPredicates.get(i), indexedPredicates.get(j)));
+			}
+		}
+		Assert.assertEquals(0, countChecksAnsweredByIndex(plain));
+		Assert.assertTrue("index did not answer any implication check", countChecksAnsweredByIndex(indexed) > 0);
+	}
+
+	private List<Term> constructTerms() {
+		final Term a = mA.getTermVariable();
+		final Term b = mB.getTermVariable();
+		final Term aIsZero = mScript.term("=", a, mScript.numeral("0"));
+		final Term aIsOne = mScript.term("=", a, mScript.numeral("1"));
+		final Term aPositive = mScript.term(">", a, mScript.numeral("0"));
+		final Term bIsZero = mScript.term("=", b, mScript.numeral("0"));
+		final Term bPositive = mScript.term(">", b, mScript.numeral("0"));
+		final List<Term> terms = new ArrayList<>();
+		terms.add(aIsZero);
+		terms.add(aIsOne);
+		terms.add(aPositive);
+		// equivalent to aPositive over the integers
+		terms.add(mScript.term(">=", a, mScript.numeral("1")));
+		terms.add(bIsZero);
+		terms.add(bPositive);
+		terms.add(mScript.term("and", aIsZero, bIsZero));
+		terms.add(mScript.term("and", aPositive, bPositive));
+		terms.add(mScript.term("and", aIsOne, bPositive));
+		terms.add(mScript.term("or", aIsZero, aIsOne));
+		terms.add(mScript.term("or", aIsZero, bIsZero));
+		terms.add(mScript.term(">", mScript.term("+", a, b), mScript.numeral("1")));
+		terms.add(mScript.term("and", aIsZero, aIsOne));
+		return terms;
+	}
+
+	private PredicateUnifier constructUnifier(final boolean useImplicationIndex) {
+		return new PredicateUnifier(mLogger, mServices, mMgdScript, mBasicFactory, mTable,
+				SimplificationTechnique.SIMPLIFY_DDA, XnfConversionTechnique.BOTTOM_UP_WITH_LOCAL_SIMPLIFICATION,
+				useImplicationIndex);
+	}
+
+	private static int countChecksAnsweredByIndex(final PredicateUnifier unifier) {
+		int result = 0;
+		for (final PredicateUniferStatisticsDefinitions key : new PredicateUniferStatisticsDefinitions[] {
+				PredicateUniferStatisticsDefinitions.ImplicationChecksByConjuncts,
+				PredicateUniferStatisticsDefinitions.ImplicationChecksByIndependence,
+				PredicateUniferStatisticsDefinitions.ImplicationChecksByModels }) {
+			result += (Integer) unifier.getPredicateUnifierBenchmark().getValue(key.name());
+		}
+		return result;
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE PDR library .
+ *
+ * The ULTIMATE IcfgTransformer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE IcfgTransformer is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE PDR library . If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE PDR library , or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE PDR library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.lib.pdr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.CfgSmtToolkit;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SmtSortUtils;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SolverBuilder;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SolverBuilder.SolverSettings;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.managedscript.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicate;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.scripttransfer.TermTransferrer;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.Pair;
+
+/**
+ * An incremental solver context for the frames of {@link Pdr}.
+ * <p>
+ * Each frame is asserted only once, guarded by a fresh Boolean activation literal. A frame that was obtained by
+ * strengthening another frame with the negation of a blocked predicate is asserted as the implication to the
+ * activation literal of the weaker frame together with the negated blocked predicate, such that frames are never
+ * re-asserted. Queries are answered by check-sat-assuming on the activation literal of the frame. The conjuncts of
+ * the query are guarded by activation literals as well, such that the unsatisfiable assumptions of an unsatisfiable
+ * query can be used to generalize the query.
+ * <p>
+ * The solver is separate from the script of {@link Pdr} because the activation literals are kept on the assertion
+ * stack during the whole run of {@link Pdr}. It is built from the solver settings of the trace check and uses the
+ * logic of the script of {@link Pdr}, from which the terms are transferred.
+ */
+final class IncrementalFrameSolver {
+	private static final String FRAME_LITERAL_PREFIX = "pdr_frame_";
+	private static final String CONJUNCT_LITERAL_PREFIX = "pdr_conjunct_";
+
+	private final Script mScript;
+	private final TermTransferrer mTransferrer;
+	private final Map<IPredicate, Term> mFrameLiterals;
+	private final Map<IPredicate, Pair<IPredicate, IPredicate>> mStrengthenings;
+	private final Set<Integer> mUnsatConjuncts;
+	private int mNumberOfQueries;
+	private int mNumberOfFrameLiterals;
+
+	/**
+	 * @throws SMTLIBException
+	 *             if the solver does not support the logic or unsat assumptions
+	 */
+	IncrementalFrameSolver(final IUltimateServiceProvider services, final SolverSettings solverSettings,
+			final Logics logic, final ManagedScript sourceScript, final CfgSmtToolkit csToolkit) {
+		mScript = SolverBuilder.buildScript(services, solverSettings);
+		try {
+			// options for unsat assumptions cannot be changed after the logic was set
+			mScript.setOption(":produce-unsat-assumptions", true);
+			mScript.setLogic(logic);
+			csToolkit.getSmtFunctionsAndAxioms().transferAllSymbols(mScript);
+		} catch (final SMTLIBException | UnsupportedOperationException e) {
+			mScript.exit();
+			throw e;
+		}
+		mTransferrer = new TermTransferrer(sourceScript.getScript(), mScript);
+		mFrameLiterals = new HashMap<>();
+		mStrengthenings = new HashMap<>();
+		mUnsatConjuncts = new HashSet<>();
+		mNumberOfQueries = 0;
+		mNumberOfFrameLiterals = 0;
+	}
+
+	/**
+	 * Record that newFrame is the conjunction of oldFrame and the negation of blocked. The frame is asserted lazily,
+	 * i.e., when it occurs in a query for the first time.
+	 */
+	void addStrengthening(final IPredicate oldFrame, final IPredicate blocked, final IPredicate newFrame) {
+		if (oldFrame == newFrame || mFrameLiterals.containsKey(newFrame)) {
+			return;
+		}
+		mStrengthenings.putIfAbsent(newFrame, new Pair<>(oldFrame, blocked));
+	}
+
+	/**
+	 * Check the satisfiability of frame /\ context /\ conjuncts, where context and conjuncts are closed terms of the
+	 * script of {@link Pdr}. If the result is UNSAT, {@link #getUnsatConjuncts()} provides the indices of the conjuncts
+	 * that were needed for unsatisfiability.
+	 */
+	LBool checkSat(final IPredicate frame, final Term context, final List<Term> conjuncts) {
+		mUnsatConjuncts.clear();
+		mNumberOfQueries++;
+		// transfer before the push, otherwise declarations made by the transferrer would be popped
+		final Term frameLiteral = getFrameLiteral(frame);
+		final Term transferredContext = mTransferrer.transform(context);
+		final List<Term> transferredConjuncts = new ArrayList<>(conjuncts.size());
+		for (final Term conjunct : conjuncts) {
+			transferredConjuncts.add(mTransferrer.transform(conjunct));
+		}
+
+		mScript.push(1);
+		try {
+			mScript.assertTerm(transferredContext);
+			final Term[] assumptions = new Term[transferredConjuncts.size() + 1];
+			final Map<Term, Integer> literal2index = new HashMap<>();
+			assumptions[0] = frameLiteral;
+			for (int i = 0; i < transferredConjuncts.size(); i++) {
+				final Term literal = declareLiteral(CONJUNCT_LITERAL_PREFIX + i);
+				mScript.assertTerm(mScript.term("=>", literal, transferredConjuncts.get(i)));
+				assumptions[i + 1] = literal;
+				literal2index.put(literal, i);
+			}
+			final LBool result = mScript.checkSatAssuming(assumptions);
+			if (result == LBool.UNSAT) {
+				for (final Term literal : mScript.getUnsatAssumptions()) {
+					final Integer index = literal2index.get(literal);
+					if (index != null) {
+						mUnsatConjuncts.add(index);
+					}
+				}
+			}
+			return result;
+		} finally {
+			mScript.pop(1);
+		}
+	}
+
+	/**
+	 * @return The indices of the conjuncts that occur in the unsatisfiable assumptions of the last query.
+	 */
+	Set<Integer> getUnsatConjuncts() {
+		return Collections.unmodifiableSet(mUnsatConjuncts);
+	}
+
+	int getNumberOfQueries() {
+		return mNumberOfQueries;
+	}
+
+	int getNumberOfFrameLiterals() {
+		return mNumberOfFrameLiterals;
+	}
+
+	void close() {
+		mScript.exit();
+	}
+
+	private Term getFrameLiteral(final IPredicate frame) {
+		final Term existing = mFrameLiterals.get(frame);
+		if (existing != null) {
+			return existing;
+		}
+		final Term literal = declareLiteral(FRAME_LITERAL_PREFIX + mNumberOfFrameLiterals);
+		mNumberOfFrameLiterals++;
+		final Pair<IPredicate, IPredicate> strengthening = mStrengthenings.remove(frame);
+		if (strengthening == null) {
+			mScript.assertTerm(mScript.term("=>", literal, mTransferrer.transform(frame.getClosedFormula())));
+		} else {
+			final Term weakerLiteral = getFrameLiteral(strengthening.getFirst());
+			final Term blocked = mTransferrer.transform(strengthening.getSecond().getClosedFormula());
+			mScript.assertTerm(mScript.term("=>", literal, weakerLiteral));
+			mScript.assertTerm(mScript.term("=>", literal, mScript.term("not", blocked)));
+		}
+		mFrameLiterals.put(frame, literal);
+		return literal;
+	}
+
+	private Term declareLiteral(final String name) {
+		mScript.declareFun(name, new Sort[0], SmtSortUtils.getBoolSort(mScript));
+		return mScript.term(name);
+	}
+}
@@ -171,9 +171,16 @@ public class Pdr<LETTER extends IIcfgTransition<?>> implements IInterpolatingTra
 	private int mInvarSpot;
 	private final int mLevel;
 	private final IPredicateUnifier mExternalPredicateUnifier;
+	private IncrementalFrameSolver mFrameSolver;
 
+	/**
+	 * @param frameSolverSettings
+	 *            settings of a separate solver in which the frames are checked incrementally (see
+	 *            {@link IncrementalFrameSolver}), or null if each query should be checked separately
+	 */
 	public Pdr(final ILogger logger, final ITraceCheckPreferences prefs, final IPredicateUnifier predicateUnifier,
-			final IPredicate precondition, final IPredicate postcondition, final List<LETTER> counterexample) {
+			final IPredicate precondition, final IPredicate postcondition, final List<LETTER> counterexample,
+			final SolverSettings frameSolverSettings) {
 		// from params
 		mLogger = logger;
 		mTrace = counterexample;
@@ -226,6 +233,7 @@ public class Pdr<LETTER extends IIcfgTransition<?>> implements IInterpolatingTra
 
 		try {
 			mPdrBenchmark.start(PdrStatisticsDefinitions.PDR_RUNTIME);
+			mFrameSolver = createFrameSolver(frameSolverSettings);
 			mIsTraceCorrect = pdrPreprocessing(mPpIcfg);
 			mLogger.info("Finished analyzing path program with PDR");
 			mTraceCheckFinishedNormally = true;
@@ -241,6 +249,29 @@ public class Pdr<LETTER extends IIcfgTransition<?>> implements IInterpolatingTra
 			mReasonUnknown = TraceCheckReasonUnknown.constructReasonUnknown(e);
 		} finally {
 			mPdrBenchmark.stop(PdrStatisticsDefinitions.PDR_RUNTIME);
+			if (mFrameSolver != null) {
+				mLogger.info("Incremental frame solver answered %s queries using %s frame literals",
+						mFrameSolver.getNumberOfQueries(), mFrameSolver.getNumberOfFrameLiterals());
+				mFrameSolver.close();
+			}
+		}
+	}
+
+	/**
+	 * @return a solver that checks the frames incrementally, or null if there are no settings for it or the solver does
+	 *         not support the logic of the program. Then each query is checked separately.
+	 */
+	private IncrementalFrameSolver createFrameSolver(final SolverSettings solverSettings) {
+		if (solverSettings == null) {
+			return null;
+		}
+		final Logics logic = mTruePred.getFormula().getTheory().getLogic();
+		try {
+			return new IncrementalFrameSolver(mServices, solverSettings, logic, mScript, mCsToolkit);
+		} catch (final SMTLIBException | UnsupportedOperationException e) {
+			mLogger.warn("Cannot check frames incrementally in logic %s, checking each query separately: %s", logic,
+					e.getMessage());
+			return null;
 		}
 	}
 
@@ -479,8 +510,13 @@ public class Pdr<LETTER extends IIcfgTransition<?>> implements IInterpolatingTra
 					// final LBool res = PredicateUtils.isInductiveHelper(mScript.getScript(), predecessorFrame,
 					// not(toBeBlocked), normalizedTf, modifiableGlobals, modifiableGlobals);
 
-					final LBool res = PredicateUtils.isInductiveHelper(mScript.getScript(), predecessorFrame,
-							not(toBeBlocked), predTF, modifiableGlobals, modifiableGlobals);
+					final LBool res;
+					if (mFrameSolver != null) {
+						res = checkIncrementally(predecessorFrame, predTF, toBeBlocked, modifiableGlobals);
+					} else {
+						res = PredicateUtils.isInductiveHelper(mScript.getScript(), predecessorFrame,
+								not(toBeBlocked), predTF, modifiableGlobals, modifiableGlobals);
+					}
 
 					if (mLogger.isDebugEnabled()) {
 						mLogger.debug(String.format("Is %s", res));
@@ -515,8 +551,13 @@ public class Pdr<LETTER extends IIcfgTransition<?>> implements IInterpolatingTra
 						 * Query is not satisfiable: strengthen the frames of location.
 						 */
 					} else if (res == LBool.UNSAT) {
-						final IPredicate actualToBeBlocked =
-								computeNewToBeBlocked(toBeBlocked, predecessorTransition, predecessorFrame);
+						final IPredicate actualToBeBlocked;
+						if (mFrameSolver != null && isGeneralizableByUnsatCore(location)) {
+							actualToBeBlocked = generalizeByUnsatCore(toBeBlocked);
+						} else {
+							actualToBeBlocked =
+									computeNewToBeBlocked(toBeBlocked, predecessorTransition, predecessorFrame);
+						}
 						updateLocalFrames(actualToBeBlocked, location, level, localFrames);
 						proofObligation.addBlockedQuery(query);
 					} else {
@@ -746,6 +787,74 @@ public class Pdr<LETTER extends IIcfgTransition<?>> implements IInterpolatingTra
 		return actualToBeBlocked;
 	}
 
+	/**
+	 * Check predecessorFrame /\ predecessorTF /\ toBeBlocked' for satisfiability using {@link #mFrameSolver}. This is
+	 * the same query as {@link PredicateUtils#isInductiveHelper}, but the frame is given by its activation literal and
+	 * each conjunct of toBeBlocked is guarded separately.
+	 */
+	private LBool checkIncrementally(final IPredicate predecessorFrame, final UnmodifiableTransFormula predTF,
+			final IPredicate toBeBlocked, final Set<IProgramNonOldVar> modifiableGlobals) {
+		final Script script = mScript.getScript();
+		final Set<IProgramNonOldVar> unprimedOldVarEqualities = new HashSet<>();
+		final Set<IProgramNonOldVar> primedOldVarEqualities = new HashSet<>();
+		findNonModifiablesGlobals(predecessorFrame.getVars(), modifiableGlobals, Collections.emptySet(),
+				unprimedOldVarEqualities, primedOldVarEqualities);
+		findNonModifiablesGlobals(predTF.getInVars().keySet(), modifiableGlobals, Collections.emptySet(),
+				unprimedOldVarEqualities, primedOldVarEqualities);
+		findNonModifiablesGlobals(predTF.getOutVars().keySet(), modifiableGlobals, predTF.getAssignedVars(),
+				unprimedOldVarEqualities, primedOldVarEqualities);
+		findNonModifiablesGlobals(toBeBlocked.getVars(), modifiableGlobals, predTF.getAssignedVars(),
+				unprimedOldVarEqualities, primedOldVarEqualities);
+
+		final List<Term> context = new ArrayList<>();
+		for (final IProgramNonOldVar bv : unprimedOldVarEqualities) {
+			context.add(ModifiableGlobalsTable.constructConstantOldVarEquality(bv, false, script));
+		}
+		for (final IProgramNonOldVar bv : primedOldVarEqualities) {
+			context.add(ModifiableGlobalsTable.constructConstantOldVarEquality(bv, true, script));
+		}
+		context.add(predTF.getClosedFormula());
+
+		final Substitution priming = new Substitution(script, computePrimingMapping(toBeBlocked, predTF));
+		final List<Term> primedConjuncts = new ArrayList<>();
+		for (final Term conjunct : SmtUtils.getConjuncts(toBeBlocked.getFormula())) {
+			primedConjuncts.add(priming.transform(conjunct));
+		}
+		return mFrameSolver.checkSat(predecessorFrame, SmtUtils.and(script, context), primedConjuncts);
+	}
+
+	/**
+	 * Only the conjuncts of toBeBlocked that are in the unsat core of the last query of {@link #mFrameSolver} are
+	 * needed to block toBeBlocked, the others can be dropped.
+	 */
+	private IPredicate generalizeByUnsatCore(final IPredicate toBeBlocked) {
+		final Term[] conjuncts = SmtUtils.getConjuncts(toBeBlocked.getFormula());
+		final Set<Integer> unsatConjuncts = mFrameSolver.getUnsatConjuncts();
+		if (unsatConjuncts.size() == conjuncts.length) {
+			return toBeBlocked;
+		}
+		final List<Term> remaining = new ArrayList<>(unsatConjuncts.size());
+		for (int i = 0; i < conjuncts.length; i++) {
+			if (unsatConjuncts.contains(i)) {
+				remaining.add(conjuncts[i]);
+			}
+		}
+		final IPredicate generalized =
+				mLocalPredicateUnifier.getOrConstructPredicate(SmtUtils.and(mScript.getScript(), remaining));
+		if (mLogger.isDebugEnabled()) {
+			mLogger.debug(String.format("Generalized %s to %s", toBeBlocked, generalized));
+		}
+		return generalized;
+	}
+
+	/**
+	 * The unsat core only shows that the generalization cannot be reached through the checked transition. Hence, we
+	 * only use it for locations that have no other incoming transition and that are not initial.
+	 */
+	private boolean isGeneralizableByUnsatCore(final IcfgLocation location) {
+		return location.getIncomingEdges().size() == 1 && !mPpIcfg.getInitialNodes().contains(location);
+	}
+
 	/**
 	 * Compute Interpolant of unsatisfiable query to add to the frames. We have predecessorFrame /\
 	 * predecessorTransition /\ prePred == UNSAT
@@ -879,6 +988,9 @@ public class Pdr<LETTER extends IIcfgTransition<?>> implements IInterpolatingTra
 			conjuncts.add(localFrames.get(location).get(i).getSecond());
 			conjuncts.add(not(toBeBlocked));
 			final IPredicate fTerm = mLocalPredicateUnifier.getOrConstructPredicateForConjunction(conjuncts);
+			if (mFrameSolver != null) {
+				mFrameSolver.addStrengthening(localFrames.get(location).get(i).getSecond(), toBeBlocked, fTerm);
+			}
 			localFrames.get(location).set(i, new Pair<>(ChangedFrame.C, fTerm));
 		}
 		if (mLogger.isDebugEnabled()) {
@@ -1267,6 +1379,16 @@ public class Pdr<LETTER extends IIcfgTransition<?>> implements IInterpolatingTra
 	 */
 	private static Term primePredicate(final Script script, final IPredicate pred, final UnmodifiableTransFormula tf,
 			final Set<IProgramNonOldVar> modifiableGlobals) {
+		final Substitution priming = new Substitution(script, computePrimingMapping(pred, tf));
+		final Term result = priming.transform(pred.getFormula());
+		return result;
+	}
+
+	/**
+	 * Map the variables of pred that are changed by tf to their primed constants and all other variables of pred to
+	 * their default constants.
+	 */
+	private static Map<Term, Term> computePrimingMapping(final IPredicate pred, final UnmodifiableTransFormula tf) {
 		// Set of changed vars by tf
 		final Set<IProgramVar> assignedVars = tf.getAssignedVars();
 		final Map<Term, Term> substitutionMapping = new HashMap<>();
@@ -1279,9 +1401,7 @@ public class Pdr<LETTER extends IIcfgTransition<?>> implements IInterpolatingTra
 			}
 			substitutionMapping.put(bv.getTermVariable(), constant);
 		}
-		final Substitution priming = new Substitution(script, substitutionMapping);
-		final Term result = priming.transform(pred.getFormula());
-		return result;
+		return substitutionMapping;
 	}
 
 	/**
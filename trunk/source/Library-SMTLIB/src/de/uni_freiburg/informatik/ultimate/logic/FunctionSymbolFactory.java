@@ -21,7 +21,7 @@ package de.uni_freiburg.informatik.ultimate.logic;
 import java.math.BigInteger;
 import java.util.Arrays;
 
-import de.uni_freiburg.informatik.ultimate.util.datastructures.UnifyHash;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.ConcurrentUnifyHash;
 
 /**
  * Factory for overloaded and/or polymorphic function symbols.
@@ -29,11 +29,12 @@ import de.uni_freiburg.informatik.ultimate.util.datastructures.UnifyHash;
  */
 public abstract class FunctionSymbolFactory {
 	String mFuncName;
-	UnifyHash<FunctionSymbol> mInstances;
+	ConcurrentUnifyHash<FunctionSymbol> mInstances;
 
 	public FunctionSymbolFactory(String name) {
 		mFuncName = name;
-		mInstances = new UnifyHash<FunctionSymbol>();
+		// one segment: there is a factory for every overloaded symbol and few instances per factory
+		mInstances = new ConcurrentUnifyHash<FunctionSymbol>(1);
 	}
 
 	public abstract Sort getResultSort(
@@ -88,13 +89,12 @@ public abstract class FunctionSymbolFactory {
 		final int hash = Arrays.hashCode(indices)
 			^ Arrays.hashCode(paramSorts)
 			^ (resultSort == null ? 0 : resultSort.hashCode());
-		for (final FunctionSymbol func : mInstances.iterateHashCode(hash)) {
-			if (Arrays.equals(func.mIndices, indices)
-				&& Arrays.equals(func.mParamSort, paramSorts)
-				&& (resultSort == null
-						|| func.mReturnSort == resultSort)) {
-				return func;
-			}
+		final Sort[] keyParamSorts = paramSorts;
+		final Sort keyResultSort = resultSort;
+		final FunctionSymbol existing =
+				mInstances.find(hash, indices, keyParamSorts, keyResultSort, FunctionSymbolFactory::matches);
+		if (existing != null) {
+			return existing;
 		}
 
 		resultSort = getResultSort(indices, paramSorts, resultSort);
@@ -122,8 +122,14 @@ public abstract class FunctionSymbolFactory {
 		final FunctionSymbol func = new FunctionSymbol(
 				mFuncName, indices, paramSorts, resultSort,
 					defVars, definition, flags);
-		mInstances.put(hash, func);
-		return func;
+		return mInstances.putIfAbsent(hash, func, indices, keyParamSorts, keyResultSort,
+				FunctionSymbolFactory::matches);
+	}
+
+	private static boolean matches(final FunctionSymbol func, final String[] indices, final Sort[] paramSorts,
+			final Sort resultSort) {
+		return Arrays.equals(func.mIndices, indices) && Arrays.equals(func.mParamSort, paramSorts)
+				&& (resultSort == null || func.mReturnSort == resultSort);
 	}
 
 	@Override
@@ -3,7 +3,7 @@ package de.uni_freiburg.informatik.ultimate.logic;
 import java.math.BigInteger;
 import java.util.Arrays;
 
-import de.uni_freiburg.informatik.ultimate.util.datastructures.UnifyHash;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.ConcurrentUnifyHash;
 
 /**
  * Factory for creating wrapper functions that handle the IRA syntactic sugar rules. The SMTLIB standard permits to call
@@ -15,7 +15,7 @@ import de.uni_freiburg.informatik.ultimate.util.datastructures.UnifyHash;
  * @author Jochen Hoenicke
  */
 public class IRAWrapperFactory {
-	final UnifyHash<FunctionSymbol> mInstances = new UnifyHash<>();
+	final ConcurrentUnifyHash<FunctionSymbol> mInstances = new ConcurrentUnifyHash<>(1);
 
 	/**
 	 * Create an IRA wrapper function for name for the given parameter sorts. This is a new function symbol whose
@@ -86,11 +86,9 @@ public class IRAWrapperFactory {
 
 		/* Check if we already created a wrapper and return it. */
 		final int hash = fsym.hashCode() ^ Arrays.hashCode(paramSorts);
-		for (final FunctionSymbol func : mInstances.iterateHashCode(hash)) {
-			if (((ApplicationTerm) func.getDefinition()).getFunction() == fsym
-					&& Arrays.equals(func.mParamSort, paramSorts)) {
-				return func;
-			}
+		final FunctionSymbol existing = mInstances.find(hash, fsym, paramSorts, null, IRAWrapperFactory::isWrapper);
+		if (existing != null) {
+			return existing;
 		}
 
 		/* Create the wrapping definition */
@@ -106,7 +104,12 @@ public class IRAWrapperFactory {
 		/* Create the function symbol */
 		FunctionSymbol wrapper = new FunctionSymbol(fsym.getName(), fsym.getIndices(), paramSorts, fsym.getReturnSort(),
 				defVars, definition, (fsym.mFlags & ~FunctionSymbol.ASSOCMASK));
-		mInstances.put(hash, wrapper);
-		return wrapper;
+		return mInstances.putIfAbsent(hash, wrapper, fsym, paramSorts, null, IRAWrapperFactory::isWrapper);
+	}
+
+	private static boolean isWrapper(final FunctionSymbol func, final FunctionSymbol fsym, final Sort[] paramSorts,
+			final Object unused) {
+		return ((ApplicationTerm) func.getDefinition()).getFunction() == fsym
+				&& Arrays.equals(func.mParamSort, paramSorts);
 	}
 }
@@ -20,7 +20,7 @@ package de.uni_freiburg.informatik.ultimate.logic;
 
 import java.util.Arrays;
 
-import de.uni_freiburg.informatik.ultimate.util.datastructures.UnifyHash;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.ConcurrentUnifyHash;
 
 /**
  * A sort symbol is the name of an SMTLIB sort.  In SMTLIB, sorts can be
@@ -79,7 +79,7 @@ public class SortSymbol {
 	/**
 	 * The sorts already created from this SortSymbol.
 	 * If mNumParams is 0, this is the single sort corresponding to
-	 * this SortSymbol.  Otherwise this is a UnifyHash containing all
+	 * this SortSymbol.  Otherwise this is a ConcurrentUnifyHash containing all
 	 * created sorts.
 	 */
 	final Object mSorts;
@@ -111,7 +111,8 @@ public class SortSymbol {
 			|| ((mFlags & INDEXED) == 0 && mNumParams == 0)) {
 			mSorts = new Sort(this, null, new Sort[0]);
 		} else {
-			mSorts = new UnifyHash<Sort>();
+			// one segment: there is a table for every parametric sort symbol
+			mSorts = new ConcurrentUnifyHash<Sort>(1);
 		}
 	}
 
@@ -181,17 +182,12 @@ public class SortSymbol {
 		if ((mFlags & INDEXED) == 0 && args.length == 0) {
 			return (Sort) mSorts;
 		}
-		final UnifyHash<Sort> sortCache = (UnifyHash<Sort>) mSorts;
+		final ConcurrentUnifyHash<Sort> sortCache = (ConcurrentUnifyHash<Sort>) mSorts;
 		final int hash = Arrays.hashCode(indices) ^ Arrays.hashCode(args);
-		for (final Sort sort : sortCache.iterateHashCode(hash)) {
-			if (Arrays.equals(sort.getArguments(), args)
-				&& Arrays.equals(sort.getIndices(), indices)) {
-				return sort;
-			}
-		}
-		final Sort sort = new Sort(this, indices, args);
-		sortCache.put(hash, sort);
-		return sort;
+		return sortCache.unify(hash, indices, args, this,
+				(sort, ind, as, unused) -> Arrays.equals(sort.getArguments(), as)
+						&& Arrays.equals(sort.getIndices(), ind),
+				(ind, as, symbol, h) -> new Sort(symbol, ind, as));
 	}
 
 	/**
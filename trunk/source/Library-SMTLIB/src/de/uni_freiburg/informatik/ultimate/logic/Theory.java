@@ -26,10 +26,11 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import de.uni_freiburg.informatik.ultimate.util.HashUtils;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.ConcurrentUnifyHash;
 import de.uni_freiburg.informatik.ultimate.util.datastructures.ScopedHashMap;
-import de.uni_freiburg.informatik.ultimate.util.datastructures.UnifyHash;
 
 /**
  * The theory is not intended for public use. Please stick to the {@link Script} interface and use the functions in
@@ -95,16 +96,20 @@ public class Theory {
 	private SortSymbol mBitVecSort, mFloatingPointSort;
 	private Sort mRoundingModeSort;
 	private final HashMap<String, FunctionSymbolFactory> mFunFactory = new HashMap<>();
-	private final UnifyHash<FunctionSymbol> mModelValueCache = new UnifyHash<>();
+	private final ConcurrentUnifyHash<FunctionSymbol> mModelValueCache = new ConcurrentUnifyHash<>();
 
 	private final ScopedHashMap<String, SortSymbol> mDeclaredSorts = new ScopedHashMap<>();
 	private final ScopedHashMap<String, FunctionSymbol> mDeclaredFuns = new ScopedHashMap<>();
 
-	private final UnifyHash<QuantifiedFormula> mQfCache = new UnifyHash<>();
-	private final UnifyHash<LetTerm> mLetCache = new UnifyHash<>();
-	private final UnifyHash<MatchTerm> mMtCache = new UnifyHash<>();
-	private final UnifyHash<Term> mTermCache = new UnifyHash<>();
-	private final UnifyHash<TermVariable> mTvUnify = new UnifyHash<>();
+	/*
+	 * The term caches are thread-safe, hence terms of this theory can be constructed by several threads at the same
+	 * time. Declarations and the assertion stack are not thread-safe.
+	 */
+	private final ConcurrentUnifyHash<QuantifiedFormula> mQfCache = new ConcurrentUnifyHash<>();
+	private final ConcurrentUnifyHash<LetTerm> mLetCache = new ConcurrentUnifyHash<>();
+	private final ConcurrentUnifyHash<MatchTerm> mMtCache = new ConcurrentUnifyHash<>();
+	private final ConcurrentUnifyHash<Term> mTermCache = new ConcurrentUnifyHash<>();
+	private final ConcurrentUnifyHash<TermVariable> mTvUnify = new ConcurrentUnifyHash<>();
 	/**
 	 * Factory for to_real wrapper function symbol, if IRA logic is used.
 	 */
@@ -112,7 +117,7 @@ public class Theory {
 	/**
 	 * Cache for bitvector constant function symbols (_ bv123 456).
 	 */
-	private UnifyHash<FunctionSymbol> mBitVecConstCache;
+	private final ConcurrentUnifyHash<FunctionSymbol> mBitVecConstCache = new ConcurrentUnifyHash<>();
 
 	public final ApplicationTerm mTrue, mFalse;
 	public final FunctionSymbol mAnd, mOr, mNot, mImplies, mXor;
@@ -127,7 +132,7 @@ public class Theory {
 	private final static String MODEL_VALUE_PATTERN = "@\\d+";
 	private final static String BITVEC_CONST_PATTERN = "bv\\d+";
 
-	private int mTvarCtr = 0;
+	private final AtomicInteger mTvarCtr = new AtomicInteger();
 
 	private int mSkolemCounter = 0;
 	private int mAuxCounter = 0;
@@ -321,14 +326,10 @@ public class Theory {
 			return f;
 		}
 		final int hash = QuantifiedFormula.hashQuantifier(quant, vars, f);
-		for (final QuantifiedFormula qf : mQfCache.iterateHashCode(hash)) {
-			if (qf.getQuantifier() == quant && qf.getSubformula() == f && Arrays.equals(vars, qf.getVariables())) {
-				return qf;
-			}
-		}
-		final QuantifiedFormula qf = new QuantifiedFormula(quant, vars, f, hash);
-		mQfCache.put(hash, qf);
-		return qf;
+		return mQfCache.unify(hash, quant, vars, f,
+				(qf, q, vs, sub) -> qf.getQuantifier() == q && qf.getSubformula() == sub
+						&& Arrays.equals(vs, qf.getVariables()),
+				(q, vs, sub, h) -> new QuantifiedFormula(q, vs, sub, h));
 	}
 
 	public Term exists(final TermVariable[] vars, final Term f) {
@@ -355,15 +356,10 @@ public class Theory {
 			return subform;
 		}
 		final int hash = LetTerm.hashLet(vars, values, subform);
-		for (final LetTerm lt : mLetCache.iterateHashCode(hash)) {
-			if (lt.getSubTerm() == subform && Arrays.equals(lt.getVariables(), vars)
-					&& Arrays.equals(lt.getValues(), values)) {
-				return lt;
-			}
-		}
-		final LetTerm lf = new LetTerm(vars, values, subform, hash);
-		mLetCache.put(hash, lf);
-		return lf;
+		return mLetCache.unify(hash, vars, values, subform,
+				(lt, vs, vals, sub) -> lt.getSubTerm() == sub && Arrays.equals(lt.getVariables(), vs)
+						&& Arrays.equals(lt.getValues(), vals),
+				(vs, vals, sub, h) -> new LetTerm(vs, vals, sub, h));
 	}
 
 	public Term let(final TermVariable var, final Term value, final Term subform) {
@@ -450,17 +446,10 @@ public class Theory {
 			}
 		}
 		final int hash = ConstantTerm.hashConstant(value, sort);
-		for (final Term t : mTermCache.iterateHashCode(hash)) {
-			if (t instanceof ConstantTerm) {
-				final ConstantTerm nt = (ConstantTerm) t;
-				if (nt.getSort() == sort && value.equals(nt.getValue())) {
-					return nt;
-				}
-			}
-		}
-		final ConstantTerm nt = new ConstantTerm(value, sort, hash);
-		mTermCache.put(hash, nt);
-		return nt;
+		return mTermCache.unify(hash, value, sort, null,
+				(t, v, s, unused) -> t instanceof ConstantTerm && t.getSort() == s
+						&& v.equals(((ConstantTerm) t).getValue()),
+				(v, s, unused, h) -> new ConstantTerm(v, s, h));
 	}
 
 	public Term numeral(final BigInteger num) {
@@ -1402,15 +1391,10 @@ public class Theory {
 
 	private FunctionSymbol getModelValueSymbol(final String name, final Sort sort) {
 		final int hash = HashUtils.hashJenkins(name.hashCode(), sort);
-		for (final FunctionSymbol symb : mModelValueCache.iterateHashCode(hash)) {
-			if (symb.getName().equals(name) && symb.getReturnSort() == sort) {
-				return symb;
-			}
-		}
-		final FunctionSymbol symb = new FunctionSymbol(name, null, EMPTY_SORT_ARRAY, sort, null, null,
-				FunctionSymbol.RETURNOVERLOAD | FunctionSymbol.INTERNAL | FunctionSymbol.MODELVALUE);
-		mModelValueCache.put(hash, symb);
-		return symb;
+		return mModelValueCache.unify(hash, name, sort, null,
+				(symb, n, s, unused) -> symb.getName().equals(n) && symb.getReturnSort() == s,
+				(n, s, unused, h) -> new FunctionSymbol(n, null, EMPTY_SORT_ARRAY, s, null, null,
+						FunctionSymbol.RETURNOVERLOAD | FunctionSymbol.INTERNAL | FunctionSymbol.MODELVALUE));
 	}
 
 	public FunctionSymbol getFunctionWithResult(final String name, final String[] indices, final Sort resultType,
@@ -1445,20 +1429,20 @@ public class Theory {
 	}
 
 	private FunctionSymbol getBitVecConstant(final String name, final String[] indices) {
-		if (mBitVecConstCache == null) {
-			mBitVecConstCache = new UnifyHash<>();
-		}
 		final int hash = HashUtils.hashJenkins(name.hashCode(), (Object[]) indices);
-		for (final FunctionSymbol symb : mBitVecConstCache.iterateHashCode(hash)) {
-			if (symb.getName().equals(name) && symb.getIndices()[0].equals(indices[0])) {
-				return symb;
-			}
+		final FunctionSymbol existing = mBitVecConstCache.find(hash, name, indices, null, Theory::isBitVecConstant);
+		if (existing != null) {
+			return existing;
 		}
 		final Sort sort = mBitVecSort.getSort(indices);
 		final FunctionSymbol symb =
 				new FunctionSymbol(name, indices, EMPTY_SORT_ARRAY, sort, null, null, FunctionSymbol.INTERNAL);
-		mBitVecConstCache.put(hash, symb);
-		return symb;
+		return mBitVecConstCache.putIfAbsent(hash, symb, name, indices, null, Theory::isBitVecConstant);
+	}
+
+	private static boolean isBitVecConstant(final FunctionSymbol symb, final String name, final String[] indices,
+			final Object unused) {
+		return symb.getName().equals(name) && symb.getIndices()[0].equals(indices[0]);
 	}
 
 	public ApplicationTerm term(final FunctionSymbolFactory factory, final Term... parameters) {
@@ -1490,17 +1474,10 @@ public class Theory {
 			parameters = EMPTY_TERM_ARRAY;
 		}
 		final int hash = ApplicationTerm.hashApplication(func, parameters);
-		for (final Term t : mTermCache.iterateHashCode(hash)) {
-			if (t instanceof ApplicationTerm) {
-				final ApplicationTerm app = (ApplicationTerm) t;
-				if (func == app.getFunction() && Arrays.equals(app.getParameters(), parameters)) {
-					return app;
-				}
-			}
-		}
-		final ApplicationTerm app = new ApplicationTerm(func, parameters, hash);
-		mTermCache.put(hash, app);
-		return app;
+		return (ApplicationTerm) mTermCache.unify(hash, func, parameters, null,
+				(t, f, params, unused) -> t instanceof ApplicationTerm && f == ((ApplicationTerm) t).getFunction()
+						&& Arrays.equals(((ApplicationTerm) t).getParameters(), params),
+				(f, params, unused, h) -> new ApplicationTerm(f, params, h));
 	}
 
 	/******************** TERM VARIABLES AND VARIABLE TERMS *****************/
@@ -1515,7 +1492,7 @@ public class Theory {
 	 * @return a fresh term variable.
 	 */
 	public TermVariable createFreshTermVariable(final String prefix, final Sort sort) {
-		final String name = "." + prefix + "." + mTvarCtr++;
+		final String name = "." + prefix + "." + mTvarCtr.getAndIncrement();
 		return new TermVariable(name, sort, TermVariable.hashVariable(name, sort));
 	}
 
@@ -1530,14 +1507,9 @@ public class Theory {
 	 */
 	public TermVariable createTermVariable(final String name, final Sort sort) {
 		final int hash = TermVariable.hashVariable(name, sort);
-		for (final TermVariable tv : mTvUnify.iterateHashCode(hash)) {
-			if (tv.getSort().equals(sort) && tv.getName().equals(name)) {
-				return tv;
-			}
-		}
-		final TermVariable tv = new TermVariable(name, sort, hash);
-		mTvUnify.put(hash, tv);
-		return tv;
+		return mTvUnify.unify(hash, name, sort, null,
+				(tv, n, s, unused) -> tv.getSort().equals(s) && tv.getName().equals(n),
+				(n, s, unused, h) -> new TermVariable(n, s, h));
 	}
 
 	public DataType.Constructor createConstructor(final String name, final String[] selectors,
@@ -1573,17 +1545,10 @@ public class Theory {
 
 	public Term annotatedTerm(final Annotation[] annots, final Term sub) {
 		final int hash = AnnotatedTerm.hashAnnotations(annots, sub);
-		for (final Term t : mTermCache.iterateHashCode(hash)) {
-			if (t instanceof AnnotatedTerm) {
-				final AnnotatedTerm annot = (AnnotatedTerm) t;
-				if (sub == annot.getSubterm() && Arrays.equals(annot.getAnnotations(), annots)) {
-					return annot;
-				}
-			}
-		}
-		final AnnotatedTerm annot = new AnnotatedTerm(annots, sub, hash);
-		mTermCache.put(hash, annot);
-		return annot;
+		return mTermCache.unify(hash, annots, sub, null,
+				(t, as, s, unused) -> t instanceof AnnotatedTerm && s == ((AnnotatedTerm) t).getSubterm()
+						&& Arrays.equals(((AnnotatedTerm) t).getAnnotations(), as),
+				(as, s, unused, h) -> new AnnotatedTerm(as, s, h));
 	}
 
 	/******************** ASSERTION STACK *********************************/
@@ -0,0 +1,490 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Util Library.
+ *
+ * The ULTIMATE Util Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Util Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Util Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Util Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Util Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.util.datastructures;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of non-negative integers in the style of Roaring bitmaps.
+ * <p>
+ * The integers are partitioned into chunks of 2^16 values that share their upper 16 bits. Each non-empty chunk is
+ * stored in a container that is either a sorted array of the lower 16 bits (if the chunk is sparse) or a plain bitmap
+ * of 1024 words (if the chunk is dense). Hence sparse sets need roughly two bytes per element and dense sets roughly
+ * one bit per element, and intersection and union of dense chunks are word-level AND/OR operations.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class CompressedBitSet {
+	/**
+	 * Containers with more elements than this bound are stored as a bitmap.
+	 */
+	private static final int ARRAY_CONTAINER_MAX_SIZE = 4096;
+	private static final int BITMAP_WORDS = 1 << 10;
+	private static final int INITIAL_CAPACITY = 4;
+
+	private int[] mKeys;
+	private Container[] mContainers;
+	private int mSize;
+
+	/**
+	 * Constructs an empty set.
+	 */
+	public CompressedBitSet() {
+		mKeys = new int[INITIAL_CAPACITY];
+		mContainers = new Container[INITIAL_CAPACITY];
+		mSize = 0;
+	}
+
+	/**
+	 * Copy constructor.
+	 *
+	 * @param other
+	 *            set whose elements are copied; later modifications of either set do not affect the other
+	 */
+	public CompressedBitSet(final CompressedBitSet other) {
+		mKeys = Arrays.copyOf(other.mKeys, Math.max(other.mSize, INITIAL_CAPACITY));
+		mContainers = new Container[mKeys.length];
+		for (int i = 0; i < other.mSize; i++) {
+			mContainers[i] = other.mContainers[i].copy();
+		}
+		mSize = other.mSize;
+	}
+
+	/**
+	 * @param value
+	 *            non-negative integer
+	 * @return true iff the set was modified
+	 */
+	public boolean add(final int value) {
+		assert value >= 0 : "only non-negative values supported";
+		final int key = value >>> 16;
+		final int pos = binarySearch(key);
+		if (pos >= 0) {
+			final Container oldContainer = mContainers[pos];
+			final int oldCardinality = oldContainer.mCardinality;
+			mContainers[pos] = oldContainer.add((char) value);
+			return mContainers[pos].mCardinality != oldCardinality;
+		}
+		final Container container = new Container();
+		container.add((char) value);
+		insertAt(-pos - 1, key, container);
+		return true;
+	}
+
+	public boolean contains(final int value) {
+		if (value < 0) {
+			return false;
+		}
+		final int pos = binarySearch(value >>> 16);
+		return pos >= 0 && mContainers[pos].contains((char) value);
+	}
+
+	public boolean isEmpty() {
+		return mSize == 0;
+	}
+
+	/**
+	 * @return number of elements in this set
+	 */
+	public int cardinality() {
+		int result = 0;
+		for (int i = 0; i < mSize; i++) {
+			result += mContainers[i].mCardinality;
+		}
+		return result;
+	}
+
+	/**
+	 * Removes all elements from this set that are not contained in other (in-place intersection).
+	 */
+	public void and(final CompressedBitSet other) {
+		int i = 0;
+		int j = 0;
+		int newSize = 0;
+		while (i < mSize && j < other.mSize) {
+			final int key = mKeys[i];
+			final int otherKey = other.mKeys[j];
+			if (key < otherKey) {
+				i++;
+			} else if (key > otherKey) {
+				j++;
+			} else {
+				final Container intersection = mContainers[i].and(other.mContainers[j]);
+				if (intersection.mCardinality > 0) {
+					mKeys[newSize] = key;
+					mContainers[newSize] = intersection;
+					newSize++;
+				}
+				i++;
+				j++;
+			}
+		}
+		Arrays.fill(mContainers, newSize, mSize, null);
+		mSize = newSize;
+	}
+
+	/**
+	 * Adds all elements of other to this set (in-place union).
+	 */
+	public void or(final CompressedBitSet other) {
+		if (other.mSize == 0) {
+			return;
+		}
+		final int[] newKeys = new int[Math.max(INITIAL_CAPACITY, mSize + other.mSize)];
+		final Container[] newContainers = new Container[newKeys.length];
+		int i = 0;
+		int j = 0;
+		int newSize = 0;
+		while (i < mSize || j < other.mSize) {
+			if (j == other.mSize || (i < mSize && mKeys[i] < other.mKeys[j])) {
+				newKeys[newSize] = mKeys[i];
+				newContainers[newSize] = mContainers[i];
+				i++;
+			} else if (i == mSize || mKeys[i] > other.mKeys[j]) {
+				newKeys[newSize] = other.mKeys[j];
+				newContainers[newSize] = other.mContainers[j].copy();
+				j++;
+			} else {
+				newKeys[newSize] = mKeys[i];
+				newContainers[newSize] = mContainers[i].or(other.mContainers[j]);
+				i++;
+				j++;
+			}
+			newSize++;
+		}
+		mKeys = newKeys;
+		mContainers = newContainers;
+		mSize = newSize;
+	}
+
+	/**
+	 * @return true iff this set and other have at least one element in common
+	 */
+	public boolean intersects(final CompressedBitSet other) {
+		int i = 0;
+		int j = 0;
+		while (i < mSize && j < other.mSize) {
+			final int key = mKeys[i];
+			final int otherKey = other.mKeys[j];
+			if (key < otherKey) {
+				i++;
+			} else if (key > otherKey) {
+				j++;
+			} else {
+				if (mContainers[i].intersects(other.mContainers[j])) {
+					return true;
+				}
+				i++;
+				j++;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Applies action to all elements of this set in ascending order.
+	 */
+	public void forEach(final IntConsumer action) {
+		for (int i = 0; i < mSize; i++) {
+			mContainers[i].forEach(mKeys[i] << 16, action);
+		}
+	}
+
+	/**
+	 * @return all elements of this set in ascending order
+	 */
+	public int[] toArray() {
+		final int[] result = new int[cardinality()];
+		final int[] index = new int[1];
+		forEach(x -> result[index[0]++] = x);
+		return result;
+	}
+
+	private int binarySearch(final int key) {
+		// keys are at most 2^16, hence the sum does not overflow
+		int low = 0;
+		int high = mSize - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int midKey = mKeys[mid];
+			if (midKey < key) {
+				low = mid + 1;
+			} else if (midKey > key) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
+	private void insertAt(final int pos, final int key, final Container container) {
+		if (mSize == mKeys.length) {
+			final int newCapacity = mKeys.length * 2;
+			mKeys = Arrays.copyOf(mKeys, newCapacity);
+			mContainers = Arrays.copyOf(mContainers, newCapacity);
+		}
+		System.arraycopy(mKeys, pos, mKeys, pos + 1, mSize - pos);
+		System.arraycopy(mContainers, pos, mContainers, pos + 1, mSize - pos);
+		mKeys[pos] = key;
+		mContainers[pos] = container;
+		mSize++;
+	}
+
+	@Override
+	public int hashCode() {
+		final int[] result = { 1 };
+		forEach(x -> result[0] = 31 * result[0] + x);
+		return result[0];
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof CompressedBitSet)) {
+			return false;
+		}
+		final CompressedBitSet other = (CompressedBitSet) obj;
+		if (mSize != other.mSize || cardinality() != other.cardinality()) {
+			return false;
+		}
+		return Arrays.equals(toArray(), other.toArray());
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("{");
+		forEach(x -> {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append(x);
+		});
+		return sb.append('}').toString();
+	}
+
+	/**
+	 * Set of 16 bit values that is stored either as sorted array or as bitmap. Operations that change the
+	 * representation return a new container, all other operations return this container.
+	 */
+	private static final class Container {
+		private char[] mArray;
+		private long[] mBitmap;
+		private int mCardinality;
+
+		Container() {
+			mArray = new char[INITIAL_CAPACITY];
+		}
+
+		private Container(final char[] array, final long[] bitmap, final int cardinality) {
+			mArray = array;
+			mBitmap = bitmap;
+			mCardinality = cardinality;
+		}
+
+		private boolean isBitmap() {
+			return mBitmap != null;
+		}
+
+		Container copy() {
+			if (isBitmap()) {
+				return new Container(null, mBitmap.clone(), mCardinality);
+			}
+			return new Container(Arrays.copyOf(mArray, mCardinality), null, mCardinality);
+		}
+
+		boolean contains(final char value) {
+			if (isBitmap()) {
+				return (mBitmap[value >>> 6] & (1L << value)) != 0;
+			}
+			return Arrays.binarySearch(mArray, 0, mCardinality, value) >= 0;
+		}
+
+		Container add(final char value) {
+			if (isBitmap()) {
+				final long before = mBitmap[value >>> 6];
+				final long after = before | (1L << value);
+				if (before != after) {
+					mBitmap[value >>> 6] = after;
+					mCardinality++;
+				}
+				return this;
+			}
+			final int pos = Arrays.binarySearch(mArray, 0, mCardinality, value);
+			if (pos >= 0) {
+				return this;
+			}
+			if (mCardinality == ARRAY_CONTAINER_MAX_SIZE) {
+				final Container result = toBitmap();
+				result.add(value);
+				return result;
+			}
+			final int insertionPoint = -pos - 1;
+			if (mCardinality == mArray.length) {
+				mArray = Arrays.copyOf(mArray,
+						Math.min(ARRAY_CONTAINER_MAX_SIZE, Math.max(INITIAL_CAPACITY, mArray.length * 2)));
+			}
+			System.arraycopy(mArray, insertionPoint, mArray, insertionPoint + 1, mCardinality - insertionPoint);
+			mArray[insertionPoint] = value;
+			mCardinality++;
+			return this;
+		}
+
+		Container and(final Container other) {
+			if (isBitmap() && other.isBitmap()) {
+				final long[] words = new long[BITMAP_WORDS];
+				int cardinality = 0;
+				for (int k = 0; k < BITMAP_WORDS; k++) {
+					words[k] = mBitmap[k] & other.mBitmap[k];
+					cardinality += Long.bitCount(words[k]);
+				}
+				final Container result = new Container(null, words, cardinality);
+				return cardinality > ARRAY_CONTAINER_MAX_SIZE ? result : result.toArrayContainer();
+			}
+			if (isBitmap()) {
+				return other.andArrayWithBitmap(this);
+			}
+			if (other.isBitmap()) {
+				return andArrayWithBitmap(other);
+			}
+			final char[] result = new char[Math.min(mCardinality, other.mCardinality)];
+			int cardinality = 0;
+			int i = 0;
+			int j = 0;
+			while (i < mCardinality && j < other.mCardinality) {
+				if (mArray[i] < other.mArray[j]) {
+					i++;
+				} else if (mArray[i] > other.mArray[j]) {
+					j++;
+				} else {
+					result[cardinality++] = mArray[i];
+					i++;
+					j++;
+				}
+			}
+			return new Container(result, null, cardinality);
+		}
+
+		private Container andArrayWithBitmap(final Container bitmap) {
+			final char[] result = new char[mCardinality];
+			int cardinality = 0;
+			for (int i = 0; i < mCardinality; i++) {
+				if (bitmap.contains(mArray[i])) {
+					result[cardinality++] = mArray[i];
+				}
+			}
+			return new Container(result, null, cardinality);
+		}
+
+		Container or(final Container other) {
+			if (isBitmap() || other.isBitmap() || mCardinality + other.mCardinality > ARRAY_CONTAINER_MAX_SIZE) {
+				final Container result = isBitmap() ? this : toBitmap();
+				if (other.isBitmap()) {
+					int cardinality = 0;
+					for (int k = 0; k < BITMAP_WORDS; k++) {
+						result.mBitmap[k] |= other.mBitmap[k];
+						cardinality += Long.bitCount(result.mBitmap[k]);
+					}
+					result.mCardinality = cardinality;
+				} else {
+					for (int j = 0; j < other.mCardinality; j++) {
+						result.add(other.mArray[j]);
+					}
+				}
+				return result.mCardinality > ARRAY_CONTAINER_MAX_SIZE ? result : result.toArrayContainer();
+			}
+			final char[] result = new char[mCardinality + other.mCardinality];
+			int cardinality = 0;
+			int i = 0;
+			int j = 0;
+			while (i < mCardinality || j < other.mCardinality) {
+				if (j == other.mCardinality || (i < mCardinality && mArray[i] < other.mArray[j])) {
+					result[cardinality++] = mArray[i++];
+				} else if (i == mCardinality || mArray[i] > other.mArray[j]) {
+					result[cardinality++] = other.mArray[j++];
+				} else {
+					result[cardinality++] = mArray[i];
+					i++;
+					j++;
+				}
+			}
+			return new Container(result, null, cardinality);
+		}
+
+		boolean intersects(final Container other) {
+			if (isBitmap() && other.isBitmap()) {
+				for (int k = 0; k < BITMAP_WORDS; k++) {
+					if ((mBitmap[k] & other.mBitmap[k]) != 0) {
+						return true;
+					}
+				}
+				return false;
+			}
+			final Container array = isBitmap() ? other : this;
+			final Container probe = isBitmap() ? this : other;
+			for (int i = 0; i < array.mCardinality; i++) {
+				if (probe.contains(array.mArray[i])) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void forEach(final int base, final IntConsumer action) {
+			if (isBitmap()) {
+				for (int k = 0; k < BITMAP_WORDS; k++) {
+					long word = mBitmap[k];
+					while (word != 0) {
+						action.accept(base | (k << 6) | Long.numberOfTrailingZeros(word));
+						word &= word - 1;
+					}
+				}
+			} else {
+				for (int i = 0; i < mCardinality; i++) {
+					action.accept(base | mArray[i]);
+				}
+			}
+		}
+
+		private Container toBitmap() {
+			final long[] words = new long[BITMAP_WORDS];
+			for (int i = 0; i < mCardinality; i++) {
+				words[mArray[i] >>> 6] |= 1L << mArray[i];
+			}
+			return new Container(null, words, mCardinality);
+		}
+
+		private Container toArrayContainer() {
+			final char[] array = new char[mCardinality];
+			final int[] index = new int[1];
+			forEach(0, x -> array[index[0]++] = (char) x);
+			return new Container(array, null, mCardinality);
+		}
+	}
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Util Library.
+ *
+ * The ULTIMATE Util Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Util Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Util Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Util Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Util Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.util.datastructures;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe variant of {@link UnifyHash}. Like {@link UnifyHash} it stores weak references to objects and
+ * retrieves them by a hash code that is computed by the client, which allows to implement the fly-weight design
+ * pattern. Unlike {@link UnifyHash}, lookup and insertion are a single atomic operation, hence two threads can never
+ * create two different objects for the same data:
+ *
+ * <pre>
+ * public static MyObject create(final int a, final MyObject child) {
+ * 	final int hashcode = a * 0x12345679 + child.hashCode();
+ * 	return unifyHash.unify(hashcode, o -&gt; o.a == a &amp;&amp; o.child == child, () -&gt; new MyObject(a, child));
+ * }
+ * </pre>
+ *
+ * The methods that take a {@link KeyMatcher} and up to three key objects avoid the allocation of a capturing lambda
+ * on every call. They are meant for hot paths such as hash-consing of terms, where the matcher and the factory are
+ * constants:
+ *
+ * <pre>
+ * return unifyHash.unify(hashcode, a, child, null, (o, k1, k2, unused) -&gt; o.a == k1 &amp;&amp; o.child == k2,
+ * 		(k1, k2, unused, h) -&gt; new MyObject(k1, k2));
+ * </pre>
+ *
+ * The table is split into segments that are selected by the hash code, each guarded by its own lock. Every segment
+ * has its own {@link ReferenceQueue}. Entries whose objects were garbage collected are removed from a segment by
+ * polling the queue whenever the segment is accessed; the number of entries removed per access is bounded so that
+ * dropping a large object graph does not cause a long pause for a single caller.
+ *
+ * @param <E>
+ *            type of the stored objects
+ */
+public class ConcurrentUnifyHash<E> {
+
+	private static final int DEFAULT_SEGMENTS = 32;
+	private static final int DEFAULT_SEGMENT_CAPACITY = 16;
+	private static final float LOAD_FACTOR = 0.75F;
+	/**
+	 * Maximal number of collected entries that are removed from a segment when the segment is accessed.
+	 */
+	private static final int CLEANUP_LIMIT = 256;
+
+	private final Segment<E>[] mSegments;
+	private final int mSegmentShift;
+
+	/**
+	 * Creates a new concurrent unify hash with a default number of segments. This is meant for large tables that many
+	 * threads access; small tables should pass a small concurrency level, since every segment allocates its own table.
+	 */
+	public ConcurrentUnifyHash() {
+		this(DEFAULT_SEGMENTS);
+	}
+
+	/**
+	 * Creates a new concurrent unify hash.
+	 *
+	 * @param concurrencyLevel
+	 *            The expected number of threads that access the hash at the same time. The number of segments is the
+	 *            smallest power of two that is not smaller than this number.
+	 */
+	@SuppressWarnings("unchecked")
+	public ConcurrentUnifyHash(final int concurrencyLevel) {
+		if (concurrencyLevel <= 0) {
+			throw new IllegalArgumentException("concurrency level has to be positive");
+		}
+		int segments = 1;
+		int bits = 0;
+		while (segments < concurrencyLevel && segments < (1 << 16)) {
+			segments <<= 1;
+			bits++;
+		}
+		mSegments = (Segment<E>[]) new Segment<?>[segments];
+		for (int i = 0; i < segments; i++) {
+			mSegments[i] = new Segment<>();
+		}
+		mSegmentShift = 32 - bits;
+	}
+
+	private Segment<E> segmentFor(final int hash) {
+		if (mSegments.length == 1) {
+			return mSegments[0];
+		}
+		// use the high bits of a scrambled hash, the segments use the low bits of the hash
+		return mSegments[(hash * 0x9E3779B9) >>> mSegmentShift];
+	}
+
+	/**
+	 * Checks whether a stored object matches the given key objects.
+	 *
+	 * @param <E>
+	 *            type of the stored objects
+	 * @param <A>
+	 *            type of the first key object
+	 * @param <B>
+	 *            type of the second key object
+	 * @param <C>
+	 *            type of the third key object
+	 */
+	@FunctionalInterface
+	public interface KeyMatcher<E, A, B, C> {
+		boolean matches(E candidate, A first, B second, C third);
+	}
+
+	/**
+	 * Creates an object from the given key objects.
+	 *
+	 * @param <E>
+	 *            type of the stored objects
+	 * @param <A>
+	 *            type of the first key object
+	 * @param <B>
+	 *            type of the second key object
+	 * @param <C>
+	 *            type of the third key object
+	 */
+	@FunctionalInterface
+	public interface KeyFactory<E, A, B, C> {
+		E create(A first, B second, C third, int hash);
+	}
+
+	/**
+	 * Find an object with the given hash code that is matched by matcher.
+	 *
+	 * @return the object, or null if there is no such object.
+	 */
+	public E find(final int hash, final Predicate<? super E> matcher) {
+		final Segment<E> segment = segmentFor(hash);
+		synchronized (segment) {
+			segment.cleanUp(CLEANUP_LIMIT);
+			return segment.find(hash, matcher);
+		}
+	}
+
+	/**
+	 * Find an object with the given hash code that is matched by matcher or add a new object created by factory.
+	 *
+	 * The factory is called while a lock of this hash is held. It must therefore be cheap and must not access this
+	 * hash. Otherwise use {@link #find(int, Predicate)} and {@link #putIfAbsent(int, Object, Predicate)}.
+	 *
+	 * @param hash
+	 *            the hash code of the object. Objects that are matched by matcher must have the same hash code.
+	 * @return the existing object, or the newly created one.
+	 */
+	public E unify(final int hash, final Predicate<? super E> matcher, final Supplier<? extends E> factory) {
+		final Segment<E> segment = segmentFor(hash);
+		synchronized (segment) {
+			segment.cleanUp(CLEANUP_LIMIT);
+			final E old = segment.find(hash, matcher);
+			if (old != null) {
+				return old;
+			}
+			final E created = factory.get();
+			segment.add(hash, created);
+			return created;
+		}
+	}
+
+	/**
+	 * Add an object unless another thread added a matching object in the meantime.
+	 *
+	 * @param hash
+	 *            the hash code of the object.
+	 * @param o
+	 *            the object to add; it must be matched by matcher.
+	 * @return the object that is now stored in the hash, i.e., either an existing object or o.
+	 */
+	public E putIfAbsent(final int hash, final E o, final Predicate<? super E> matcher) {
+		final Segment<E> segment = segmentFor(hash);
+		synchronized (segment) {
+			segment.cleanUp(CLEANUP_LIMIT);
+			final E old = segment.find(hash, matcher);
+			if (old != null) {
+				return old;
+			}
+			segment.add(hash, o);
+			return o;
+		}
+	}
+
+	/**
+	 * Variant of {@link #find(int, Predicate)} that passes the key objects to the matcher.
+	 *
+	 * @return the object, or null if there is no such object.
+	 */
+	public <A, B, C> E find(final int hash, final A first, final B second, final C third,
+			final KeyMatcher<? super E, ? super A, ? super B, ? super C> matcher) {
+		final Segment<E> segment = segmentFor(hash);
+		synchronized (segment) {
+			segment.cleanUp(CLEANUP_LIMIT);
+			return segment.find(hash, first, second, third, matcher);
+		}
+	}
+
+	/**
+	 * Variant of {@link #unify(int, Predicate, Supplier)} that passes the key objects to the matcher and the factory.
+	 *
+	 * @return the existing object, or the newly created one.
+	 */
+	public <A, B, C> E unify(final int hash, final A first, final B second, final C third,
+			final KeyMatcher<? super E, ? super A, ? super B, ? super C> matcher,
+			final KeyFactory<? extends E, ? super A, ? super B, ? super C> factory) {
+		final Segment<E> segment = segmentFor(hash);
+		synchronized (segment) {
+			segment.cleanUp(CLEANUP_LIMIT);
+			final E old = segment.find(hash, first, second, third, matcher);
+			if (old != null) {
+				return old;
+			}
+			final E created = factory.create(first, second, third, hash);
+			segment.add(hash, created);
+			return created;
+		}
+	}
+
+	/**
+	 * Variant of {@link #putIfAbsent(int, Object, Predicate)} that passes the key objects to the matcher.
+	 *
+	 * @return the object that is now stored in the hash, i.e., either an existing object or o.
+	 */
+	public <A, B, C> E putIfAbsent(final int hash, final E o, final A first, final B second, final C third,
+			final KeyMatcher<? super E, ? super A, ? super B, ? super C> matcher) {
+		final Segment<E> segment = segmentFor(hash);
+		synchronized (segment) {
+			segment.cleanUp(CLEANUP_LIMIT);
+			final E old = segment.find(hash, first, second, third, matcher);
+			if (old != null) {
+				return old;
+			}
+			segment.add(hash, o);
+			return o;
+		}
+	}
+
+	/**
+	 * Add an object without checking for an equal object.
+	 */
+	public void put(final int hash, final E o) {
+		final Segment<E> segment = segmentFor(hash);
+		synchronized (segment) {
+			segment.cleanUp(CLEANUP_LIMIT);
+			segment.add(hash, o);
+		}
+	}
+
+	/**
+	 * Specialized form of {@link #putIfAbsent(int, Object, Predicate)} that takes the hash code from the object and
+	 * compares with {@link Object#equals(Object) equals}.
+	 */
+	public E unify(final E o) {
+		return putIfAbsent(o.hashCode(), o, o::equals);
+	}
+
+	/**
+	 * Remove all entries whose objects were garbage collected. This is done incrementally by the other methods, so
+	 * there is no need to call it manually.
+	 */
+	public void cleanUp() {
+		for (final Segment<E> segment : mSegments) {
+			synchronized (segment) {
+				segment.cleanUp(Integer.MAX_VALUE);
+			}
+		}
+	}
+
+	/**
+	 * The number of entries in this hash. This may include entries whose objects were already collected.
+	 */
+	public int size() {
+		int result = 0;
+		for (final Segment<E> segment : mSegments) {
+			synchronized (segment) {
+				result += segment.mSize;
+			}
+		}
+		return result;
+	}
+
+	private static final class Entry<E> extends WeakReference<E> {
+		private final int mHash;
+		private Entry<E> mNext;
+
+		Entry(final E o, final int hash, final Entry<E> next, final ReferenceQueue<E> queue) {
+			super(o, queue);
+			mHash = hash;
+			mNext = next;
+		}
+	}
+
+	/**
+	 * A hash table with chaining whose number of buckets is a power of two. All methods have to be called while
+	 * holding the lock of the segment.
+	 */
+	private static final class Segment<E> {
+		private final ReferenceQueue<E> mQueue = new ReferenceQueue<>();
+		private Entry<E>[] mTable;
+		private int mSize;
+		private int mThreshold;
+
+		@SuppressWarnings("unchecked")
+		Segment() {
+			mTable = (Entry<E>[]) new Entry<?>[DEFAULT_SEGMENT_CAPACITY];
+			mThreshold = (int) (DEFAULT_SEGMENT_CAPACITY * LOAD_FACTOR);
+		}
+
+		private int indexFor(final int hash, final int length) {
+			return (hash ^ (hash >>> 16)) & (length - 1);
+		}
+
+		E find(final int hash, final Predicate<? super E> matcher) {
+			for (Entry<E> e = mTable[indexFor(hash, mTable.length)]; e != null; e = e.mNext) {
+				if (e.mHash == hash) {
+					final E candidate = e.get();
+					if (candidate != null && matcher.test(candidate)) {
+						return candidate;
+					}
+				}
+			}
+			return null;
+		}
+
+		<A, B, C> E find(final int hash, final A first, final B second, final C third,
+				final KeyMatcher<? super E, ? super A, ? super B, ? super C> matcher) {
+			for (Entry<E> e = mTable[indexFor(hash, mTable.length)]; e != null; e = e.mNext) {
+				if (e.mHash == hash) {
+					final E candidate = e.get();
+					if (candidate != null && matcher.matches(candidate, first, second, third)) {
+						return candidate;
+					}
+				}
+			}
+			return null;
+		}
+
+		void add(final int hash, final E o) {
+			if (++mSize > mThreshold) {
+				grow();
+			}
+			final int index = indexFor(hash, mTable.length);
+			mTable[index] = new Entry<>(o, hash, mTable[index], mQueue);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void grow() {
+			final Entry<E>[] oldTable = mTable;
+			final Entry<E>[] newTable = (Entry<E>[]) new Entry<?>[oldTable.length * 2];
+			for (int i = 0; i < oldTable.length; i++) {
+				Entry<E> next;
+				for (Entry<E> e = oldTable[i]; e != null; e = next) {
+					next = e.mNext;
+					final int index = indexFor(e.mHash, newTable.length);
+					e.mNext = newTable[index];
+					newTable[index] = e;
+				}
+			}
+			mTable = newTable;
+			mThreshold = (int) (newTable.length * LOAD_FACTOR);
+		}
+
+		@SuppressWarnings("unchecked")
+		void cleanUp(final int limit) {
+			Entry<E> died;
+			for (int i = 0; i < limit && (died = (Entry<E>) mQueue.poll()) != null; i++) {
+				final int index = indexFor(died.mHash, mTable.length);
+				Entry<E> prev = null;
+				for (Entry<E> e = mTable[index]; e != null; prev = e, e = e.mNext) {
+					if (e == died) {
+						if (prev == null) {
+							mTable[index] = e.mNext;
+						} else {
+							prev.mNext = e.mNext;
+						}
+						mSize--;
+						break;
+					}
+				}
+			}
+		}
+	}
+}
@@ -79,6 +79,11 @@ public abstract class StatisticsGeneratorWithStopwatches {
 		mRunningStopwatches.entrySet().stream().filter(a -> a.getValue()).map(a -> a.getKey()).forEach(a -> stop(a));
 	}
 
+	protected boolean isRunning(final String stopwatchName) {
+		assert mRunningStopwatches.containsKey(stopwatchName) : "no such stopwatch " + stopwatchName;
+		return mRunningStopwatches.get(stopwatchName);
+	}
+
 	protected long getElapsedTime(final String stopwatchName) throws StopwatchStillRunningException {
 		assert mRunningStopwatches.containsKey(stopwatchName) : "no such stopwatch " + stopwatchName;
 		if (mRunningStopwatches.get(stopwatchName)) {
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Util Library.
+ *
+ * The ULTIMATE Util Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Util Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Util Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Util Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Util Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.util.datastructures.CompressedBitSet;
+
+/**
+ * Compares {@link CompressedBitSet} with a {@link TreeSet} on sparse and dense inputs.
+ */
+public class CompressedBitSetTest {
+
+	@Test
+	public void testAddContains() {
+		final CompressedBitSet set = new CompressedBitSet();
+		assertTrue(set.isEmpty());
+		assertTrue(set.add(3));
+		assertFalse(set.add(3));
+		assertTrue(set.add(1 << 20));
+		assertTrue(set.contains(3));
+		assertTrue(set.contains(1 << 20));
+		assertFalse(set.contains(4));
+		assertFalse(set.contains(-1));
+		assertEquals(2, set.cardinality());
+		assertArrayEquals(new int[] { 3, 1 << 20 }, set.toArray());
+	}
+
+	@Test
+	public void testSparse() {
+		checkRandomOperations(new Random(42), 1 << 22, 2_000);
+	}
+
+	@Test
+	public void testDense() {
+		// more than 4096 elements per chunk force bitmap containers
+		checkRandomOperations(new Random(43), 1 << 17, 60_000);
+	}
+
+	private static void checkRandomOperations(final Random random, final int bound, final int elements) {
+		final CompressedBitSet set1 = new CompressedBitSet();
+		final CompressedBitSet set2 = new CompressedBitSet();
+		final TreeSet<Integer> ref1 = new TreeSet<>();
+		final TreeSet<Integer> ref2 = new TreeSet<>();
+		for (int i = 0; i < elements; i++) {
+			final int x = random.nextInt(bound);
+			assertEquals(ref1.add(x), set1.add(x));
+			final int y = random.nextInt(bound);
+			assertEquals(ref2.add(y), set2.add(y));
+		}
+		assertSameElements(ref1, set1);
+		assertSameElements(ref2, set2);
+
+		final TreeSet<Integer> refIntersection = new TreeSet<>(ref1);
+		refIntersection.retainAll(ref2);
+		final CompressedBitSet intersection = new CompressedBitSet(set1);
+		intersection.and(set2);
+		assertSameElements(refIntersection, intersection);
+		assertEquals(!refIntersection.isEmpty(), set1.intersects(set2));
+
+		final TreeSet<Integer> refUnion = new TreeSet<>(ref1);
+		refUnion.addAll(ref2);
+		final CompressedBitSet union = new CompressedBitSet(set1);
+		union.or(set2);
+		assertSameElements(refUnion, union);
+
+		// the operations above must not modify their operands
+		assertSameElements(ref1, set1);
+		assertSameElements(ref2, set2);
+	}
+
+	private static void assertSameElements(final TreeSet<Integer> expected, final CompressedBitSet actual) {
+		assertEquals(expected.size(), actual.cardinality());
+		assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), actual.toArray());
+	}
+}
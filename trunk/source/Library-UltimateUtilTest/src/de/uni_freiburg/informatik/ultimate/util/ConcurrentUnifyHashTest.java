@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Util Library.
+ *
+ * The ULTIMATE Util Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Util Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Util Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Util Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Util Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.util.datastructures.ConcurrentUnifyHash;
+
+/**
+ * Tests for {@link ConcurrentUnifyHash}.
+ */
+public class ConcurrentUnifyHashTest {
+
+	private static final class Value {
+		private final int mKey;
+
+		Value(final int key) {
+			mKey = key;
+		}
+	}
+
+	private static Value unify(final ConcurrentUnifyHash<Value> hash, final int key) {
+		// deliberately bad hash code to get long collision chains
+		return hash.unify(key % 7, v -> v.mKey == key, () -> new Value(key));
+	}
+
+	private static Value unifyKeyed(final ConcurrentUnifyHash<Value> hash, final int key) {
+		return hash.unify(key % 7, key, null, null, ConcurrentUnifyHashTest::matches,
+				(k, unused1, unused2, h) -> new Value(k));
+	}
+
+	private static boolean matches(final Value value, final Integer key, final Object unused1, final Object unused2) {
+		return value.mKey == key;
+	}
+
+	@Test
+	public void testUnify() {
+		final ConcurrentUnifyHash<Value> hash = new ConcurrentUnifyHash<>();
+		final List<Value> values = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			values.add(unify(hash, i));
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertSame(values.get(i), unify(hash, i));
+		}
+		assertEquals(1000, hash.size());
+		assertNull(hash.find(1000 % 7, v -> v.mKey == 1000));
+	}
+
+	@Test
+	public void testPutIfAbsent() {
+		final ConcurrentUnifyHash<Value> hash = new ConcurrentUnifyHash<>(1);
+		final Value first = new Value(1);
+		assertSame(first, hash.putIfAbsent(1, first, v -> v.mKey == 1));
+		assertSame(first, hash.putIfAbsent(1, new Value(1), v -> v.mKey == 1));
+		assertEquals(1, hash.size());
+	}
+
+	@Test
+	public void testConcurrentUnify() throws Exception {
+		final ConcurrentUnifyHash<Value> hash = new ConcurrentUnifyHash<>(4);
+		final int threads = 4;
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<Value[]>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				final Callable<Value[]> task = () -> {
+					final Value[] result = new Value[10000];
+					for (int i = 0; i < result.length; i++) {
+						result[i] = unify(hash, i);
+					}
+					return result;
+				};
+				results.add(executor.submit(task));
+			}
+			final Value[] reference = results.get(0).get();
+			for (final Future<Value[]> result : results) {
+				final Value[] values = result.get();
+				for (int i = 0; i < values.length; i++) {
+					assertSame(reference[i], values[i]);
+				}
+			}
+			assertEquals(reference.length, hash.size());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testKeyedUnify() {
+		final ConcurrentUnifyHash<Value> hash = new ConcurrentUnifyHash<>();
+		final List<Value> values = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			values.add(unifyKeyed(hash, i));
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertSame(values.get(i), unifyKeyed(hash, i));
+			assertSame(values.get(i), unify(hash, i));
+			assertSame(values.get(i), hash.find(i % 7, i, null, null, ConcurrentUnifyHashTest::matches));
+		}
+		assertEquals(1000, hash.size());
+		assertNull(hash.find(1000 % 7, 1000, null, null, ConcurrentUnifyHashTest::matches));
+		assertSame(values.get(1), hash.putIfAbsent(1, new Value(1), 1, null, null, ConcurrentUnifyHashTest::matches));
+		assertEquals(1000, hash.size());
+	}
+
+	/**
+	 * Checks that collected entries are removed and live entries are kept. The test waits until the garbage collector
+	 * has cleared its own weak references to the dropped values; the weak references of the hash to these values are
+	 * cleared at the same time. Hence the test does not depend on the timing of the garbage collector, only on the
+	 * garbage collector running at all within the deadline.
+	 */
+	@Test
+	public void testCleanUp() throws InterruptedException {
+		final ConcurrentUnifyHash<Value> hash = new ConcurrentUnifyHash<>();
+		final List<Value> live = new ArrayList<>();
+		final List<WeakReference<Value>> dropped = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			final Value value = unify(hash, i);
+			if (i % 2 == 0) {
+				live.add(value);
+			} else {
+				dropped.add(new WeakReference<>(value));
+			}
+		}
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (!allCleared(dropped) && System.nanoTime() < deadline) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assumeTrue("garbage collector did not run", allCleared(dropped));
+		// the reference handler thread enqueues the cleared entries asynchronously
+		hash.cleanUp();
+		while (hash.size() > live.size() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+			hash.cleanUp();
+		}
+		assertEquals(live.size(), hash.size());
+		for (int i = 0; i < live.size(); i++) {
+			assertSame(live.get(i), unify(hash, 2 * i));
+		}
+		assertEquals(live.size(), hash.size());
+	}
+
+	private static boolean allCleared(final List<WeakReference<Value>> references) {
+		for (final WeakReference<Value> reference : references) {
+			if (reference.get() != null) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -57,6 +57,10 @@ public interface Config {
 	public final static boolean DEEP_BACKTRACK = true;
 	/// When to restart
 	public final static int RESTART_FACTOR = 500;
+	/// Growth of the restart interval if geometric restarts are used
+	public final static double GEOMETRIC_RESTART_FACTOR = 1.5;
+	/// Maximal size of learned clauses that are shared with other engines
+	public final static int SHARED_CLAUSE_SIZE = 2;
 	/// The default random seed
 	// Currently delays random splits until the 10000th split...
 	public final static long RANDOM_SEED = 11350294L;
@@ -69,6 +73,18 @@ public interface Config {
 	public static final boolean INITIAL_PHASE_BIAS_JW = true;
 	/// Print information statistics on restarts
 	public static final boolean PRINT_STATISTICS = !COMPETITION;
+	/// Number of conflicts before the first simplification of the clause database
+	public static final int INPROCESSING_INTERVAL = 2000;
+	/// Growth of the number of conflicts between two simplifications
+	public static final double INPROCESSING_INTERVAL_FACTOR = 1.5;
+	/// Maximal number of literals visited by subsumption and variable elimination per simplification
+	public static final int INPROCESSING_EFFORT = 2000000;
+	/// Maximal number of learned clauses vivified per simplification
+	public static final int VIVIFICATION_LIMIT = 500;
+	/// Maximal number of clauses containing an atom that is eliminated
+	public static final int ELIMINATION_OCCURRENCES = 16;
+	/// Maximal size of a resolvent created by variable elimination
+	public static final int ELIMINATION_RESOLVENT_SIZE = 24;
 
 	////// Quantifier Support
 	/// Debug unused variable elimination
@@ -67,6 +67,10 @@ public abstract class DPLLAtom extends Literal {
 	public Object  mExplanation;
 	Clause.WatchList mBacktrackWatchers = new Clause.WatchList();
 	int mAtomQueueIndex = -1;
+	/**
+	 * Dense index of this atom used by the conflict analysis, or -1 if none was assigned yet.
+	 */
+	int mAtomId = -1;
 	final int mAssertionstacklevel;
 
 	public DPLLAtom(int hash, int assertionstacklevel) {
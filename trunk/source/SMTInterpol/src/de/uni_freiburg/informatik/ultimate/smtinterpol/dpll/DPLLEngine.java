@@ -21,8 +21,8 @@ package de.uni_freiburg.informatik.ultimate.smtinterpol.dpll;
 import java.io.PrintWriter;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -43,7 +43,6 @@ import de.uni_freiburg.informatik.ultimate.smtinterpol.proof.ProofNode;
 import de.uni_freiburg.informatik.ultimate.smtinterpol.proof.ResolutionNode;
 import de.uni_freiburg.informatik.ultimate.smtinterpol.proof.ResolutionNode.Antecedent;
 import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.TerminationRequest;
-import de.uni_freiburg.informatik.ultimate.smtinterpol.util.CuckooHashSet;
 import de.uni_freiburg.informatik.ultimate.util.datastructures.ScopedArrayList;
 import de.uni_freiburg.informatik.ultimate.util.datastructures.ScopedHashMap;
 
@@ -103,6 +102,7 @@ public class DPLLEngine {
 	private long mSetTime, mCheckTime, mBacktrackTime;
 	private final Theory mSmtTheory;
 	private int mNumRandomSplits;
+	private int mNumExportedClauses, mNumImportedClauses;
 
 	private boolean mHasModel;
 
@@ -120,7 +120,7 @@ public class DPLLEngine {
 	 * is added to the DPLL stack and removed on backtracking. The DPLL stack usually works as a stack, but there are
 	 * some exceptions where literals are created and inserted into the middle of the stack.
 	 */
-	ArrayList<Literal> mDPLLStack = new ArrayList<>();
+	final LiteralTrail mDPLLStack = new LiteralTrail(this);
 
 	/**
 	 * The list of all theories.
@@ -128,6 +128,28 @@ public class DPLLEngine {
 	private ITheory[] mTheories = new ITheory[0];
 	private final AtomQueue mAtoms = new AtomQueue();
 
+	/**
+	 * Dense atom ids for the DPLL stack, the conflict analysis, and the inprocessing. Ids of removed atoms are reused.
+	 */
+	private DPLLAtom[] mAtomsById = new DPLLAtom[64];
+	private int mNextAtomId = 0;
+	private int[] mFreeAtomIds = new int[16];
+	private int mNumFreeAtomIds = 0;
+
+	/**
+	 * Data structures reused by every conflict analysis to avoid allocating hash sets and maps for each conflict.
+	 */
+	private final LiteralSet mConflict = new LiteralSet(this);
+	private final LiteralSet mLevel0Ants = new LiteralSet(this);
+	private final LiteralSet mLevel0ProofLits = new LiteralSet(this);
+	private int[] mRedundancyStamps = new int[64];
+	private byte[] mRedundancyStatus = new byte[64];
+	private int mRedundancyStamp = 0;
+	private final ArrayDeque<Literal> mRedundancyTodo = new ArrayDeque<>();
+	private static final byte REDUNDANT = 1;
+	private static final byte FAILED = 2;
+	private static final byte KEEP = 3;
+
 	private int mCurrentDecideLevel = 0;
 	private int mBaseLevel = 0;
 	private boolean mPGenabled = false;
@@ -136,6 +158,26 @@ public class DPLLEngine {
 	// Random source for the solver.
 	private final Random mRandom;
 
+	/* Diversification used by portfolio solving */
+	/**
+	 * Use geometrically growing restart intervals instead of the Luby sequence.
+	 */
+	private boolean mGeometricRestarts = false;
+	/**
+	 * Choose the initial phase of the atoms randomly instead of using the Jeroslow-Wang heuristic.
+	 */
+	private boolean mRandomPhases = false;
+	/**
+	 * Exchange of short learned clauses with other engines, or null if clauses are not shared.
+	 */
+	private IClauseSharing mClauseSharing = null;
+
+	/**
+	 * Simplification of the clause database on restarts.
+	 */
+	private final Inprocessor mInprocessor = new Inprocessor(this);
+	private boolean mInprocessing = false;
+
 	private final TerminationRequest mCancel;
 
 	public DPLLEngine(final Theory smtTheory, final LogProxy logger, final TerminationRequest cancel) {
@@ -231,7 +273,7 @@ public class DPLLEngine {
 	 * @return a conflict clause if a conflict was detected.
 	 */
 	@SuppressWarnings("unused")
-	private Clause propagateInternal() {
+	Clause propagateInternal() {
 
 		while (true) {
 			Clause conflict = propagateTheories();
@@ -532,12 +574,61 @@ public class DPLLEngine {
 		assert clause.mStacklevel == mPushPopLevel;
 		mClauses.prepend(clause);
 		watchClause(clause);
+		mInprocessor.clauseAdded(clause);
 	}
 
 	void removeClause(final Clause c) {
 		c.removeFromList();
 	}
 
+	/**
+	 * Remove an input clause that is implied by the remaining clauses.
+	 */
+	void removeInputClause(final Clause clause) {
+		mNumAxiomClauses--;
+		clause.removeFromList();
+	}
+
+	/**
+	 * Add an input clause again that was removed by {@link #removeInputClause(Clause)}. Its stack level must be the
+	 * current assertion stack level.
+	 */
+	void restoreInputClause(final Clause clause) {
+		assert clause.mStacklevel == mPushPopLevel;
+		clause.mActivity = Double.POSITIVE_INFINITY;
+		mNumAxiomClauses++;
+		mClauses.prepend(clause);
+		watchClause(clause);
+	}
+
+	/**
+	 * Add a learned clause that was derived outside of the conflict analysis. The activity of the clause is kept.
+	 */
+	void addLearnedClause(final Clause clause) {
+		mNumClauses++;
+		mLearnedClauses.append(clause);
+		watchClause(clause);
+	}
+
+	void removeLearnedClause(final Clause clause) {
+		mNumClauses--;
+		clause.removeFromList();
+	}
+
+	/**
+	 * Replace a clause in the input or learned clause list by a stronger clause at the same position. The old clause
+	 * is removed; its watchers are dropped lazily by the propagation.
+	 */
+	void replaceClause(final Clause oldClause, final Clause newClause) {
+		assert newClause.mStacklevel <= oldClause.mStacklevel;
+		newClause.mNext = oldClause.mNext;
+		newClause.mPrev = oldClause.mPrev;
+		oldClause.mPrev.mNext = newClause;
+		oldClause.mNext.mPrev = newClause;
+		oldClause.mNext = oldClause.mPrev = null;
+		watchClause(newClause);
+	}
+
 	public void addFormulaClause(final Literal[] literals, final ProofNode proof) {
 		addFormulaClause(literals, proof, null);
 	}
@@ -562,6 +653,26 @@ public class DPLLEngine {
 		}
 		mLearnedClauses.append(clause);
 		watchClause(clause);
+		if (mClauseSharing != null && clause.getSize() <= Config.SHARED_CLAUSE_SIZE) {
+			mNumExportedClauses++;
+			mClauseSharing.exportClause(clause.mLiterals);
+		}
+	}
+
+	/**
+	 * Add the clauses learned by other engines. They are added like learned clauses but without proof and are not
+	 * shared again.
+	 */
+	private void importSharedClauses() {
+		Literal[] literals;
+		while ((literals = mClauseSharing.importClause()) != null) {
+			final Clause clause = new Clause(literals, mPushPopLevel);
+			mNumImportedClauses++;
+			mNumClauses++;
+			clause.mActivity = literals.length <= 2 ? Double.POSITIVE_INFINITY : mClsScale;
+			mLearnedClauses.append(clause);
+			watchClause(clause);
+		}
 	}
 
 	// public void addInstantiationClause(Literal[] lits) {
@@ -577,19 +688,18 @@ public class DPLLEngine {
 
 	private boolean checkDecideLevel() {
 		int decision = 0;
-		int i = 0;
-		for (final Literal lit : mDPLLStack) {
+		for (int i = 0; i < mDPLLStack.size(); i++) {
+			final Literal lit = mDPLLStack.get(i);
 			if (lit.getAtom().mExplanation == null) {
 				decision++;
 			}
 			assert lit.getAtom().mStackPosition == i;
 			assert lit.getAtom().mDecideLevel == decision;
-			i++;
 		}
 		return decision == mCurrentDecideLevel;
 	}
 
-	private int countLitsOnDecideLevel(final Set<Literal> conflict) {
+	private int countLitsOnDecideLevel(final LiteralSet conflict) {
 		int numLits = 0;
 		int stackPtr = mDPLLStack.size();
 		while (true) {
@@ -615,7 +725,10 @@ public class DPLLEngine {
 	 */
 	private Clause explainConflict(final Clause clause) {
 		mLogger.debug("explain conflict %s", clause);
-		final HashSet<Literal> level0Ants = new HashSet<>();
+		final LiteralSet level0Ants = mLevel0Ants;
+		final LiteralSet conflict = mConflict;
+		level0Ants.clear();
+		conflict.clear();
 		List<Antecedent> antecedents = null;
 		if (isProofGenerationEnabled()) {
 			antecedents = new ArrayList<>();
@@ -625,7 +738,6 @@ public class DPLLEngine {
 		assert checkDecideLevel();
 		mAtomScale *= Config.ATOM_ACTIVITY_FACTOR;
 		mClsScale *= Config.CLS_ACTIVITY_FACTOR;
-		final Set<Literal> conflict = new CuckooHashSet<>();
 		int maxDecideLevel = mBaseLevel + 1;
 		int numLitsOnMaxDecideLevel = 0;
 		int numAssumptions = 0;
@@ -658,33 +770,7 @@ public class DPLLEngine {
 			 * Unsatisfiable
 			 */
 			/* add assumptions from level0 antecedents */
-			for (final Literal lit0 : level0Ants) {
-				final Clause c = getLevel0(lit0);
-				for (final Literal assumptionLit : c.mLiterals) {
-					if (assumptionLit != lit0) {
-						conflict.add(assumptionLit.negate());
-					}
-				}
-			}
-			final Literal[] newlits = new Literal[conflict.size()];
-			int i = 0;
-			for (final Literal l : conflict) {
-				newlits[i++] = l.negate();
-			}
-			assert i == newlits.length;
-			final Clause resolution = new Clause(newlits, expstacklevel);
-			if (isProofGenerationEnabled()) {
-				for (final Literal l0 : level0Ants) {
-					antecedents.add(new Antecedent(l0, getLevel0(l0)));
-				}
-				if (antecedents.isEmpty()) {
-					// TODO: only one clause object needed here.
-					resolution.setProof(clause.getProof());
-				} else {
-					final Antecedent[] ants = antecedents.toArray(new Antecedent[antecedents.size()]);
-					resolution.setProof(new ResolutionNode(clause, ants));
-				}
-			}
+			final Clause resolution = createResolvent(clause, expstacklevel, antecedents);
 			// Remember unsat clause (which might not be empty, by conflicting
 			// against assumptions)
 			mUnsatClause = resolution;
@@ -692,7 +778,7 @@ public class DPLLEngine {
 		}
 		assert numLitsOnMaxDecideLevel >= 1;
 		while (mCurrentDecideLevel > maxDecideLevel) {
-			final Literal lit = mDPLLStack.remove(mDPLLStack.size() - 1);
+			final Literal lit = mDPLLStack.removeLast();
 			assert !conflict.contains(lit.negate());
 			assert !conflict.contains(lit);
 			backtrackLiteral(lit);
@@ -708,7 +794,7 @@ public class DPLLEngine {
 			if (!conflict.contains(lit)) {
 				assert lit.getAtom().mExplanation != null;
 				assert checkDecideLevel();
-				mDPLLStack.remove(mDPLLStack.size() - 1);
+				mDPLLStack.removeLast();
 				backtrackLiteral(lit);
 				assert checkDecideLevel();
 				continue;
@@ -722,7 +808,7 @@ public class DPLLEngine {
 			if (isProofGenerationEnabled()) {
 				antecedents.add(new Antecedent(lit, expl));
 			}
-			mDPLLStack.remove(mDPLLStack.size() - 1);
+			mDPLLStack.removeLast();
 			backtrackLiteral(lit);
 			assert checkDecideLevel();
 			conflict.remove(lit);
@@ -755,7 +841,7 @@ public class DPLLEngine {
 		assert countLitsOnDecideLevel(conflict) == numLitsOnMaxDecideLevel;
 		assert numLitsOnMaxDecideLevel == 1;
 		while (mCurrentDecideLevel >= maxDecideLevel) {
-			final Literal lit = mDPLLStack.remove(mDPLLStack.size() - 1);
+			final Literal lit = mDPLLStack.removeLast();
 			assert !conflict.contains(lit.negate());
 			backtrackLiteral(lit);
 			assert checkDecideLevel();
@@ -769,13 +855,12 @@ public class DPLLEngine {
 
 		mLogger.debug("Backtrack to %d", mDPLLStack.size());
 
-		final HashMap<Literal, Integer> redundancy = computeRedundancy(conflict);
-		final Integer REDUNDANT = 1;
+		computeRedundancy(conflict);
 
 		int stackPtr = mDPLLStack.size();
 		while (stackPtr > mNumSolvedAtoms) {
 			final Literal lit = mDPLLStack.get(--stackPtr);
-			if (redundancy.get(lit) == REDUNDANT && conflict.contains(lit)) {
+			if (getRedundancy(lit) == REDUNDANT && conflict.contains(lit)) {
 				/* Do a resolution step with explanation */
 				final Clause expl = getExplanation(lit);
 				expl.mActivity += mClsScale;
@@ -805,8 +890,33 @@ public class DPLLEngine {
 			}
 		}
 		mLogger.debug("removing redundancy yields %s", conflict);
+		final Clause resolution = createResolvent(clause, expstacklevel, antecedents);
+		mLogger.debug("Resolved to %s", resolution);
+		// If resolution size is number of literals we are unsat
+		if (resolution.getSize() == numAssumptions) {
+			mUnsatClause = resolution;
+		}
+		return resolution;
+	}
+
+	/**
+	 * Create the learned clause from the literals collected in {@link #mConflict} and {@link #mLevel0Ants}. This adds
+	 * the assumptions the level 0 antecedents depend on, builds the proof and clears both sets for the next conflict.
+	 *
+	 * @param clause
+	 *            the conflict clause that was explained.
+	 * @param expstacklevel
+	 *            the stack level of the resolvent.
+	 * @param antecedents
+	 *            the antecedents used so far, or null if proof generation is disabled.
+	 * @return the resolvent.
+	 */
+	private Clause createResolvent(final Clause clause, final int expstacklevel, final List<Antecedent> antecedents) {
+		final LiteralSet conflict = mConflict;
+		final LiteralSet level0Ants = mLevel0Ants;
 		/* add assumptions from level0 antecedents */
-		for (final Literal lit0 : level0Ants) {
+		for (int j = 0; j < level0Ants.size(); j++) {
+			final Literal lit0 = level0Ants.get(j);
 			final Clause c = getLevel0(lit0);
 			for (final Literal assumptionLit : c.mLiterals) {
 				if (assumptionLit != lit0) {
@@ -815,14 +925,13 @@ public class DPLLEngine {
 			}
 		}
 		final Literal[] newlits = new Literal[conflict.size()];
-		int i = 0;
-		for (final Literal l : conflict) {
-			newlits[i++] = l.negate();
+		for (int i = 0; i < newlits.length; i++) {
+			newlits[i] = conflict.get(i).negate();
 		}
-		assert newlits[newlits.length - 1] != null;
 		final Clause resolution = new Clause(newlits, expstacklevel);
 		if (isProofGenerationEnabled()) {
-			for (final Literal l0 : level0Ants) {
+			for (int j = 0; j < level0Ants.size(); j++) {
+				final Literal l0 = level0Ants.get(j);
 				antecedents.add(new Antecedent(l0, getLevel0(l0)));
 			}
 			if (antecedents.isEmpty()) {
@@ -833,11 +942,8 @@ public class DPLLEngine {
 				resolution.setProof(new ResolutionNode(clause, ants));
 			}
 		}
-		mLogger.debug("Resolved to %s", resolution);
-		// If resolution size is number of literals we are unsat
-		if (newlits.length == numAssumptions) {
-			mUnsatClause = resolution;
-		}
+		conflict.clear();
+		level0Ants.clear();
 		return resolution;
 	}
 
@@ -861,13 +967,92 @@ public class DPLLEngine {
 		return false;
 	}
 
-	private final int level0resolve(final Literal l, final Set<Literal> level0Ants, final int sl) {
+	/**
+	 * Derive a clause that consists only of the negated decisions and an optional implied literal. This resolves the
+	 * start clause with the explanations of all literals that were propagated above decision level 0. It is used by
+	 * the vivification and must only be called without assumptions.
+	 *
+	 * @param start
+	 *            a clause whose literals are all false except for the implied literal.
+	 * @param implied
+	 *            a true literal of the start clause that is kept in the result, or null.
+	 * @return the derived clause including its proof.
+	 */
+	Clause explainByDecisions(final Clause start, final Literal implied) {
+		assert mBaseLevel == 0 && mAssumptionLiterals.isEmpty();
+		final LiteralSet level0Ants = mLevel0Ants;
+		final LiteralSet conflict = mConflict;
+		level0Ants.clear();
+		conflict.clear();
+		final List<Antecedent> antecedents = isProofGenerationEnabled() ? new ArrayList<>() : null;
+		int expstacklevel = start.mStacklevel;
+		for (final Literal lit : start.mLiterals) {
+			if (lit == implied) {
+				conflict.add(lit.negate());
+			} else if (lit.getAtom().mDecideLevel > 0) {
+				conflict.add(lit.negate());
+			} else {
+				expstacklevel = level0resolve(lit, level0Ants, expstacklevel);
+			}
+		}
+		for (int i = mDPLLStack.size() - 1; i >= 0; i--) {
+			final Literal lit = mDPLLStack.get(i);
+			if (lit.getAtom().mDecideLevel == 0) {
+				break;
+			}
+			if (lit.getAtom().mExplanation == null || !conflict.contains(lit)) {
+				continue;
+			}
+			final Clause expl = getExplanation(lit);
+			expstacklevel = Math.max(expstacklevel, expl.mStacklevel);
+			if (isProofGenerationEnabled()) {
+				antecedents.add(new Antecedent(lit, expl));
+			}
+			conflict.remove(lit);
+			for (final Literal l : expl.mLiterals) {
+				if (l != lit) {
+					assert l.getAtom().mDecideStatus == l.negate();
+					if (l.getAtom().mDecideLevel > 0) {
+						conflict.add(l.negate());
+					} else {
+						expstacklevel = level0resolve(l, level0Ants, expstacklevel);
+					}
+				}
+			}
+		}
+		return createResolvent(start, expstacklevel, antecedents);
+	}
+
+	/**
+	 * Decide a literal and propagate it.
+	 *
+	 * @return a conflict clause if a conflict was detected.
+	 */
+	Clause decide(final Literal lit) {
+		increaseDecideLevel();
+		final Clause conflict = setLiteral(lit);
+		return conflict != null ? conflict : propagateInternal();
+	}
+
+	/**
+	 * Undo all decisions.
+	 *
+	 * @return a conflict clause if a theory detected a conflict on backtracking.
+	 */
+	Clause backtrackToLevelZero() {
+		while (mCurrentDecideLevel > 0) {
+			backtrackLiteral(mDPLLStack.removeLast());
+		}
+		return finalizeBacktrack();
+	}
+
+	private final int level0resolve(final Literal l, final LiteralSet level0Ants, final int sl) {
 		final Clause l0 = getLevel0(l.negate());
 		level0Ants.add(l.negate());
 		return l0.mStacklevel > sl ? l0.mStacklevel : sl;
 	}
 
-	private Clause getExplanation(final Literal lit) {
+	Clause getExplanation(final Literal lit) {
 		final Object explanation = lit.getAtom().mExplanation;
 		if (explanation instanceof ITheory) {
 			final Clause expl = ((ITheory) explanation).getUnitClause(lit);
@@ -881,21 +1066,93 @@ public class DPLLEngine {
 		}
 	}
 
-	private HashMap<Literal, Integer> computeRedundancy(final Set<Literal> conflict) {
-		final Integer REDUNDANT = 1;
-		final Integer FAILED = 2;
-		final Integer KEEP = 3;// NOCHECKSTYLE
-		final HashMap<Literal, Integer> status = new HashMap<>();
-		for (final Literal l : conflict) {
+	/**
+	 * Get the dense id of an atom, assigning a fresh one if it has none yet.
+	 */
+	int getAtomId(final DPLLAtom atom) {
+		if (atom.mAtomId < 0) {
+			final int id = mNumFreeAtomIds > 0 ? mFreeAtomIds[--mNumFreeAtomIds] : mNextAtomId++;
+			if (id == mAtomsById.length) {
+				mAtomsById = Arrays.copyOf(mAtomsById, 2 * id);
+			}
+			assert mAtomsById[id] == null;
+			mAtomsById[id] = atom;
+			atom.mAtomId = id;
+		}
+		return atom.mAtomId;
+	}
+
+	/**
+	 * Get the code of a literal, which is twice the id of its atom plus one if the literal is negated.
+	 */
+	int getLiteralCode(final Literal lit) {
+		return 2 * getAtomId(lit.getAtom()) + (lit.getSign() < 0 ? 1 : 0);
+	}
+
+	/**
+	 * Get the literal for a code returned by {@link #getLiteralCode(Literal)}. Its atom must not have been removed since.
+	 */
+	Literal getLiteral(final int code) {
+		final DPLLAtom atom = mAtomsById[code >> 1];
+		return (code & 1) == 0 ? atom : atom.negate();
+	}
+
+	private void releaseAtomId(final DPLLAtom atom) {
+		if (atom.mAtomId >= 0) {
+			assert mAtomsById[atom.mAtomId] == atom;
+			mAtomsById[atom.mAtomId] = null;
+			if (mNumFreeAtomIds == mFreeAtomIds.length) {
+				mFreeAtomIds = Arrays.copyOf(mFreeAtomIds, 2 * mNumFreeAtomIds);
+			}
+			mFreeAtomIds[mNumFreeAtomIds++] = atom.mAtomId;
+			atom.mAtomId = -1;
+		}
+	}
+
+	/**
+	 * Get the redundancy status of a literal computed by the last call of {@link #computeRedundancy(LiteralSet)}.
+	 *
+	 * @return {@link #REDUNDANT}, {@link #FAILED}, {@link #KEEP}, or 0 if the literal has no status.
+	 */
+	private byte getRedundancy(final Literal lit) {
+		final int id = lit.getAtom().mAtomId;
+		if (id >= 0 && id < mRedundancyStamps.length && mRedundancyStamps[id] == mRedundancyStamp) {
+			return mRedundancyStatus[id];
+		}
+		return 0;
+	}
+
+	private void setRedundancy(final Literal lit, final byte status) {
+		final int id = getAtomId(lit.getAtom());
+		if (id >= mRedundancyStamps.length) {
+			final int newSize = Math.max(2 * mRedundancyStamps.length, id + 1);
+			mRedundancyStamps = Arrays.copyOf(mRedundancyStamps, newSize);
+			mRedundancyStatus = Arrays.copyOf(mRedundancyStatus, newSize);
+		}
+		mRedundancyStamps[id] = mRedundancyStamp;
+		mRedundancyStatus[id] = status;
+	}
+
+	/**
+	 * Compute for the literals in the conflict, which of them are implied by the other literals. The result can be
+	 * queried with {@link #getRedundancy(Literal)} until the next call.
+	 */
+	private void computeRedundancy(final LiteralSet conflict) {
+		if (++mRedundancyStamp == Integer.MAX_VALUE) {
+			Arrays.fill(mRedundancyStamps, 0);
+			mRedundancyStamp = 1;
+		}
+		for (int i = 0; i < conflict.size(); i++) {
+			final Literal l = conflict.get(i);
 			if (l.getAtom().getDecideStatus() != null) {
 				assert l.getAtom().getDecideStatus() == l;
-				status.put(l, REDUNDANT);
+				setRedundancy(l, REDUNDANT);
 			}
 		}
-		final ArrayDeque<Literal> todo = new ArrayDeque<>();
-		final Iterator<Literal> it = conflict.iterator();
-		litloop: while (it.hasNext()) {
-			final Literal lit = it.next();
+		final ArrayDeque<Literal> todo = mRedundancyTodo;
+		assert todo.isEmpty();
+		litloop: for (int i = 0; i < conflict.size(); i++) {
+			final Literal lit = conflict.get(i);
 			if (lit.getAtom().getDecideStatus() == null) {
 				continue;
 			}
@@ -907,9 +1164,9 @@ public class DPLLEngine {
 				// logger.info("check "+next+" expl "+expl);
 				if (expl == null) {
 					while (todo.size() > 1) {
-						status.put(todo.removeFirst(), FAILED);
+						setRedundancy(todo.removeFirst(), FAILED);
 					}
-					status.put(todo.removeFirst(), KEEP);
+					setRedundancy(todo.removeFirst(), KEEP);
 					continue litloop;
 				}
 				for (final Literal l : expl.mLiterals) {
@@ -917,23 +1174,22 @@ public class DPLLEngine {
 					if (l != next && l.getAtom().getDecideLevel() > mBaseLevel) {
 						final Literal lneg = l.negate();
 						assert lneg.getAtom().getDecideStatus() == lneg;
-						final Integer st = status.get(lneg);
+						final byte st = getRedundancy(lneg);
 						if (st == FAILED) {
 							while (todo.size() > 1) {
-								status.put(todo.removeFirst(), FAILED);
+								setRedundancy(todo.removeFirst(), FAILED);
 							}
-							status.put(todo.removeFirst(), KEEP);
+							setRedundancy(todo.removeFirst(), KEEP);
 							continue litloop;
-						} else if (st == null) {
+						} else if (st == 0) {
 							todo.addFirst(lneg);
 							continue todoloop;
 						}
 					}
 				}
-				status.put(todo.removeFirst(), REDUNDANT);
+				setRedundancy(todo.removeFirst(), REDUNDANT);
 			}
 		}
-		return status;
 	}
 
 	private boolean checkUnitClause(final Clause unit, final Literal lit) {
@@ -952,7 +1208,7 @@ public class DPLLEngine {
 		return found;
 	}
 
-	private Clause finalizeBacktrack() {
+	Clause finalizeBacktrack() {
 		mWatcherBackList.moveAll(mWatcherSetList);
 		for (final ITheory t : mTheories) {
 			final Clause conflict = t.backtrackComplete();
@@ -963,7 +1219,7 @@ public class DPLLEngine {
 		return null;
 	}
 
-	private void findBacktrackingPoint(final Set<Literal> conflict) {
+	private void findBacktrackingPoint(final LiteralSet conflict) {
 		int i = mDPLLStack.size();
 		while (i > 0) {
 			final Literal lit = mDPLLStack.get(--i);
@@ -972,7 +1228,7 @@ public class DPLLEngine {
 			}
 			if (lit.getAtom().mExplanation == null) {
 				while (mDPLLStack.size() > i) {
-					backtrackLiteral(mDPLLStack.remove(mDPLLStack.size() - 1));
+					backtrackLiteral(mDPLLStack.removeLast());
 				}
 			}
 		}
@@ -1074,6 +1330,10 @@ public class DPLLEngine {
 			}
 			mLogger.info("Atoms: " + mNumSolvedAtoms + "/" + (mAtoms.size() + mDPLLStack.size()) + " Clauses: "
 					+ mNumClauses + " Axioms: " + mNumAxiomClauses);
+			if (mClauseSharing != null) {
+				mLogger.info("Shared clauses: exported " + mNumExportedClauses + " imported " + mNumImportedClauses);
+			}
+			mInprocessor.printStatistics(mLogger);
 			for (final ITheory t : mTheories) {
 				t.printStatistics(mLogger);
 			}
@@ -1092,7 +1352,11 @@ public class DPLLEngine {
 			return false;
 		}
 		try {
-			if (Config.INITIAL_PHASE_BIAS_JW) {
+			if (mRandomPhases) {
+				for (final DPLLAtom atom : mAtoms) {
+					atom.setPreferredStatus(mRandom.nextBoolean() ? atom : atom.negate());
+				}
+			} else if (Config.INITIAL_PHASE_BIAS_JW) {
 				// Compute for all remaining atoms an initial polarity according
 				// to Jeruslaw Wang
 				final Map<Literal, Double> scores = new HashMap<>();
@@ -1170,6 +1434,10 @@ public class DPLLEngine {
 							}
 							// @assert conflict != null ==> suggested == true
 							if (!suggested && mWatcherBackList.isEmpty() && mAtoms.isEmpty()) {
+								if (mInprocessor.restoreEliminatedClauses()) {
+									// The model must also satisfy the clauses of the eliminated atoms
+									continue;
+								}
 								/* We found a model */
 								if (mLogger.isInfoEnabled()) {
 									printStatistics();
@@ -1178,7 +1446,8 @@ public class DPLLEngine {
 										t.dumpModel(mLogger);
 									}
 									if (mLogger.isTraceEnabled()) {
-										for (final Literal dlit : mDPLLStack) {
+										for (int i = 0; i < mDPLLStack.size(); i++) {
+											final Literal dlit = mDPLLStack.get(i);
 											mLogger.trace("%d: %s", dlit.hashCode(), dlit);
 										}
 									}
@@ -1221,8 +1490,8 @@ public class DPLLEngine {
 					for (final DPLLAtom a : mAtoms) {
 						a.mActivity *= Double.MIN_NORMAL;
 					}
-					for (final Literal l : mDPLLStack) {
-						l.getAtom().mActivity *= Double.MIN_NORMAL;
+					for (int i = 0; i < mDPLLStack.size(); i++) {
+						mDPLLStack.get(i).getAtom().mActivity *= Double.MIN_NORMAL;
 					}
 					mAtomScale *= Double.MIN_NORMAL;
 				}
@@ -1247,7 +1516,7 @@ public class DPLLEngine {
 					}
 					if (restartpos != -1) {
 						while (mDPLLStack.size() > restartpos) {
-							final Literal lit = mDPLLStack.remove(mDPLLStack.size() - 1);
+							final Literal lit = mDPLLStack.removeLast();
 							assert lit.getAtom().mDecideLevel != mBaseLevel;
 							final Object litexpl = lit.getAtom().mExplanation;
 							if (litexpl instanceof Clause) {
@@ -1260,11 +1529,30 @@ public class DPLLEngine {
 					unlearnClauses(mPushPopLevel);
 					conflict = finalizeBacktrack();
 					assert conflict == null;
+					if (mClauseSharing != null && !isProofGenerationEnabled()) {
+						importSharedClauses();
+					}
+					if (mInprocessing && mBaseLevel == 0 && mInprocessor.isDue(mConflicts)) {
+						conflict = backtrackToLevelZero();
+						if (conflict == null) {
+							conflict = mInprocessor.inprocess(mConflicts);
+						}
+						if (explain(conflict)) {
+							printStatistics();
+							mLogger.info("Formula is unsat");
+							return false;
+						}
+					}
 					iteration++;
 					for (final ITheory t : mTheories) {
 						t.restart(iteration);
 					}
-					nextRestart = Config.RESTART_FACTOR * luby_super(iteration);
+					if (mGeometricRestarts) {
+						nextRestart = (int) Math.min(Integer.MAX_VALUE,
+								Config.RESTART_FACTOR * Math.pow(Config.GEOMETRIC_RESTART_FACTOR, iteration - 1));
+					} else {
+						nextRestart = Config.RESTART_FACTOR * luby_super(iteration);
+					}
 					if (Config.PRINT_STATISTICS) {
 						mLogger.info("Restart");
 						printStatistics();
@@ -1284,6 +1572,7 @@ public class DPLLEngine {
 			}
 			throw eUnknown;
 		} finally {
+			mInprocessor.restoreEliminatedClauses();
 			for (final ITheory t : mTheories) {
 				t.endCheck();
 			}
@@ -1329,6 +1618,7 @@ public class DPLLEngine {
 	public void removeAtom(final DPLLAtom atom) {
 		assert atom.mDecideStatus == null;
 		mAtoms.remove(atom);
+		releaseAtomId(atom);
 		for (final ITheory t : mTheories) {
 			t.removeAtom(atom);
 		}
@@ -1410,9 +1700,8 @@ public class DPLLEngine {
 			throw new AssertionError();
 		}
 		if (!mDPLLStack.isEmpty()) {
-			final java.util.ListIterator<Literal> literals = mDPLLStack.listIterator(mDPLLStack.size());
-			while (literals.hasPrevious()) {
-				final Literal lit = literals.previous();
+			for (int i = mDPLLStack.size() - 1; i >= 0; i--) {
+				final Literal lit = mDPLLStack.get(i);
 				final Object litexpl = lit.getAtom().mExplanation;
 				if (litexpl instanceof Clause) {
 					((Clause) litexpl).mActivity += mClsScale;
@@ -1512,9 +1801,11 @@ public class DPLLEngine {
 	private void generateLevel0Proof(final Literal lit) {
 		assert lit.getAtom().mDecideLevel <= mBaseLevel : "Level0 proof for non-level0 literal?";
 		assert !mAssumptionLiterals.contains(lit);
-		final HashSet<Literal> clauseLits = new HashSet<>();
 		final Clause c = getExplanation(lit);
 		if (c.getSize() > 1) {
+			// getExplanation may propagate further level 0 literals, so the set must only be used after it returned
+			final LiteralSet clauseLits = mLevel0ProofLits;
+			clauseLits.clear();
 			int stacklvl = c.mStacklevel;
 			final Literal[] lits = c.mLiterals;
 			Clause res;
@@ -1539,7 +1830,8 @@ public class DPLLEngine {
 				}
 			}
 			clauseLits.add(lit);
-			final Literal[] arrayLits = clauseLits.toArray(new Literal[clauseLits.size()]);
+			final Literal[] arrayLits = clauseLits.toArray();
+			clauseLits.clear();
 			if (isProofGenerationEnabled()) {
 				res = new Clause(arrayLits, new ResolutionNode(c, ants), stacklvl);
 			} else {
@@ -1632,6 +1924,8 @@ public class DPLLEngine {
 				{ "Theory_propagations", mTProps }, { "Decides", mDecides }, { "Random_splits", mNumRandomSplits },
 				{ "Num_Atoms", mAtoms.size() + mDPLLStack.size() }, { "Solved_Atoms", mNumSolvedAtoms },
 				{ "Clauses", mNumClauses }, { "Axioms", mNumAxiomClauses },
+				{ "Exported_clauses", mNumExportedClauses }, { "Imported_clauses", mNumImportedClauses },
+				{ "Inprocessing", mInprocessor.getStatistics() },
 				{ "Times", new Object[][] { { "Explain", mExplainTime }, { "Propagation", mPropTime },
 						{ "Set", mSetTime }, { "Check", mCheckTime }, { "Backtrack", mBacktrackTime } } } };
 		res[0] = new Object[] { ":Core", mystats };
@@ -1719,9 +2013,44 @@ public class DPLLEngine {
 		mRandom.setSeed(seed);
 	}
 
+	/**
+	 * Enable or disable the simplification of the clause database on restarts (subsumption, vivification, and
+	 * variable elimination).
+	 */
+	public void setInprocessing(final boolean inprocessing) {
+		mInprocessing = inprocessing;
+	}
+
+	/**
+	 * Choose between restarts following the Luby sequence (the default) and geometrically growing restart
+	 * intervals.
+	 */
+	public void setGeometricRestarts(final boolean geometric) {
+		mGeometricRestarts = geometric;
+	}
+
+	/**
+	 * Choose the initial phase of all undecided atoms randomly at the start of every check instead of using the
+	 * Jeroslow-Wang heuristic.
+	 */
+	public void setRandomPhases(final boolean random) {
+		mRandomPhases = random;
+	}
+
+	/**
+	 * Set the exchange used to share short learned clauses with other engines. Imported clauses have no proof, so
+	 * clauses are only imported if proof generation is disabled.
+	 *
+	 * @param sharing
+	 *            the clause exchange, or null to stop sharing clauses.
+	 */
+	public void setClauseSharing(final IClauseSharing sharing) {
+		mClauseSharing = sharing;
+	}
+
 	public void flipDecisions() {
 		while (mDPLLStack.size() > mBaseLevel + mNumSolvedAtoms) {
-			final Literal lit = mDPLLStack.remove(mDPLLStack.size() - 1);
+			final Literal lit = mDPLLStack.removeLast();
 			backtrackLiteral(lit);
 			// Flip the decision
 			lit.getAtom().mLastStatus = lit.negate();
@@ -1733,7 +2062,7 @@ public class DPLLEngine {
 
 	public void flipNamedLiteral(final String name) throws SMTLIBException {
 		while (mDPLLStack.size() > mBaseLevel + mNumSolvedAtoms) {
-			final Literal lit = mDPLLStack.remove(mDPLLStack.size() - 1);
+			final Literal lit = mDPLLStack.removeLast();
 			backtrackLiteral(lit);
 		}
 		final Clause conflict = finalizeBacktrack();
@@ -1756,16 +2085,17 @@ public class DPLLEngine {
 
 	public Term[] getSatisfiedLiterals() {
 		int size = 0;
-		for (final Literal lit : mDPLLStack) {
-			if (!(lit.getAtom() instanceof NamedAtom)) {
+		for (int i = 0; i < mDPLLStack.size(); i++) {
+			if (!(mDPLLStack.get(i).getAtom() instanceof NamedAtom)) {
 				++size;
 			}
 		}
 		final Term[] res = new Term[size];
-		int i = -1;
-		for (final Literal lit : mDPLLStack) {
+		int j = -1;
+		for (int i = 0; i < mDPLLStack.size(); i++) {
+			final Literal lit = mDPLLStack.get(i);
 			if (!(lit.getAtom() instanceof NamedAtom)) {
-				res[++i] = lit.getSMTFormula(mSmtTheory, true);
+				res[++j] = lit.getSMTFormula(mSmtTheory, true);
 			}
 		}
 		return res;
@@ -1840,7 +2170,7 @@ public class DPLLEngine {
 		mAssumptionLiterals.clear();
 		mLogger.debug("Clearing Assumptions (Baselevel is %d)", mBaseLevel);
 		while (mCurrentDecideLevel > 0) {
-			final Literal lit = mDPLLStack.remove(mDPLLStack.size() - 1);
+			final Literal lit = mDPLLStack.removeLast();
 			backtrackLiteral(lit);
 		}
 		assert mCurrentDecideLevel == 0;
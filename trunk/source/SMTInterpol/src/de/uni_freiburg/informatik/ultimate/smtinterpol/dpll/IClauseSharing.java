@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.smtinterpol.dpll;
+
+/**
+ * Exchange of short learned clauses between DPLL engines that solve the same problem, e.g., in a portfolio of
+ * differently configured solvers.
+ */
+public interface IClauseSharing {
+	/**
+	 * Called for every learned clause with at most
+	 * {@link de.uni_freiburg.informatik.ultimate.smtinterpol.Config#SHARED_CLAUSE_SIZE} literals. The literal array
+	 * is modified by the engine later on and must not be stored.
+	 *
+	 * @param literals
+	 *            the literals of the learned clause.
+	 */
+	public void exportClause(Literal[] literals);
+
+	/**
+	 * Retrieve the next clause learned by another engine. This is called by the engine on restarts. The returned
+	 * literals must belong to atoms known to this engine and the clause must be implied by the current assertions.
+	 *
+	 * @return the literals of the clause, or null if there are no more clauses to import.
+	 */
+	public Literal[] importClause();
+}
@@ -0,0 +1,677 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.smtinterpol.dpll;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import de.uni_freiburg.informatik.ultimate.smtinterpol.Config;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.LogProxy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.proof.ResolutionNode;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.proof.ResolutionNode.Antecedent;
+
+/**
+ * Simplification of the clause database of a {@link DPLLEngine}. It runs periodically on restarts while the engine is
+ * at decision level 0 and no assumptions are active. A round consists of
+ * <ul>
+ * <li>forward subsumption and self-subsuming resolution over all clauses,</li>
+ * <li>vivification of the most active learned clauses, and</li>
+ * <li>bounded variable elimination of atoms that are not known to any theory.</li>
+ * </ul>
+ *
+ * All new clauses get a resolution proof. Input clauses are only changed if proof generation is disabled, since the
+ * interpolator needs the input clauses with their leaf proofs. A clause is only replaced by a clause of the same or a
+ * lower assertion stack level, so that pop never removes a clause whose replacement is still needed.
+ *
+ * Eliminated clauses are only removed while the engine searches. They are restored before a model is reported, when a
+ * clause with an eliminated atom is added, and at the end of the check.
+ */
+final class Inprocessor {
+	private final DPLLEngine mEngine;
+
+	/**
+	 * The number of conflicts the engine must reach before the next round.
+	 */
+	private long mNextRound = Config.INPROCESSING_INTERVAL;
+	private double mInterval = Config.INPROCESSING_INTERVAL;
+
+	/**
+	 * Marks of the literals of the clause that is currently checked. For every atom id the stamp of the last mark and
+	 * the marked literal.
+	 */
+	private int[] mMarkStamps = new int[64];
+	private Literal[] mMarkedLiterals = new Literal[64];
+	private int mMarkStamp = 0;
+	/**
+	 * The literal found by the last call of {@link #checkSubsumption(Clause)} whose negation is in the marked clause.
+	 */
+	private Literal mFlipped;
+
+	/**
+	 * Occurrence lists indexed by literal, see {@link #litIndex(Literal)}.
+	 */
+	private ArrayList<ArrayList<Clause>> mOccurrences;
+	/**
+	 * Number of clauses containing a literal, indexed like {@link #mOccurrences}.
+	 */
+	private int[] mCounts;
+
+	/* Variable elimination */
+	private final HashSet<DPLLAtom> mEliminatedAtoms = new HashSet<>();
+	private final ArrayList<Clause> mEliminatedInputs = new ArrayList<>();
+	private final ArrayList<Clause> mEliminatedLearned = new ArrayList<>();
+	private final ArrayList<Clause> mResolvents = new ArrayList<>();
+
+	/* Statistics */
+	private int mNumRounds, mNumSubsumed, mNumStrengthened, mNumVivified, mNumVivifiedLits;
+	private int mNumEliminatedAtoms, mNumEliminatedClauses, mNumResolvents, mNumRestores;
+	private long mTime;
+
+	Inprocessor(final DPLLEngine engine) {
+		mEngine = engine;
+	}
+
+	/**
+	 * Check if the next round is due.
+	 *
+	 * @param conflicts
+	 *            the number of conflicts the engine has seen so far.
+	 */
+	boolean isDue(final long conflicts) {
+		return conflicts >= mNextRound;
+	}
+
+	/**
+	 * Run one round of inprocessing. The engine must be at decision level 0 without assumptions and the clause
+	 * propagation must be finalized.
+	 *
+	 * @param conflicts
+	 *            the number of conflicts the engine has seen so far.
+	 * @return a conflict clause at decision level 0, or null if no conflict was found.
+	 */
+	Clause inprocess(final long conflicts) {
+		mInterval *= Config.INPROCESSING_INTERVAL_FACTOR;
+		mNextRound = conflicts + (long) mInterval;
+		long time = 0;
+		if (Config.PROFILE_TIME) {
+			time = System.nanoTime();
+		}
+		mNumRounds++;
+		try {
+			Clause conflict = mEngine.propagateInternal();
+			if (conflict != null) {
+				return conflict;
+			}
+			subsume();
+			conflict = mEngine.propagateInternal();
+			if (conflict != null || mEngine.isTerminationRequested()) {
+				return conflict;
+			}
+			conflict = vivify();
+			if (conflict != null || mEngine.isTerminationRequested()) {
+				return conflict;
+			}
+			if (!mEngine.isProofGenerationEnabled()) {
+				eliminate();
+				conflict = mEngine.propagateInternal();
+			}
+			return conflict;
+		} finally {
+			mOccurrences = null;
+			mCounts = null;
+			if (Config.PROFILE_TIME) {
+				mTime += System.nanoTime() - time;
+			}
+		}
+	}
+
+	private boolean canChangeInputs() {
+		return !mEngine.isProofGenerationEnabled();
+	}
+
+	private static boolean isRemoved(final Clause clause) {
+		return clause.mNext == null;
+	}
+
+	private int litIndex(final Literal lit) {
+		return mEngine.getLiteralCode(lit);
+	}
+
+	private void clearOccurrences() {
+		mOccurrences = new ArrayList<>(64);
+	}
+
+	private ArrayList<Clause> getOccurrences(final Literal lit) {
+		final int idx = litIndex(lit);
+		while (idx >= mOccurrences.size()) {
+			mOccurrences.add(null);
+		}
+		ArrayList<Clause> occs = mOccurrences.get(idx);
+		if (occs == null) {
+			occs = new ArrayList<>();
+			mOccurrences.set(idx, occs);
+		}
+		return occs;
+	}
+
+	/**
+	 * @return The occurrence list of the literal with the given index, or null if no clause contains the literal.
+	 */
+	private ArrayList<Clause> getOccurrencesOrNull(final int idx) {
+		return idx < mOccurrences.size() ? mOccurrences.get(idx) : null;
+	}
+
+	private int countOccurrences(final Literal lit) {
+		final ArrayList<Clause> occs = getOccurrencesOrNull(litIndex(lit));
+		return occs != null ? occs.size() : 0;
+	}
+
+	/**
+	 * Mark the literals of a clause. This clears the previous marks.
+	 */
+	private void mark(final Clause clause) {
+		if (++mMarkStamp == Integer.MAX_VALUE) {
+			Arrays.fill(mMarkStamps, 0);
+			mMarkStamp = 1;
+		}
+		for (final Literal lit : clause.mLiterals) {
+			final int id = mEngine.getAtomId(lit.getAtom());
+			if (id >= mMarkStamps.length) {
+				final int newSize = Math.max(2 * mMarkStamps.length, id + 1);
+				mMarkStamps = Arrays.copyOf(mMarkStamps, newSize);
+				mMarkedLiterals = Arrays.copyOf(mMarkedLiterals, newSize);
+			}
+			mMarkStamps[id] = mMarkStamp;
+			mMarkedLiterals[id] = lit;
+		}
+	}
+
+	/**
+	 * Get the literal of the marked clause that has the same atom.
+	 *
+	 * @return the marked literal or null if the atom is not marked.
+	 */
+	private Literal getMark(final Literal lit) {
+		final int id = lit.getAtom().mAtomId;
+		return id >= 0 && id < mMarkStamps.length && mMarkStamps[id] == mMarkStamp ? mMarkedLiterals[id] : null;
+	}
+
+	private static Literal[] without(final Literal[] lits, final Literal removed) {
+		final Literal[] result = new Literal[lits.length - 1];
+		int i = 0;
+		for (final Literal lit : lits) {
+			if (lit != removed) {
+				result[i++] = lit;
+			}
+		}
+		assert i == result.length;
+		return result;
+	}
+
+	/**
+	 * Forward subsumption and self-subsuming resolution. Every clause is indexed by its literal with the fewest
+	 * occurrences. Then for every clause C, all indexed clauses D that share a literal or its negation with C are
+	 * checked. If D is a subset of C, C is removed. If D is a subset of C except for one literal whose negation is in
+	 * C, this negation is removed from C.
+	 */
+	private void subsume() {
+		clearOccurrences();
+		final HashSet<Clause> inputs = new HashSet<>();
+		final ArrayList<Clause> todo = new ArrayList<>();
+		for (final Clause c : mEngine.getClauses()) {
+			inputs.add(c);
+			todo.add(c);
+		}
+		for (final Clause c : mEngine.mLearnedClauses) {
+			todo.add(c);
+		}
+		mCounts = new int[64];
+		for (final Clause c : todo) {
+			for (final Literal lit : c.mLiterals) {
+				final int idx = litIndex(lit);
+				if (idx >= mCounts.length) {
+					mCounts = Arrays.copyOf(mCounts, Math.max(2 * mCounts.length, idx + 2));
+				}
+				mCounts[idx]++;
+			}
+		}
+		for (final Clause c : todo) {
+			index(c);
+		}
+		long effort = Config.INPROCESSING_EFFORT;
+		for (int next = 0; next < todo.size() && effort > 0; next++) {
+			Clause clause = todo.get(next);
+			if (isRemoved(clause) || clause.getSize() < 2 || clause.mCleanupHook != null) {
+				continue;
+			}
+			final boolean isInput = inputs.contains(clause);
+			if (isInput && !canChangeInputs()) {
+				continue;
+			}
+			mark(clause);
+			litloop: for (int i = 0; i < clause.getSize(); i++) {
+				final Literal lit = clause.getLiteral(i);
+				for (int neg = 0; neg < 2; neg++) {
+					final Literal key = neg == 0 ? lit : lit.negate();
+					final ArrayList<Clause> occs = getOccurrencesOrNull(litIndex(key));
+					if (occs == null) {
+						continue;
+					}
+					for (final Clause other : occs) {
+						effort -= other.getSize();
+						if (other == clause || isRemoved(other) || other.getSize() > clause.getSize()
+								|| other.mStacklevel > clause.mStacklevel) {
+							continue;
+						}
+						if (!checkSubsumption(other)) {
+							continue;
+						}
+						final Literal flipped = mFlipped;
+						if (flipped == null) {
+							// other subsumes clause
+							other.mActivity = Math.max(other.mActivity, clause.mActivity);
+							if (isInput) {
+								mEngine.removeInputClause(clause);
+							} else {
+								mEngine.removeLearnedClause(clause);
+							}
+							mNumSubsumed++;
+							break litloop;
+						}
+						// self-subsuming resolution removes the negation of flipped from clause
+						final Clause strengthened = new Clause(without(clause.mLiterals, flipped.negate()),
+								clause.mStacklevel);
+						assert strengthened.mStacklevel == clause.mStacklevel;
+						if (mEngine.isProofGenerationEnabled()) {
+							strengthened.setProof(new ResolutionNode(clause,
+									new Antecedent[] { new Antecedent(flipped, other) }));
+						}
+						strengthened.mActivity = clause.mActivity;
+						mEngine.replaceClause(clause, strengthened);
+						mNumStrengthened++;
+						if (isInput) {
+							inputs.add(strengthened);
+						}
+						index(strengthened);
+						clause = strengthened;
+						mark(clause);
+						i = -1;
+						continue litloop;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add a clause to the occurrence list of its literal with the fewest occurrences.
+	 */
+	private void index(final Clause clause) {
+		Literal best = null;
+		int bestCount = Integer.MAX_VALUE;
+		for (final Literal lit : clause.mLiterals) {
+			final int idx = litIndex(lit);
+			final int count = idx < mCounts.length ? mCounts[idx] : 0;
+			if (count < bestCount) {
+				best = lit;
+				bestCount = count;
+			}
+		}
+		if (best != null) {
+			getOccurrences(best).add(clause);
+		}
+	}
+
+	/**
+	 * Check if a clause subsumes the marked clause, possibly after resolving on one literal. This literal is stored in
+	 * {@link #mFlipped}; it is null if the clause subsumes the marked clause.
+	 *
+	 * @return true if the clause (self-)subsumes the marked clause.
+	 */
+	private boolean checkSubsumption(final Clause other) {
+		mFlipped = null;
+		for (final Literal lit : other.mLiterals) {
+			final Literal marked = getMark(lit);
+			if (marked == lit) {
+				continue;
+			}
+			if (marked == null || mFlipped != null) {
+				return false;
+			}
+			mFlipped = lit;
+		}
+		return true;
+	}
+
+	/**
+	 * Vivification of learned clauses. For a clause (l1 ... ln) the literals ~l1, ~l2, ... are decided one after
+	 * another until a conflict occurs or some li is propagated to true. The clause is then replaced by the clause
+	 * explaining the conflict or li by the decisions, which is a subset of the original clause.
+	 *
+	 * @return a conflict clause at decision level 0, or null if no conflict was found.
+	 */
+	private Clause vivify() {
+		final ArrayList<Clause> candidates = new ArrayList<>();
+		clauseloop: for (final Clause c : mEngine.mLearnedClauses) {
+			if (c.getSize() <= 2 || c.mCleanupHook != null) {
+				continue;
+			}
+			for (final Literal lit : c.mLiterals) {
+				if (lit.getAtom().getDecideStatus() != null) {
+					continue clauseloop;
+				}
+			}
+			candidates.add(c);
+		}
+		candidates.sort((c1, c2) -> Double.compare(c2.mActivity, c1.mActivity));
+		final int limit = Math.min(candidates.size(), Config.VIVIFICATION_LIMIT);
+		for (int i = 0; i < limit && !mEngine.isTerminationRequested(); i++) {
+			final Clause clause = candidates.get(i);
+			if (isRemoved(clause)) {
+				continue;
+			}
+			final Clause conflict = vivify(clause);
+			if (conflict != null) {
+				return conflict;
+			}
+		}
+		return null;
+	}
+
+	private Clause vivify(final Clause clause) {
+		// Remove the clause so that it does not propagate its own literals.
+		mEngine.removeLearnedClause(clause);
+		Literal implied = null;
+		Clause start = null;
+		for (final Literal lit : clause.mLiterals) {
+			final Literal status = lit.getAtom().getDecideStatus();
+			if (status == lit) {
+				implied = lit;
+				start = mEngine.getExplanation(lit);
+				break;
+			} else if (status == null) {
+				final Clause conflict = mEngine.decide(lit.negate());
+				if (conflict != null) {
+					start = conflict;
+					break;
+				}
+			}
+		}
+		if (start == null) {
+			// All literals are false, so the clause itself is the conflict.
+			start = clause;
+		}
+		Clause result = mEngine.explainByDecisions(start, implied);
+		assert result.getSize() > 0;
+		if (result.getSize() < clause.getSize() && result.mStacklevel <= clause.mStacklevel) {
+			mNumVivified++;
+			mNumVivifiedLits += clause.getSize() - result.getSize();
+			result.mActivity = result.getSize() <= 2 ? Double.POSITIVE_INFINITY : clause.mActivity;
+		} else {
+			result = new Clause(clause.mLiterals.clone(), clause.mStacklevel);
+			result.setProof(clause.getProof());
+			result.mActivity = clause.mActivity;
+		}
+		final Clause conflict = mEngine.backtrackToLevelZero();
+		mEngine.addLearnedClause(result);
+		if (conflict != null) {
+			return conflict;
+		}
+		return mEngine.propagateInternal();
+	}
+
+	/**
+	 * Bounded variable elimination. An atom that is not known to any theory is eliminated if the clauses containing it
+	 * can be replaced by at most as many resolvents. Learned clauses containing the atom are dropped.
+	 */
+	private void eliminate() {
+		clearOccurrences();
+		final HashSet<Clause> inputs = new HashSet<>();
+		final HashSet<DPLLAtom> atoms = new HashSet<>();
+		final HashSet<DPLLAtom> blocked = new HashSet<>();
+		final int level = mEngine.getAssertionStackLevel();
+		for (final Clause c : mEngine.getClauses()) {
+			inputs.add(c);
+			// Restored input clauses are prepended to the input clause list, which is sorted by stack level.
+			addOccurrences(c, atoms, c.mCleanupHook != null || c.mStacklevel != level ? blocked : null);
+		}
+		for (final Clause c : mEngine.mLearnedClauses) {
+			addOccurrences(c, atoms, c.mCleanupHook != null ? blocked : null);
+		}
+		final ArrayList<DPLLAtom> candidates = new ArrayList<>();
+		for (final DPLLAtom atom : atoms) {
+			if (!blocked.contains(atom) && (atom instanceof BooleanVarAtom || atom instanceof NamedAtom)
+					&& atom.getDecideStatus() == null) {
+				candidates.add(atom);
+			}
+		}
+		candidates.sort((a1, a2) -> Integer.compare(countOccurrences(a1) + countOccurrences(a1.negate()),
+				countOccurrences(a2) + countOccurrences(a2.negate())));
+		long effort = Config.INPROCESSING_EFFORT;
+		for (final DPLLAtom atom : candidates) {
+			if (effort <= 0 || mEngine.isTerminationRequested()) {
+				break;
+			}
+			effort -= eliminate(atom, inputs);
+		}
+	}
+
+	private void addOccurrences(final Clause clause, final HashSet<DPLLAtom> atoms, final HashSet<DPLLAtom> blocked) {
+		for (final Literal lit : clause.mLiterals) {
+			atoms.add(lit.getAtom());
+			if (blocked != null) {
+				blocked.add(lit.getAtom());
+			}
+			getOccurrences(lit).add(clause);
+		}
+	}
+
+	/**
+	 * Collect the clauses that have to be resolved when eliminating a literal. These are the input clauses and the
+	 * learned clauses that are never forgotten. The remaining learned clauses are added to the redundant list.
+	 *
+	 * @return false if the literal occurs in too many clauses.
+	 */
+	private boolean collectClauses(final Literal lit, final ArrayList<Clause> irredundant,
+			final ArrayList<Clause> redundant) {
+		final ArrayList<Clause> occs = getOccurrencesOrNull(litIndex(lit));
+		if (occs == null) {
+			return true;
+		}
+		for (final Clause c : occs) {
+			if (isRemoved(c)) {
+				continue;
+			}
+			if (c.mActivity == Double.POSITIVE_INFINITY) {
+				irredundant.add(c);
+				if (irredundant.size() > Config.ELIMINATION_OCCURRENCES) {
+					return false;
+				}
+			} else {
+				redundant.add(c);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Try to eliminate an atom.
+	 *
+	 * @param inputs
+	 *            the input clauses of the engine.
+	 * @return the effort spent.
+	 */
+	private int eliminate(final DPLLAtom atom, final HashSet<Clause> inputs) {
+		final ArrayList<Clause> pos = new ArrayList<>();
+		final ArrayList<Clause> neg = new ArrayList<>();
+		final ArrayList<Clause> redundant = new ArrayList<>();
+		if (!collectClauses(atom, pos, redundant) || !collectClauses(atom.negate(), neg, redundant)
+				|| pos.size() + neg.size() > Config.ELIMINATION_OCCURRENCES) {
+			return 1;
+		}
+		int effort = 1;
+		final ArrayList<Literal[]> resolvents = new ArrayList<>();
+		final ArrayList<Clause[]> parents = new ArrayList<>();
+		for (final Clause p : pos) {
+			mark(p);
+			for (final Clause n : neg) {
+				effort += n.getSize();
+				final Literal[] resolvent = resolve(p, n, atom);
+				if (resolvent == null) {
+					continue;
+				}
+				if (resolvents.size() == pos.size() + neg.size()
+						|| resolvent.length > Config.ELIMINATION_RESOLVENT_SIZE) {
+					return effort;
+				}
+				resolvents.add(resolvent);
+				parents.add(new Clause[] { p, n });
+			}
+		}
+		mEngine.getLogger().debug("Eliminating %s: %d clauses replaced by %d", atom, pos.size() + neg.size(),
+				resolvents.size());
+		mEliminatedAtoms.add(atom);
+		mNumEliminatedAtoms++;
+		for (int i = 0; i < resolvents.size(); i++) {
+			final Clause[] ps = parents.get(i);
+			final Clause resolvent =
+					new Clause(resolvents.get(i), Math.max(ps[0].mStacklevel, ps[1].mStacklevel));
+			resolvent.mActivity = Double.POSITIVE_INFINITY;
+			mEngine.addLearnedClause(resolvent);
+			mResolvents.add(resolvent);
+			for (final Literal lit : resolvent.mLiterals) {
+				getOccurrences(lit).add(resolvent);
+			}
+		}
+		mNumResolvents += resolvents.size();
+		for (final ArrayList<Clause> list : Arrays.asList(pos, neg)) {
+			for (final Clause c : list) {
+				if (inputs.contains(c)) {
+					mEngine.removeInputClause(c);
+					mEliminatedInputs.add(c);
+				} else {
+					mEngine.removeLearnedClause(c);
+					mEliminatedLearned.add(c);
+				}
+				mNumEliminatedClauses++;
+			}
+		}
+		for (final Clause c : redundant) {
+			if (!isRemoved(c)) {
+				mEngine.removeLearnedClause(c);
+			}
+		}
+		return effort;
+	}
+
+	/**
+	 * Resolve the marked clause p with the clause n on the given atom.
+	 *
+	 * @return the literals of the resolvent, or null if it is a tautology.
+	 */
+	private Literal[] resolve(final Clause p, final Clause n, final DPLLAtom atom) {
+		final ArrayList<Literal> lits = new ArrayList<>(p.getSize() + n.getSize() - 2);
+		for (final Literal lit : p.mLiterals) {
+			if (lit.getAtom() != atom) {
+				lits.add(lit);
+			}
+		}
+		for (final Literal lit : n.mLiterals) {
+			if (lit.getAtom() == atom) {
+				continue;
+			}
+			final Literal marked = getMark(lit);
+			if (marked == lit.negate()) {
+				return null;
+			}
+			if (marked == null) {
+				lits.add(lit);
+			}
+		}
+		return lits.toArray(new Literal[lits.size()]);
+	}
+
+	/**
+	 * Check if a new clause contains an eliminated atom and restore the eliminated clauses in this case.
+	 */
+	void clauseAdded(final Clause clause) {
+		if (mEliminatedAtoms.isEmpty()) {
+			return;
+		}
+		for (final Literal lit : clause.mLiterals) {
+			if (mEliminatedAtoms.contains(lit.getAtom())) {
+				restoreEliminatedClauses();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Add the clauses removed by variable elimination back to the engine. The resolvents become ordinary learned
+	 * clauses.
+	 *
+	 * @return true if some clauses were restored.
+	 */
+	boolean restoreEliminatedClauses() {
+		if (mEliminatedAtoms.isEmpty()) {
+			return false;
+		}
+		mNumRestores++;
+		mEliminatedAtoms.clear();
+		// Removed clauses may still be in some watch list, so they are copied.
+		for (final Clause c : mEliminatedInputs) {
+			final Clause copy = new Clause(c.mLiterals.clone(), c.mStacklevel);
+			copy.setProof(c.getProof());
+			mEngine.restoreInputClause(copy);
+		}
+		for (final Clause c : mEliminatedLearned) {
+			final Clause copy = new Clause(c.mLiterals.clone(), c.mStacklevel);
+			copy.setProof(c.getProof());
+			copy.mActivity = c.mActivity;
+			mEngine.addLearnedClause(copy);
+		}
+		for (final Clause c : mResolvents) {
+			if (!isRemoved(c) && c.mActivity == Double.POSITIVE_INFINITY && c.getSize() > 2) {
+				c.mActivity = mEngine.mClsScale;
+			}
+		}
+		mEliminatedInputs.clear();
+		mEliminatedLearned.clear();
+		mResolvents.clear();
+		return true;
+	}
+
+	void printStatistics(final LogProxy logger) {
+		if (mNumRounds > 0) {
+			logger.info("Inprocessing: rounds " + mNumRounds + " subsumed " + mNumSubsumed + " strengthened "
+					+ mNumStrengthened + " vivified " + mNumVivified + " (" + mNumVivifiedLits + " lits) eliminated "
+					+ mNumEliminatedAtoms + " atoms (" + mNumEliminatedClauses + " clauses, " + mNumResolvents
+					+ " resolvents, " + mNumRestores + " restores) time " + mTime / 1000 / 1000.0);// NOCHECKSTYLE
+		}
+	}
+
+	Object getStatistics() {
+		return new Object[][] { { "Rounds", mNumRounds }, { "Subsumed", mNumSubsumed },
+				{ "Strengthened", mNumStrengthened }, { "Vivified", mNumVivified },
+				{ "Vivified_literals", mNumVivifiedLits }, { "Eliminated_atoms", mNumEliminatedAtoms },
+				{ "Eliminated_clauses", mNumEliminatedClauses }, { "Resolvents", mNumResolvents },
+				{ "Restores", mNumRestores }, { "Time", mTime } };
+	}
+}
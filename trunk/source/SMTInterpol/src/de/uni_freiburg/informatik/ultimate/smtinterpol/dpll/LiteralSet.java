@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.smtinterpol.dpll;
+
+import java.util.Arrays;
+
+/**
+ * A reusable set of literals used during conflict analysis. The set contains at most one literal per atom. Membership
+ * is stored in arrays indexed by the dense atom id (see {@link DPLLEngine#getAtomId(DPLLAtom)}) and tagged with a
+ * stamp, so that {@link #clear()} does not have to touch the arrays. The elements are kept in an array that can be
+ * traversed by index; removing an element moves the last element into its place.
+ */
+final class LiteralSet {
+	private final DPLLEngine mEngine;
+	/**
+	 * For every atom id the stamp of the last time an element with this atom was added.
+	 */
+	private int[] mStamps;
+	/**
+	 * For every atom id the position of its literal in {@link #mElements}. Only valid if the stamp matches.
+	 */
+	private int[] mPositions;
+	private Literal[] mElements;
+	private int mSize;
+	private int mStamp;
+
+	LiteralSet(final DPLLEngine engine) {
+		mEngine = engine;
+		mStamps = new int[64];
+		mPositions = new int[64];
+		mElements = new Literal[16];
+		mStamp = 1;
+	}
+
+	/**
+	 * Remove all elements from this set.
+	 */
+	void clear() {
+		Arrays.fill(mElements, 0, mSize, null);
+		mSize = 0;
+		if (++mStamp == Integer.MAX_VALUE) {
+			Arrays.fill(mStamps, 0);
+			mStamp = 1;
+		}
+	}
+
+	int size() {
+		return mSize;
+	}
+
+	boolean isEmpty() {
+		return mSize == 0;
+	}
+
+	/**
+	 * Get the element at a position. The positions of the elements change when elements are removed.
+	 *
+	 * @param index
+	 *            a position between 0 and {@link #size()} (exclusive).
+	 * @return the element at this position.
+	 */
+	Literal get(final int index) {
+		assert index < mSize;
+		return mElements[index];
+	}
+
+	private boolean containsAtom(final int id) {
+		return id >= 0 && id < mStamps.length && mStamps[id] == mStamp;
+	}
+
+	boolean contains(final Literal lit) {
+		final int id = lit.getAtom().mAtomId;
+		return containsAtom(id) && mElements[mPositions[id]] == lit;
+	}
+
+	/**
+	 * Add a literal to this set. The set must not contain the negated literal.
+	 *
+	 * @param lit
+	 *            the literal to add.
+	 * @return true if the literal was not already in the set.
+	 */
+	boolean add(final Literal lit) {
+		final int id = mEngine.getAtomId(lit.getAtom());
+		if (id >= mStamps.length) {
+			final int newSize = Math.max(2 * mStamps.length, id + 1);
+			mStamps = Arrays.copyOf(mStamps, newSize);
+			mPositions = Arrays.copyOf(mPositions, newSize);
+		}
+		if (mStamps[id] == mStamp) {
+			assert mElements[mPositions[id]] == lit : "Literal and its negation in set";
+			return false;
+		}
+		if (mSize == mElements.length) {
+			mElements = Arrays.copyOf(mElements, 2 * mSize);
+		}
+		mStamps[id] = mStamp;
+		mPositions[id] = mSize;
+		mElements[mSize++] = lit;
+		return true;
+	}
+
+	/**
+	 * Remove a literal from this set.
+	 *
+	 * @param lit
+	 *            the literal to remove.
+	 * @return true if the literal was in the set.
+	 */
+	boolean remove(final Literal lit) {
+		if (!contains(lit)) {
+			return false;
+		}
+		final int id = lit.getAtom().mAtomId;
+		final int pos = mPositions[id];
+		final Literal last = mElements[--mSize];
+		mElements[pos] = last;
+		mPositions[last.getAtom().mAtomId] = pos;
+		mElements[mSize] = null;
+		mStamps[id] = 0;
+		return true;
+	}
+
+	/**
+	 * @return a new array containing the elements of this set.
+	 */
+	Literal[] toArray() {
+		return Arrays.copyOf(mElements, mSize);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(Arrays.copyOf(mElements, mSize));
+	}
+}
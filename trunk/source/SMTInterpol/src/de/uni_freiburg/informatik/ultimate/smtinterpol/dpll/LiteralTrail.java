@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.smtinterpol.dpll;
+
+import java.util.Arrays;
+
+/**
+ * The DPLL stack stored as a flat array of literal codes (see {@link DPLLEngine#getLiteralCode(Literal)}). Pushing and
+ * popping literals does not allocate, and the stack holds no references to the literals. An atom keeps its id while
+ * one of its literals is on the stack, because only atoms without decide status are removed.
+ */
+final class LiteralTrail {
+	private final DPLLEngine mEngine;
+	private int[] mCodes;
+	private int mSize;
+
+	LiteralTrail(final DPLLEngine engine) {
+		mEngine = engine;
+		mCodes = new int[64];
+	}
+
+	int size() {
+		return mSize;
+	}
+
+	boolean isEmpty() {
+		return mSize == 0;
+	}
+
+	Literal get(final int index) {
+		assert index < mSize;
+		return mEngine.getLiteral(mCodes[index]);
+	}
+
+	/**
+	 * Push a literal on top of the stack.
+	 */
+	void add(final Literal lit) {
+		if (mSize == mCodes.length) {
+			mCodes = Arrays.copyOf(mCodes, 2 * mSize);
+		}
+		mCodes[mSize++] = mEngine.getLiteralCode(lit);
+	}
+
+	/**
+	 * Insert a literal into the middle of the stack. The literals at this position and above move up by one.
+	 */
+	void add(final int index, final Literal lit) {
+		assert index <= mSize;
+		if (mSize == mCodes.length) {
+			mCodes = Arrays.copyOf(mCodes, 2 * mSize);
+		}
+		System.arraycopy(mCodes, index, mCodes, index + 1, mSize - index);
+		mCodes[index] = mEngine.getLiteralCode(lit);
+		mSize++;
+	}
+
+	/**
+	 * Pop the literal on top of the stack.
+	 *
+	 * @return the removed literal.
+	 */
+	Literal removeLast() {
+		assert mSize > 0;
+		return mEngine.getLiteral(mCodes[--mSize]);
+	}
+
+	void clear() {
+		mSize = 0;
+	}
+
+	/**
+	 * Check if a literal is on the stack. This takes linear time and is only meant for assertions.
+	 */
+	boolean contains(final Literal lit) {
+		if (lit.getAtom().mAtomId < 0) {
+			return false;
+		}
+		final int code = mEngine.getLiteralCode(lit);
+		for (int i = 0; i < mSize; i++) {
+			if (mCodes[i] == code) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < mSize; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(get(i));
+		}
+		return sb.append(']').toString();
+	}
+}
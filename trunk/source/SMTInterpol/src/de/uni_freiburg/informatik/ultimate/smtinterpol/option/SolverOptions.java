@@ -43,6 +43,8 @@ public class SolverOptions {
 	private final BooleanOption mArrayInterpolation;
 	private final BooleanOption mProofCheckMode;
 	private final EnumOption<CheckType> mSimpCheckType;
+	private final LongOption mPortfolioSize;
+	private final BooleanOption mInprocessing;
 
 	public static final String TIMEOUT = ":timeout";
 	public static final String RANDOM_SEED = ":random-seed";
@@ -62,6 +64,8 @@ public class SolverOptions {
 	public static final String UNKNOWN_TERM_DAWGS = ":unknown-term-dawgs";
 	public static final String PROPAGATE_UNKNOWN_TERMS = ":propagate-unknown-terms";
 	public static final String PROPAGATE_UNKNOWN_AUX = ":propagate-unknown-aux";
+	public static final String PORTFOLIO_SIZE = ":portfolio-size";
+	public static final String INPROCESSING = ":inprocessing";
 
 	SolverOptions(final OptionMap options, final LogProxy logger) {
 		mTimeout = new LongOption(0, true, "Soft timeout in milliseconds for "
@@ -92,6 +96,11 @@ public class SolverOptions {
 		mSimpCheckType = new EnumOption<>(CheckType.QUICK, true,
 				CheckType.class, "Strength of checks used by the strong context"
 				+ " simplifier used in the simplify command");
+		mPortfolioSize = new LongOption(0, false, "Number of differently configured solvers that run in parallel"
+				+ " threads during check-sat.  The first answer is used.  Values <= 0 deactivate the portfolio.  The"
+				+ " portfolio is not used while proofs, interpolants, or unsat cores are produced.");
+		mInprocessing = new BooleanOption(false, true, "Simplify the clause database periodically on restarts"
+				+ " by subsumption, vivification of learned clauses, and variable elimination.");
 
 		// general standard compliant options
 		options.addOption(":verbosity", new VerbosityOption(logger));
@@ -134,6 +143,8 @@ public class SolverOptions {
 
 		// general non-standard options
 		options.addOption(CHECK_TYPE, mCheckType);
+		options.addOption(PORTFOLIO_SIZE, mPortfolioSize);
+		options.addOption(INPROCESSING, mInprocessing);
 		options.addOption(EPR, new BooleanOption(false, false,
 				"Assume formula is in EPR fragment. This give an error if the formula is outside EPR."));
 		options.addOption(E_MATCHING, new BooleanOption(true, false,
@@ -169,6 +180,8 @@ public class SolverOptions {
 		mArrayInterpolation = (BooleanOption) options.getOption(ARRAY_INTERPOLATION);
 		mProofCheckMode = (BooleanOption) options.getOption(PROOF_CHECK_MODE);
 		mSimpCheckType = (EnumOption<CheckType>) options.getOption(SIMPLIFY_CHECK_TYPE);
+		mPortfolioSize = (LongOption) options.getOption(PORTFOLIO_SIZE);
+		mInprocessing = (BooleanOption) options.getOption(INPROCESSING);
 	}
 
 	public final CheckType getCheckType() {
@@ -223,4 +236,12 @@ public class SolverOptions {
 		return mSimpCheckType.getValue();
 	}
 
+	public final long getPortfolioSize() {
+		return mPortfolioSize.getValue();
+	}
+
+	public final boolean isInprocessing() {
+		return mInprocessing.getValue();
+	}
+
 }
@@ -0,0 +1,472 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.uni_freiburg.informatik.ultimate.logic.AnnotatedTerm;
+import de.uni_freiburg.informatik.ultimate.logic.Annotation;
+import de.uni_freiburg.informatik.ultimate.logic.ApplicationTerm;
+import de.uni_freiburg.informatik.ultimate.logic.ConstantTerm;
+import de.uni_freiburg.informatik.ultimate.logic.FunctionSymbol;
+import de.uni_freiburg.informatik.ultimate.logic.LetTerm;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.MatchTerm;
+import de.uni_freiburg.informatik.ultimate.logic.QuantifiedFormula;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.TermTransformer;
+import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
+import de.uni_freiburg.informatik.ultimate.logic.Theory;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.DefaultLogger;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.LogProxy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.convert.Clausifier;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.dpll.BooleanVarAtom;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.dpll.DPLLAtom;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.dpll.DPLLEngine;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.dpll.IClauseSharing;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.dpll.Literal;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.option.SolverOptions;
+
+/**
+ * A portfolio of differently configured solvers that run in parallel to the check of the main solver. Every solver of
+ * the portfolio is a fresh instance of SMTInterpol with its own theory. The assertions are copied into these theories
+ * on the calling thread before the solvers are started, so no term or theory is accessed by two threads. The solvers
+ * differ in the random seed, the restart strategy, and the initial phase of the atoms.
+ *
+ * The first definite answer wins and cancels the other solvers. Learned clauses of at most
+ * {@link de.uni_freiburg.informatik.ultimate.smtinterpol.Config#SHARED_CLAUSE_SIZE} literals over declared Boolean
+ * constants are exchanged between all solvers including the main solver. Before the solvers start, every Boolean
+ * constant of the assertions gets an index, and every solver maps the index to its own copy of the constant. The
+ * clauses are exchanged as indices, so the solvers never look up symbols by name.
+ */
+final class Portfolio {
+	/**
+	 * Distance between the random seeds of the solvers.
+	 */
+	private static final long SEED_DISTANCE = 7919;
+
+	private final LogProxy mLogger;
+	private final ExecutorService mExecutor;
+
+	Portfolio(final LogProxy logger) {
+		mLogger = logger;
+		mExecutor = Executors.newCachedThreadPool(runnable -> {
+			final Thread thread = new Thread(runnable, "SMTInterpol portfolio");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Check if a portfolio can be used for a logic. Quantifiers and data types are not supported.
+	 */
+	static boolean isSupported(final Logics logic) {
+		return !logic.isQuantified() && !logic.isDatatype();
+	}
+
+	/**
+	 * Start the solvers of the portfolio for a check of the main solver.
+	 *
+	 * @param size
+	 *            the number of solvers to start in addition to the main solver.
+	 * @param mainTheory
+	 *            the theory of the main solver.
+	 * @param mainEngine
+	 *            the DPLL engine of the main solver. It takes part in the clause exchange.
+	 * @param mainClausifier
+	 *            the clausifier of the main solver, used to find the atoms of imported clauses.
+	 * @param assertions
+	 *            the assertions of the main solver.
+	 * @param assumptions
+	 *            the assumptions of the current check.
+	 * @param seed
+	 *            the random seed of the main solver.
+	 * @param cancel
+	 *            the user termination request, or null.
+	 * @return the running check.
+	 */
+	Run start(final int size, final Theory mainTheory, final DPLLEngine mainEngine, final Clausifier mainClausifier,
+			final Iterable<Term> assertions, final Term[] assumptions, final long seed,
+			final TerminationRequest cancel) {
+		final Run run = new Run(cancel);
+		final List<SMTInterpol> solvers = new ArrayList<>();
+		final List<TermCopier> copiers = new ArrayList<>();
+		final List<Runnable> tasks = new ArrayList<>();
+		for (int i = 1; i <= size; i++) {
+			final DefaultLogger logger = new DefaultLogger();
+			logger.setLoglevel(LogProxy.LOGLEVEL_OFF);
+			final SMTInterpol solver = new SMTInterpol(logger, run);
+			solver.setOption(SolverOptions.RANDOM_SEED, seed + i * SEED_DISTANCE);
+			solver.setLogic(mainTheory.getLogic());
+			final DPLLEngine engine = solver.getEngine();
+			engine.setGeometricRestarts(i % 2 == 1);
+			engine.setRandomPhases(i % 4 >= 2);
+
+			final TermCopier copier = new TermCopier(solver.getTheory());
+			final List<Term> copiedAssertions = new ArrayList<>();
+			final Term[] copiedAssumptions = new Term[assumptions == null ? 0 : assumptions.length];
+			try {
+				for (final Term asserted : assertions) {
+					copiedAssertions.add(copier.transform(asserted));
+				}
+				for (int j = 0; j < copiedAssumptions.length; j++) {
+					copiedAssumptions[j] = copier.transform(assumptions[j]);
+				}
+			} catch (final RuntimeException ex) {
+				mLogger.debug("Portfolio cannot copy assertions: %s", ex);
+				break;
+			}
+			solvers.add(solver);
+			copiers.add(copier);
+			tasks.add(() -> run.solve(solver, copiedAssertions, copiedAssumptions));
+		}
+
+		// The endpoints are complete before the first solver starts, since every solver iterates over them.
+		final FunctionSymbol[] shared = collectSharedConstants(mainTheory, copiers);
+		run.mEndpoints.add(new Endpoint(run, mainTheory, mainClausifier, shared));
+		for (int i = 0; i < solvers.size(); i++) {
+			final SMTInterpol solver = solvers.get(i);
+			final FunctionSymbol[] copies = new FunctionSymbol[shared.length];
+			for (int j = 0; j < shared.length; j++) {
+				copies[j] = copiers.get(i).mFunctions.get(shared[j]);
+			}
+			final Endpoint endpoint = new Endpoint(run, solver.getTheory(), solver.getClausifier(), copies);
+			run.mEndpoints.add(endpoint);
+			solver.getEngine().setClauseSharing(endpoint);
+		}
+		mainEngine.setClauseSharing(run.mEndpoints.get(0));
+		for (final Runnable task : tasks) {
+			mExecutor.execute(task);
+		}
+		return run;
+	}
+
+	/**
+	 * Collect the declared Boolean constants of the main theory that were copied into the solvers of the portfolio.
+	 * The position of a constant in the result is its index in the clause exchange.
+	 */
+	private static FunctionSymbol[] collectSharedConstants(final Theory mainTheory,
+			final List<TermCopier> copiers) {
+		if (copiers.isEmpty()) {
+			return new FunctionSymbol[0];
+		}
+		final List<FunctionSymbol> result = new ArrayList<>();
+		for (final FunctionSymbol fsym : copiers.get(0).mFunctions.keySet()) {
+			if (!fsym.isIntern() && fsym.getDefinition() == null && fsym.getParameterSorts().length == 0
+					&& fsym.getReturnSort() == mainTheory.getBooleanSort()) {
+				result.add(fsym);
+			}
+		}
+		return result.toArray(new FunctionSymbol[result.size()]);
+	}
+
+	/**
+	 * Stop the threads of the portfolio. The portfolio cannot be used afterwards.
+	 */
+	void shutdown() {
+		mExecutor.shutdownNow();
+	}
+
+	/**
+	 * One check of the portfolio. It also serves as termination request for the solvers of the portfolio.
+	 */
+	final class Run implements TerminationRequest {
+		private final TerminationRequest mUserCancel;
+		/**
+		 * The first definite answer found by one of the solvers of the portfolio.
+		 */
+		private final AtomicReference<LBool> mResult = new AtomicReference<>();
+		private volatile boolean mFinished = false;
+		/**
+		 * The endpoints of all solvers. The list is not modified once the first solver of the portfolio runs.
+		 */
+		private final List<Endpoint> mEndpoints = new ArrayList<>();
+
+		private Run(final TerminationRequest userCancel) {
+			mUserCancel = userCancel;
+		}
+
+		private void solve(final SMTInterpol solver, final List<Term> assertions, final Term[] assumptions) {
+			try {
+				for (final Term asserted : assertions) {
+					if (isTerminationRequested()) {
+						return;
+					}
+					solver.assertTerm(asserted);
+				}
+				final LBool result = solver.checkSatAssuming(assumptions);
+				if (result != LBool.UNKNOWN && mResult.compareAndSet(null, result)) {
+					mLogger.debug("Portfolio solver with seed %s answered %s", solver.getOption(SolverOptions.RANDOM_SEED),
+							result);
+				}
+			} catch (final RuntimeException ex) {
+				// The main solver is not affected. It just has to find the answer itself.
+				mLogger.warn("Portfolio solver with seed %s failed: %s", solver.getOption(SolverOptions.RANDOM_SEED), ex);
+			}
+		}
+
+		/**
+		 * Get the answer of the portfolio.
+		 *
+		 * @return the first definite answer of a solver of the portfolio, or null if none was found yet.
+		 */
+		LBool getResult() {
+			return mResult.get();
+		}
+
+		/**
+		 * Stop all solvers of the portfolio and the clause exchange with the main solver.
+		 */
+		void finish(final DPLLEngine mainEngine) {
+			mFinished = true;
+			mainEngine.setClauseSharing(null);
+		}
+
+		/**
+		 * The termination request for the solvers of the portfolio.
+		 */
+		@Override
+		public boolean isTerminationRequested() {
+			return mFinished || mResult.get() != null
+					|| mUserCancel != null && mUserCancel.isTerminationRequested();
+		}
+
+		/**
+		 * The termination request for the main solver. It stops once another solver found the answer.
+		 */
+		TerminationRequest getMainCancellation() {
+			return () -> mResult.get() != null;
+		}
+	}
+
+	/**
+	 * A learned clause over declared Boolean constants, identified by their index in the clause exchange.
+	 */
+	private static final class SharedClause {
+		private final int[] mIndices;
+		private final boolean[] mNegated;
+
+		SharedClause(final int[] indices, final boolean[] negated) {
+			mIndices = indices;
+			mNegated = negated;
+		}
+	}
+
+	/**
+	 * The connection of one solver to the clause exchange. The methods are only called by the thread of the solver,
+	 * only the inbox is accessed by other threads.
+	 */
+	private static final class Endpoint implements IClauseSharing {
+		private final Run mRun;
+		private final Theory mTheory;
+		private final Clausifier mClausifier;
+		/**
+		 * The Boolean constants of this solver by their index in the clause exchange. An entry is null if the solver
+		 * has no copy of the constant.
+		 */
+		private final FunctionSymbol[] mConstants;
+		/**
+		 * The inverse of mConstants.
+		 */
+		private final HashMap<FunctionSymbol, Integer> mIndices = new HashMap<>();
+		private final ConcurrentLinkedQueue<SharedClause> mInbox = new ConcurrentLinkedQueue<>();
+
+		Endpoint(final Run run, final Theory theory, final Clausifier clausifier, final FunctionSymbol[] constants) {
+			mRun = run;
+			mTheory = theory;
+			mClausifier = clausifier;
+			mConstants = constants;
+			for (int i = 0; i < constants.length; i++) {
+				if (constants[i] != null) {
+					mIndices.put(constants[i], i);
+				}
+			}
+		}
+
+		@Override
+		public void exportClause(final Literal[] literals) {
+			final int[] indices = new int[literals.length];
+			final boolean[] negated = new boolean[literals.length];
+			for (int i = 0; i < literals.length; i++) {
+				final DPLLAtom atom = literals[i].getAtom();
+				if (!(atom instanceof BooleanVarAtom)) {
+					return;
+				}
+				final Integer index = mIndices.get(((ApplicationTerm) atom.getSMTFormula(mTheory)).getFunction());
+				if (index == null) {
+					return;
+				}
+				indices[i] = index;
+				negated[i] = literals[i] != atom;
+			}
+			final SharedClause clause = new SharedClause(indices, negated);
+			for (final Endpoint other : mRun.mEndpoints) {
+				if (other != this) {
+					other.mInbox.add(clause);
+				}
+			}
+		}
+
+		@Override
+		public Literal[] importClause() {
+			SharedClause clause;
+			nextClause: while ((clause = mInbox.poll()) != null) {
+				final Literal[] literals = new Literal[clause.mIndices.length];
+				for (int i = 0; i < literals.length; i++) {
+					final FunctionSymbol fsym = mConstants[clause.mIndices[i]];
+					if (fsym == null) {
+						continue nextClause;
+					}
+					final Object atom = mClausifier.getILiteral(mTheory.term(fsym));
+					if (!(atom instanceof BooleanVarAtom)) {
+						continue nextClause;
+					}
+					literals[i] = clause.mNegated[i] ? ((BooleanVarAtom) atom).negate() : (BooleanVarAtom) atom;
+				}
+				return literals;
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Copies terms into another theory, declaring the used sorts and functions on the fly. Annotations are dropped
+	 * since they do not change satisfiability.
+	 */
+	private static final class TermCopier extends TermTransformer {
+		private final Theory mTarget;
+		private final HashMap<Sort, Sort> mSorts;
+		private final HashMap<FunctionSymbol, FunctionSymbol> mFunctions;
+		private final HashSet<String> mDeclaredSorts;
+
+		TermCopier(final Theory target) {
+			this(target, new HashMap<>(), new HashMap<>(), new HashSet<>());
+		}
+
+		private TermCopier(final Theory target, final HashMap<Sort, Sort> sorts,
+				final HashMap<FunctionSymbol, FunctionSymbol> functions, final HashSet<String> declaredSorts) {
+			mTarget = target;
+			mSorts = sorts;
+			mFunctions = functions;
+			mDeclaredSorts = declaredSorts;
+		}
+
+		private Sort copySort(final Sort sort) {
+			Sort result = mSorts.get(sort);
+			if (result == null) {
+				final Sort realSort = sort.getRealSort();
+				if (realSort.getSortSymbol().isDatatype()) {
+					throw new UnsupportedOperationException("Cannot copy data type " + sort);
+				}
+				final Sort[] args = copySorts(realSort.getArguments());
+				if (!realSort.isInternal() && mDeclaredSorts.add(realSort.getName())) {
+					mTarget.declareSort(realSort.getName(), args.length);
+				}
+				result = mTarget.getSort(realSort.getName(), realSort.getIndices(), args);
+				mSorts.put(sort, result);
+			}
+			return result;
+		}
+
+		private Sort[] copySorts(final Sort[] sorts) {
+			final Sort[] result = new Sort[sorts.length];
+			for (int i = 0; i < sorts.length; i++) {
+				result[i] = copySort(sorts[i]);
+			}
+			return result;
+		}
+
+		private TermVariable[] copyVariables(final TermVariable[] vars) {
+			final TermVariable[] result = new TermVariable[vars.length];
+			for (int i = 0; i < vars.length; i++) {
+				result[i] = mTarget.createTermVariable(vars[i].getName(), copySort(vars[i].getSort()));
+			}
+			return result;
+		}
+
+		private FunctionSymbol copyFunction(final FunctionSymbol fsym) {
+			FunctionSymbol result = mFunctions.get(fsym);
+			if (result == null) {
+				final Sort[] paramSorts = copySorts(fsym.getParameterSorts());
+				final Sort returnSort = copySort(fsym.getReturnSort());
+				if (fsym.isIntern()) {
+					result = mTarget.getFunctionWithResult(fsym.getName(), fsym.getIndices(),
+							fsym.isReturnOverload() ? returnSort : null, paramSorts);
+				} else if (fsym.getDefinition() != null) {
+					final TermCopier definitionCopier = new TermCopier(mTarget, mSorts, mFunctions, mDeclaredSorts);
+					final Term definition = definitionCopier.transform(fsym.getDefinition());
+					result = mTarget.defineFunction(fsym.getName(), copyVariables(fsym.getDefinitionVars()),
+							definition);
+				} else {
+					result = mTarget.declareFunction(fsym.getName(), paramSorts, returnSort);
+				}
+				if (result == null) {
+					throw new UnsupportedOperationException("Cannot copy function " + fsym);
+				}
+				mFunctions.put(fsym, result);
+			}
+			return result;
+		}
+
+		@Override
+		protected void convert(final Term term) {
+			if (term instanceof ConstantTerm) {
+				setResult(mTarget.constant(((ConstantTerm) term).getValue(), copySort(term.getSort())));
+			} else if (term instanceof TermVariable) {
+				final TermVariable var = (TermVariable) term;
+				setResult(mTarget.createTermVariable(var.getName(), copySort(var.getSort())));
+			} else if (term instanceof MatchTerm) {
+				throw new UnsupportedOperationException("Cannot copy match terms");
+			} else {
+				super.convert(term);
+			}
+		}
+
+		@Override
+		public void convertApplicationTerm(final ApplicationTerm appTerm, final Term[] newArgs) {
+			setResult(mTarget.term(copyFunction(appTerm.getFunction()), newArgs));
+		}
+
+		@Override
+		public void postConvertLet(final LetTerm oldLet, final Term[] newValues, final Term newBody) {
+			setResult(mTarget.let(copyVariables(oldLet.getVariables()), newValues, newBody));
+		}
+
+		@Override
+		public void postConvertQuantifier(final QuantifiedFormula old, final Term newBody) {
+			final TermVariable[] vars = copyVariables(old.getVariables());
+			setResult(old.getQuantifier() == QuantifiedFormula.EXISTS ? mTarget.exists(vars, newBody)
+					: mTarget.forall(vars, newBody));
+		}
+
+		@Override
+		public void postConvertAnnotation(final AnnotatedTerm old, final Annotation[] newAnnots, final Term newBody) {
+			setResult(newBody);
+		}
+	}
+}
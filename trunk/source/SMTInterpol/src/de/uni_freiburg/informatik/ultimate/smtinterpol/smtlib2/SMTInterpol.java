@@ -81,6 +81,7 @@ public class SMTInterpol extends NoopScript {
 
 	private static class TimeoutHandler implements TerminationRequest {
 		TerminationRequest mStackedCancellation;
+		TerminationRequest mPortfolioCancellation;
 		long mTimeout;
 
 		public TimeoutHandler(final TerminationRequest stacked) {
@@ -101,6 +102,9 @@ public class SMTInterpol extends NoopScript {
 			if (mStackedCancellation != null && mStackedCancellation.isTerminationRequested()) {
 				return true;
 			}
+			if (mPortfolioCancellation != null && mPortfolioCancellation.isTerminationRequested()) {
+				return true;
+			}
 			return System.currentTimeMillis() >= mTimeout;
 		}
 	}
@@ -205,6 +209,12 @@ public class SMTInterpol extends NoopScript {
 	private Clausifier mClausifier;
 	private ScopedArrayList<Term> mAssertions;
 	private final TimeoutHandler mCancel;
+	private Portfolio mPortfolio;
+	/**
+	 * The answer of the last check-sat if it was found by the portfolio. The main engine was cancelled and still has
+	 * to find the answer before the model or the proof can be extracted.
+	 */
+	private LBool mPortfolioResult = null;
 
 	private final LogProxy mLogger;
 
@@ -374,6 +384,7 @@ public class SMTInterpol extends NoopScript {
 		mEngine = null;
 		mModel = null;
 		mAssertionStackModified = true;
+		mPortfolioResult = null;
 		if (mAssertions != null) {
 			mAssertions.clear();
 		}
@@ -386,12 +397,22 @@ public class SMTInterpol extends NoopScript {
 	public final void resetAssertions() {
 		super.resetAssertions();
 		mAssertionStackModified = true;
+		mPortfolioResult = null;
 		if (mAssertions != null) {
 			mAssertions.clear();
 		}
 		setupClausifier(mEngine.getSMTTheory().getLogic());
 	}
 
+	@Override
+	public void exit() {
+		if (mPortfolio != null) {
+			mPortfolio.shutdown();
+			mPortfolio = null;
+		}
+		super.exit();
+	}
+
 	@Override
 	public void push(int n) throws SMTLIBException {
 		super.push(n);
@@ -436,6 +457,7 @@ public class SMTInterpol extends NoopScript {
 		}
 		mModel = null;
 		mAssertionStackModified = false;
+		mPortfolioResult = null;
 		mEngine.clearAssumptions();
 		if (assumptions != null && assumptions.length != 0) {
 			if (Config.STRONG_USAGE_CHECKS) {
@@ -473,8 +495,15 @@ public class SMTInterpol extends NoopScript {
 		LBool result = LBool.UNKNOWN;
 		mReasonUnknown = ReasonUnknown.INCOMPLETE;
 		mEngine.setRandomSeed(mSolverOptions.getRandomSeed());
-		if (mSolverOptions.getCheckType().check(mEngine)) {
-			if (mEngine.hasModel()) {
+		mEngine.setInprocessing(mSolverOptions.isInprocessing());
+		final boolean checkResult = usePortfolio() ? checkPortfolio(assumptions)
+				: mSolverOptions.getCheckType().check(mEngine);
+		if (mPortfolioResult != null && checkResult && mSolverOptions.isModelCheckModeActive()
+				&& !finishPortfolioCheck()) {
+			// The main engine could not reproduce the answer of the portfolio, so we do not trust it.
+			result = LBool.UNKNOWN;
+		} else if (checkResult) {
+			if (mEngine.hasModel() || mPortfolioResult == LBool.SAT) {
 				result = LBool.SAT;
 				if (mSolverOptions.isModelCheckModeActive()) {
 					try {
@@ -556,6 +585,94 @@ public class SMTInterpol extends NoopScript {
 		return result;
 	}
 
+	/**
+	 * Check if the portfolio is used for the next check. It is not used while proofs are produced, which includes
+	 * interpolants and unsat cores. The main engine cannot import the clauses learned by the portfolio without their
+	 * proofs, so after a portfolio answer it would have to solve the problem from scratch to get the proof.
+	 */
+	private boolean usePortfolio() {
+		return mSolverOptions.getPortfolioSize() > 0 && mSolverOptions.getCheckType() == CheckType.FULL
+				&& getProofMode() == 0 && mAssertions != null && Portfolio.isSupported(getTheory().getLogic());
+	}
+
+	/**
+	 * Run the main engine in parallel to a portfolio of differently configured solvers. If a solver of the portfolio
+	 * finds the answer first, the main engine is cancelled and the answer is remembered in mPortfolioResult.
+	 *
+	 * @return the result of the check in the format of {@link CheckType#check(DPLLEngine)}.
+	 */
+	private boolean checkPortfolio(final Term[] assumptions) {
+		if (mPortfolio == null) {
+			mPortfolio = new Portfolio(mLogger);
+		}
+		final Portfolio.Run run = mPortfolio.start((int) Math.min(mSolverOptions.getPortfolioSize(), Integer.MAX_VALUE),
+				getTheory(), mEngine, mClausifier, mAssertions, assumptions, mSolverOptions.getRandomSeed(),
+				mCancel);
+		mCancel.mPortfolioCancellation = run.getMainCancellation();
+		boolean checkResult;
+		try {
+			checkResult = CheckType.FULL.check(mEngine);
+		} finally {
+			mCancel.mPortfolioCancellation = null;
+			run.finish(mEngine);
+		}
+		final LBool portfolioResult = run.getResult();
+		if (mEngine.getCompleteness() == DPLLEngine.INCOMPLETE_CANCELLED && portfolioResult != null
+				&& !mCancel.isTerminationRequested()) {
+			mEngine.setCompleteness(DPLLEngine.COMPLETE);
+			mPortfolioResult = portfolioResult;
+			checkResult = portfolioResult == LBool.SAT;
+		}
+		return checkResult;
+	}
+
+	/**
+	 * Let the main engine find the answer that was given by the portfolio. This is needed to extract models and
+	 * everything derived from them. The main engine is bounded by the user timeout like any other check. If it
+	 * does not find the same answer, the status of the last check becomes unknown.
+	 *
+	 * @return true if the main engine found the answer of the portfolio or there was no answer of the portfolio.
+	 */
+	private boolean finishPortfolioCheck() {
+		if (mPortfolioResult == null) {
+			return true;
+		}
+		final LBool expected = mPortfolioResult;
+		mPortfolioResult = null;
+		final long timeout = mSolverOptions.getTimeout();
+		// Outside of check-sat no timeout is armed yet. Inside, the remaining time of the check is used.
+		final boolean armTimeout = timeout > 0 && mCancel.mTimeout == Long.MAX_VALUE;
+		if (armTimeout) {
+			mCancel.setTimeout(timeout);
+		}
+		final LBool result;
+		try {
+			if (CheckType.FULL.check(mEngine)) {
+				result = mEngine.hasModel() ? LBool.SAT : LBool.UNKNOWN;
+			} else {
+				result = LBool.UNSAT;
+			}
+		} finally {
+			if (armTimeout) {
+				mCancel.clearTimeout();
+			}
+		}
+		if (result == expected) {
+			return true;
+		}
+		if (result == LBool.UNKNOWN) {
+			mLogger.warn("Main engine could not reproduce portfolio answer %s: %s", expected,
+					mEngine.getCompletenessReason());
+		} else {
+			mLogger.fatal("Portfolio answered %s but main engine answered %s", expected, result);
+		}
+		mReasonUnknown = mEngine.getCompleteness() == DPLLEngine.INCOMPLETE_CANCELLED ? ReasonUnknown.CANCELLED
+				: ReasonUnknown.INCOMPLETE;
+		mStatus = LBool.UNKNOWN;
+		mModel = null;
+		return false;
+	}
+
 	private final boolean isStatusSet() {
 		return mStatusSet != null && !mStatusSet.equals("unknown");
 	}
@@ -603,7 +720,8 @@ public class SMTInterpol extends NoopScript {
 			mClausifier.setAssignmentProduction(produceAssignment);
 			mEngine.setProduceAssignments(produceAssignment);
 			mEngine.setRandomSeed(mSolverOptions.getRandomSeed());
-			if (getBooleanOption(":interactive-mode") || mSolverOptions.isInterpolantCheckModeActive()
+			if (getBooleanOption(":interactive-mode") || mSolverOptions.getPortfolioSize() > 0
+					|| mSolverOptions.isInterpolantCheckModeActive()
 					|| mSolverOptions.isProofCheckModeActive()
 					|| mSolverOptions.isModelCheckModeActive() || getBooleanOption(":unsat-core-check-mode")
 					|| getBooleanOption(":unsat-assumptions-check-mode")) {
@@ -1099,11 +1217,15 @@ public class SMTInterpol extends NoopScript {
 		if (mAssertionStackModified) {
 			throw new SMTLIBException("Assertion stack has been modified since last check-sat!");
 		}
+		// If the answer of the portfolio cannot be reproduced, the status becomes unknown and the caller fails to
+		// find a model or proof.
+		finishPortfolioCheck();
 	}
 
 	private void modifyAssertionStack() {
 		mAssertionStackModified = true;
 		mModel = null;
+		mPortfolioResult = null;
 		mEngine.clearAssumptions();
 	}
 
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.smtinterpol.dpll;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.Model;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.DefaultLogger;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+
+/**
+ * Checks the conflict analysis and the DPLL stack, which identify atoms by dense ids, in incremental use. The atoms
+ * created inside a push are removed on pop, and their ids are reused by the atoms of later scopes. Every check of the
+ * incremental solver is compared with a fresh solver that gets the same assertions without push and pop, so its atoms
+ * never reuse the id of a removed atom.
+ */
+@RunWith(JUnit4.class)
+public class ConflictAnalysisTest {
+
+	private static final int NUM_BOOL_VARS = 120;
+	private static final int NUM_BOOL_CLAUSES = 510;
+	private static final int NUM_REAL_VARS = 12;
+	private static final int NUM_REAL_CLAUSES = 150;
+	private static final int NUM_ROUNDS = 6;
+
+	/**
+	 * The random problems of one test. A literal is given by the indices of its variables, the bound of a difference
+	 * constraint, and its polarity, so that the same problem can be built for the incremental and the fresh solver.
+	 */
+	private static final class Problems {
+		private final Random mRandom;
+		private final boolean mArithmetic;
+
+		Problems(final long seed, final boolean arithmetic) {
+			mRandom = new Random(seed);
+			mArithmetic = arithmetic;
+		}
+
+		void declare(final Script script) {
+			script.setLogic(mArithmetic ? Logics.QF_LRA : Logics.QF_UF);
+			final Sort sort = script.sort(mArithmetic ? "Real" : "Bool");
+			for (int i = 0; i < (mArithmetic ? NUM_REAL_VARS : NUM_BOOL_VARS); i++) {
+				script.declareFun("v" + i, new Sort[0], sort);
+			}
+		}
+
+		/**
+		 * @return random clauses with three literals, which are boolean variables or difference constraints.
+		 */
+		List<int[][]> clauses(final int number) {
+			final List<int[][]> result = new ArrayList<>();
+			for (int i = 0; i < number; i++) {
+				final int[][] lits = new int[3][];
+				for (int j = 0; j < lits.length; j++) {
+					lits[j] = mArithmetic ? differenceLiteral() : booleanLiteral();
+				}
+				result.add(lits);
+			}
+			return result;
+		}
+
+		private int[] booleanLiteral() {
+			return new int[] { mRandom.nextInt(NUM_BOOL_VARS), mRandom.nextInt(2) };
+		}
+
+		private int[] differenceLiteral() {
+			return new int[] { mRandom.nextInt(NUM_REAL_VARS), mRandom.nextInt(NUM_REAL_VARS), mRandom.nextInt(3) - 1,
+					mRandom.nextInt(2) };
+		}
+
+		private Term literal(final Script script, final int[] lit) {
+			final Term atom;
+			if (mArithmetic) {
+				final Term diff = script.term("-", script.term("v" + lit[0]), script.term("v" + lit[1]));
+				atom = script.term("<=", diff, script.decimal(String.valueOf(lit[2])));
+			} else {
+				atom = script.term("v" + lit[0]);
+			}
+			return lit[lit.length - 1] == 0 ? atom : script.term("not", atom);
+		}
+
+		Term clause(final Script script, final int[][] lits) {
+			final Term[] terms = new Term[lits.length];
+			for (int i = 0; i < lits.length; i++) {
+				terms[i] = literal(script, lits[i]);
+			}
+			return script.term("or", terms);
+		}
+	}
+
+	private static SMTInterpol createSolver(final boolean proofs) {
+		final SMTInterpol solver = new SMTInterpol(new DefaultLogger());
+		solver.setOption(":verbosity", 3);
+		solver.setOption(":produce-models", true);
+		if (proofs) {
+			solver.setOption(":produce-proofs", true);
+			solver.setOption(":proof-check-mode", true);
+		}
+		return solver;
+	}
+
+	/**
+	 * Solve the assertions from scratch.
+	 */
+	private static LBool solveFresh(final Problems problems, final List<int[][]> clauses) {
+		final SMTInterpol reference = createSolver(false);
+		problems.declare(reference);
+		for (final int[][] clause : clauses) {
+			reference.assertTerm(problems.clause(reference, clause));
+		}
+		final LBool result = reference.checkSat();
+		reference.exit();
+		return result;
+	}
+
+	private static void checkResult(final SMTInterpol solver, final LBool result, final Problems problems,
+			final List<int[][]> clauses, final boolean proofs) {
+		Assert.assertSame("different result than without push and pop", solveFresh(problems, clauses), result);
+		if (result == LBool.SAT) {
+			final Model model = solver.getModel();
+			for (final int[][] clause : clauses) {
+				Assert.assertEquals(solver.term("true"), model.evaluate(problems.clause(solver, clause)));
+			}
+		} else if (result == LBool.UNSAT && proofs) {
+			Assert.assertNotNull(solver.getProof());
+		}
+	}
+
+	private static long getConflicts(final Object stats) {
+		if (stats instanceof Object[]) {
+			final Object[] array = (Object[]) stats;
+			if (array.length == 2 && "Conflicts".equals(array[0])) {
+				return ((Number) array[1]).longValue();
+			}
+			long conflicts = 0;
+			for (final Object elem : array) {
+				conflicts += getConflicts(elem);
+			}
+			return conflicts;
+		}
+		return 0;
+	}
+
+	/**
+	 * In every round, check a random problem inside a push, then add more clauses inside a nested push, and check the
+	 * first problem again after popping the second scope.
+	 */
+	private static void solveInScopes(final long seed, final boolean arithmetic, final boolean proofs) {
+		final Problems problems = new Problems(seed, arithmetic);
+		final SMTInterpol solver = createSolver(proofs);
+		problems.declare(solver);
+		final int numClauses = arithmetic ? NUM_REAL_CLAUSES : NUM_BOOL_CLAUSES;
+		for (int round = 0; round < NUM_ROUNDS; round++) {
+			solver.push(1);
+			final List<int[][]> outer = problems.clauses(numClauses);
+			for (final int[][] clause : outer) {
+				solver.assertTerm(problems.clause(solver, clause));
+			}
+			checkResult(solver, solver.checkSat(), problems, outer, proofs);
+
+			solver.push(1);
+			final List<int[][]> inner = problems.clauses(numClauses / 10);
+			for (final int[][] clause : inner) {
+				solver.assertTerm(problems.clause(solver, clause));
+			}
+			final List<int[][]> both = new ArrayList<>(outer);
+			both.addAll(inner);
+			checkResult(solver, solver.checkSat(), problems, both, proofs);
+			solver.pop(1);
+
+			checkResult(solver, solver.checkSat(), problems, outer, proofs);
+			solver.pop(1);
+		}
+		Assert.assertTrue("too few conflicts", getConflicts(solver.getInfo(":all-statistics")) > 100 * NUM_ROUNDS);
+		solver.exit();
+	}
+
+	@Test
+	public void booleanScopes() {
+		solveInScopes(1, false, false);
+	}
+
+	@Test
+	public void booleanScopesWithProofs() {
+		solveInScopes(2, false, true);
+	}
+
+	@Test
+	public void arithmeticScopes() {
+		solveInScopes(3, true, false);
+	}
+
+	@Test
+	public void arithmeticScopesWithProofs() {
+		solveInScopes(4, true, true);
+	}
+}
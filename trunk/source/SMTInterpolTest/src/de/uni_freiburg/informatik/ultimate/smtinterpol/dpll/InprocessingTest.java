@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.smtinterpol.dpll;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import de.uni_freiburg.informatik.ultimate.logic.Annotation;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.DefaultLogger;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.option.OptionMap.CopyMode;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+
+/**
+ * Checks that inprocessing does not change the result of check-sat and that proofs, models, and interpolants stay
+ * correct. The inputs are random 3-SAT problems near the phase transition that need enough conflicts to trigger
+ * several inprocessing rounds.
+ */
+@RunWith(JUnit4.class)
+public class InprocessingTest {
+
+	private static final int NUM_VARS = 175;
+	private static final int NUM_CLAUSES = 745;
+	private static final int NUM_SEEDS = 6;
+
+	private static int[][] randomClauses(final long seed) {
+		final Random rnd = new Random(seed);
+		final int[][] clauses = new int[NUM_CLAUSES][3];
+		for (final int[] clause : clauses) {
+			for (int i = 0; i < 3; i++) {
+				final int var = rnd.nextInt(NUM_VARS) + 1;
+				clause[i] = rnd.nextBoolean() ? var : -var;
+			}
+		}
+		return clauses;
+	}
+
+	private static SMTInterpol createSolver(final boolean inprocessing) {
+		final SMTInterpol solver = new SMTInterpol(new DefaultLogger());
+		solver.setOption(":verbosity", 3);
+		solver.setOption(":inprocessing", inprocessing);
+		return solver;
+	}
+
+	private static Term literal(final SMTInterpol solver, final int lit) {
+		final Term atom = solver.term("p" + Math.abs(lit));
+		return lit > 0 ? atom : solver.term("not", atom);
+	}
+
+	private static Term clause(final SMTInterpol solver, final int[] clause) {
+		final Term[] lits = new Term[clause.length];
+		for (int i = 0; i < clause.length; i++) {
+			lits[i] = literal(solver, clause[i]);
+		}
+		return solver.term("or", lits);
+	}
+
+	private static void declareVars(final SMTInterpol solver) {
+		final Sort bool = solver.sort("Bool");
+		for (int i = 1; i <= NUM_VARS; i++) {
+			solver.declareFun("p" + i, new Sort[0], bool);
+		}
+	}
+
+	private static LBool solve(final SMTInterpol solver, final int[][] clauses) {
+		solver.setLogic(Logics.QF_UF);
+		declareVars(solver);
+		for (final int[] cl : clauses) {
+			solver.assertTerm(clause(solver, cl));
+		}
+		return solver.checkSat();
+	}
+
+	private static long getInprocessingRounds(final Object stats) {
+		if (stats instanceof Object[]) {
+			final Object[] array = (Object[]) stats;
+			if (array.length == 2 && "Rounds".equals(array[0])) {
+				return ((Number) array[1]).longValue();
+			}
+			long rounds = 0;
+			for (final Object elem : array) {
+				rounds += getInprocessingRounds(elem);
+			}
+			return rounds;
+		}
+		return 0;
+	}
+
+	@Test
+	public void testDefaultIsOff() {
+		final SMTInterpol solver = new SMTInterpol(new DefaultLogger());
+		Assert.assertEquals(Boolean.FALSE, solver.getOption(":inprocessing"));
+	}
+
+	@Test
+	public void testSameResult() {
+		long rounds = 0;
+		for (int seed = 0; seed < NUM_SEEDS; seed++) {
+			final int[][] clauses = randomClauses(seed);
+			final SMTInterpol reference = createSolver(false);
+			final LBool expected = solve(reference, clauses);
+			Assert.assertEquals(0, getInprocessingRounds(reference.getInfo(":all-statistics")));
+			reference.exit();
+
+			final SMTInterpol solver = createSolver(true);
+			solver.setOption(":model-check-mode", true);
+			Assert.assertSame(expected, solve(solver, clauses));
+			if (expected == LBool.SAT) {
+				for (final int[] cl : clauses) {
+					Assert.assertEquals(solver.term("true"), solver.getModel().evaluate(clause(solver, cl)));
+				}
+			}
+			rounds += getInprocessingRounds(solver.getInfo(":all-statistics"));
+			solver.exit();
+		}
+		Assert.assertTrue("inprocessing never ran", rounds > 0);
+	}
+
+	@Test
+	public void testProofs() {
+		for (int seed = 0; seed < NUM_SEEDS; seed++) {
+			final SMTInterpol solver = createSolver(true);
+			solver.setOption(":produce-proofs", true);
+			solver.setOption(":proof-check-mode", true);
+			if (solve(solver, randomClauses(seed)) == LBool.UNSAT) {
+				Assert.assertNotNull(solver.getProof());
+			}
+			solver.exit();
+		}
+	}
+
+	/**
+	 * Interpolates between a random problem guarded by a shared variable s and the negation of s. Whenever the random
+	 * problem is unsatisfiable, A is equivalent to s, which keeps checking the interpolant cheap while the solver still
+	 * needs enough conflicts to trigger inprocessing.
+	 */
+	@Test
+	public void testInterpolants() {
+		int checked = 0;
+		for (int seed = 0; seed < NUM_SEEDS; seed++) {
+			final int[][] clauses = randomClauses(seed);
+			final SMTInterpol solver = createSolver(true);
+			solver.setOption(":produce-interpolants", true);
+			solver.setOption(":interpolant-check-mode", true);
+			solver.setLogic(Logics.QF_UF);
+			declareVars(solver);
+			solver.declareFun("s", new Sort[0], solver.sort("Bool"));
+			final Term[] partA = new Term[clauses.length];
+			for (int i = 0; i < clauses.length; i++) {
+				partA[i] = solver.term("or", clause(solver, clauses[i]), solver.term("s"));
+			}
+			final Term formulaA = solver.term("and", partA);
+			final Term formulaB = solver.term("not", solver.term("s"));
+			solver.assertTerm(solver.annotate(formulaA, new Annotation(":named", "A")));
+			solver.assertTerm(solver.annotate(formulaB, new Annotation(":named", "B")));
+			if (solver.checkSat() == LBool.UNSAT) {
+				final Term[] interpolants = solver.getInterpolants(new Term[] { solver.term("A"), solver.term("B") });
+				Assert.assertEquals(1, interpolants.length);
+				final Term interpolant = interpolants[0];
+
+				// A implies the interpolant and the interpolant contradicts B.
+				final SMTInterpol checker = new SMTInterpol(solver, null, CopyMode.RESET_EXCEPT_CHANNELS);
+				checker.push(1);
+				checker.assertTerm(formulaA);
+				checker.assertTerm(checker.term("not", interpolant));
+				Assert.assertSame(LBool.UNSAT, checker.checkSat());
+				checker.pop(1);
+				checker.assertTerm(interpolant);
+				checker.assertTerm(formulaB);
+				Assert.assertSame(LBool.UNSAT, checker.checkSat());
+				checker.exit();
+				checked++;
+			}
+			solver.exit();
+		}
+		Assert.assertTrue("no unsatisfiable instance", checked > 0);
+	}
+}
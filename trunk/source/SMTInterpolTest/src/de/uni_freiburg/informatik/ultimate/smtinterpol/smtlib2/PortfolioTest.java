@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.Model;
+import de.uni_freiburg.informatik.ultimate.logic.ReasonUnknown;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.option.SolverOptions;
+
+/**
+ * Checks that a check with a portfolio of solvers gives the same answers as the check of a single solver, that it
+ * respects the timeout, and that it is not used while proofs are produced.
+ */
+@RunWith(JUnit4.class)
+public class PortfolioTest {
+
+	private static final int PORTFOLIO_SIZE = 3;
+
+	@Test
+	public void pigeonHoleUnsat() {
+		for (int holes = 2; holes <= 6; holes++) {
+			assertSameAnswer(LBool.UNSAT, holes + 1, holes);
+		}
+	}
+
+	@Test
+	public void pigeonHoleSat() {
+		for (int holes = 2; holes <= 6; holes++) {
+			assertSameAnswer(LBool.SAT, holes, holes);
+		}
+	}
+
+	@Test
+	public void linearArithmetic() {
+		for (final boolean sat : new boolean[] { true, false }) {
+			final LBool expected = sat ? LBool.SAT : LBool.UNSAT;
+			final SMTInterpol single = createSolver(0);
+			assertOddNumberBetween(single, sat);
+			Assert.assertEquals(expected, single.checkSat());
+			single.exit();
+
+			final SMTInterpol portfolio = createSolver(PORTFOLIO_SIZE);
+			assertOddNumberBetween(portfolio, sat);
+			Assert.assertEquals("portfolio differs from single solver", expected, portfolio.checkSat());
+			if (sat) {
+				assertModelSatisfiesAssertions(portfolio);
+			}
+			portfolio.exit();
+		}
+	}
+
+	@Test
+	public void timeoutIsRespected() {
+		final long timeoutMs = 500;
+		final SMTInterpol solver = createSolver(PORTFOLIO_SIZE);
+		solver.setOption(SolverOptions.TIMEOUT, timeoutMs);
+		assertPigeonHole(solver, 13, 12);
+		final long start = System.currentTimeMillis();
+		Assert.assertEquals(LBool.UNKNOWN, solver.checkSat());
+		final long elapsed = System.currentTimeMillis() - start;
+		Assert.assertTrue("check took " + elapsed + "ms", elapsed < 20 * timeoutMs);
+		final Object reason = solver.getInfo(":reason-unknown");
+		Assert.assertTrue("unexpected reason " + reason, reason == ReasonUnknown.CANCELLED
+				|| reason == ReasonUnknown.TIMEOUT);
+		solver.exit();
+	}
+
+	@Test
+	public void clausesAreShared() {
+		final SMTInterpol solver = createSolver(PORTFOLIO_SIZE);
+		assertPigeonHole(solver, 8, 7);
+		Assert.assertEquals(LBool.UNSAT, solver.checkSat());
+		Assert.assertTrue(getStatistic(solver.getInfo(":all-statistics"), "Exported_clauses") > 0);
+		solver.exit();
+	}
+
+	/**
+	 * The main engine cannot import shared clauses without their proofs, hence the portfolio is not used and the main
+	 * engine solves alone.
+	 */
+	@Test
+	public void proofsWithoutPortfolio() {
+		final SMTInterpol solver = new SMTInterpol();
+		solver.setOption(":produce-proofs", true);
+		solver.setOption(":proof-check-mode", true);
+		solver.setOption(SolverOptions.PORTFOLIO_SIZE, PORTFOLIO_SIZE);
+		solver.setLogic(Logics.QF_UFLIA);
+		assertPigeonHole(solver, 8, 7);
+		Assert.assertEquals(LBool.UNSAT, solver.checkSat());
+		Assert.assertNotNull(solver.getProof());
+		Assert.assertEquals(0, getStatistic(solver.getInfo(":all-statistics"), "Exported_clauses"));
+		solver.exit();
+	}
+
+	/**
+	 * Find a statistic in the nested key-value arrays returned for {@code :all-statistics}.
+	 *
+	 * @return the value, or -1 if the statistic was not found.
+	 */
+	private static long getStatistic(final Object stats, final String key) {
+		if (stats instanceof Object[]) {
+			final Object[] array = (Object[]) stats;
+			if (array.length == 2 && key.equals(array[0])) {
+				return ((Number) array[1]).longValue();
+			}
+			for (final Object elem : array) {
+				final long value = getStatistic(elem, key);
+				if (value >= 0) {
+					return value;
+				}
+			}
+		}
+		return -1;
+	}
+
+	private static SMTInterpol createSolver(final int portfolioSize) {
+		final SMTInterpol solver = new SMTInterpol();
+		solver.setOption(":produce-models", true);
+		solver.setOption(SolverOptions.PORTFOLIO_SIZE, portfolioSize);
+		solver.setLogic(Logics.QF_UFLIA);
+		return solver;
+	}
+
+	private static void assertSameAnswer(final LBool expected, final int pigeons, final int holes) {
+		final SMTInterpol single = createSolver(0);
+		assertPigeonHole(single, pigeons, holes);
+		Assert.assertEquals(expected, single.checkSat());
+		single.exit();
+
+		final SMTInterpol portfolio = createSolver(PORTFOLIO_SIZE);
+		assertPigeonHole(portfolio, pigeons, holes);
+		Assert.assertEquals("portfolio differs for " + pigeons + " pigeons in " + holes + " holes", expected,
+				portfolio.checkSat());
+		if (expected == LBool.SAT) {
+			assertModelSatisfiesAssertions(portfolio);
+		}
+		portfolio.exit();
+	}
+
+	private static void assertModelSatisfiesAssertions(final SMTInterpol solver) {
+		final Model model = solver.getModel();
+		for (final Term asserted : solver.getAssertions()) {
+			Assert.assertEquals(solver.term("true"), model.evaluate(asserted));
+		}
+	}
+
+	/**
+	 * Assert that y = 2x - 1 is an odd number other than 1 with 0 < y < 4 (satisfiable) or 0 < y < 3 (unsatisfiable).
+	 */
+	private static void assertOddNumberBetween(final Script script, final boolean sat) {
+		script.declareFun("x", Script.EMPTY_SORT_ARRAY, script.sort("Int"));
+		script.declareFun("y", Script.EMPTY_SORT_ARRAY, script.sort("Int"));
+		final Term x = script.term("x");
+		final Term y = script.term("y");
+		script.assertTerm(script.term("=", script.term("*", script.numeral("2"), x),
+				script.term("+", y, script.numeral("1"))));
+		script.assertTerm(script.term(">", y, script.numeral("0")));
+		script.assertTerm(script.term("<", y, script.numeral(sat ? "4" : "3")));
+		script.assertTerm(script.term("distinct", y, script.numeral("1")));
+	}
+
+	/**
+	 * Assert that every pigeon sits in a hole and no two pigeons share a hole. This is unsatisfiable if there are
+	 * more pigeons than holes and hard for resolution.
+	 */
+	private static void assertPigeonHole(final Script script, final int pigeons, final int holes) {
+		final Term[][] sits = new Term[pigeons][holes];
+		for (int p = 0; p < pigeons; p++) {
+			for (int h = 0; h < holes; h++) {
+				final String name = "p" + p + "h" + h;
+				script.declareFun(name, Script.EMPTY_SORT_ARRAY, script.sort("Bool"));
+				sits[p][h] = script.term(name);
+			}
+		}
+		for (int p = 0; p < pigeons; p++) {
+			script.assertTerm(holes == 1 ? sits[p][0] : script.term("or", sits[p]));
+		}
+		for (int h = 0; h < holes; h++) {
+			for (int p = 0; p < pigeons; p++) {
+				for (int q = p + 1; q < pigeons; q++) {
+					script.assertTerm(script.term("not", script.term("and", sits[p][h], sits[q][h])));
+				}
+			}
+		}
+	}
+}
@@ -28,6 +28,7 @@
 package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.Set;
@@ -225,6 +226,12 @@ public abstract class AbstractCegarLoop<LETTER extends IAction> {
 	protected final TaskIdentifier mTaskIdentifier;
 
 	protected Dumper mDumper;
+
+	/**
+	 * only != null if statistics of each iteration are written to a file.
+	 */
+	private CegarIterationEventLog mIterationEventLog;
+
 	/**
 	 * only != null if analysis result is UNKNOWN Textual explanation why result is unknown.
 	 */
@@ -421,6 +428,7 @@ public abstract class AbstractCegarLoop<LETTER extends IAction> {
 				return reportResult(Result.SAFE);
 			}
 
+			mIterationEventLog = createIterationEventLog();
 			for (mIteration = 1; mIteration <= mPref.maxIterations(); mIteration++) {
 				final String msg = "=== Iteration " + mIteration + " === " + errorLocs() + "===";
 				mServices.getStorage().pushMarker(msg);
@@ -428,6 +436,9 @@ public abstract class AbstractCegarLoop<LETTER extends IAction> {
 				try {
 
 					mCegarLoopBenchmark.announceNextIteration();
+					if (mIterationEventLog != null) {
+						mIterationEventLog.startIteration(mIteration, mCegarLoopBenchmark.getNumericSnapshot());
+					}
 					if (mPref.dumpAutomata()) {
 						mDumper = new Dumper(mLogger, mPref, mName, mIteration);
 					}
@@ -511,6 +522,9 @@ public abstract class AbstractCegarLoop<LETTER extends IAction> {
 						return reportResult(Result.SAFE);
 					}
 				} finally {
+					if (mIterationEventLog != null) {
+						mIterationEventLog.endIteration(mAbstraction.size(), mCegarLoopBenchmark.getNumericSnapshot());
+					}
 					final Set<String> destroyedStorables = mServices.getStorage().destroyMarker(msg);
 					if (!destroyedStorables.isEmpty()) {
 						mLogger.warn("Destroyed unattended storables created during the last iteration: "
@@ -526,6 +540,24 @@ public abstract class AbstractCegarLoop<LETTER extends IAction> {
 			return performLimitReachedActions(e);
 		} catch (final AutomataLibraryException e) {
 			throw new ToolchainExceptionWrapper(Activator.PLUGIN_ID, e);
+		} finally {
+			if (mIterationEventLog != null) {
+				mIterationEventLog.close();
+				mIterationEventLog = null;
+			}
+		}
+	}
+
+	private CegarIterationEventLog createIterationEventLog() {
+		final String file = mPref.getCegarIterationEventLog();
+		if (file == null) {
+			return null;
+		}
+		try {
+			return new CegarIterationEventLog(mLogger, new File(file), mTaskIdentifier.toString());
+		} catch (final IOException e) {
+			mLogger.warn("Cannot write statistics of CEGAR iterations to " + file + ": " + e.getMessage());
+			return null;
 		}
 	}
 
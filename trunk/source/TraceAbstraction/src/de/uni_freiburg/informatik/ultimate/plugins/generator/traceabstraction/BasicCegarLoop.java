@@ -37,6 +37,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -46,8 +47,10 @@ import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
 import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
 import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
 import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter;
+import de.uni_freiburg.informatik.ultimate.automata.IAutomaton;
 import de.uni_freiburg.informatik.ultimate.automata.IRun;
 import de.uni_freiburg.informatik.ultimate.automata.Word;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.CompactNestedWordAutomaton;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.EpsilonNestedWordAutomaton;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.IDoubleDeckerAutomaton;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
@@ -64,6 +67,8 @@ import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.IsEmpt
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.IsEmptyHeuristic;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.IsEmptyHeuristic.AStarHeuristic;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.IsEmptyHeuristic.IHeuristic;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.IsEmptyParallel;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.LazyDifferenceNwa;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.PowersetDeterminizer;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.RemoveDeadEnds;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.RemoveUnreachable;
@@ -94,6 +99,7 @@ import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.I
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.debugidentifiers.DebugIdentifier;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.IHoareTripleChecker;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.IncrementalHoareTripleChecker;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.SharedHoareTripleCache;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SMTFeatureExtractionTermClassifier.ScoringMethod;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SmtUtils.SimplificationTechnique;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SmtUtils.XnfConversionTechnique;
@@ -200,6 +206,7 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 	protected static final int MINIMIZE_EVERY_KTH_ITERATION = 10;
 	protected static final boolean REMOVE_DEAD_ENDS = true;
 	protected static final int MINIMIZATION_TIMEOUT = 1_000;
+	private static final int LAZY_DIFFERENCE_CACHE_SIZE = 100_000;
 	private static final boolean NON_EA_INDUCTIVITY_CHECK = false;
 
 	/**
@@ -219,18 +226,35 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 
 	protected final boolean mComputeHoareAnnotation;
 	protected final AssertCodeBlockOrder mAssertCodeBlocksIncrementally;
+	/**
+	 * Hoare triple results that are reused by the Hoare triple checkers of all iterations, null if disabled.
+	 */
+	protected final SharedHoareTripleCache mHoareTripleCache;
 	protected final Collection<INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate>> mStoredRawInterpolantAutomata;
 
 	private final RelevanceAnalysisMode mFaultLocalizationMode;
 	private final boolean mFaultLocalizationAngelic;
 	private final Set<IcfgLocation> mHoareAnnotationLocations;
 	private final SearchStrategy mSearchStrategy;
+	private final boolean mUseParallelEmptinessCheck;
+	private final int mLazyDifferenceDepth;
+	/**
+	 * Interpolant automata that are still referenced by a lazy difference and hence have to stay in on-demand
+	 * construction mode, together with their Hoare triple checkers.
+	 */
+	private final List<AbstractInterpolantAutomaton<LETTER>> mLazySubtrahends = new ArrayList<>();
+	private final List<IHoareTripleChecker> mLazyHoareTripleCheckers = new ArrayList<>();
 	private final StrategyFactory<LETTER> mStrategyFactory;
 	private final PathProgramDumpController<LETTER> mPathProgramDumpController;
 	private final ErrorGeneralizationEngine<LETTER> mErrorGeneralizationEngine;
 	private final boolean mStoreFloydHoareAutomata;
 	private final LinkedHashSet<Pair<AbstractInterpolantAutomaton<LETTER>, IPredicateUnifier>> mFloydHoareAutomata =
 			new LinkedHashSet<>();
+	/**
+	 * Persistent store to which all Floyd-Hoare automata that are dumped for reuse are added, null if disabled.
+	 */
+	private final FloydHoareAutomataStore mFloydHoareAutomataStore;
+	private final ProgramFingerprint mProgramFingerprint;
 
 	protected boolean mFallbackToFpIfInterprocedural = false;
 	protected HoareAnnotationFragments<LETTER> mHaf;
@@ -271,6 +295,17 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 			mHoareAnnotationLocations = Collections.emptySet();
 		}
 		mStoreFloydHoareAutomata = taPrefs.getFloydHoareAutomataReuse() != FloydHoareAutomataReuse.NONE;
+		if (taPrefs.getFloydHoareAutomataStore() != null) {
+			mFloydHoareAutomataStore = new FloydHoareAutomataStore(services, mLogger,
+					taPrefs.getFloydHoareAutomataStore(), taPrefs.getFloydHoareAutomataStoreBytes());
+			mProgramFingerprint = new ProgramFingerprint(rootNode);
+		} else {
+			mFloydHoareAutomataStore = null;
+			mProgramFingerprint = null;
+		}
+		mHoareTripleCache = taPrefs.getHoareTripleCacheSize() > 0
+				? new SharedHoareTripleCache(taPrefs.getHoareTripleCacheSize())
+				: null;
 		mErrorGeneralizationEngine = new ErrorGeneralizationEngine<>(services);
 		mHaf = new HoareAnnotationFragments<>(mLogger, mHoareAnnotationLocations, mPref.getHoareAnnotationPositions());
 		mStateFactoryForRefinement = new PredicateFactoryRefinement(mServices, super.mCsToolkit.getManagedScript(),
@@ -297,6 +332,16 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 				prefs.getBoolean(TraceAbstractionPreferenceInitializer.LABEL_ERROR_TRACE_ANGELIC_VERIFICATION_ACTIVE);
 
 		mSearchStrategy = getSearchStrategy(prefs);
+		mUseParallelEmptinessCheck =
+				prefs.getEnum(TraceAbstractionPreferenceInitializer.LABEL_COUNTEREXAMPLE_SEARCH_STRATEGY,
+						CounterexampleSearchStrategy.class) == CounterexampleSearchStrategy.PARALLEL_BFS;
+		if (taPrefs.getLazyDifferenceDepth() > 0 && (computeHoareAnnotation
+				|| taPrefs.getMinimization() != Minimization.NONE || taPrefs.differenceSenwa())) {
+			mLogger.warn("Lazy difference is not used, it requires no minimization and no Hoare annotation");
+			mLazyDifferenceDepth = 0;
+		} else {
+			mLazyDifferenceDepth = taPrefs.getLazyDifferenceDepth();
+		}
 		mStoredRawInterpolantAutomata = checkStoreCounterExamples(mPref) ? new ArrayList<>() : null;
 
 		final TaCheckAndRefinementPreferences<LETTER> taCheckAndRefinementPrefs =
@@ -392,14 +437,22 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 		final INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate> abstraction =
 				(INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate>) mAbstraction;
 
-		if (mUseHeuristicEmptinessCheck) {
-			mCounterexample = new IsEmptyHeuristic<>(new AutomataLibraryServices(mServices), abstraction,
-					IHeuristic.getHeuristic(mAStarHeuristic, mScoringMethod, mAStarRandomHeuristicSeed)).getNestedRun();
-
-			assert checkIsEmptyHeuristic(abstraction) : "IsEmptyHeuristic did not match IsEmpty";
-		} else {
-			mCounterexample =
-					new IsEmpty<>(new AutomataLibraryServices(mServices), abstraction, mSearchStrategy).getNestedRun();
+		try {
+			if (mUseHeuristicEmptinessCheck) {
+				mCounterexample = new IsEmptyHeuristic<>(new AutomataLibraryServices(mServices), abstraction,
+						IHeuristic.getHeuristic(mAStarHeuristic, mScoringMethod, mAStarRandomHeuristicSeed))
+								.getNestedRun();
+
+				assert checkIsEmptyHeuristic(abstraction) : "IsEmptyHeuristic did not match IsEmpty";
+			} else if (mUseParallelEmptinessCheck) {
+				mCounterexample =
+						new IsEmptyParallel<>(new AutomataLibraryServices(mServices), abstraction).getNestedRun();
+			} else {
+				mCounterexample = new IsEmpty<>(new AutomataLibraryServices(mServices), abstraction, mSearchStrategy)
+						.getNestedRun();
+			}
+		} finally {
+			releaseLazyHoareTripleCheckerLocks();
 		}
 
 		if (mCounterexample == null) {
@@ -502,8 +555,10 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 				final String taskDescription = "bailout by path program count limit in iteration " + mIteration;
 				throw new TaskCanceledException(UserDefinedLimit.PATH_PROGRAM_ATTEMPTS, getClass(), taskDescription);
 			}
+			final IAutomaton<LETTER, IPredicate> abstraction =
+					interpolantAutomatonNeedsConcreteAbstraction() ? getConcreteAbstraction() : mAbstraction;
 			final IRefinementStrategy<LETTER> strategy = mStrategyFactory.constructStrategy(mCounterexample,
-					mAbstraction, new SubtaskIterationIdentifier(mTaskIdentifier, getIteration()),
+					abstraction, new SubtaskIterationIdentifier(mTaskIdentifier, getIteration()),
 					mPredicateFactoryInterpolantAutomata, getPreconditionProvider(), getPostconditionProvider());
 			mRefinementEngine = new TraceAbstractionRefinementEngine<>(mLogger, strategy);
 		} catch (final ToolchainCanceledException tce) {
@@ -603,7 +658,7 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 		mErrorGeneralizationEngine.constructErrorAutomaton(mCounterexample, mPredicateFactory,
 				mRefinementEngine.getPredicateUnifier(), mCsToolkit, mSimplificationTechnique, mXnfConversionTechnique,
 				mIcfg.getCfgSmtToolkit().getSymbolTable(), mPredicateFactoryInterpolantAutomata,
-				(INestedWordAutomaton<LETTER, IPredicate>) mAbstraction, mIteration);
+				getConcreteAbstraction(), mIteration);
 
 		mInterpolAutomaton = null;
 		final NestedWordAutomaton<LETTER, IPredicate> resultBeforeEnhancement =
@@ -623,16 +678,13 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 		mStateFactoryForRefinement.setIteration(mIteration);
 		mCegarLoopBenchmark.start(CegarLoopStatisticsDefinitions.AutomataDifference.toString());
 
-		final INestedWordAutomaton<LETTER, IPredicate> minuend =
-				(INestedWordAutomaton<LETTER, IPredicate>) mAbstraction;
-
 		final IPredicateUnifier predicateUnifier = mRefinementEngine.getPredicateUnifier();
 		final IHoareTripleChecker htc;
 		if (mRefinementEngine.getHoareTripleChecker() != null) {
 			htc = mRefinementEngine.getHoareTripleChecker();
 		} else {
 			htc = TraceAbstractionUtils.constructEfficientHoareTripleCheckerWithCaching(mServices,
-					mPref.getHoareTripleChecks(), mCsToolkit, predicateUnifier);
+					mPref.getHoareTripleChecks(), mCsToolkit, predicateUnifier, mHoareTripleCache);
 		}
 
 		final AutomatonType automatonType;
@@ -669,16 +721,25 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 
 		// TODO: HTC and predicateunifier statistics are saved in the following method, but it seems better to save them
 		// at the end of the htc lifecycle instead of there
-		computeAutomataDifference(minuend, subtrahend, subtrahendBeforeEnhancement, predicateUnifier,
-				exploitSigmaStarConcatOfIa, htc, enhanceMode, useErrorAutomaton, automatonType);
+		if (mLazyDifferenceDepth > 0 && !useErrorAutomaton) {
+			computeLazyDifference(subtrahend, predicateUnifier, exploitSigmaStarConcatOfIa, htc, enhanceMode);
+		} else {
+			computeAutomataDifference(getConcreteAbstraction(), subtrahend, subtrahendBeforeEnhancement,
+					predicateUnifier, exploitSigmaStarConcatOfIa, htc, enhanceMode, useErrorAutomaton, automatonType);
+		}
 
 		mLogger.info(predicateUnifier.collectPredicateUnifierStatistics());
 
 		minimizeAbstractionIfEnabled();
 
-		final boolean stillAccepted = new Accepts<>(new AutomataLibraryServices(mServices),
-				(INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate>) mAbstraction,
-				(NestedWord<LETTER>) mCounterexample.getWord()).getResult();
+		final boolean stillAccepted;
+		try {
+			stillAccepted = new Accepts<>(new AutomataLibraryServices(mServices),
+					(INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate>) mAbstraction,
+					(NestedWord<LETTER>) mCounterexample.getWord()).getResult();
+		} finally {
+			releaseLazyHoareTripleCheckerLocks();
+		}
 		return !stillAccepted;
 	}
 
@@ -807,6 +868,89 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 		}
 	}
 
+	/**
+	 * Push the difference with the subtrahend onto the lazy difference instead of constructing it. The subtrahend
+	 * stays in on-demand construction mode until the lazy difference is compacted.
+	 */
+	private void computeLazyDifference(final INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate> subtrahend,
+			final IPredicateUnifier predicateUnifier, final boolean exploitSigmaStarConcatOfIa,
+			final IHoareTripleChecker htc, final InterpolantAutomatonEnhancement enhanceMode)
+			throws AutomataLibraryException {
+		try {
+			final LazyDifferenceNwa<LETTER, IPredicate> lazyDifference;
+			if (mAbstraction instanceof LazyDifferenceNwa) {
+				lazyDifference = (LazyDifferenceNwa<LETTER, IPredicate>) mAbstraction;
+			} else {
+				lazyDifference = new LazyDifferenceNwa<>(new AutomataLibraryServices(mServices),
+						mStateFactoryForRefinement,
+						(INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate>) mAbstraction,
+						mLazyDifferenceDepth, LAZY_DIFFERENCE_CACHE_SIZE);
+				mAbstraction = lazyDifference;
+			}
+			if (enhanceMode != InterpolantAutomatonEnhancement.NONE) {
+				assert subtrahend instanceof AbstractInterpolantAutomaton : "if enhancement is used, we need AbstractInterpolantAutomaton";
+				mLazySubtrahends.add((AbstractInterpolantAutomaton<LETTER>) subtrahend);
+				mLazyHoareTripleCheckers.add(htc);
+			}
+			final PowersetDeterminizer<LETTER, IPredicate> psd =
+					new PowersetDeterminizer<>(subtrahend, true, mPredicateFactoryInterpolantAutomata);
+			if (lazyDifference.subtract(subtrahend, psd, exploitSigmaStarConcatOfIa)) {
+				mLogger.info("Compacted lazy difference to " + lazyDifference.sizeInformation());
+				releaseLazySubtrahends();
+			}
+		} finally {
+			mCegarLoopBenchmark.addPredicateUnifierData(predicateUnifier.getPredicateUnifierBenchmark());
+			mCegarLoopBenchmark.stop(CegarLoopStatisticsDefinitions.AutomataDifference.toString());
+		}
+	}
+
+	/**
+	 * @return true iff the interpolant automaton builder of the preferences casts the abstraction to
+	 *         {@link INestedWordAutomaton}
+	 */
+	private boolean interpolantAutomatonNeedsConcreteAbstraction() {
+		return mInterpolantAutomatonConstructionProcedure == InterpolantAutomaton.TOTALINTERPOLATION2
+				|| mInterpolantAutomatonConstructionProcedure == InterpolantAutomaton.ABSTRACT_INTERPRETATION;
+	}
+
+	/**
+	 * @return the abstraction as automaton whose states are constructed, compacts a lazy difference if necessary
+	 */
+	protected INestedWordAutomaton<LETTER, IPredicate> getConcreteAbstraction()
+			throws AutomataOperationCanceledException {
+		if (mAbstraction instanceof LazyDifferenceNwa) {
+			final INestedWordAutomaton<LETTER, IPredicate> result;
+			try {
+				result = ((LazyDifferenceNwa<LETTER, IPredicate>) mAbstraction).compact();
+			} finally {
+				releaseLazySubtrahends();
+			}
+			mAbstraction = result;
+		}
+		return (INestedWordAutomaton<LETTER, IPredicate>) mAbstraction;
+	}
+
+	private void releaseLazySubtrahends() {
+		for (final AbstractInterpolantAutomaton<LETTER> subtrahend : mLazySubtrahends) {
+			subtrahend.switchToReadonlyMode();
+		}
+		for (final IHoareTripleChecker htc : mLazyHoareTripleCheckers) {
+			mCegarLoopBenchmark.addEdgeCheckerData(htc.getEdgeCheckerBenchmark());
+		}
+		mLazySubtrahends.clear();
+		mLazyHoareTripleCheckers.clear();
+	}
+
+	/**
+	 * The Hoare triple checkers of lazy subtrahends keep the solver locked after a query, other users of the solver
+	 * need it between two queries of the lazy difference.
+	 */
+	private void releaseLazyHoareTripleCheckerLocks() {
+		for (final IHoareTripleChecker htc : mLazyHoareTripleCheckers) {
+			htc.releaseLock();
+		}
+	}
+
 	private RunningTaskInfo executeDifferenceTimeoutActions(final INestedWordAutomaton<LETTER, IPredicate> minuend,
 			final INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate> subtrahend,
 			final INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate> subtrahendBeforeEnhancement,
@@ -830,9 +974,23 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 		return new RunningTaskInfo(getClass(), taskDescription);
 	}
 
+	private void addAutomatonToStore(final INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate> automaton,
+			final IPredicateUnifier predicateUnifier) throws AutomataOperationCanceledException {
+		final INestedWordAutomaton<LETTER, IPredicate> reachableAutomaton =
+				new RemoveDeadEnds<>(new AutomataLibraryServices(mServices), automaton).getResult();
+		if (reachableAutomaton.getStates().isEmpty()) {
+			return;
+		}
+		mFloydHoareAutomataStore.store(reachableAutomaton,
+				predicateUnifier.getCoverageRelation().getCopyOfImplicationRelation(), mProgramFingerprint);
+	}
+
 	protected void dumpOrAppendAutomatonForReuseIfEnabled(
 			final INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate> automaton,
-			final IPredicateUnifier predicateUnifier) {
+			final IPredicateUnifier predicateUnifier) throws AutomataOperationCanceledException {
+		if (mFloydHoareAutomataStore != null) {
+			addAutomatonToStore(automaton, predicateUnifier);
+		}
 		if (mPref.dumpOnlyReuseAutomata()) {
 
 			mCegarLoopBenchmark.start(CegarLoopStatisticsDefinitions.DumpTime);
@@ -971,10 +1129,12 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 		case DFA_HOPCROFT_ARRAYS:
 		case MINIMIZE_SEVPA:
 		case SHRINK_NWA:
+		case MINIMIZE_NWA_PARALLEL:
 		case NWA_MAX_SAT:
 		case NWA_MAX_SAT2:
 		case RAQ_DIRECT_SIMULATION:
 		case RAQ_DIRECT_SIMULATION_B:
+		case BITSET_DIRECT_SIMULATION:
 		case NWA_COMBINATOR_PATTERN:
 		case NWA_COMBINATOR_EVERY_KTH:
 		case NWA_OVERAPPROXIMATION:
@@ -1037,7 +1197,12 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 			assert oldSize == 0 || oldSize >= newSize : "Minimization increased state space";
 
 			// use result
-			mAbstraction = newAbstraction;
+			if (mPref.compactAbstraction()) {
+				// the next difference and minimization only need the transitions of the minimized abstraction
+				mAbstraction = new CompactNestedWordAutomaton<>(new AutomataLibraryServices(mServices), newAbstraction);
+			} else {
+				mAbstraction = newAbstraction;
+			}
 		}
 	}
 
@@ -1101,6 +1266,7 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 	 * method called at the end of the cegar loop
 	 */
 	public void finish() {
+		releaseLazySubtrahends();
 		mCegarLoopBenchmark.stop(CegarLoopStatisticsDefinitions.OverallTime.toString());
 	}
 
@@ -1130,6 +1296,7 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 		switch (mPrefs.getEnum(TraceAbstractionPreferenceInitializer.LABEL_COUNTEREXAMPLE_SEARCH_STRATEGY,
 				CounterexampleSearchStrategy.class)) {
 		case BFS:
+		case PARALLEL_BFS:
 			return SearchStrategy.BFS;
 		case DFS:
 			return SearchStrategy.DFS;
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+
+/**
+ * Appends one line to a JSON Lines file for each iteration of a CEGAR loop.
+ * <p>
+ * Each line contains the task, the number of the iteration, the wall time of the iteration, the number of bytes that
+ * the current thread allocated during the iteration (-1 if the JVM does not support this measurement), the size of
+ * the abstraction after the iteration, and the change of every numeric value of the {@link CegarLoopStatisticsGenerator}
+ * during the iteration. The latter contains, e.g., the time of trace checks, the Hoare triple checks by the source
+ * that answered them (cache, SdHoareTripleChecker, solver), the time of the difference and the minimization. A value
+ * that is missing from the snapshot at the start or at the end of the iteration (e.g., a stopwatch that is running at
+ * that moment) is not reported, since its change is not known.
+ * <p>
+ * A line is written (and flushed) at once, such that several sequential CEGAR loops can append to the same file.
+ */
+public class CegarIterationEventLog implements AutoCloseable {
+
+	private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+	/**
+	 * HotSpot's com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long), invoked per reflection because
+	 * com.sun.management is not visible to the bundle. Null if the JVM does not support the measurement.
+	 */
+	private static final Method GET_THREAD_ALLOCATED_BYTES = getThreadAllocatedBytesMethod();
+
+	private final ILogger mLogger;
+	private final String mTask;
+	private Writer mWriter;
+
+	private int mIteration;
+	private long mStartTime;
+	private long mStartAllocatedBytes;
+	private Map<String, Long> mStartStatistics;
+
+	public CegarIterationEventLog(final ILogger logger, final File file, final String task) throws IOException {
+		mLogger = logger;
+		mTask = task;
+		mWriter = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8);
+	}
+
+	public void startIteration(final int iteration, final Map<String, Long> statistics) {
+		mIteration = iteration;
+		mStartStatistics = statistics;
+		mStartAllocatedBytes = getAllocatedBytes();
+		mStartTime = System.nanoTime();
+	}
+
+	public void endIteration(final int abstractionSize, final Map<String, Long> statistics) {
+		final long wallTime = System.nanoTime() - mStartTime;
+		final long allocatedBytes = mStartAllocatedBytes < 0 ? -1 : getAllocatedBytes() - mStartAllocatedBytes;
+		if (mWriter == null) {
+			return;
+		}
+		final StringBuilder sb = new StringBuilder();
+		sb.append("{\"task\":");
+		appendString(sb, mTask);
+		sb.append(",\"iteration\":").append(mIteration);
+		sb.append(",\"wallTimeNanos\":").append(wallTime);
+		sb.append(",\"allocatedBytes\":").append(allocatedBytes);
+		sb.append(",\"abstractionSize\":").append(abstractionSize);
+		sb.append(",\"statistics\":{");
+		boolean first = true;
+		for (final Entry<String, Long> entry : statistics.entrySet()) {
+			final Long start = mStartStatistics.get(entry.getKey());
+			if (start == null) {
+				continue;
+			}
+			final long delta = entry.getValue() - start;
+			if (delta == 0) {
+				continue;
+			}
+			if (!first) {
+				sb.append(',');
+			}
+			first = false;
+			appendString(sb, entry.getKey());
+			sb.append(':').append(delta);
+		}
+		sb.append("}}\n");
+		try {
+			mWriter.write(sb.toString());
+			mWriter.flush();
+		} catch (final IOException e) {
+			mLogger.warn("Disabling log of CEGAR iterations: " + e.getMessage());
+			close();
+		}
+	}
+
+	@Override
+	public void close() {
+		if (mWriter == null) {
+			return;
+		}
+		try {
+			mWriter.close();
+		} catch (final IOException e) {
+			mLogger.warn("Failed to close log of CEGAR iterations: " + e.getMessage());
+		}
+		mWriter = null;
+	}
+
+	private static void appendString(final StringBuilder sb, final String string) {
+		sb.append('"');
+		for (int i = 0; i < string.length(); i++) {
+			final char c = string.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			} else if (c < ' ') {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		sb.append('"');
+	}
+
+	private static long getAllocatedBytes() {
+		if (GET_THREAD_ALLOCATED_BYTES == null) {
+			return -1;
+		}
+		try {
+			return (Long) GET_THREAD_ALLOCATED_BYTES.invoke(THREAD_BEAN, Thread.currentThread().getId());
+		} catch (final ReflectiveOperationException | RuntimeException e) {
+			return -1;
+		}
+	}
+
+	private static Method getThreadAllocatedBytesMethod() {
+		try {
+			final Class<?> clazz = Class.forName("com.sun.management.ThreadMXBean");
+			if (!clazz.isInstance(THREAD_BEAN)
+					|| !(Boolean) clazz.getMethod("isThreadAllocatedMemorySupported").invoke(THREAD_BEAN)) {
+				return null;
+			}
+			clazz.getMethod("setThreadAllocatedMemoryEnabled", boolean.class).invoke(THREAD_BEAN, true);
+			return clazz.getMethod("getThreadAllocatedBytes", long.class);
+		} catch (final ReflectiveOperationException | LinkageError | RuntimeException e) {
+			// the measurement of allocated bytes is specific to HotSpot
+			return null;
+		}
+	}
+}
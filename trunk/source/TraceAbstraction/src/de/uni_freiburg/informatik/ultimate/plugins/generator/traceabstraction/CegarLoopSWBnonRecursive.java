@@ -193,7 +193,7 @@ public class CegarLoopSWBnonRecursive<LETTER extends IIcfgTransition<?>> extends
 
 		// cast the abstraction automaton as nested word and double decker
 		// automaton
-		mNestedAbstraction = (INestedWordAutomaton<LETTER, IPredicate>) mAbstraction;
+		mNestedAbstraction = getConcreteAbstraction();
 
 		mDoubleDeckerAbstraction = new RemoveUnreachable<>(new AutomataLibraryServices(mServices),
 				(INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate>) mAbstraction).getResult();
@@ -26,10 +26,16 @@
  */
 package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
 
 import de.uni_freiburg.informatik.ultimate.lib.tracecheckerutils.CoverageAnalysis.BackwardCoveringInformation;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.CegarStatisticsType.SizeIterationPair;
+import de.uni_freiburg.informatik.ultimate.util.InCaReCounter;
 import de.uni_freiburg.informatik.ultimate.util.statistics.IStatisticsDataProvider;
 import de.uni_freiburg.informatik.ultimate.util.statistics.IStatisticsType;
 import de.uni_freiburg.informatik.ultimate.util.statistics.StatisticsData;
@@ -171,6 +177,44 @@ public class CegarLoopStatisticsGenerator extends StatisticsGeneratorWithStopwat
 		}
 	}
 
+	/**
+	 * @return The current values of all numeric statistics (including nested statistics, whose keys are composed as
+	 *         in {@link StatisticsData#getFlattenedKeyValueMap()}). Stopwatches that are still running are omitted, because
+	 *         their elapsed time does not contain the current run.
+	 */
+	public Map<String, Long> getNumericSnapshot() {
+		final Map<String, Long> result = new TreeMap<>();
+		final List<String> stopwatches = Arrays.asList(getStopwatches());
+		for (final String key : getKeys()) {
+			if (stopwatches.contains(key) && isRunning(key)) {
+				continue;
+			}
+			addNumericValues(key, getValue(key), result);
+		}
+		return result;
+	}
+
+	private static void addNumericValues(final String key, final Object value, final Map<String, Long> result) {
+		if (value instanceof Number) {
+			result.put(key, ((Number) value).longValue());
+		} else if (value instanceof InCaReCounter) {
+			final InCaReCounter counter = (InCaReCounter) value;
+			result.put(key, (long) counter.getInternal() + counter.getCall() + counter.getReturn());
+		} else if (value instanceof StatisticsData) {
+			if (!((StatisticsData) value).isEmpty()) {
+				for (final Entry<String, Object> entry : ((StatisticsData) value).getFlattenedKeyValueMap()
+						.entrySet()) {
+					addNumericValues(key + "_" + entry.getKey(), entry.getValue(), result);
+				}
+			}
+		} else if (value instanceof IStatisticsDataProvider) {
+			final IStatisticsDataProvider provider = (IStatisticsDataProvider) value;
+			for (final String subKey : provider.getKeys()) {
+				addNumericValues(key + "_" + subKey, provider.getValue(subKey), result);
+			}
+		}
+	}
+
 	@Override
 	public IStatisticsType getBenchmarkType() {
 		return CegarStatisticsType.getInstance();
@@ -0,0 +1,337 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter.NamedAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.BinaryAutomatonReader;
+import de.uni_freiburg.informatik.ultimate.automata.BinaryAutomatonWriter;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.EpsilonNestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IIcfgTransition;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicate;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.HashRelation;
+
+/**
+ * Content-addressed on-disk store of Floyd-Hoare automata that persists between runs of Ultimate.
+ * <p>
+ * Each automaton is stored in a file of its own whose name is a hash of the file's content. The file starts with a
+ * header that contains the {@link ProgramFingerprint} of each part of the program on which the automaton depends and
+ * the implications between the states. The automaton follows in the format of {@link BinaryAutomatonWriter}, i.e.,
+ * letters and states are stored as their string representations, which is what {@link ReuseCegarLoop} expects. A
+ * later run loads all automata whose dependencies have the same fingerprint in the current program, i.e., automata for
+ * the unchanged parts of an edited program.
+ * <p>
+ * The store is a cache. If its size exceeds the given bound, the least recently used files are deleted. Files that
+ * cannot be read are deleted as well, and failures to write are only logged.
+ */
+public class FloydHoareAutomataStore {
+
+	private static final String FILE_ENDING = ".fha";
+	/**
+	 * "FHA" followed by the version of the format.
+	 */
+	private static final int MAGIC = 0x46484132;
+	private static final int NAME_LENGTH_BYTES = 16;
+	private static final String AUTOMATON_NAME = "floydHoareAutomaton";
+
+	private final IUltimateServiceProvider mServices;
+	private final ILogger mLogger;
+	private final File mDirectory;
+	private final long mMaxBytes;
+
+	/**
+	 * @param directory
+	 *            directory of the store, created if it does not exist
+	 * @param maxBytes
+	 *            maximal total size of the files in the store
+	 */
+	public FloydHoareAutomataStore(final IUltimateServiceProvider services, final ILogger logger,
+			final String directory, final long maxBytes) {
+		mServices = services;
+		mLogger = logger;
+		mDirectory = new File(directory);
+		mMaxBytes = maxBytes;
+		if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+			mLogger.warn("Could not create directory of Floyd-Hoare automata store " + mDirectory);
+		}
+	}
+
+	/**
+	 * @return All automata in the store that depend only on parts of the program that did not change.
+	 */
+	public List<INestedWordAutomaton<String, String>> load(final ProgramFingerprint fingerprint) {
+		final List<INestedWordAutomaton<String, String>> result = new ArrayList<>();
+		int skipped = 0;
+		for (final File file : listFiles()) {
+			try {
+				final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+				if (buffer.getInt() != MAGIC) {
+					throw new IOException("not a Floyd-Hoare automaton");
+				}
+				if (!fingerprint.matches(readDependencies(buffer))) {
+					skipped++;
+					continue;
+				}
+				result.add(readAutomaton(buffer));
+			} catch (final IOException | RuntimeException e) {
+				mLogger.warn("Deleting unreadable file " + file + " from Floyd-Hoare automata store: " + e);
+				deleteFile(file);
+				continue;
+			}
+			if (!file.setLastModified(System.currentTimeMillis())) {
+				mLogger.debug("Could not touch " + file);
+			}
+		}
+		mLogger.info("Loaded " + result.size() + " Floyd-Hoare automata from store " + mDirectory + ", " + skipped
+				+ " automata depend on changed parts of the program");
+		return result;
+	}
+
+	/**
+	 * Adds an automaton to the store and deletes the least recently used automata if the store is too large
+	 * afterwards.
+	 *
+	 * @param automaton
+	 *            Floyd-Hoare automaton without dead ends
+	 * @param implications
+	 *            implications between predicates, only pairs of states of the automaton are stored
+	 * @param fingerprint
+	 *            fingerprint of the current program
+	 */
+	public <LETTER extends IIcfgTransition<?>> void store(final INestedWordAutomaton<LETTER, IPredicate> automaton,
+			final HashRelation<IPredicate, IPredicate> implications, final ProgramFingerprint fingerprint) {
+		final Set<LETTER> letters = new HashSet<>();
+		for (final IPredicate state : automaton.getStates()) {
+			for (final OutgoingInternalTransition<LETTER, IPredicate> trans : automaton.internalSuccessors(state)) {
+				letters.add(trans.getLetter());
+			}
+			for (final OutgoingCallTransition<LETTER, IPredicate> trans : automaton.callSuccessors(state)) {
+				letters.add(trans.getLetter());
+			}
+			for (final OutgoingReturnTransition<LETTER, IPredicate> trans : automaton.returnSuccessors(state)) {
+				letters.add(trans.getLetter());
+			}
+		}
+		store(automaton, implications, fingerprint.computeDependencies(letters, automaton.getStates()));
+	}
+
+	/**
+	 * Adds an automaton with the given dependencies to the store and deletes the least recently used automata if the
+	 * store is too large afterwards.
+	 *
+	 * @param automaton
+	 *            automaton whose letters and states are stored as their string representations
+	 * @param implications
+	 *            implications between states, only pairs of states of the automaton are stored
+	 * @param dependencies
+	 *            fingerprints of the parts of the program on which the automaton depends, see
+	 *            {@link ProgramFingerprint#computeDependencies}
+	 */
+	public <STATE> void store(final INestedWordAutomaton<?, STATE> automaton,
+			final HashRelation<STATE, STATE> implications, final Map<String, Long> dependencies) {
+		final byte[] content;
+		try {
+			content = serialize(automaton, implications, dependencies);
+		} catch (final IOException e) {
+			throw new AssertionError(e);
+		}
+		final File file = new File(mDirectory, computeName(content) + FILE_ENDING);
+		if (file.exists()) {
+			if (!file.setLastModified(System.currentTimeMillis())) {
+				mLogger.debug("Could not touch " + file);
+			}
+			return;
+		}
+		try {
+			final Path tmp = Files.createTempFile(mDirectory.toPath(), "fha", ".tmp");
+			Files.write(tmp, content);
+			try {
+				Files.move(tmp, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (final IOException e) {
+			mLogger.warn("Could not add Floyd-Hoare automaton to store " + mDirectory + ": " + e);
+			return;
+		}
+		evict();
+	}
+
+	private void evict() {
+		final List<File> files = listFiles();
+		long size = 0;
+		for (final File file : files) {
+			size += file.length();
+		}
+		if (size <= mMaxBytes) {
+			return;
+		}
+		files.sort(Comparator.comparingLong(File::lastModified));
+		int evicted = 0;
+		for (final File file : files) {
+			if (size <= mMaxBytes) {
+				break;
+			}
+			final long length = file.length();
+			if (deleteFile(file)) {
+				size -= length;
+				evicted++;
+			}
+		}
+		mLogger.info("Evicted " + evicted + " Floyd-Hoare automata from store " + mDirectory);
+	}
+
+	private List<File> listFiles() {
+		final File[] files = mDirectory.listFiles((dir, name) -> name.endsWith(FILE_ENDING));
+		if (files == null) {
+			return new ArrayList<>();
+		}
+		return new ArrayList<>(Arrays.asList(files));
+	}
+
+	private boolean deleteFile(final File file) {
+		try {
+			return Files.deleteIfExists(file.toPath());
+		} catch (final IOException e) {
+			mLogger.warn("Could not delete " + file + ": " + e);
+			return false;
+		}
+	}
+
+	private static String computeName(final byte[] content) {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new AssertionError(e);
+		}
+		final byte[] hash = digest.digest(content);
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < NAME_LENGTH_BYTES; i++) {
+			sb.append(String.format("%02x", hash[i]));
+		}
+		return sb.toString();
+	}
+
+	private <STATE> byte[] serialize(final INestedWordAutomaton<?, STATE> automaton,
+			final HashRelation<STATE, STATE> implications, final Map<String, Long> dependencies) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeInt(dependencies.size());
+		for (final Entry<String, Long> entry : new TreeMap<>(dependencies).entrySet()) {
+			writeString(out, entry.getKey());
+			out.writeLong(entry.getValue());
+		}
+		final Set<STATE> states = automaton.getStates();
+		final List<String[]> pairs = new ArrayList<>();
+		for (final STATE state : states) {
+			for (final STATE implied : implications.getImage(state)) {
+				if (!implied.equals(state) && states.contains(implied)) {
+					pairs.add(new String[] { state.toString(), implied.toString() });
+				}
+			}
+		}
+		out.writeInt(pairs.size());
+		for (final String[] pair : pairs) {
+			writeString(out, pair[0]);
+			writeString(out, pair[1]);
+		}
+		final BinaryAutomatonWriter writer = new BinaryAutomatonWriter(new AutomataLibraryServices(mServices));
+		writer.add(new NamedAutomaton<>(AUTOMATON_NAME, automaton));
+		writer.write(out);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static Map<String, Long> readDependencies(final ByteBuffer buffer) {
+		final int size = buffer.getInt();
+		final Map<String, Long> result = new TreeMap<>();
+		for (int i = 0; i < size; i++) {
+			final String key = readString(buffer);
+			result.put(key, buffer.getLong());
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private INestedWordAutomaton<String, String> readAutomaton(final ByteBuffer buffer) throws IOException {
+		final HashRelation<String, String> epsilonTransitions = new HashRelation<>();
+		for (int i = buffer.getInt(); i > 0; i--) {
+			final String state = readString(buffer);
+			epsilonTransitions.addPair(state, readString(buffer));
+		}
+		final List<NamedAutomaton<?, String>> automata =
+				new BinaryAutomatonReader(new AutomataLibraryServices(mServices), buffer.slice()).getAutomata();
+		if (automata.size() != 1 || !(automata.get(0).getAutomaton() instanceof NestedWordAutomaton)) {
+			throw new IOException("expected a single nested word automaton");
+		}
+		final NestedWordAutomaton<String, String> nwa =
+				(NestedWordAutomaton<String, String>) automata.get(0).getAutomaton();
+		return new EpsilonNestedWordAutomaton<>(nwa, epsilonTransitions);
+	}
+
+	private static void writeString(final DataOutputStream out, final String string) throws IOException {
+		final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(final ByteBuffer buffer) {
+		final byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
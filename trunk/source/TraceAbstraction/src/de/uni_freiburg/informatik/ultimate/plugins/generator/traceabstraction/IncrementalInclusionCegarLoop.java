@@ -223,7 +223,7 @@ public class IncrementalInclusionCegarLoop<LETTER extends IIcfgTransition<?>> ex
 			htc = mRefinementEngine.getHoareTripleChecker();
 		} else {
 			htc = TraceAbstractionUtils.constructEfficientHoareTripleCheckerWithCaching(mServices,
-					HoareTripleChecks.MONOLITHIC, mCsToolkit, predicateUnifier);
+					HoareTripleChecks.MONOLITHIC, mCsToolkit, predicateUnifier, mHoareTripleCache);
 		}
 
 		boolean progress;
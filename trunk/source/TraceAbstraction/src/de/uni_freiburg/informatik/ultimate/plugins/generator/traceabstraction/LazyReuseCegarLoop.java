@@ -164,8 +164,7 @@ public class LazyReuseCegarLoop<LETTER extends IIcfgTransition<?>> extends Reuse
 			final boolean explointSigmaStarConcatOfIA = true;
 			IOpWithDelayedDeadEndRemoval<LETTER, IPredicate> diff;
 			diff = new Difference<>(new AutomataLibraryServices(mServices), mStateFactoryForRefinement,
-					(INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate>) mAbstraction, reuseAut, psd,
-					explointSigmaStarConcatOfIA);
+					getConcreteAbstraction(), reuseAut, psd, explointSigmaStarConcatOfIA);
 
 			if (reuseAut instanceof AbstractInterpolantAutomaton) {
 				final AbstractInterpolantAutomaton<LETTER> aiReuseAut = (AbstractInterpolantAutomaton<LETTER>) reuseAut;
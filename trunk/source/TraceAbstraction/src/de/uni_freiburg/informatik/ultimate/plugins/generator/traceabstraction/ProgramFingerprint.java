@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.IIcfgSymbolTable;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IIcfg;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IIcfgTransition;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgEdge;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgLocation;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.transitions.UnmodifiableTransFormula;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.variables.ILocalProgramVar;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.variables.IProgramNonOldVar;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.variables.IProgramVar;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicate;
+
+/**
+ * Fingerprints of the parts of a program on which the validity of a Floyd-Hoare automaton depends.
+ * <p>
+ * {@link ReuseCegarLoop} identifies letters by their string representation and parses predicates from their string
+ * representation. A Hoare triple that was proven for one program is hence valid for another program if the statements
+ * of the letter and the declarations of the variables that occur in the triple are the same. We compute one
+ * fingerprint for each procedure (over the string representations of all edges of the procedure and the declarations
+ * of its local variables), one for each variable, and one for the axioms. The locations of the procedure do not
+ * contribute, such that, e.g., a shift of line numbers does not change the fingerprint.
+ */
+public class ProgramFingerprint {
+
+	private static final String AXIOMS = "axioms";
+	private static final String PROCEDURE_PREFIX = "procedure ";
+	private static final String VARIABLE_PREFIX = "variable ";
+	private static final Pattern SERIAL_NUMBER = Pattern.compile("^#\\d+#");
+
+	private final Map<String, Long> mFingerprints;
+
+	public ProgramFingerprint(final IIcfg<? extends IcfgLocation> icfg) {
+		mFingerprints = new HashMap<>();
+		final IIcfgSymbolTable symbolTable = icfg.getCfgSmtToolkit().getSymbolTable();
+		for (final IProgramNonOldVar global : symbolTable.getGlobals()) {
+			addVariable(global);
+			addVariable(global.getOldVar());
+		}
+		final Map<String, List<String>> proc2edges = new HashMap<>();
+		for (final Entry<String, ? extends Map<?, ? extends IcfgLocation>> entry : icfg.getProgramPoints()
+				.entrySet()) {
+			for (final IcfgLocation loc : entry.getValue().values()) {
+				for (final IcfgEdge edge : loc.getOutgoingEdges()) {
+					// some edges print their serial number, which changes if other procedures change
+					final String edgeString = edge.getClass().getSimpleName() + " "
+							+ SERIAL_NUMBER.matcher(edge.toString()).replaceFirst("");
+					proc2edges.computeIfAbsent(edge.getPrecedingProcedure(), x -> new ArrayList<>()).add(edgeString);
+					if (!edge.getPrecedingProcedure().equals(edge.getSucceedingProcedure())) {
+						proc2edges.computeIfAbsent(edge.getSucceedingProcedure(), x -> new ArrayList<>())
+								.add(edgeString);
+					}
+				}
+			}
+		}
+		for (final String proc : icfg.getCfgSmtToolkit().getProcedures()) {
+			final List<String> content = proc2edges.getOrDefault(proc, new ArrayList<>());
+			for (final ILocalProgramVar local : symbolTable.getLocals(proc)) {
+				addVariable(local);
+				content.add(declaration(local));
+			}
+			Collections.sort(content);
+			mFingerprints.put(PROCEDURE_PREFIX + proc, hash(content));
+		}
+		mFingerprints.put(AXIOMS, hash(Collections.singletonList(
+				icfg.getCfgSmtToolkit().getSmtFunctionsAndAxioms().getAxioms().getFormula().toStringDirect())));
+	}
+
+	/**
+	 * @param fingerprints
+	 *            fingerprints of the parts of a program, with the keys that {@link #computeDependencies} uses
+	 */
+	public ProgramFingerprint(final Map<String, Long> fingerprints) {
+		mFingerprints = new HashMap<>(fingerprints);
+	}
+
+	private void addVariable(final IProgramVar var) {
+		mFingerprints.put(VARIABLE_PREFIX + var.getGloballyUniqueId(),
+				hash(Collections.singletonList(declaration(var))));
+	}
+
+	private static String declaration(final IProgramVar var) {
+		return var.getGloballyUniqueId() + " " + var.getSort() + " " + var.getProcedure() + " " + var.isGlobal() + " "
+				+ var.isOldvar();
+	}
+
+	private static long hash(final List<String> strings) {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new AssertionError(e);
+		}
+		for (final String string : strings) {
+			digest.update(string.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) '\n');
+		}
+		return ByteBuffer.wrap(digest.digest()).getLong();
+	}
+
+	/**
+	 * @return The fingerprints of the procedures of all letters and of all variables that occur in the letters or
+	 *         predicates, as well as the fingerprint of the axioms. Parts that do not belong to this program get the
+	 *         fingerprint of their declaration.
+	 */
+	public Map<String, Long> computeDependencies(final Iterable<? extends IIcfgTransition<?>> letters,
+			final Iterable<IPredicate> predicates) {
+		final Map<String, Long> result = new TreeMap<>();
+		result.put(AXIOMS, mFingerprints.get(AXIOMS));
+		for (final IIcfgTransition<?> letter : letters) {
+			addDependency(result, PROCEDURE_PREFIX + letter.getPrecedingProcedure(), null);
+			addDependency(result, PROCEDURE_PREFIX + letter.getSucceedingProcedure(), null);
+			final UnmodifiableTransFormula tf = letter.getTransformula();
+			for (final IProgramVar var : tf.getInVars().keySet()) {
+				addDependency(result, VARIABLE_PREFIX + var.getGloballyUniqueId(), var);
+			}
+			for (final IProgramVar var : tf.getOutVars().keySet()) {
+				addDependency(result, VARIABLE_PREFIX + var.getGloballyUniqueId(), var);
+			}
+		}
+		for (final IPredicate predicate : predicates) {
+			for (final IProgramVar var : predicate.getVars()) {
+				addDependency(result, VARIABLE_PREFIX + var.getGloballyUniqueId(), var);
+			}
+		}
+		return result;
+	}
+
+	private void addDependency(final Map<String, Long> dependencies, final String key, final IProgramVar var) {
+		Long fingerprint = mFingerprints.get(key);
+		if (fingerprint == null) {
+			fingerprint = var == null ? 0L : hash(Collections.singletonList(declaration(var)));
+		}
+		dependencies.put(key, fingerprint);
+	}
+
+	/**
+	 * @return true iff each of the given parts has the same fingerprint in this program
+	 */
+	public boolean matches(final Map<String, Long> dependencies) {
+		for (final Entry<String, Long> entry : dependencies.entrySet()) {
+			if (!entry.getValue().equals(mFingerprints.get(entry.getKey()))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -139,6 +139,8 @@ public class TraceAbstractionStarter {
 			final INwaOutgoingLetterAndTransitionProvider<WitnessEdge, WitnessNode> witnessAutomaton,
 			final List<INestedWordAutomaton<String, String>> rawFloydHoareAutomataFromFile) {
 		final TAPreferences taPrefs = new TAPreferences(mServices);
+		final List<INestedWordAutomaton<String, String>> floydHoareAutomataForReuse =
+				addFloydHoareAutomataFromStore(icfg, taPrefs, rawFloydHoareAutomataFromFile);
 
 		final boolean computeHoareAnnotation;
 		if (taPrefs.computeHoareAnnotation()
@@ -173,7 +175,7 @@ public class TraceAbstractionStarter {
 
 		if (taPrefs.allErrorLocsAtOnce()) {
 			iterateNew(AllErrorsAtOnceDebugIdentifier.INSTANCE, icfg, taPrefs, predicateFactory,
-					traceAbstractionBenchmark, errNodesOfAllProc, witnessAutomaton, rawFloydHoareAutomataFromFile,
+					traceAbstractionBenchmark, errNodesOfAllProc, witnessAutomaton, floydHoareAutomataForReuse,
 					computeHoareAnnotation);
 		} else {
 			final IProgressMonitorService progmon = mServices.getProgressMonitorService();
@@ -189,7 +191,7 @@ public class TraceAbstractionStarter {
 				mServices.getProgressMonitorService().setSubtask(errorLoc.toString());
 				final Result result =
 						iterate(name, icfg, taPrefs, csToolkit, predicateFactory, traceAbstractionBenchmark, errorLocs,
-								witnessAutomaton, rawFloydHoareAutomataFromFile, computeHoareAnnotation);
+								witnessAutomaton, floydHoareAutomataForReuse, computeHoareAnnotation);
 				mLogger.info(String.format("Result for error location %s was %s (%s/%s)", name, result,
 						finishedErrorLocs, numberOfErrorLocs));
 				reportBenchmarkForErrLocation(traceAbstractionBenchmark, errorLoc.toString());
@@ -323,6 +325,24 @@ public class TraceAbstractionStarter {
 		}
 	}
 
+	/**
+	 * If a Floyd-Hoare automata store is configured and Floyd-Hoare automata are reused, add all automata from the store
+	 * that are still valid for the given ICFG to the automata that were read from files.
+	 */
+	private List<INestedWordAutomaton<String, String>> addFloydHoareAutomataFromStore(final IIcfg<IcfgLocation> icfg,
+			final TAPreferences taPrefs,
+			final List<INestedWordAutomaton<String, String>> rawFloydHoareAutomataFromFile) {
+		if (taPrefs.getFloydHoareAutomataStore() == null
+				|| taPrefs.getFloydHoareAutomataReuse() == FloydHoareAutomataReuse.NONE) {
+			return rawFloydHoareAutomataFromFile;
+		}
+		final FloydHoareAutomataStore store = new FloydHoareAutomataStore(mServices, mLogger,
+				taPrefs.getFloydHoareAutomataStore(), taPrefs.getFloydHoareAutomataStoreBytes());
+		final List<INestedWordAutomaton<String, String>> result = new ArrayList<>(rawFloydHoareAutomataFromFile);
+		result.addAll(store.load(new ProgramFingerprint(icfg)));
+		return result;
+	}
+
 	private Result iterateNew(final DebugIdentifier name, final IIcfg<IcfgLocation> root, final TAPreferences taPrefs,
 			final PredicateFactory predicateFactory, final TraceAbstractionBenchmarks taBenchmark,
 			final Collection<IcfgLocation> errorLocs,
@@ -56,6 +56,7 @@ import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.IHo
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.IHoareTripleChecker.Validity;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.IncrementalHoareTripleChecker;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.MonolithicHoareTripleChecker;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.SharedHoareTripleCache;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SmtUtils;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SmtUtils.SimplificationTechnique;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.Substitution;
@@ -154,6 +155,19 @@ public class TraceAbstractionUtils {
 				initialCallCache, initialReturnCache);
 	}
 
+	/**
+	 * Like {@link #constructEfficientHoareTripleCheckerWithCaching(IUltimateServiceProvider, HoareTripleChecks,
+	 * CfgSmtToolkit, IPredicateUnifier)}, but results are also shared via the given cache, which may be null.
+	 */
+	public static IHoareTripleChecker constructEfficientHoareTripleCheckerWithCaching(
+			final IUltimateServiceProvider services, final HoareTripleChecks hoareTripleChecks,
+			final CfgSmtToolkit csToolkit, final IPredicateUnifier predicateUnifier,
+			final SharedHoareTripleCache sharedCache) throws AssertionError {
+		final IHoareTripleChecker ehtc =
+				constructEfficientHoareTripleChecker(services, hoareTripleChecks, csToolkit, predicateUnifier);
+		return new CachingHoareTripleCheckerMap(services, ehtc, predicateUnifier, sharedCache);
+	}
+
 	/**
 	 * Construct Predicate which represents the same Predicate as ps, but where all globalVars are renamed to
 	 * oldGlobalVars.
@@ -55,8 +55,10 @@ import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimi
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.MinimizeSevpa;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.ShrinkNwa;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.maxsat.arrays.MinimizeNwaMaxSAT;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.parallel.MinimizeNwaParallel;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.delayed.BuchiReduce;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.delayed.nwa.ReduceNwaDelayedSimulation;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.direct.nwa.ReduceNwaDirectBitsetSimulation;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.direct.nwa.ReduceNwaDirectSimulation;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.fair.ReduceBuchiFairDirectSimulation;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.fair.ReduceBuchiFairSimulation;
@@ -207,6 +209,12 @@ public class AutomataMinimization<LCS, LCSP extends IPredicate, LETTER> {
 							0, false, false, true, initialPartitionSeparatesFinalsAndNonfinals));
 			break;
 		}
+		case MINIMIZE_NWA_PARALLEL: {
+			minimizationResult = new MinimizationResult(true, true,
+					new MinimizeNwaParallel<>(autServices, predicateFactoryRefinement, operand, partition,
+							computeOldState2NewStateMapping, initialPartitionSeparatesFinalsAndNonfinals));
+			break;
+		}
 		case NWA_COMBINATOR_PATTERN: {
 			final AbstractMinimizeNwa<LETTER, IPredicate> minNwa = new MinimizeNwaPattern<>(autServices,
 					predicateFactoryRefinement, (IDoubleDeckerAutomaton<LETTER, IPredicate>) operand, partition,
@@ -295,6 +303,13 @@ public class AutomataMinimization<LCS, LCSP extends IPredicate, LETTER> {
 							(IDoubleDeckerAutomaton<LETTER, IPredicate>) operand, false, partition));
 			break;
 		}
+		case BITSET_DIRECT_SIMULATION: {
+			minimizationResult = new MinimizationResult(true, true,
+					new ReduceNwaDirectBitsetSimulation<>(autServices, predicateFactoryRefinement,
+							(IDoubleDeckerAutomaton<LETTER, IPredicate>) operand, partition,
+							computeOldState2NewStateMapping));
+			break;
+		}
 		case RAQ_DIRECT_SIMULATION_B: {
 			minimizationResult = new MinimizationResult(true, true, new ReduceNwaDirectSimulationB<>(autServices,
 					predicateFactoryRefinement, (IDoubleDeckerAutomaton<LETTER, IPredicate>) operand));
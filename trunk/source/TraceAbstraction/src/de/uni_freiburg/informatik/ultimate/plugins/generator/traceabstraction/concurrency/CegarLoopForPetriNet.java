@@ -224,7 +224,8 @@ public class CegarLoopForPetriNet<LETTER extends IIcfgTransition<?>> extends Bas
 			PetriNetUnfolder<LETTER, IPredicate> unf;
 			try {
 				unf = new PetriNetUnfolder<>(new AutomataLibraryServices(mServices), abstraction, eventOrder,
-						cutOffSameTrans, true);
+						cutOffSameTrans, true, mPref.unfoldingThreads(), mPref.deterministicUnfolding(),
+						mPref.parallelCandidateEvolution(), mPref.coRelationType());
 			} catch (final PetriNetNot1SafeException e) {
 				throw new UnsupportedOperationException(e.getMessage());
 			} finally {
@@ -278,7 +279,8 @@ public class CegarLoopForPetriNet<LETTER extends IIcfgTransition<?>> extends Bas
 			htc = mRefinementEngine.getHoareTripleChecker();
 		} else {
 			htc = TraceAbstractionUtils.constructEfficientHoareTripleCheckerWithCaching(mServices,
-					mPref.getHoareTripleChecks(), mCsToolkit, mRefinementEngine.getPredicateUnifier());
+					mPref.getHoareTripleChecks(), mCsToolkit, mRefinementEngine.getPredicateUnifier(),
+					mHoareTripleCache);
 		}
 		mCegarLoopBenchmark.start(CegarLoopStatisticsDefinitions.AutomataDifference.toString());
 		try {
@@ -375,7 +377,9 @@ public class CegarLoopForPetriNet<LETTER extends IIcfgTransition<?>> extends Bas
 				final boolean cutOffSameTrans = mPref.cutOffRequiresSameTransition();
 				final EventOrderEnum eventOrder = mPref.eventOrder();
 				unf = new PetriNetUnfolder<>(new AutomataLibraryServices(mServices),
-						((BoundedPetriNet<LETTER, IPredicate>) mAbstraction), eventOrder, cutOffSameTrans, false);
+						((BoundedPetriNet<LETTER, IPredicate>) mAbstraction), eventOrder, cutOffSameTrans, false,
+						mPref.unfoldingThreads(), mPref.deterministicUnfolding(), mPref.parallelCandidateEvolution(),
+						mPref.coRelationType());
 			} catch (final PetriNetNot1SafeException e) {
 				throw new UnsupportedOperationException(e.getMessage());
 			} catch (final AutomataOperationCanceledException aoce) {
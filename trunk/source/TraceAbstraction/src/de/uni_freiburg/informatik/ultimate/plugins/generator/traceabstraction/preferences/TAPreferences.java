@@ -29,6 +29,7 @@ package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.p
 
 import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter.Format;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.IsEmptyHeuristic.AStarHeuristic;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.unfolding.PetriNetUnfolder.CoRelationType;
 import de.uni_freiburg.informatik.ultimate.automata.petrinet.unfolding.PetriNetUnfolder.EventOrderEnum;
 import de.uni_freiburg.informatik.ultimate.core.model.preferences.IPreferenceProvider;
 import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
@@ -66,6 +67,8 @@ public final class TAPreferences {
 	private final boolean mHoare;
 	private final Concurrency mConcurrency;
 	private final HoareTripleChecks mHoareTripleChecks;
+	private final int mHoareTripleCacheSize;
+	private final int mLazyDifferenceDepth;
 	private final IPreferenceProvider mPrefs;
 	private final HoareAnnotationPositions mHoareAnnotationPositions;
 	private final boolean mDumpOnlyReuseAutomata;
@@ -129,6 +132,8 @@ public final class TAPreferences {
 
 		mHoareTripleChecks = mPrefs.getEnum(TraceAbstractionPreferenceInitializer.LABEL_HOARE_TRIPLE_CHECKS,
 				HoareTripleChecks.class);
+		mHoareTripleCacheSize = mPrefs.getInt(TraceAbstractionPreferenceInitializer.LABEL_HOARE_TRIPLE_CACHE_SIZE);
+		mLazyDifferenceDepth = mPrefs.getInt(TraceAbstractionPreferenceInitializer.LABEL_LAZY_DIFFERENCE_DEPTH);
 
 		mMinimize = mPrefs.getEnum(TraceAbstractionPreferenceInitializer.LABEL_MINIMIZE, Minimization.class);
 
@@ -195,6 +200,18 @@ public final class TAPreferences {
 				FloydHoareAutomataReuseEnhancement.class);
 	}
 
+	/**
+	 * @return directory of the Floyd-Hoare automata store, null if the store is disabled
+	 */
+	public String getFloydHoareAutomataStore() {
+		final String directory = mPrefs.getString(TraceAbstractionPreferenceInitializer.LABEL_FLOYD_HOARE_AUTOMATA_STORE);
+		return directory.isEmpty() ? null : directory;
+	}
+
+	public long getFloydHoareAutomataStoreBytes() {
+		return mPrefs.getInt(TraceAbstractionPreferenceInitializer.LABEL_FLOYD_HOARE_AUTOMATA_STORE_SIZE) * 1024L * 1024L;
+	}
+
 	public SolverMode solverMode() {
 		return mPrefs.getEnum(RcfgPreferenceInitializer.LABEL_SOLVER, SolverMode.class);
 	}
@@ -280,6 +297,14 @@ public final class TAPreferences {
 		return mDumpAutomata && mDumpOnlyReuseAutomata;
 	}
 
+	/**
+	 * @return file to which statistics of each CEGAR iteration are appended, null if disabled
+	 */
+	public String getCegarIterationEventLog() {
+		final String file = mPrefs.getString(TraceAbstractionPreferenceInitializer.LABEL_CEGAR_ITERATION_EVENT_LOG);
+		return file.isEmpty() ? null : file;
+	}
+
 	/**
 	 * @return The determinization.
 	 */
@@ -291,6 +316,22 @@ public final class TAPreferences {
 		return mHoareTripleChecks;
 	}
 
+	/**
+	 * @return maximal number of entries of the Hoare triple cache that is shared between iterations, 0 if there is no
+	 *         such cache.
+	 */
+	public int getHoareTripleCacheSize() {
+		return mHoareTripleCacheSize;
+	}
+
+	/**
+	 * @return maximal number of differences that are constructed on demand before the abstraction is constructed, 0
+	 *         if every difference is constructed eagerly.
+	 */
+	public int getLazyDifferenceDepth() {
+		return mLazyDifferenceDepth;
+	}
+
 	/**
 	 * @return The difference.
 	 */
@@ -305,6 +346,10 @@ public final class TAPreferences {
 		return mMinimize;
 	}
 
+	public boolean compactAbstraction() {
+		return mPrefs.getBoolean(TraceAbstractionPreferenceInitializer.LABEL_COMPACT_ABSTRACTION);
+	}
+
 	public Concurrency getConcurrency() {
 		return mConcurrency;
 	}
@@ -333,6 +378,22 @@ public final class TAPreferences {
 		return mPrefs.getEnum(TraceAbstractionPreferenceInitializer.LABEL_CONFIGURATION_ORDER, EventOrderEnum.class);
 	}
 
+	public int unfoldingThreads() {
+		return mPrefs.getInt(TraceAbstractionPreferenceInitializer.LABEL_UNFOLDING_THREADS);
+	}
+
+	public boolean deterministicUnfolding() {
+		return mPrefs.getBoolean(TraceAbstractionPreferenceInitializer.LABEL_UNFOLDING_DETERMINISTIC);
+	}
+
+	public boolean parallelCandidateEvolution() {
+		return mPrefs.getBoolean(TraceAbstractionPreferenceInitializer.LABEL_UNFOLDING_PARALLEL_CANDIDATES);
+	}
+
+	public CoRelationType coRelationType() {
+		return mPrefs.getEnum(TraceAbstractionPreferenceInitializer.LABEL_UNFOLDING_CO_RELATION, CoRelationType.class);
+	}
+
 	public PetriNetLbe useLbeInConcurrentAnalysis() {
 		return mPrefs.getEnum(TraceAbstractionPreferenceInitializer.LABEL_LBE_CONCURRENCY, PetriNetLbe.class);
 	}
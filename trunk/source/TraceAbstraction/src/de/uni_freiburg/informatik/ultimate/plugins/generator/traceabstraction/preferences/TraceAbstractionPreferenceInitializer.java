@@ -29,6 +29,8 @@ package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.p
 
 import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter.Format;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.IsEmptyHeuristic.AStarHeuristic;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.unfolding.PetriNetUnfolder;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.unfolding.PetriNetUnfolder.CoRelationType;
 import de.uni_freiburg.informatik.ultimate.automata.petrinet.unfolding.PetriNetUnfolder.EventOrderEnum;
 import de.uni_freiburg.informatik.ultimate.core.lib.preferences.UltimatePreferenceInitializer;
 import de.uni_freiburg.informatik.ultimate.core.model.preferences.BaseUltimatePreferenceItem.PreferenceType;
@@ -83,6 +85,73 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 					+ "amount of iterations occured. 0 disables this limit.";
 	private static final int DEF_USERLIMIT_ITERATIONS = 1_000_000;
 
+	public static final String LABEL_HOARE_TRIPLE_CACHE_SIZE = "Size of the Hoare triple cache";
+	private static final String DESC_HOARE_TRIPLE_CACHE_SIZE =
+			"Maximal number of Hoare triple results that are kept between the iterations of the CEGAR loop. "
+					+ "0 disables this cache.";
+	private static final int DEF_HOARE_TRIPLE_CACHE_SIZE = 0;
+
+	public static final String LABEL_LAZY_DIFFERENCE_DEPTH = "Lazy difference stack depth";
+	private static final String DESC_LAZY_DIFFERENCE_DEPTH =
+			"If positive, the difference of abstraction and interpolant automaton is not constructed eagerly. "
+					+ "Instead, the next emptiness check explores it on demand. At most this many differences are "
+					+ "stacked before the reachable states of the abstraction are constructed. Ignored if the "
+					+ "abstraction is minimized or a Hoare annotation is computed. 0 disables the lazy difference.";
+	private static final int DEF_LAZY_DIFFERENCE_DEPTH = 0;
+
+	public static final String LABEL_COMPACT_ABSTRACTION = "Compact representation of minimized abstraction";
+	private static final String DESC_COMPACT_ABSTRACTION =
+			"If enabled, the result of the minimization is copied into an automaton that stores its transitions in "
+					+ "primitive arrays. This reduces the memory that the abstraction occupies until the next "
+					+ "difference, but costs the time of the copy.";
+	private static final boolean DEF_COMPACT_ABSTRACTION = false;
+
+	public static final String LABEL_UNFOLDING_THREADS = "Number of threads for Petri net unfoldings";
+	private static final String DESC_UNFOLDING_THREADS =
+			"If greater than 1, the finite prefix is constructed in layers of events whose local configurations have "
+					+ "the same size, and the possible extensions of each layer are computed by this many threads.";
+	private static final int DEF_UNFOLDING_THREADS = 1;
+
+	public static final String LABEL_UNFOLDING_DETERMINISTIC = "Deterministic parallel Petri net unfoldings";
+	private static final String DESC_UNFOLDING_DETERMINISTIC =
+			"If enabled, the possible extensions that are computed by several threads are added in a fixed order. "
+					+ "Otherwise the finite prefix (e.g., the numbering of conditions and, for orders that are not "
+					+ "total, the choice of cut-off events) may depend on the scheduling of the threads.";
+	private static final boolean DEF_UNFOLDING_DETERMINISTIC = true;
+
+	public static final String LABEL_UNFOLDING_PARALLEL_CANDIDATES =
+			"Parallel candidate evolution in Petri net unfoldings";
+	private static final String DESC_UNFOLDING_PARALLEL_CANDIDATES =
+			"If enabled, the sequential unfolding evolves the candidates of each new event concurrently. "
+					+ "The finite prefix is the same as without this option.";
+	private static final boolean DEF_UNFOLDING_PARALLEL_CANDIDATES = false;
+
+	public static final String LABEL_UNFOLDING_CO_RELATION = "Co-relation data structure of Petri net unfoldings";
+	private static final String DESC_UNFOLDING_CO_RELATION =
+			"Data structure that stores which conditions of the finite prefix are co-related. "
+					+ "The finite prefix is the same for all data structures.";
+	private static final CoRelationType DEF_UNFOLDING_CO_RELATION = PetriNetUnfolder.DEFAULT_CO_RELATION_TYPE;
+
+	public static final String LABEL_FLOYD_HOARE_AUTOMATA_STORE = "Directory of the Floyd-Hoare automata store";
+	private static final String DESC_FLOYD_HOARE_AUTOMATA_STORE =
+			"If not empty, Floyd-Hoare automata are stored in this directory, together with fingerprints of the "
+					+ "procedures and variables on which they depend. If the reuse of Floyd-Hoare automata is enabled, "
+					+ "a later run preloads all stored automata whose dependencies did not change.";
+	private static final String DEF_FLOYD_HOARE_AUTOMATA_STORE = "";
+
+	public static final String LABEL_FLOYD_HOARE_AUTOMATA_STORE_SIZE = "Size of the Floyd-Hoare automata store in MiB";
+	private static final String DESC_FLOYD_HOARE_AUTOMATA_STORE_SIZE =
+			"If the files of the Floyd-Hoare automata store are larger, the least recently used automata are deleted.";
+	private static final int DEF_FLOYD_HOARE_AUTOMATA_STORE_SIZE = 256;
+
+	public static final String LABEL_CEGAR_ITERATION_EVENT_LOG = "Write statistics of each CEGAR iteration to file";
+	private static final String DESC_CEGAR_ITERATION_EVENT_LOG =
+			"If not empty, one JSON object per iteration of the CEGAR loop is appended to this file. It contains the "
+					+ "wall time, the bytes allocated by the verifier thread, the size of the abstraction, and the "
+					+ "change of each numeric statistic (e.g., time of trace checks, Hoare triple checks by source, "
+					+ "difference, minimization) in this iteration.";
+	private static final String DEF_CEGAR_ITERATION_EVENT_LOG = "";
+
 	public static final String LABEL_LBE_CONCURRENCY = "Large block encoding in concurrent analysis";
 	private static final PetriNetLbe DEF_LBE_CONCURRENCY = PetriNetLbe.SEMANTIC_BASED_MOVER_CHECK;
 
@@ -238,6 +307,24 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 	public static final boolean DEF_USE_PREDICATE_TRIE_BASED_PREDICATE_UNIFIER = false;
 	public static final String DESC_USE_PREDICATE_TRIE_BASED_PREDICATE_UNIFIER =
 			"Use the newer predicate-trie based predicate unification algorithm.";
+	public static final String LABEL_USE_PREDICATE_IMPLICATION_INDEX = "Use implication index in predicate unification";
+	private static final boolean DEF_USE_PREDICATE_IMPLICATION_INDEX = false;
+	private static final String DESC_USE_PREDICATE_IMPLICATION_INDEX =
+			"Answer implication checks of the predicate unifier by shared conjuncts, independent variables, and "
+					+ "counterexamples of earlier checks before asking the solver.";
+	public static final String LABEL_PREDICATE_UNIFIER_SOLVER_POOL_SIZE = "Parallel solvers for predicate unification";
+	private static final int DEF_PREDICATE_UNIFIER_SOLVER_POOL_SIZE = 0;
+	private static final String DESC_PREDICATE_UNIFIER_SOLVER_POOL_SIZE =
+			"Number of additional solvers that check the implications between a new predicate and the known "
+					+ "predicates in parallel. The solvers use the trace check solver settings. 0 checks all "
+					+ "implications with the main solver.";
+
+	public static final String LABEL_PDR_INCREMENTAL_FRAME_SOLVER = "Check PDR frames incrementally";
+	private static final boolean DEF_PDR_INCREMENTAL_FRAME_SOLVER = false;
+	private static final String DESC_PDR_INCREMENTAL_FRAME_SOLVER =
+			"PDR asserts each frame once in a separate solver, guarded by an activation literal, and generalizes "
+					+ "blocked proof-obligations by unsat cores. The solver uses the trace check solver settings. "
+					+ "If it does not support the logic of the program, PDR checks each query separately.";
 
 	public static final String LABEL_HEURISTIC_EMPTINESS_CHECK = "Use heuristic emptiness check";
 	public static final boolean DEF_HEURISTIC_EMPTINESS_CHECK = false;
@@ -293,6 +380,11 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 				new UltimatePreferenceItem<>(LABEL_FLOYD_HOARE_AUTOMATA_REUSE_ENHANCEMENT,
 						DEF_FLOYD_HOARE_AUTOMATA_REUSE_ENHANCEMENT, DESC_FLOYD_HOARE_AUTOMATA_REUSE_ENHANCEMENT,
 						PreferenceType.Combo, FloydHoareAutomataReuseEnhancement.values()),
+				new UltimatePreferenceItem<>(LABEL_FLOYD_HOARE_AUTOMATA_STORE, DEF_FLOYD_HOARE_AUTOMATA_STORE,
+						DESC_FLOYD_HOARE_AUTOMATA_STORE, PreferenceType.Directory),
+				new UltimatePreferenceItem<>(LABEL_FLOYD_HOARE_AUTOMATA_STORE_SIZE,
+						DEF_FLOYD_HOARE_AUTOMATA_STORE_SIZE, DESC_FLOYD_HOARE_AUTOMATA_STORE_SIZE,
+						PreferenceType.Integer, IUltimatePreferenceItemValidator.ONLY_POSITIVE),
 
 				new UltimatePreferenceItem<>(LABEL_USERLIMIT_ITERATIONS, DEF_USERLIMIT_ITERATIONS,
 						DESC_USERLIMIT_ITERATIONS, PreferenceType.Integer,
@@ -322,6 +414,13 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 				new UltimatePreferenceItem<>(LABEL_USE_PREDICATE_TRIE_BASED_PREDICATE_UNIFIER,
 						DEF_USE_PREDICATE_TRIE_BASED_PREDICATE_UNIFIER, DESC_USE_PREDICATE_TRIE_BASED_PREDICATE_UNIFIER,
 						PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_USE_PREDICATE_IMPLICATION_INDEX, DEF_USE_PREDICATE_IMPLICATION_INDEX,
+						DESC_USE_PREDICATE_IMPLICATION_INDEX, PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_PREDICATE_UNIFIER_SOLVER_POOL_SIZE,
+						DEF_PREDICATE_UNIFIER_SOLVER_POOL_SIZE, DESC_PREDICATE_UNIFIER_SOLVER_POOL_SIZE,
+						PreferenceType.Integer, new IUltimatePreferenceItemValidator.IntegerValidator(0, 64)),
+				new UltimatePreferenceItem<>(LABEL_PDR_INCREMENTAL_FRAME_SOLVER, DEF_PDR_INCREMENTAL_FRAME_SOLVER,
+						DESC_PDR_INCREMENTAL_FRAME_SOLVER, PreferenceType.Boolean),
 				new UltimatePreferenceItem<>(LABEL_SEPARATE_SOLVER, DEF_SEPARATE_SOLVER, PreferenceType.Boolean),
 				new UltimatePreferenceItem<>(RcfgPreferenceInitializer.LABEL_SOLVER, DEF_SOLVER, PreferenceType.Combo,
 						SolverMode.values()),
@@ -364,21 +463,39 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 				new UltimatePreferenceItem<>(LABEL_DUMPPATH, DEF_DUMPPATH, PreferenceType.Directory),
 				new UltimatePreferenceItem<>(LABEL_DUMP_ONLY_REUSE, DEF_ONLY_REUSE, DESC_DUMP_ONLY_REUSE,
 						PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_CEGAR_ITERATION_EVENT_LOG, DEF_CEGAR_ITERATION_EVENT_LOG,
+						DESC_CEGAR_ITERATION_EVENT_LOG, PreferenceType.File),
 				new UltimatePreferenceItem<>(LABEL_INTERPOLANT_AUTOMATON_ENHANCEMENT,
 						InterpolantAutomatonEnhancement.PREDICATE_ABSTRACTION, PreferenceType.Combo,
 						InterpolantAutomatonEnhancement.values()),
 				new UltimatePreferenceItem<>(LABEL_HOARE_TRIPLE_CHECKS, HoareTripleChecks.INCREMENTAL,
 						PreferenceType.Combo, HoareTripleChecks.values()),
+				new UltimatePreferenceItem<>(LABEL_HOARE_TRIPLE_CACHE_SIZE, DEF_HOARE_TRIPLE_CACHE_SIZE,
+						DESC_HOARE_TRIPLE_CACHE_SIZE, PreferenceType.Integer,
+						IUltimatePreferenceItemValidator.ONLY_POSITIVE),
 				new UltimatePreferenceItem<>(LABEL_LANGUAGE_OPERATION, LanguageOperation.DIFFERENCE,
 						PreferenceType.Combo, LanguageOperation.values()),
 				new UltimatePreferenceItem<>(LABEL_DIFFERENCE_SENWA, DEF_DIFFERENCE_SENWA, PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_LAZY_DIFFERENCE_DEPTH, DEF_LAZY_DIFFERENCE_DEPTH,
+						DESC_LAZY_DIFFERENCE_DEPTH, PreferenceType.Integer,
+						new IUltimatePreferenceItemValidator.IntegerValidator(0, 1_000)),
 				new UltimatePreferenceItem<>(LABEL_MINIMIZE, Minimization.MINIMIZE_SEVPA, PreferenceType.Combo,
 						Minimization.values()),
+				new UltimatePreferenceItem<>(LABEL_COMPACT_ABSTRACTION, DEF_COMPACT_ABSTRACTION,
+						DESC_COMPACT_ABSTRACTION, PreferenceType.Boolean),
 				new UltimatePreferenceItem<>(LABEL_CONCURRENCY, DEF_CONCURRENCY, PreferenceType.Combo,
 						Concurrency.values()),
 				new UltimatePreferenceItem<>(LABEL_CONFIGURATION_ORDER, DEF_CONFIGURATION_ORDER, PreferenceType.Combo,
 						EventOrderEnum.values()),
 				new UltimatePreferenceItem<>(LABEL_CUTOFF, DEF_CUTOFF, PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_UNFOLDING_THREADS, DEF_UNFOLDING_THREADS, DESC_UNFOLDING_THREADS,
+						PreferenceType.Integer, new IUltimatePreferenceItemValidator.IntegerValidator(1, 1_000)),
+				new UltimatePreferenceItem<>(LABEL_UNFOLDING_DETERMINISTIC, DEF_UNFOLDING_DETERMINISTIC,
+						DESC_UNFOLDING_DETERMINISTIC, PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_UNFOLDING_PARALLEL_CANDIDATES, DEF_UNFOLDING_PARALLEL_CANDIDATES,
+						DESC_UNFOLDING_PARALLEL_CANDIDATES, PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_UNFOLDING_CO_RELATION, DEF_UNFOLDING_CO_RELATION,
+						DESC_UNFOLDING_CO_RELATION, PreferenceType.Combo, CoRelationType.values()),
 				new UltimatePreferenceItem<>(LABEL_BACKFOLDING, DEF_BACKFOLDING, PreferenceType.Boolean),
 				new UltimatePreferenceItem<>(LABEL_LBE_CONCURRENCY, DEF_LBE_CONCURRENCY, PreferenceType.Combo,
 						PetriNetLbe.values()),
@@ -448,6 +565,7 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 		NWA_OVERAPPROXIMATION, NWA_COMBINATOR_MULTI_DEFAULT, NWA_COMBINATOR_MULTI_SIMULATION, DELAYED_SIMULATION,
 		FAIR_SIMULATION_WITH_SCC, FAIR_SIMULATION_WITHOUT_SCC, FAIR_DIRECT_SIMULATION, RAQ_DELAYED_SIMULATION,
 		RAQ_DELAYED_SIMULATION_B, FULLMULTIPEBBLE_DELAYED_SIMULATION, FULLMULTIPEBBLE_DIRECT_SIMULATION,
+		MINIMIZE_NWA_PARALLEL, BITSET_DIRECT_SIMULATION,
 	}
 
 	/**
@@ -489,7 +607,11 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 		/**
 		 * Depth-first search.
 		 */
-		DFS
+		DFS,
+		/**
+		 * Breadth-first search where each level is explored by several threads.
+		 */
+		PARALLEL_BFS
 	}
 
 	/**
@@ -584,7 +706,12 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 		/**
 		 * Maximal Causality reduction strategy
 		 */
-		MCR
+		MCR,
+		/**
+		 * Strategy that runs the trace checks of {@link #TAIPAN} and CVC4 concurrently and takes the first perfect
+		 * interpolant sequence. Abstract interpretation is only tried afterwards if no perfect sequence was found.
+		 */
+		PORTFOLIO
 	}
 
 	/**
@@ -63,4 +63,13 @@ public interface ITraceCheckStrategyModule<T extends ITraceCheck> {
 
 	T getOrConstruct();
 
+	/**
+	 * Called by a {@link StrategyModulePortfolio} that runs this module concurrently to other modules. A module that
+	 * uses a solver of its own passes all calls to this solver through the gate. Modules that wrap another module
+	 * forward the gate to it.
+	 */
+	default void setSolverCallGate(final StrategyModulePortfolio.SolverCallGate gate) {
+		// modules without a solver of their own run entirely under the lock of the gate
+	}
+
 }
@@ -82,7 +82,7 @@ public class IpTcStrategyModuleCvc4<LETTER extends IIcfgTransition<?>> extends I
 		final SolverSettings solverSettings = mPrefs.constructSolverSettings(mTaskIdentifier)
 				.setUseExternalSolver(true, command, mLogic).setSolverMode(SolverMode.External_ModelsAndUnsatCoreMode);
 		final Script solver = SolverBuilder.buildAndInitializeSolver(mServices, solverSettings, getSolverName());
-		return createExternalManagedScript(solver);
+		return createExternalManagedScript(solver, true);
 	}
 
 	@Override
@@ -97,6 +97,11 @@ public class IpTcStrategyModuleInterpolantConsolidation<T extends IInterpolating
 		return mIpTcModule.getTraceCheckReasonUnknown();
 	}
 
+	@Override
+	public void setSolverCallGate(final StrategyModulePortfolio.SolverCallGate gate) {
+		mIpTcModule.setSolverCallGate(gate);
+	}
+
 	@Override
 	public IHoareTripleChecker getHoareTripleChecker() {
 		return mIpTcModule.getHoareTripleChecker();
@@ -76,7 +76,7 @@ public class IpTcStrategyModuleMathsat<LETTER extends IIcfgTransition<?>> extend
 				.setUseExternalSolver(true, SolverBuilder.COMMAND_MATHSAT, SolverBuilder.LOGIC_MATHSAT)
 				.setSolverMode(SolverMode.External_ModelsAndUnsatCoreMode);
 		final Script solver = SolverBuilder.buildAndInitializeSolver(mServices, solverSettings, getSolverName());
-		return createExternalManagedScript(solver);
+		return createExternalManagedScript(solver, true);
 	}
 
 	@Override
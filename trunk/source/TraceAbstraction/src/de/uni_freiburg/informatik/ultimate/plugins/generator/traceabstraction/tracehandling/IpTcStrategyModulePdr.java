@@ -32,6 +32,7 @@ import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.I
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.interpolant.IInterpolatingTraceCheck;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicate;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicateUnifier;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.taskidentifier.TaskIdentifier;
 import de.uni_freiburg.informatik.ultimate.lib.pdr.Pdr;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.RefinementEngineStatisticsGenerator.RefinementEngineStatisticsDefinitions;
 
@@ -50,11 +51,13 @@ public class IpTcStrategyModulePdr<LETTER extends IIcfgTransition<?>>
 	private final ILogger mLogger;
 	private final IPredicate mPrecondition;
 	private final IPredicate mPostcondition;
+	private final TaskIdentifier mTaskIdentifier;
 
-	public IpTcStrategyModulePdr(final ILogger logger, final IPredicate precondition, final IPredicate postcondition,
-			final IRun<LETTER, ?> counterexample, final IPredicateUnifier predicateUnifier,
-			final TaCheckAndRefinementPreferences<LETTER> prefs) {
+	public IpTcStrategyModulePdr(final TaskIdentifier taskIdentifier, final ILogger logger,
+			final IPredicate precondition, final IPredicate postcondition, final IRun<LETTER, ?> counterexample,
+			final IPredicateUnifier predicateUnifier, final TaCheckAndRefinementPreferences<LETTER> prefs) {
 		super();
+		mTaskIdentifier = taskIdentifier;
 		mCounterExample = counterexample;
 		mPredicateUnifier = predicateUnifier;
 		mLogger = logger;
@@ -66,7 +69,7 @@ public class IpTcStrategyModulePdr<LETTER extends IIcfgTransition<?>>
 	@Override
 	protected IInterpolatingTraceCheck<LETTER> construct() {
 		return new Pdr<>(mLogger, mPrefs, mPredicateUnifier, mPrecondition, mPostcondition,
-				mCounterExample.getWord().asList());
+				mCounterExample.getWord().asList(), mPrefs.constructPdrFrameSolverSettings(mTaskIdentifier));
 	}
 
 	@Override
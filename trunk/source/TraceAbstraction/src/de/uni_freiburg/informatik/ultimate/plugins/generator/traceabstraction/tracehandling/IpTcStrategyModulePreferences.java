@@ -138,7 +138,8 @@ public final class IpTcStrategyModulePreferences<LETTER extends IIcfgTransition<
 					mPrefs.collectInterpolantStatistics());
 		case PDR:
 			return new Pdr<>(mServices.getLoggingService().getLogger(Activator.PLUGIN_ID), mPrefs, mPredicateUnifier,
-					mPrecondition, mPostcondition, mCounterexample.getWord().asList());
+					mPrecondition, mPostcondition, mCounterexample.getWord().asList(),
+					mPrefs.constructPdrFrameSolverSettings(mTaskIdentifier));
 
 		case AcceleratedInterpolation:
 			return new AcceleratedInterpolation<>(mServices.getLoggingService().getLogger(Activator.PLUGIN_ID), mPrefs,
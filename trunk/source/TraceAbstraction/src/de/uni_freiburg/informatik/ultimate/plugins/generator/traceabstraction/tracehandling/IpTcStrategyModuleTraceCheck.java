@@ -58,6 +58,7 @@ public abstract class IpTcStrategyModuleTraceCheck<T extends IInterpolatingTrace
 	protected final IPredicate mPrecondition;
 	protected final IPredicate mPostcondition;
 	protected final PredicateFactory mPredicateFactory;
+	private StrategyModulePortfolio.SolverCallGate mSolverCallGate;
 
 	public IpTcStrategyModuleTraceCheck(final TaskIdentifier taskIdentifier, final IUltimateServiceProvider services,
 			final TaCheckAndRefinementPreferences<LETTER> prefs, final IRun<LETTER, ?> counterExample,
@@ -81,10 +82,27 @@ public abstract class IpTcStrategyModuleTraceCheck<T extends IInterpolatingTrace
 	}
 
 	protected ManagedScript createExternalManagedScript(final Script script) {
+		return createExternalManagedScript(script, false);
+	}
+
+	/**
+	 * @param isSolverProcess
+	 *            true if the script talks to a solver process. A {@link StrategyModulePortfolio} kills this process
+	 *            if it cancels the module while the module waits for its solver.
+	 */
+	protected ManagedScript createExternalManagedScript(final Script script, final boolean isSolverProcess) {
 		mPrefs.getIcfgContainer().getCfgSmtToolkit().getSmtFunctionsAndAxioms().transferAllSymbols(script);
+		if (mSolverCallGate != null) {
+			return new ManagedScript(mServices, mSolverCallGate.wrap(script, isSolverProcess));
+		}
 		return new ManagedScript(mServices, script);
 	}
 
+	@Override
+	public void setSolverCallGate(final StrategyModulePortfolio.SolverCallGate gate) {
+		mSolverCallGate = gate;
+	}
+
 	protected String getSolverName() {
 		return "TraceCheck_Iteration_" + mTaskIdentifier.toString();
 	}
@@ -80,7 +80,7 @@ public class IpTcStrategyModuleZ3<LETTER extends IIcfgTransition<?>> extends IpT
 				.setUseExternalSolver(true, command, SolverBuilder.LOGIC_Z3)
 				.setSolverMode(SolverMode.External_ModelsAndUnsatCoreMode);
 		final Script solver = SolverBuilder.buildAndInitializeSolver(mServices, solverSettings, getSolverName());
-		return createExternalManagedScript(solver);
+		return createExternalManagedScript(solver, true);
 	}
 
 	@Override
@@ -37,11 +37,13 @@ import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.I
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IIcfgTransition;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.biesenb.BPredicateUnifier;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.managedscript.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.managedscript.ManagedScriptPool;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicate;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicateUnifier;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.PredicateFactory;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.PredicateUnifier;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.tracecheck.TraceCheckReasonUnknown.RefinementStrategyExceptionBlacklist;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.taskidentifier.SubtaskFileIdentifier;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.taskidentifier.TaskIdentifier;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.IPostconditionProvider;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.IPreconditionProvider;
@@ -59,6 +61,7 @@ import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tr
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.strategy.MammothRefinementStrategy;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.strategy.McrRefinementStrategy;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.strategy.PenguinRefinementStrategy;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.strategy.PortfolioRefinementStrategy;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.strategy.RubberTaipanRefinementStrategy;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.strategy.SifaTaipanRefinementStrategy;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.strategy.SmtInterpolRefinementStrategy;
@@ -86,6 +89,7 @@ public class StrategyFactory<LETTER extends IIcfgTransition<?>> {
 	private final PredicateFactoryForInterpolantAutomata mPredicateFactoryInterpolAut;
 	private final PathProgramCache<LETTER> mPathProgramCache;
 	private final CfgSmtToolkit mCfgSmtToolkit;
+	private ManagedScriptPool mPredicateUnifierPool;
 
 	public StrategyFactory(final ILogger logger, final IUltimateServiceProvider services,
 			final TAPreferences taPrefsForInterpolantConsolidation, final TaCheckAndRefinementPreferences<LETTER> prefs,
@@ -126,7 +130,7 @@ public class StrategyFactory<LETTER extends IIcfgTransition<?>> {
 			final IPreconditionProvider preconditionProvider, final IPostconditionProvider postconditionProvider,
 			final RefinementStrategy strategyType) {
 
-		final IPredicateUnifier predicateUnifier = constructPredicateUnifier();
+		final IPredicateUnifier predicateUnifier = constructPredicateUnifier(taskIdentifier);
 		final IPredicate precondition = preconditionProvider.constructPrecondition(predicateUnifier);
 		final IPredicate postcondition = postconditionProvider.constructPostcondition(predicateUnifier);
 		mPathProgramCache.addRun(counterexample);
@@ -178,20 +182,43 @@ public class StrategyFactory<LETTER extends IIcfgTransition<?>> {
 			return new ToothlessSifaTaipanRefinementStrategy<>(strategyModuleFactory, exceptionBlacklist);
 		case MCR:
 			return new McrRefinementStrategy<>(strategyModuleFactory, exceptionBlacklist, this);
+		case PORTFOLIO:
+			return new PortfolioRefinementStrategy<>(strategyModuleFactory, exceptionBlacklist);
 		default:
 			throw new IllegalArgumentException(
 					"Unknown refinement strategy specified: " + mPrefs.getRefinementStrategy());
 		}
 	}
 
-	private IPredicateUnifier constructPredicateUnifier() {
+	private IPredicateUnifier constructPredicateUnifier(final TaskIdentifier taskIdentifier) {
 		final ManagedScript managedScript = mPrefs.getCfgSmtToolkit().getManagedScript();
 		final IIcfgSymbolTable symbolTable = mInitialIcfg.getCfgSmtToolkit().getSymbolTable();
 		if (mPrefs.usePredicateTrieBasedPredicateUnifier()) {
 			return new BPredicateUnifier(mServices, mLogger, managedScript, mPredicateFactory, symbolTable);
 		}
 		return new PredicateUnifier(mLogger, mServices, managedScript, mPredicateFactory, symbolTable,
-				mTaPrefs.getSimplificationTechnique(), mTaPrefs.getXnfConversionTechnique());
+				mTaPrefs.getSimplificationTechnique(), mTaPrefs.getXnfConversionTechnique(),
+				mPrefs.usePredicateImplicationIndex(), getPredicateUnifierPool(managedScript, taskIdentifier));
+	}
+
+	/**
+	 * The pool is shared by all predicate unifiers and is closed together with the toolchain storage.
+	 */
+	private ManagedScriptPool getPredicateUnifierPool(final ManagedScript managedScript,
+			final TaskIdentifier taskIdentifier) {
+		final int size = mPrefs.getPredicateUnifierSolverPoolSize();
+		if (size == 0) {
+			return null;
+		}
+		if (mPredicateUnifierPool == null) {
+			final ManagedScriptPool pool = new ManagedScriptPool(mServices, managedScript,
+					mPrefs.constructSolverSettings(new SubtaskFileIdentifier(taskIdentifier, "PredicateUnifier")),
+					"PredicateUnifierSolver", size);
+			mServices.getStorage().putStorable(ManagedScriptPool.class.getSimpleName() + "_" + taskIdentifier,
+					pool::close);
+			mPredicateUnifierPool = pool;
+		}
+		return mPredicateUnifierPool;
 	}
 
 }
@@ -26,6 +26,8 @@
  */
 package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling;
 
+import java.util.List;
+
 import de.uni_freiburg.informatik.ultimate.automata.IAutomaton;
 import de.uni_freiburg.informatik.ultimate.automata.IRun;
 import de.uni_freiburg.informatik.ultimate.automata.statefactory.IEmptyStackStateFactory;
@@ -108,6 +110,11 @@ public class StrategyModuleFactory<LETTER extends IIcfgTransition<?>> {
 				mCounterexample, mAbstraction, mTaskIdentifier);
 	}
 
+	public StrategyModulePortfolio<LETTER> createStrategyModulePortfolio(
+			final List<IIpTcStrategyModule<?, LETTER>> traceChecks, final long timeBudgetMs) {
+		return new StrategyModulePortfolio<>(mServices, mLogger, traceChecks, timeBudgetMs);
+	}
+
 	public IIpTcStrategyModule<?, LETTER> createIpTcStrategyModuleSmtInterpolCraig(final boolean useTimeout,
 			final InterpolationTechnique technique, final boolean arrayInterpolation,
 			final AssertCodeBlockOrder... order) {
@@ -163,8 +170,8 @@ public class StrategyModuleFactory<LETTER extends IIcfgTransition<?>> {
 	}
 
 	public IIpTcStrategyModule<?, LETTER> createIpTcStrategyModulePdr() {
-		return createModuleWrapperIfNecessary(new IpTcStrategyModulePdr<>(mLogger, mPrecondition, mPostcondition,
-				mCounterexample, mPredicateUnifier, mPrefs));
+		return createModuleWrapperIfNecessary(new IpTcStrategyModulePdr<>(mTaskIdentifier, mLogger, mPrecondition,
+				mPostcondition, mCounterexample, mPredicateUnifier, mPrefs));
 	}
 
 	public IIpTcStrategyModule<?, LETTER> createIpTcStrategyModulePreferences() {
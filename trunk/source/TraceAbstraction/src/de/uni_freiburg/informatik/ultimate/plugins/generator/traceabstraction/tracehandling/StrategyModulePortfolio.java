@@ -0,0 +1,434 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainCanceledException;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IIcfgTransition;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.interpolant.InterpolantComputationStatus;
+import de.uni_freiburg.informatik.ultimate.logic.Model;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.WrapperScript;
+
+/**
+ * Runs several trace checks of one refinement step concurrently and reports the modules that finished first.
+ * <p>
+ * The modules share state that is not thread-safe, e.g., the managed script of the CFG, the predicate unifier, and
+ * the predicate factory. Hence, at any time only one module may run outside of its own solver. This is enforced
+ * by a single lock that every worker holds while it runs its module. Modules that use a solver instance of their own
+ * (see {@link IpTcStrategyModuleTraceCheck#createExternalManagedScript(Script, boolean)}) release the lock while they
+ * wait for this solver, so the expensive part of the modules, the satisfiability checks and interpolant computations,
+ * runs in parallel. The gate is handed to the modules by {@link ITraceCheckStrategyModule#setSolverCallGate}, which
+ * wrapping modules forward to the module they wrap. Modules that never call a solver of their own, e.g., abstract
+ * interpretation, would hold the lock for their whole run and must not be added to a portfolio.
+ * <p>
+ * The portfolio stops as soon as one trace check shows that the trace is feasible or some module found a perfect
+ * interpolant sequence. Otherwise it waits for the remaining modules at most for the given time budget after the first
+ * interpolant sequence was found. Modules that did not finish in time are canceled: solver processes that they are
+ * waiting for are killed, and the modules stop the next time they return from their solver and never touch the shared
+ * state again. Solvers that run inside of this JVM cannot be killed, hence modules should use solvers with a timeout.
+ *
+ * @param <LETTER>
+ *            The type of letters of the counterexample.
+ */
+public class StrategyModulePortfolio<LETTER extends IIcfgTransition<?>> {
+
+	private static final long POLL_INTERVAL_MS = 100;
+
+	private final IUltimateServiceProvider mServices;
+	private final ILogger mLogger;
+	private final List<IIpTcStrategyModule<?, LETTER>> mTraceChecks;
+	private final long mTimeBudgetMs;
+	private final SolverCallGate mGate;
+
+	private List<ITraceCheckStrategyModule<?>> mFinishedTraceChecks;
+	private List<IIpgStrategyModule<?, LETTER>> mFinishedInterpolantGenerators;
+
+	/**
+	 * @param traceChecks
+	 *            Modules that are used to check the feasibility of the trace and to compute interpolants.
+	 * @param timeBudgetMs
+	 *            How long the portfolio waits for further modules after the first (imperfect) interpolant sequence
+	 *            was found.
+	 */
+	public StrategyModulePortfolio(final IUltimateServiceProvider services, final ILogger logger,
+			final List<IIpTcStrategyModule<?, LETTER>> traceChecks, final long timeBudgetMs) {
+		mServices = services;
+		mLogger = logger;
+		mTraceChecks = traceChecks;
+		mTimeBudgetMs = timeBudgetMs;
+		mGate = new SolverCallGate();
+	}
+
+	/**
+	 * @return The trace checks that finished in time, modules that decided the feasibility of the trace first.
+	 */
+	public List<ITraceCheckStrategyModule<?>> getFinishedTraceChecks() {
+		run();
+		return mFinishedTraceChecks;
+	}
+
+	/**
+	 * @return The modules that finished in time with an interpolant sequence, modules that found a perfect sequence
+	 *         first.
+	 */
+	public List<IIpgStrategyModule<?, LETTER>> getFinishedInterpolantGenerators() {
+		run();
+		return mFinishedInterpolantGenerators;
+	}
+
+	private void run() {
+		if (mFinishedTraceChecks != null) {
+			return;
+		}
+		for (final IIpTcStrategyModule<?, LETTER> module : mTraceChecks) {
+			module.setSolverCallGate(mGate);
+		}
+
+		final AtomicInteger threadNumber = new AtomicInteger();
+		final ExecutorService executor = Executors.newFixedThreadPool(mTraceChecks.size(), runnable -> {
+			final Thread thread = new Thread(runnable, "RefinementPortfolio-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+		final List<ModuleResult> finished = new ArrayList<>();
+		RuntimeException failure = null;
+		try {
+			final CompletionService<ModuleResult> completion = new ExecutorCompletionService<>(executor);
+			for (final IIpTcStrategyModule<?, LETTER> module : mTraceChecks) {
+				completion.submit(() -> mGate.runExclusively(() -> evaluate(module)));
+			}
+			failure = collectResults(completion, mTraceChecks.size(), finished);
+		} finally {
+			// from now on no worker enters the shared state again
+			mGate.cancel();
+			executor.shutdownNow();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+		sortResults(finished);
+	}
+
+	private RuntimeException collectResults(final CompletionService<ModuleResult> completion, final int numberOfTasks,
+			final List<ModuleResult> finished) {
+		long deadline = Long.MAX_VALUE;
+		RuntimeException firstFailure = null;
+		for (int pending = numberOfTasks; pending > 0;) {
+			if (!mServices.getProgressMonitorService().continueProcessing()) {
+				return new ToolchainCanceledException(getClass(), "running trace checks in parallel");
+			}
+			final long now = System.currentTimeMillis();
+			if (now >= deadline) {
+				mLogger.info("Time budget of portfolio exceeded, canceling %s modules", pending);
+				break;
+			}
+			final Future<ModuleResult> future;
+			try {
+				future = completion.poll(Math.min(POLL_INTERVAL_MS, deadline - now), TimeUnit.MILLISECONDS);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return new ToolchainCanceledException(getClass(), "running trace checks in parallel");
+			}
+			if (future == null) {
+				continue;
+			}
+			pending--;
+			final ModuleResult result;
+			try {
+				result = future.get();
+			} catch (final ExecutionException e) {
+				final Throwable cause = e.getCause();
+				if (cause instanceof ToolchainCanceledException) {
+					return (ToolchainCanceledException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				mLogger.warn("Module of portfolio failed: " + cause);
+				if (firstFailure == null) {
+					firstFailure = cause instanceof RuntimeException ? (RuntimeException) cause
+							: new IllegalStateException(cause);
+				}
+				continue;
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return new ToolchainCanceledException(getClass(), "running trace checks in parallel");
+			}
+			mLogger.info("Module %s finished: feasibility %s, perfect %s, imperfect %s",
+					result.mModule.getClass().getSimpleName(), result.mFeasibility, result.mPerfect,
+					result.mImperfect);
+			finished.add(result);
+			if (result.mFeasibility == LBool.SAT) {
+				break;
+			}
+			if (result.mPerfect && isProvenInfeasible(finished)) {
+				break;
+			}
+			if ((result.mPerfect || result.mImperfect) && deadline == Long.MAX_VALUE) {
+				deadline = System.currentTimeMillis() + mTimeBudgetMs;
+			}
+		}
+		if (finished.isEmpty() && firstFailure != null) {
+			return firstFailure;
+		}
+		return null;
+	}
+
+	private boolean isProvenInfeasible(final List<ModuleResult> finished) {
+		return finished.stream().anyMatch(a -> a.mFeasibility == LBool.UNSAT);
+	}
+
+	private void sortResults(final List<ModuleResult> finished) {
+		mFinishedTraceChecks = new ArrayList<>();
+		mFinishedInterpolantGenerators = new ArrayList<>();
+		final List<IIpgStrategyModule<?, LETTER>> imperfect = new ArrayList<>();
+		// modules that decided feasibility first, in the order in which they finished
+		for (final ModuleResult result : finished) {
+			if (result.mFeasibility != LBool.UNKNOWN) {
+				mFinishedTraceChecks.add(result.mModule);
+			}
+		}
+		for (final ModuleResult result : finished) {
+			if (result.mFeasibility == LBool.UNKNOWN) {
+				mFinishedTraceChecks.add(result.mModule);
+			}
+		}
+		if (isProvenInfeasible(finished)) {
+			for (final ModuleResult result : finished) {
+				if (result.mPerfect) {
+					mFinishedInterpolantGenerators.add(result.mModule);
+				} else if (result.mImperfect) {
+					imperfect.add(result.mModule);
+				}
+			}
+			mFinishedInterpolantGenerators.addAll(imperfect);
+		}
+	}
+
+	/**
+	 * Runs the module. Called by a worker while it holds the lock of the gate.
+	 */
+	private ModuleResult evaluate(final IIpTcStrategyModule<?, LETTER> module) {
+		module.getOrConstruct();
+		final LBool feasibility = module.isCorrect();
+		boolean perfect = false;
+		boolean imperfect = false;
+		if (feasibility == LBool.UNSAT) {
+			final InterpolantComputationStatus status = module.getInterpolantComputationStatus();
+			if (status != null && status.wasComputationSuccesful()) {
+				perfect = !module.getPerfectInterpolantSequences().isEmpty();
+				imperfect = !module.getImperfectInterpolantSequences().isEmpty();
+			}
+		}
+		return new ModuleResult(module, feasibility, perfect, imperfect);
+	}
+
+	private final class ModuleResult {
+		private final IIpTcStrategyModule<?, LETTER> mModule;
+		private final LBool mFeasibility;
+		private final boolean mPerfect;
+		private final boolean mImperfect;
+
+		private ModuleResult(final IIpTcStrategyModule<?, LETTER> module, final LBool feasibility,
+				final boolean perfect, final boolean imperfect) {
+			mModule = module;
+			mFeasibility = feasibility;
+			mPerfect = perfect;
+			mImperfect = imperfect;
+		}
+	}
+
+	/**
+	 * Serializes the access of the workers of a portfolio to shared state. Calls to solvers that belong to a single
+	 * module are executed without the lock.
+	 */
+	public static final class SolverCallGate {
+		private final ReentrantLock mLock = new ReentrantLock();
+		private final List<GatedScript> mScripts = new CopyOnWriteArrayList<>();
+		private volatile boolean mCanceled;
+
+		<T> T runExclusively(final Supplier<T> computation) {
+			mLock.lock();
+			try {
+				checkNotCanceled();
+				return computation.get();
+			} finally {
+				if (mLock.isHeldByCurrentThread()) {
+					mLock.unlock();
+				}
+			}
+		}
+
+		/**
+		 * Wrap the solver of a single module such that expensive solver calls release the lock.
+		 *
+		 * @param isSolverProcess
+		 *            true if the solver runs in a process of its own that is killed by {@link Script#exit()} if the
+		 *            portfolio is canceled while the module waits for the solver.
+		 */
+		Script wrap(final Script script, final boolean isSolverProcess) {
+			final GatedScript gated = new GatedScript(script, isSolverProcess);
+			mScripts.add(gated);
+			return gated;
+		}
+
+		/**
+		 * Stop all workers. Solver processes that workers are waiting for are killed. After this method returned, no
+		 * worker executes code outside of its own solver.
+		 */
+		void cancel() {
+			mCanceled = true;
+			for (final GatedScript script : mScripts) {
+				script.killIfBusy();
+			}
+			// wait until the worker that currently holds the lock reached its solver or finished
+			mLock.lock();
+			mLock.unlock();
+		}
+
+		private <T> T callSolver(final GatedScript script, final Supplier<T> solverCall) {
+			checkNotCanceled();
+			final int holdCount = mLock.getHoldCount();
+			for (int i = 0; i < holdCount; i++) {
+				mLock.unlock();
+			}
+			script.mBusy = true;
+			try {
+				if (mCanceled) {
+					// the process may have been checked by cancel() before mBusy was set
+					script.killIfBusy();
+				}
+				return solverCall.get();
+			} finally {
+				script.mBusy = false;
+				for (int i = 0; i < holdCount; i++) {
+					mLock.lock();
+				}
+				if (mCanceled) {
+					while (mLock.isHeldByCurrentThread()) {
+						mLock.unlock();
+					}
+					throw new PortfolioCanceledError();
+				}
+			}
+		}
+
+		private void checkNotCanceled() {
+			if (mCanceled) {
+				throw new PortfolioCanceledError();
+			}
+		}
+
+		private final class GatedScript extends WrapperScript {
+			private final boolean mIsSolverProcess;
+			private volatile boolean mBusy;
+			private boolean mKilled;
+
+			private GatedScript(final Script wrappedScript, final boolean isSolverProcess) {
+				super(wrappedScript);
+				mIsSolverProcess = isSolverProcess;
+			}
+
+			private synchronized void killIfBusy() {
+				if (!mIsSolverProcess || !mBusy || mKilled) {
+					return;
+				}
+				mKilled = true;
+				// the worker that waits for the solver gets an exception and stops in callSolver
+				mScript.exit();
+			}
+
+			@Override
+			public LBool checkSat() throws SMTLIBException {
+				return callSolver(this, mScript::checkSat);
+			}
+
+			@Override
+			public LBool checkSatAssuming(final Term... assumptions) throws SMTLIBException {
+				return callSolver(this, () -> mScript.checkSatAssuming(assumptions));
+			}
+
+			@Override
+			public Term[] getUnsatCore() throws SMTLIBException, UnsupportedOperationException {
+				return callSolver(this, mScript::getUnsatCore);
+			}
+
+			@Override
+			public Map<Term, Term> getValue(final Term[] terms) throws SMTLIBException, UnsupportedOperationException {
+				return callSolver(this, () -> mScript.getValue(terms));
+			}
+
+			@Override
+			public Model getModel() throws SMTLIBException, UnsupportedOperationException {
+				return callSolver(this, mScript::getModel);
+			}
+
+			@Override
+			public Term[] getInterpolants(final Term[] partition)
+					throws SMTLIBException, UnsupportedOperationException {
+				return callSolver(this, () -> mScript.getInterpolants(partition));
+			}
+
+			@Override
+			public Term[] getInterpolants(final Term[] partition, final int[] startOfSubtree)
+					throws SMTLIBException, UnsupportedOperationException {
+				return callSolver(this, () -> mScript.getInterpolants(partition, startOfSubtree));
+			}
+		}
+	}
+
+	/**
+	 * Thrown in a worker of a canceled portfolio. This is an {@link Error} such that it is not swallowed by the
+	 * exception handling of trace checks, which would continue to use the shared state.
+	 */
+	private static final class PortfolioCanceledError extends Error {
+		private static final long serialVersionUID = 1L;
+
+		PortfolioCanceledError() {
+			super("portfolio canceled", null, false, false);
+		}
+	}
+}
@@ -39,6 +39,7 @@ import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SolverBuild
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.PredicateFactory;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.tracecheck.ITraceCheckPreferences;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.tracecheck.TraceCheckReasonUnknown.RefinementStrategyExceptionBlacklist;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.taskidentifier.SubtaskFileIdentifier;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.taskidentifier.TaskIdentifier;
 import de.uni_freiburg.informatik.ultimate.lib.tracecheckerutils.singletracecheck.InterpolationTechnique;
 import de.uni_freiburg.informatik.ultimate.logic.Logics;
@@ -86,6 +87,9 @@ public class TaCheckAndRefinementPreferences<LETTER extends IIcfgTransition<?>>
 	private final boolean mCollectInterpolantStatistics;
 	private final IUltimateServiceProvider mServices;
 	private final boolean mUsePredicateTrieBasedPredicateUnifier;
+	private final boolean mUsePredicateImplicationIndex;
+	private final int mPredicateUnifierSolverPoolSize;
+	private final boolean mUsePdrIncrementalFrameSolver;
 	private final String mFeatureVectorDumpPath;
 	private final boolean mDumpFeatureVectors;
 	private final boolean mCompressDumpedScript;
@@ -159,6 +163,12 @@ public class TaCheckAndRefinementPreferences<LETTER extends IIcfgTransition<?>>
 				ultimatePrefs.getBoolean(TraceAbstractionPreferenceInitializer.LABEL_COMPUTE_COUNTEREXAMPLE);
 		mUsePredicateTrieBasedPredicateUnifier = ultimatePrefs
 				.getBoolean(TraceAbstractionPreferenceInitializer.LABEL_USE_PREDICATE_TRIE_BASED_PREDICATE_UNIFIER);
+		mUsePredicateImplicationIndex =
+				ultimatePrefs.getBoolean(TraceAbstractionPreferenceInitializer.LABEL_USE_PREDICATE_IMPLICATION_INDEX);
+		mPredicateUnifierSolverPoolSize =
+				ultimatePrefs.getInt(TraceAbstractionPreferenceInitializer.LABEL_PREDICATE_UNIFIER_SOLVER_POOL_SIZE);
+		mUsePdrIncrementalFrameSolver =
+				ultimatePrefs.getBoolean(TraceAbstractionPreferenceInitializer.LABEL_PDR_INCREMENTAL_FRAME_SOLVER);
 	}
 
 	private String getFeatureVectorsDumpPath() {
@@ -302,6 +312,28 @@ public class TaCheckAndRefinementPreferences<LETTER extends IIcfgTransition<?>>
 		return mUsePredicateTrieBasedPredicateUnifier;
 	}
 
+	public boolean usePredicateImplicationIndex() {
+		return mUsePredicateImplicationIndex;
+	}
+
+	/**
+	 * @return the number of solvers that check implications of the predicate unifier in parallel, 0 if the unifier
+	 *         should only use the main solver
+	 */
+	public int getPredicateUnifierSolverPoolSize() {
+		return mPredicateUnifierSolverPoolSize;
+	}
+
+	/**
+	 * @return the solver settings for the incremental frame solver of PDR, or null if PDR should not use one
+	 */
+	public SolverSettings constructPdrFrameSolverSettings(final TaskIdentifier identifier) {
+		if (!mUsePdrIncrementalFrameSolver) {
+			return null;
+		}
+		return constructSolverSettings(new SubtaskFileIdentifier(identifier, "PdrFrames"));
+	}
+
 	public SolverSettings constructSolverSettings(final TaskIdentifier identifier) {
 		return SolverBuilder.constructSolverSettings().setUseFakeIncrementalScript(getFakeNonIncrementalSolver())
 				.setDumpFeatureVectors(dumpFeatureVectors(), getFeatureVectorsDumpPath())
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.strategy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IIcfgTransition;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.IHoareTripleChecker;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.SolverBuilder;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.interpolant.QualifiedTracePredicates;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicateUnifier;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.tracecheck.ITraceCheckPreferences.AssertCodeBlockOrder;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.tracecheck.TraceCheckReasonUnknown.RefinementStrategyExceptionBlacklist;
+import de.uni_freiburg.informatik.ultimate.lib.tracecheckerutils.singletracecheck.InterpolationTechnique;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.CegarAbsIntRunner.AbsIntInterpolantGenerator;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.preferences.TraceAbstractionPreferenceInitializer.RefinementStrategy;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.IIpTcStrategyModule;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.IIpgStrategyModule;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.IRefinementEngine;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.ITraceCheckStrategyModule;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.StrategyModuleFactory;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.StrategyModulePortfolio;
+
+/**
+ * A parallel variant of {@link TaipanRefinementStrategy}. The trace checks with SMTInterpol, Z3, and CVC4 run
+ * concurrently in a {@link StrategyModulePortfolio}. The strategy takes the first perfect interpolant sequence or all
+ * sequences that were found within {@link #TIME_BUDGET_MS} after the first one. Abstract interpretation does not use a
+ * solver of its own and cannot run concurrently to the trace checks. As in {@link TaipanRefinementStrategy}, it is
+ * only tried afterwards if no perfect interpolant sequence was found.
+ */
+public class PortfolioRefinementStrategy<LETTER extends IIcfgTransition<?>> extends BasicRefinementStrategy<LETTER> {
+
+	/**
+	 * How long we wait for further interpolant sequences after the first imperfect sequence was found.
+	 */
+	private static final long TIME_BUDGET_MS = 2_000;
+
+	private final StrategyModulePortfolio<LETTER> mPortfolio;
+	private final IIpTcStrategyModule<?, LETTER> mAbsInt;
+	private int mCurrentIndexTraceCheck;
+	private int mCurrentIndexInterpolantGenerator;
+	private boolean mAbsIntUsed;
+
+	public PortfolioRefinementStrategy(final StrategyModuleFactory<LETTER> factory,
+			final RefinementStrategyExceptionBlacklist exceptionBlacklist) {
+		this(factory, createTraceChecks(factory), factory.createIpTcStrategyModuleAbstractInterpretation(),
+				exceptionBlacklist);
+	}
+
+	@SuppressWarnings("unchecked")
+	private PortfolioRefinementStrategy(final StrategyModuleFactory<LETTER> factory,
+			final IIpTcStrategyModule<?, LETTER>[] traceChecks, final IIpTcStrategyModule<?, LETTER> absint,
+			final RefinementStrategyExceptionBlacklist exceptionBlacklist) {
+		super(factory, traceChecks, new IIpgStrategyModule[] { traceChecks[0], traceChecks[1], traceChecks[2], absint },
+				factory.createIpAbStrategyModuleStraightlineAll(), exceptionBlacklist);
+		mAbsInt = absint;
+		mPortfolio = factory.createStrategyModulePortfolio(Arrays.asList(traceChecks), TIME_BUDGET_MS);
+	}
+
+	/**
+	 * The trace checks use solvers with a timeout such that solvers of canceled trace checks that cannot be killed
+	 * terminate eventually.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <LETTER extends IIcfgTransition<?>> IIpTcStrategyModule<?, LETTER>[]
+			createTraceChecks(final StrategyModuleFactory<LETTER> factory) {
+		final AssertCodeBlockOrder[] order = { AssertCodeBlockOrder.NOT_INCREMENTALLY,
+				AssertCodeBlockOrder.OUTSIDE_LOOP_FIRST2, AssertCodeBlockOrder.TERMS_WITH_SMALL_CONSTANTS_FIRST };
+		return new IIpTcStrategyModule[] {
+				factory.createIpTcStrategyModuleSmtInterpolCraig(true, InterpolationTechnique.Craig_TreeInterpolation,
+						true, order),
+				factory.createIpTcStrategyModuleZ3(true, InterpolationTechnique.FPandBP, order),
+				factory.createIpTcStrategyModuleCVC4(true, InterpolationTechnique.FPandBP,
+						SolverBuilder.LOGIC_CVC4_DEFAULT, order) };
+	}
+
+	@Override
+	public String getName() {
+		return RefinementStrategy.PORTFOLIO.toString();
+	}
+
+	@Override
+	public boolean hasNextFeasilibityCheck() {
+		return mCurrentIndexTraceCheck < mPortfolio.getFinishedTraceChecks().size();
+	}
+
+	@Override
+	public ITraceCheckStrategyModule<?> nextFeasibilityCheck() {
+		final List<ITraceCheckStrategyModule<?>> finished = mPortfolio.getFinishedTraceChecks();
+		if (mCurrentIndexTraceCheck < finished.size()) {
+			return finished.get(mCurrentIndexTraceCheck++);
+		}
+		throw new NoSuchElementException();
+	}
+
+	@Override
+	public boolean hasNextInterpolantGenerator(final List<QualifiedTracePredicates> perfectIpps,
+			final List<QualifiedTracePredicates> imperfectIpps) {
+		// the portfolio already decided which sequences are good enough
+		if (mCurrentIndexInterpolantGenerator < mPortfolio.getFinishedInterpolantGenerators().size()) {
+			return true;
+		}
+		return !mAbsIntUsed && perfectIpps.isEmpty();
+	}
+
+	@Override
+	public IIpgStrategyModule<?, LETTER> nextInterpolantGenerator() {
+		final List<IIpgStrategyModule<?, LETTER>> finished = mPortfolio.getFinishedInterpolantGenerators();
+		if (mCurrentIndexInterpolantGenerator < finished.size()) {
+			return finished.get(mCurrentIndexInterpolantGenerator++);
+		}
+		if (!mAbsIntUsed) {
+			mAbsIntUsed = true;
+			return mAbsInt;
+		}
+		throw new NoSuchElementException();
+	}
+
+	@Override
+	public IHoareTripleChecker getHoareTripleChecker(final IRefinementEngine<?> engine) {
+		if (usesOnlyAbsIntPredicates(engine)) {
+			return mAbsInt.getHoareTripleChecker();
+		}
+		return super.getHoareTripleChecker(engine);
+	}
+
+	@Override
+	public IPredicateUnifier getPredicateUnifier(final IRefinementEngine<?> engine) {
+		if (usesOnlyAbsIntPredicates(engine)) {
+			return mAbsInt.getPredicateUnifier();
+		}
+		return super.getPredicateUnifier(engine);
+	}
+
+	private static boolean usesOnlyAbsIntPredicates(final IRefinementEngine<?> engine) {
+		return engine.getUsedTracePredicates().stream().map(QualifiedTracePredicates::getOrigin)
+				.allMatch(AbsIntInterpolantGenerator.class::isAssignableFrom);
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Tests for {@link CegarIterationEventLog}: every iteration is one JSON object on its own line that contains the
+ * change of the statistics during the iteration.
+ */
+public class CegarIterationEventLogTest {
+
+	private static final Pattern LINE = Pattern.compile("\\{\"task\":\"(.*)\",\"iteration\":(\\d+),"
+			+ "\"wallTimeNanos\":(\\d+),\"allocatedBytes\":(-?\\d+),\"abstractionSize\":(\\d+),"
+			+ "\"statistics\":\\{(.*)\\}\\}");
+
+	@Rule
+	public final TemporaryFolder mFolder = new TemporaryFolder();
+
+	private ILogger mLogger;
+
+	@Before
+	public void setUp() {
+		mLogger = UltimateMocks.createUltimateServiceProviderMock().getLoggingService().getLogger(getClass());
+	}
+
+	@Test
+	public void oneLinePerIteration() throws IOException {
+		final File file = mFolder.newFile("iterations.jsonl");
+		try (CegarIterationEventLog log = new CegarIterationEventLog(mLogger, file, "a \"quoted\"\ttask\\")) {
+			log.startIteration(1, statistics("A", 1, "B", 5));
+			log.endIteration(7, statistics("A", 4, "B", 5, "C", 2));
+			log.startIteration(2, statistics("A", 4, "C", 2));
+			log.endIteration(9, statistics("A", 10, "C", 3));
+		}
+		final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		Assert.assertEquals(2, lines.size());
+
+		final Matcher first = match(lines.get(0));
+		Assert.assertEquals("a \\\"quoted\\\"\\u0009task\\\\", first.group(1));
+		Assert.assertEquals("1", first.group(2));
+		Assert.assertTrue(Long.parseLong(first.group(4)) >= -1);
+		Assert.assertEquals("7", first.group(5));
+		// unchanged values are omitted, and so is C, whose value at the start of the iteration is not known
+		Assert.assertEquals("\"A\":3", first.group(6));
+
+		final Matcher second = match(lines.get(1));
+		Assert.assertEquals("2", second.group(2));
+		Assert.assertEquals("9", second.group(5));
+		Assert.assertEquals("\"A\":6,\"C\":1", second.group(6));
+	}
+
+	@Test
+	public void sequentialLogsAppendToSameFile() throws IOException {
+		final File file = mFolder.newFile("iterations.jsonl");
+		for (final String task : new String[] { "first", "second" }) {
+			try (CegarIterationEventLog log = new CegarIterationEventLog(mLogger, file, task)) {
+				log.startIteration(1, statistics());
+				log.endIteration(1, statistics());
+			}
+		}
+		final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		Assert.assertEquals(2, lines.size());
+		Assert.assertEquals("first", match(lines.get(0)).group(1));
+		Assert.assertEquals("second", match(lines.get(1)).group(1));
+		Assert.assertEquals("", match(lines.get(1)).group(6));
+	}
+
+	@Test
+	public void runningStopwatchIsNotReported() throws IOException {
+		final String difference = CegarLoopStatisticsDefinitions.AutomataDifference.toString();
+		final CegarLoopStatisticsGenerator generator = new CegarLoopStatisticsGenerator();
+		generator.start(difference);
+		final Map<String, Long> atStart = generator.getNumericSnapshot();
+		Assert.assertFalse(atStart.containsKey(difference));
+		generator.stop(difference);
+		final Map<String, Long> atEnd = generator.getNumericSnapshot();
+		Assert.assertTrue(atEnd.containsKey(difference));
+
+		// the stopwatch already ran before the iteration, so its total time is not the time of the iteration
+		final File file = mFolder.newFile("iterations.jsonl");
+		try (CegarIterationEventLog log = new CegarIterationEventLog(mLogger, file, "task")) {
+			log.startIteration(1, atStart);
+			log.endIteration(1, atEnd);
+		}
+		final String line = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).get(0);
+		Assert.assertFalse(line, line.contains(difference));
+	}
+
+	private static Matcher match(final String line) {
+		final Matcher matcher = LINE.matcher(line);
+		Assert.assertTrue("not a line of the log: " + line, matcher.matches());
+		return matcher;
+	}
+
+	private static Map<String, Long> statistics(final Object... keysAndValues) {
+		final Map<String, Long> result = new TreeMap<>();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			result.put((String) keysAndValues[i], ((Integer) keysAndValues[i + 1]).longValue());
+		}
+		return result;
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.EpsilonNestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.HashRelation;
+
+/**
+ * Tests for {@link FloydHoareAutomataStore}: automata are only loaded if their dependencies did not change, and the
+ * least recently used automata are evicted if the store is too large.
+ */
+public class FloydHoareAutomataStoreTest {
+
+	private static final long LARGE = 1L << 30;
+	private static final String PROC_MAIN = "procedure main";
+	private static final String PROC_FOO = "procedure foo";
+	private static final String VAR_X = "variable x";
+
+	@Rule
+	public final TemporaryFolder mFolder = new TemporaryFolder();
+
+	private IUltimateServiceProvider mServices;
+	private ILogger mLogger;
+	private Map<String, Long> mDependencies;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		mLogger = mServices.getLoggingService().getLogger(getClass());
+		mDependencies = new HashMap<>();
+		mDependencies.put(PROC_MAIN, 1L);
+		mDependencies.put(VAR_X, 2L);
+	}
+
+	@Test
+	public void loadWithMatchingFingerprint() throws Exception {
+		final FloydHoareAutomataStore store = createStore(LARGE);
+		final NestedWordAutomaton<String, String> nwa = createAutomaton("p");
+		final HashRelation<String, String> implications = new HashRelation<>();
+		implications.addPair("p1", "p0");
+		implications.addPair("p1", "p1");
+		implications.addPair("p1", "notAState");
+		store.store(nwa, implications, mDependencies);
+
+		final Map<String, Long> program = new HashMap<>(mDependencies);
+		program.put(PROC_FOO, 3L);
+		final List<INestedWordAutomaton<String, String>> loaded = store.load(new ProgramFingerprint(program));
+		Assert.assertEquals(1, loaded.size());
+		// implications become epsilon transitions, except for reflexive ones and those to other predicates
+		final HashRelation<String, String> epsilonTransitions = new HashRelation<>();
+		epsilonTransitions.addPair("p1", "p0");
+		Assert.assertEquals(print(new EpsilonNestedWordAutomaton<>(nwa, epsilonTransitions)), print(loaded.get(0)));
+	}
+
+	@Test
+	public void loadWithChangedFingerprint() throws Exception {
+		final FloydHoareAutomataStore store = createStore(LARGE);
+		store.store(createAutomaton("p"), new HashRelation<>(), mDependencies);
+
+		final Map<String, Long> changedProcedure = new HashMap<>(mDependencies);
+		changedProcedure.put(PROC_MAIN, 4L);
+		Assert.assertTrue(store.load(new ProgramFingerprint(changedProcedure)).isEmpty());
+
+		final Map<String, Long> missingVariable = new HashMap<>(mDependencies);
+		missingVariable.remove(VAR_X);
+		Assert.assertTrue(store.load(new ProgramFingerprint(missingVariable)).isEmpty());
+
+		// automata of changed programs stay in the store
+		Assert.assertEquals(1, listFiles().length);
+		Assert.assertEquals(1, store.load(new ProgramFingerprint(mDependencies)).size());
+	}
+
+	@Test
+	public void storeIsContentAddressed() throws Exception {
+		final FloydHoareAutomataStore store = createStore(LARGE);
+		store.store(createAutomaton("p"), new HashRelation<>(), mDependencies);
+		store.store(createAutomaton("p"), new HashRelation<>(), mDependencies);
+		Assert.assertEquals(1, listFiles().length);
+		store.store(createAutomaton("q"), new HashRelation<>(), mDependencies);
+		Assert.assertEquals(2, listFiles().length);
+	}
+
+	@Test
+	public void evictLeastRecentlyUsed() throws Exception {
+		createStore(LARGE).store(createAutomaton("a"), new HashRelation<>(), mDependencies);
+		final File[] first = listFiles();
+		Assert.assertEquals(1, first.length);
+		final long length = first[0].length();
+
+		// room for two automata of the same size, but not for three
+		final FloydHoareAutomataStore store = createStore(2 * length + length / 2);
+		final long now = System.currentTimeMillis();
+		Assert.assertTrue(first[0].setLastModified(now - 30_000));
+		store.store(createAutomaton("b"), new HashRelation<>(), mDependencies);
+		for (final File file : listFiles()) {
+			if (!file.equals(first[0])) {
+				Assert.assertTrue(file.setLastModified(now - 20_000));
+			}
+		}
+		// storing "a" again uses it, hence "b" is now the least recently used automaton
+		store.store(createAutomaton("a"), new HashRelation<>(), mDependencies);
+		Assert.assertEquals(2, listFiles().length);
+		store.store(createAutomaton("c"), new HashRelation<>(), mDependencies);
+		Assert.assertEquals(2, listFiles().length);
+
+		final List<INestedWordAutomaton<String, String>> loaded = store.load(new ProgramFingerprint(mDependencies));
+		final HashSet<String> initialStates = new HashSet<>();
+		for (final INestedWordAutomaton<String, String> nwa : loaded) {
+			initialStates.addAll(nwa.getInitialStates());
+		}
+		Assert.assertEquals(new HashSet<>(Arrays.asList("a0", "c0")), initialStates);
+	}
+
+	@Test
+	public void deleteUnreadableFiles() throws Exception {
+		final FloydHoareAutomataStore store = createStore(LARGE);
+		store.store(createAutomaton("p"), new HashRelation<>(), mDependencies);
+		final File broken = new File(mFolder.getRoot(), "broken.fha");
+		Assert.assertTrue(broken.createNewFile());
+		Assert.assertEquals(1, store.load(new ProgramFingerprint(mDependencies)).size());
+		Assert.assertFalse(broken.exists());
+	}
+
+	private FloydHoareAutomataStore createStore(final long maxBytes) {
+		return new FloydHoareAutomataStore(mServices, mLogger, mFolder.getRoot().getAbsolutePath(), maxBytes);
+	}
+
+	private File[] listFiles() {
+		return mFolder.getRoot().listFiles((dir, name) -> name.endsWith(".fha"));
+	}
+
+	/**
+	 * @return An automaton whose states start with the given prefix.
+	 */
+	private NestedWordAutomaton<String, String> createAutomaton(final String prefix) {
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(
+				new AutomataLibraryServices(mServices), new VpAlphabet<>(new HashSet<>(Arrays.asList("x := 1", "x++")),
+						Collections.singleton("call foo"), Collections.singleton("return foo")),
+				new StringFactory());
+		final String p0 = prefix + "0";
+		final String p1 = prefix + "1";
+		final String p2 = prefix + "2";
+		nwa.addState(true, false, p0);
+		nwa.addState(false, false, p1);
+		nwa.addState(false, true, p2);
+		nwa.addInternalTransition(p0, "x := 1", p1);
+		nwa.addInternalTransition(p1, "x++", p1);
+		nwa.addCallTransition(p1, "call foo", p0);
+		nwa.addReturnTransition(p0, p1, "return foo", p2);
+		return nwa;
+	}
+
+	private String print(final INestedWordAutomaton<String, String> nwa) {
+		return AutomatonDefinitionPrinter.toString(new AutomataLibraryServices(mServices), "nwa", nwa);
+	}
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.core.model.translation.IProgramExecution;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IIcfgTransition;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgLocation;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.hoaretriple.IHoareTripleChecker;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.interpolant.IInterpolatingTraceCheck;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.interpolant.InterpolantComputationStatus;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.interpolant.QualifiedTracePredicates;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.interpolant.TracePredicates;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicateUnifier;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.tracecheck.TraceCheckReasonUnknown;
+import de.uni_freiburg.informatik.ultimate.logic.NoopScript;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Tests for {@link StrategyModulePortfolio}: the portfolio runs to completion, and workers that it cancels terminate
+ * without touching the shared state again.
+ */
+public class StrategyModulePortfolioTest {
+
+	private static final long TIME_BUDGET_MS = 100;
+	private static final long TERMINATION_TIMEOUT_S = 10;
+
+	private IUltimateServiceProvider mServices;
+	private ILogger mLogger;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		mLogger = mServices.getLoggingService().getLogger(getClass());
+	}
+
+	@Test
+	public void perfectSequenceKillsSlowSolverProcess() throws InterruptedException {
+		final FakeSolver blocking = new FakeSolver();
+		final FakeModule fast = new FakeModule(new FakeSolver(LBool.UNSAT, blocking), true, true);
+		final FakeModule slow = new FakeModule(blocking, true, true);
+		final StrategyModulePortfolio<IIcfgTransition<?>> portfolio = createPortfolio(slow, fast);
+
+		Assert.assertEquals(Collections.singletonList(fast), portfolio.getFinishedInterpolantGenerators());
+		Assert.assertEquals(Collections.singletonList(fast), portfolio.getFinishedTraceChecks());
+		// the slow module was canceled while it waited for its solver process, which is killed
+		Assert.assertTrue(slow.mTerminated.await(TERMINATION_TIMEOUT_S, TimeUnit.SECONDS));
+		Assert.assertTrue(blocking.mExited);
+		Assert.assertFalse(slow.mReturnedFromSolver);
+	}
+
+	@Test
+	public void canceledWorkerStopsWhenInJvmSolverReturns() throws InterruptedException {
+		final FakeSolver blocking = new FakeSolver();
+		final FakeModule fast = new FakeModule(new FakeSolver(LBool.UNSAT, blocking), false, true);
+		final FakeModule slow = new FakeModule(blocking, false, true);
+		final StrategyModulePortfolio<IIcfgTransition<?>> portfolio = createPortfolio(slow, fast);
+
+		Assert.assertEquals(Collections.singletonList(fast), portfolio.getFinishedInterpolantGenerators());
+		// solvers inside of the JVM are not killed, the worker stops as soon as its solver returns
+		Assert.assertFalse(blocking.mExited);
+		blocking.mRelease.countDown();
+		Assert.assertTrue(slow.mTerminated.await(TERMINATION_TIMEOUT_S, TimeUnit.SECONDS));
+		Assert.assertFalse(slow.mReturnedFromSolver);
+	}
+
+	@Test
+	public void imperfectSequencesAreCollectedWithinTimeBudget() throws InterruptedException {
+		final FakeSolver blocking = new FakeSolver();
+		final FakeModule first = new FakeModule(new FakeSolver(LBool.UNSAT, blocking), true, false);
+		final FakeModule second = new FakeModule(new FakeSolver(LBool.UNSAT, blocking), true, false);
+		final FakeModule slow = new FakeModule(blocking, true, true);
+		final StrategyModulePortfolio<IIcfgTransition<?>> portfolio = createPortfolio(slow, first, second);
+
+		Assert.assertEquals(2, portfolio.getFinishedInterpolantGenerators().size());
+		Assert.assertTrue(portfolio.getFinishedInterpolantGenerators().containsAll(Arrays.asList(first, second)));
+		Assert.assertTrue(slow.mTerminated.await(TERMINATION_TIMEOUT_S, TimeUnit.SECONDS));
+		Assert.assertFalse(slow.mReturnedFromSolver);
+	}
+
+	@Test
+	public void feasibleTraceStopsPortfolio() throws InterruptedException {
+		final FakeSolver blocking = new FakeSolver();
+		final FakeModule feasible = new FakeModule(new FakeSolver(LBool.SAT, blocking), true, false);
+		final FakeModule slow = new FakeModule(blocking, true, true);
+		final StrategyModulePortfolio<IIcfgTransition<?>> portfolio = createPortfolio(slow, feasible);
+
+		Assert.assertEquals(Collections.singletonList(feasible), portfolio.getFinishedTraceChecks());
+		Assert.assertTrue(portfolio.getFinishedInterpolantGenerators().isEmpty());
+		Assert.assertTrue(slow.mTerminated.await(TERMINATION_TIMEOUT_S, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void interpolantConsolidationForwardsGate() {
+		final FakeModule inner = new FakeModule(new FakeSolver(), true, true);
+		final IpTcStrategyModuleInterpolantConsolidation<?, IIcfgTransition<?>> wrapper =
+				new IpTcStrategyModuleInterpolantConsolidation<>(mServices, mLogger, null, null, inner);
+		final StrategyModulePortfolio.SolverCallGate gate = new StrategyModulePortfolio.SolverCallGate();
+		wrapper.setSolverCallGate(gate);
+		Assert.assertSame(gate, inner.mGate);
+	}
+
+	private StrategyModulePortfolio<IIcfgTransition<?>> createPortfolio(final FakeModule... modules) {
+		return new StrategyModulePortfolio<>(mServices, mLogger,
+				Arrays.<IIpTcStrategyModule<?, IIcfgTransition<?>>> asList(modules), TIME_BUDGET_MS);
+	}
+
+	/**
+	 * A solver that answers with a fixed result, or, if the result is null, blocks until it is exited or released. A
+	 * solver with a result answers only after some other solver was called, such that the portfolio has to cancel a
+	 * module that actually runs.
+	 */
+	private static final class FakeSolver extends NoopScript {
+		private final LBool mResult;
+		private final FakeSolver mAnswerAfter;
+		private final CountDownLatch mCalled = new CountDownLatch(1);
+		private final CountDownLatch mRelease = new CountDownLatch(1);
+		private volatile boolean mExited;
+
+		private FakeSolver(final LBool result, final FakeSolver answerAfter) {
+			mResult = result;
+			mAnswerAfter = answerAfter;
+		}
+
+		private FakeSolver() {
+			this(null, null);
+		}
+
+		@Override
+		public LBool checkSat() {
+			mCalled.countDown();
+			try {
+				if (mResult != null) {
+					mAnswerAfter.mCalled.await();
+					return mResult;
+				}
+				mRelease.await();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (mExited) {
+				throw new SMTLIBException("solver process was killed");
+			}
+			return LBool.UNSAT;
+		}
+
+		@Override
+		public void exit() {
+			mExited = true;
+			mRelease.countDown();
+		}
+	}
+
+	/**
+	 * A trace check that calls its solver once through the gate of the portfolio.
+	 */
+	private static final class FakeModule
+			implements IIpTcStrategyModule<IInterpolatingTraceCheck<IIcfgTransition<?>>, IIcfgTransition<?>> {
+		private final FakeSolver mSolver;
+		private final boolean mIsSolverProcess;
+		private final boolean mPerfect;
+		private final CountDownLatch mTerminated = new CountDownLatch(1);
+		private StrategyModulePortfolio.SolverCallGate mGate;
+		private LBool mResult;
+		private volatile boolean mReturnedFromSolver;
+
+		private FakeModule(final FakeSolver solver, final boolean isSolverProcess, final boolean perfect) {
+			mSolver = solver;
+			mIsSolverProcess = isSolverProcess;
+			mPerfect = perfect;
+		}
+
+		@Override
+		public void setSolverCallGate(final StrategyModulePortfolio.SolverCallGate gate) {
+			mGate = gate;
+		}
+
+		@Override
+		public IInterpolatingTraceCheck<IIcfgTransition<?>> getOrConstruct() {
+			if (mResult == null) {
+				try {
+					final Script script = mGate.wrap(mSolver, mIsSolverProcess);
+					mResult = script.checkSat();
+					// a real trace check would now use the shared state
+					mReturnedFromSolver = true;
+				} finally {
+					mTerminated.countDown();
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public LBool isCorrect() {
+			getOrConstruct();
+			return mResult;
+		}
+
+		@Override
+		public InterpolantComputationStatus getInterpolantComputationStatus() {
+			return new InterpolantComputationStatus();
+		}
+
+		@Override
+		public Collection<QualifiedTracePredicates> getPerfectInterpolantSequences() {
+			return mPerfect ? createSequence() : Collections.emptyList();
+		}
+
+		@Override
+		public Collection<QualifiedTracePredicates> getImperfectInterpolantSequences() {
+			return mPerfect ? Collections.emptyList() : createSequence();
+		}
+
+		private Collection<QualifiedTracePredicates> createSequence() {
+			return Collections.singleton(new QualifiedTracePredicates(
+					new TracePredicates(null, null, Collections.emptyList()), getClass(), mPerfect));
+		}
+
+		@Override
+		public boolean providesRcfgProgramExecution() {
+			return false;
+		}
+
+		@Override
+		public IProgramExecution<IIcfgTransition<IcfgLocation>, Term> getRcfgProgramExecution() {
+			return null;
+		}
+
+		@Override
+		public TraceCheckReasonUnknown getTraceCheckReasonUnknown() {
+			return null;
+		}
+
+		@Override
+		public void aggregateStatistics(final RefinementEngineStatisticsGenerator statistics) {
+			// no statistics
+		}
+
+		@Override
+		public IHoareTripleChecker getHoareTripleChecker() {
+			return null;
+		}
+
+		@Override
+		public IPredicateUnifier getPredicateUnifier() {
+			return null;
+		}
+	}
+}
@@ -27,7 +27,9 @@
 package de.uni_freiburg.informatik.ultimate.cli;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -84,6 +86,7 @@ public class CommandLineController implements IController<RunDefinition> {
 
 	private ParsedParameter mCliParams;
 	private String mCsvPrefix;
+	private String mLastResult;
 
 	@Override
 	public int init(final ICore<RunDefinition> core) {
@@ -123,6 +126,10 @@ public class CommandLineController implements IController<RunDefinition> {
 			return IApplication.EXIT_OK;
 		}
 
+		if (toolchainStageParams.isServerRequested()) {
+			return runServer(core, toolchainStageParams);
+		}
+
 		if (!toolchainStageParams.hasToolchain()) {
 			if (toolchainStageParams.isHelpRequested()) {
 				printHelp(onlyCliHelpParser, toolchainStageParams);
@@ -180,6 +187,63 @@ public class CommandLineController implements IController<RunDefinition> {
 		return IApplication.EXIT_OK;
 	}
 
+	/**
+	 * Execute jobs in this JVM until the client requests to exit. Each job uses a fresh toolchain and therefore fresh
+	 * services and storage; preferences are reset before each job.
+	 */
+	private int runServer(final ICore<RunDefinition> core, final ParsedParameter serverParams) {
+		mLogger.info("This is Ultimate " + core.getUltimateVersionString() + " in server mode");
+		final CommandLineParser jobParser = CommandLineParser.createParser(core, a -> true, true);
+		final JobServer server = new JobServer(mLogger, args -> runServerJob(core, jobParser, args));
+		try {
+			final Integer port = serverParams.getServerPort();
+			if (port == null) {
+				final File output = serverParams.getServerOutput();
+				if (output == null) {
+					throw new ParseException("Reading jobs from stdin requires --"
+							+ CommandLineOptions.OPTION_LONG_NAME_SERVER_OUTPUT + ", because the log is written to "
+							+ "stdout. Alternatively, specify a port for --" + CommandLineOptions.OPTION_LONG_NAME_SERVER);
+				}
+				try (OutputStream out = new FileOutputStream(output)) {
+					server.serve(System.in, out);
+				}
+			} else {
+				server.serve(port);
+			}
+		} catch (final ParseException e) {
+			mLogger.error(e.getMessage());
+			return -1;
+		} catch (final IOException e) {
+			mLogger.fatal("Server failed", e);
+			return -1;
+		}
+		return IApplication.EXIT_OK;
+	}
+
+	private String runServerJob(final ICore<RunDefinition> core, final CommandLineParser jobParser,
+			final String[] args) throws ParseException, InvalidFileArgumentException, InterruptedException {
+		final ParsedParameter jobParams = jobParser.parse(args);
+		if (!jobParams.hasInputFiles()) {
+			throw new ParseException("Missing required option: " + CommandLineOptions.OPTION_NAME_INPUTFILES);
+		}
+		mCliParams = jobParams;
+		mCsvPrefix = jobParams.generateCsvs() ? jobParams.getCsvPrefix() : null;
+		mLastResult = "NONE";
+		final IToolchainData<RunDefinition> toolchain = prepareToolchain(core, jobParams);
+		final Thread sigIntTrap = new Thread(new SigIntTrap(toolchain, mLogger), "SigIntTrap");
+		Runtime.getRuntime().addShutdownHook(sigIntTrap);
+		try {
+			startExecutingToolchain(core, jobParams, mLogger, toolchain);
+		} finally {
+			try {
+				Runtime.getRuntime().removeShutdownHook(sigIntTrap);
+			} catch (final IllegalStateException e) {
+				// the JVM is already shutting down
+			}
+		}
+		return mLastResult;
+	}
+
 	private void printVersion(final ICore<RunDefinition> core) {
 		mLogger.info("This is Ultimate " + core.getUltimateVersionString());
 		// DD: note that the next line is used in benchexec
@@ -295,6 +359,7 @@ public class CommandLineController implements IController<RunDefinition> {
 	public void displayToolchainResults(final IToolchainData<RunDefinition> toolchain,
 			final Map<String, List<IResult>> results) {
 		final ResultSummarizer summarizer = new ResultSummarizer(results);
+		mLastResult = String.valueOf(summarizer.getResultSummary());
 		switch (summarizer.getResultSummary()) {
 		case CORRECT:
 			mLogger.info("RESULT: Ultimate proved your program to be correct!");
@@ -400,6 +465,7 @@ public class CommandLineController implements IController<RunDefinition> {
 	@Override
 	public void displayException(final IToolchainData<RunDefinition> toolchain, final String description,
 			final Throwable ex) {
+		mLastResult = "EXCEPTION";
 		mLogger.fatal("RESULT: An exception occured during the execution of Ultimate: " + description, ex);
 	}
 
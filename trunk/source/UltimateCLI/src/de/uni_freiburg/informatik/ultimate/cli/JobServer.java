@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE CLI plug-in.
+ *
+ * The ULTIMATE CLI plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE CLI plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE CLI plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE CLI plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE CLI plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+
+/**
+ * Runs Ultimate jobs one after another in the same JVM, so that plug-ins are loaded only once.
+ *
+ * The protocol is line based. Every request line contains the command line arguments of one job (e.g.,
+ * <code>-tc Automizer.xml -s settings.epf -i file.c</code>); arguments that contain spaces can be enclosed in double
+ * quotes, and a backslash escapes a following double quote or backslash. The line <code>exit</code> stops the
+ * server. For every job, the server answers with exactly one line of the form
+ *
+ * <pre>
+ * ULTIMATE-JOB id=1 status=OK result=CORRECT time_ms=812 peak_heap_bytes=123456 heap_after_bytes=45678
+ * </pre>
+ *
+ * where status is OK or ERROR and an ERROR line contains a message instead of a result. Requests are read either from
+ * an input stream (usually stdin) or from connections to a local socket; connections are served one after another.
+ * Responses are written to a stream that only contains responses (e.g., a named pipe or the socket), because the log
+ * of Ultimate is written to stdout.
+ *
+ */
+public class JobServer {
+
+	public static final String RESPONSE_PREFIX = "ULTIMATE-JOB";
+	private static final String EXIT_COMMAND = "exit";
+
+	private final ILogger mLogger;
+	private final IJobRunner mJobRunner;
+	private final List<MemoryPoolMXBean> mHeapPools;
+	private int mJobCounter;
+	private boolean mExitRequested;
+
+	/**
+	 * Executes a single job.
+	 */
+	@FunctionalInterface
+	public interface IJobRunner {
+		/**
+		 * @param args
+		 *            the command line arguments of the job.
+		 * @return a short description of the result of the job.
+		 */
+		String run(String[] args) throws Exception;
+	}
+
+	public JobServer(final ILogger logger, final IJobRunner jobRunner) {
+		mLogger = logger;
+		mJobRunner = jobRunner;
+		mHeapPools = ManagementFactory.getMemoryPoolMXBeans().stream().filter(a -> a.getType() == MemoryType.HEAP)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Serve requests from an input stream until the stream ends or exit is requested.
+	 */
+	public void serve(final InputStream input, final OutputStream output) throws IOException {
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+		final PrintWriter writer = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), true);
+		mLogger.info("Waiting for jobs");
+		String line;
+		while (!mExitRequested && (line = reader.readLine()) != null) {
+			final String request = line.trim();
+			if (request.isEmpty()) {
+				continue;
+			}
+			if (EXIT_COMMAND.equals(request)) {
+				mExitRequested = true;
+				break;
+			}
+			writer.println(runJob(request));
+		}
+	}
+
+	/**
+	 * Serve requests from connections to a socket on the loopback interface until exit is requested.
+	 */
+	public void serve(final int port) throws IOException {
+		try (final ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+			mLogger.info("Listening for jobs on " + serverSocket.getLocalSocketAddress());
+			while (!mExitRequested) {
+				try (final Socket socket = serverSocket.accept()) {
+					serve(socket.getInputStream(), socket.getOutputStream());
+				} catch (final IOException e) {
+					mLogger.warn("Connection failed: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	private String runJob(final String request) {
+		final int id = ++mJobCounter;
+		final String[] args = tokenize(request);
+		mLogger.info("Starting job " + id + ": " + request);
+		mHeapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+		final long start = System.nanoTime();
+		String status;
+		String result;
+		try {
+			result = "result=" + mJobRunner.run(args);
+			status = "OK";
+		} catch (@SuppressWarnings("squid:S2142") final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			mExitRequested = true;
+			status = "ERROR";
+			result = "message=" + quote("interrupted");
+		} catch (final Exception e) {
+			mLogger.error("Job " + id + " failed", e);
+			status = "ERROR";
+			result = "message=" + quote(String.valueOf(e.getMessage()));
+		}
+		final long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		final long peakHeap = mHeapPools.stream().mapToLong(a -> a.getPeakUsage().getUsed()).sum();
+		final long heapAfter = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+		final String response = RESPONSE_PREFIX + " id=" + id + " status=" + status + " " + result + " time_ms=" + time
+				+ " peak_heap_bytes=" + peakHeap + " heap_after_bytes=" + heapAfter;
+		mLogger.info(response);
+		return response;
+	}
+
+	private static String quote(final String message) {
+		return '"' + message.replace('"', '\'').replace('\n', ' ').replace('\r', ' ') + '"';
+	}
+
+	/**
+	 * Split a request line at whitespace that is not enclosed in double quotes. A backslash followed by a double quote
+	 * or a backslash stands for the second character; other backslashes (e.g., in Windows paths) are kept.
+	 */
+	static String[] tokenize(final String request) {
+		final List<String> tokens = new ArrayList<>();
+		final StringBuilder current = new StringBuilder();
+		boolean inQuotes = false;
+		boolean hasToken = false;
+		boolean escaped = false;
+		for (int i = 0; i < request.length(); i++) {
+			final char c = request.charAt(i);
+			if (escaped) {
+				escaped = false;
+				if (c == '"' || c == '\\') {
+					current.append(c);
+					continue;
+				}
+				// the backslash does not escape anything
+				current.append('\\');
+			}
+			if (c == '\\') {
+				escaped = true;
+				hasToken = true;
+			} else if (c == '"') {
+				inQuotes = !inQuotes;
+				hasToken = true;
+			} else if (Character.isWhitespace(c) && !inQuotes) {
+				if (hasToken) {
+					tokens.add(current.toString());
+					current.setLength(0);
+					hasToken = false;
+				}
+			} else {
+				current.append(c);
+				hasToken = true;
+			}
+		}
+		if (escaped) {
+			current.append('\\');
+		}
+		if (hasToken) {
+			tokens.add(current.toString());
+		}
+		return tokens.toArray(new String[tokens.size()]);
+	}
+}
@@ -101,6 +101,31 @@ public class ParsedParameter {
 		return mCli.hasOption(CommandLineOptions.OPTION_LONG_NAME_VERSION);
 	}
 
+	public boolean isServerRequested() {
+		return mCli.hasOption(CommandLineOptions.OPTION_LONG_NAME_SERVER);
+	}
+
+	/**
+	 * @return the port on which the server should listen, or null if it should read jobs from stdin.
+	 */
+	public Integer getServerPort() throws ParseException {
+		final Number port = getParsedOption(CommandLineOptions.OPTION_LONG_NAME_SERVER);
+		if (port == null) {
+			return null;
+		}
+		if (port.longValue() < 0 || port.longValue() > 65535) {
+			throw new ParseException("Invalid port for " + CommandLineOptions.OPTION_LONG_NAME_SERVER + ": " + port);
+		}
+		return port.intValue();
+	}
+
+	/**
+	 * @return the file to which the server should write its answers, or null if none was specified.
+	 */
+	public File getServerOutput() throws ParseException {
+		return getParsedOption(CommandLineOptions.OPTION_LONG_NAME_SERVER_OUTPUT);
+	}
+
 	public boolean showExperimentals() {
 		return mCli.hasOption(CommandLineOptions.OPTION_LONG_NAME_EXPERIMENTAL);
 	}
@@ -50,6 +50,8 @@ public final class CommandLineOptions {
 	public static final String OPTION_LONG_NAME_EXPERIMENTAL = "experimental";
 	public static final String OPTION_LONG_NAME_CSV_DIR = "csv-dir";
 	public static final String OPTION_LONG_NAME_GENERATE_CSV = "generate-csv";
+	public static final String OPTION_LONG_NAME_SERVER = "server";
+	public static final String OPTION_LONG_NAME_SERVER_OUTPUT = "server-output";
 
 	private CommandLineOptions() {
 		// this is a utility class
@@ -92,6 +94,19 @@ public final class CommandLineOptions {
 		rtr.add(Option.builder().longOpt(OPTION_LONG_NAME_CSV_DIR).type(File.class)
 				.desc("Specify the path to a directory where the generated .csv files should be stored.").hasArg()
 				.argName("DIR").build());
+		rtr.add(Option.builder().longOpt(OPTION_LONG_NAME_SERVER).type(Number.class).hasArg().optionalArg(true)
+				.argName("PORT")
+				.desc("Keep Ultimate running and execute jobs. Each job is a line containing the command line "
+						+ "arguments for one run (toolchain, settings, input files). Jobs are read from stdin or, if a "
+						+ "port is given, from connections to this port on the loopback interface. For each job, "
+						+ "Ultimate answers with one line containing result, wall time, and memory usage. If jobs are "
+						+ "read from stdin, the answers are written to the file given by --"
+						+ OPTION_LONG_NAME_SERVER_OUTPUT + ".")
+				.build());
+		rtr.add(Option.builder().longOpt(OPTION_LONG_NAME_SERVER_OUTPUT).type(File.class)
+				.desc("Specify the file (e.g., a named pipe) to which the server writes its answers if it reads jobs "
+						+ "from stdin. The log is written to stdout and cannot be mixed with the answers.")
+				.hasArg().argName("FILE").build());
 		rtr.add(Option.builder(OPTION_NAME_HELP).longOpt("help").type(Boolean.class).build());
 		rtr.add(Option.builder().longOpt(OPTION_LONG_NAME_VERSION).type(Boolean.class).build());
 		rtr.add(Option.builder().longOpt(OPTION_LONG_NAME_EXPERIMENTAL).type(Boolean.class)
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE CLI plug-in.
+ *
+ * The ULTIMATE CLI plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE CLI plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE CLI plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE CLI plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE CLI plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.cli;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.cli.JobServer.IJobRunner;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Tests for {@link JobServer}: the splitting of request lines into arguments and the line based protocol.
+ */
+public class JobServerTest {
+
+	private static final Pattern RESPONSE = Pattern.compile(JobServer.RESPONSE_PREFIX
+			+ " id=(\\d+) status=(OK|ERROR) (result=.*|message=\"[^\"]*\") time_ms=\\d+ peak_heap_bytes=\\d+"
+			+ " heap_after_bytes=\\d+");
+
+	private ILogger mLogger;
+
+	@Before
+	public void setUp() {
+		mLogger = UltimateMocks.createUltimateServiceProviderMock().getLoggingService().getLogger(getClass());
+	}
+
+	@Test
+	public void tokenizeSplitsAtWhitespace() {
+		assertTokens("-tc Automizer.xml  -i\tfile.c ", "-tc", "Automizer.xml", "-i", "file.c");
+		assertTokens("   ");
+	}
+
+	@Test
+	public void tokenizeQuotes() {
+		assertTokens("-i \"my file.c\" -s \"\"", "-i", "my file.c", "-s", "");
+		// quotes do not end an argument
+		assertTokens("--dir=\"a b\"/\"c d\"", "--dir=a b/c d");
+	}
+
+	@Test
+	public void tokenizeEscapes() {
+		assertTokens("\\\"a\\\" \"b \\\" c\" d\\\\", "\"a\"", "b \" c", "d\\");
+		assertTokens("\"a\\\\\" b", "a\\", "b");
+	}
+
+	@Test
+	public void tokenizeKeepsOtherBackslashes() {
+		assertTokens("-i C:\\dir\\file.c \"C:\\my dir\\x.c\"", "-i", "C:\\dir\\file.c", "C:\\my dir\\x.c");
+		assertTokens("a\\", "a\\");
+	}
+
+	@Test
+	public void responsesForEveryJob() throws IOException {
+		final List<List<String>> jobs = new ArrayList<>();
+		final List<String> responses = serve(args -> {
+			jobs.add(Arrays.asList(args));
+			if (args.length == 0 || !"ok".equals(args[0])) {
+				throw new IllegalArgumentException("bad \"argument\"\nin " + args[0]);
+			}
+			return "CORRECT";
+		}, "ok -i \"a b.c\"\n\n   \nfail x\nok\n");
+
+		Assert.assertEquals(Arrays.asList(Arrays.asList("ok", "-i", "a b.c"), Arrays.asList("fail", "x"),
+				Arrays.asList("ok")), jobs);
+		Assert.assertEquals(3, responses.size());
+		assertResponse(responses.get(0), 1, "OK", "result=CORRECT");
+		assertResponse(responses.get(1), 2, "ERROR", "message=\"bad 'argument' in fail\"");
+		assertResponse(responses.get(2), 3, "OK", "result=CORRECT");
+	}
+
+	@Test
+	public void exitStopsServer() throws IOException {
+		final List<String> jobs = new ArrayList<>();
+		final List<String> responses = serve(args -> {
+			jobs.add(args[0]);
+			return "CORRECT";
+		}, "first\n exit \nsecond\n");
+		Assert.assertEquals(Arrays.asList("first"), jobs);
+		Assert.assertEquals(1, responses.size());
+		assertResponse(responses.get(0), 1, "OK", "result=CORRECT");
+	}
+
+	@Test
+	public void interruptStopsServer() throws IOException {
+		final List<String> responses = serve(args -> {
+			throw new InterruptedException();
+		}, "first\nsecond\n");
+		// clear the interrupt flag that the server restored
+		Assert.assertTrue(Thread.interrupted());
+		Assert.assertEquals(1, responses.size());
+		assertResponse(responses.get(0), 1, "ERROR", "message=\"interrupted\"");
+	}
+
+	private List<String> serve(final IJobRunner runner, final String requests) throws IOException {
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		new JobServer(mLogger, runner).serve(new ByteArrayInputStream(requests.getBytes(StandardCharsets.UTF_8)),
+				output);
+		final String text = new String(output.toByteArray(), StandardCharsets.UTF_8);
+		return text.isEmpty() ? new ArrayList<>() : Arrays.asList(text.split("\\R"));
+	}
+
+	private static void assertResponse(final String response, final int id, final String status,
+			final String result) {
+		final Matcher matcher = RESPONSE.matcher(response);
+		Assert.assertTrue("not a response: " + response, matcher.matches());
+		Assert.assertEquals(String.valueOf(id), matcher.group(1));
+		Assert.assertEquals(status, matcher.group(2));
+		Assert.assertEquals(result, matcher.group(3));
+	}
+
+	private static void assertTokens(final String request, final String... expected) {
+		Assert.assertEquals(Arrays.asList(expected), Arrays.asList(JobServer.tokenize(request)));
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Test Library.
+ *
+ * The ULTIMATE Test Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Test Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Test Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Test Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Test Library grant you additional permission
+ * to convey the resulting work.
+ */
+
+package de.uni_freiburg.informatik.ultimate.ultimatetest.suites.traceabstraction;
+
+import java.util.Collection;
+
+import de.uni_freiburg.informatik.ultimate.test.UltimateTestCase;
+
+/**
+ * Runs Automizer with a lazy difference of the abstraction, once with the straight-line interpolant automaton and
+ * once with total interpolation, whose interpolant automaton builder needs the compacted abstraction.
+ */
+public class LazyDifferenceTest extends AbstractTraceAbstractionTestSuite {
+
+	private static final String[] mPrograms = {
+			"examples/programs/toy",
+	};
+
+	private static final String[] mSettings = {
+			"automizer/lazyDifference/LazyDifference.epf",
+			"automizer/lazyDifference/LazyDifference_TotalInterpolation.epf",
+	};
+
+	@Override
+	public long getTimeout() {
+		return 60 * 1000;
+	}
+
+	@Override
+	public Collection<UltimateTestCase> createTestCases() {
+		for (final String setting : mSettings) {
+			addTestCase("AutomizerBpl.xml", setting, mPrograms, new String[] { ".bpl" });
+		}
+		return super.createTestCases();
+	}
+}
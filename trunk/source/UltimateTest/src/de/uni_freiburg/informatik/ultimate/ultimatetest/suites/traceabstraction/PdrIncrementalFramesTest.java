@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2020 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Test Library.
+ *
+ * The ULTIMATE Test Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Test Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Test Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Test Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Test Library grant you additional permission
+ * to convey the resulting work.
+ */
+
+package de.uni_freiburg.informatik.ultimate.ultimatetest.suites.traceabstraction;
+
+import java.util.Collection;
+
+import de.uni_freiburg.informatik.ultimate.test.UltimateTestCase;
+
+/**
+ * Runs PDR with the incremental frame solver, also on bit-vector programs, for which the solver of the trace check
+ * is used or PDR falls back to separate queries.
+ */
+public class PdrIncrementalFramesTest extends AbstractTraceAbstractionTestSuite {
+
+	private static final String[] mPrograms = {
+			"examples/programs/Pdr",
+			"examples/programs/bitvector",
+	};
+
+	@Override
+	public long getTimeout() {
+		return 60 * 1000;
+	}
+
+	@Override
+	public Collection<UltimateTestCase> createTestCases() {
+		addTestCase("AutomizerBpl.xml", "Pdr/PdrIncrementalFrames.epf", mPrograms, new String[] { ".bpl" });
+		addTestCase("AutomizerC.xml", "Pdr/PdrIncrementalFrames-Bitvector.epf", mPrograms, new String[] { ".c", ".i" });
+		return super.createTestCases();
+	}
+}